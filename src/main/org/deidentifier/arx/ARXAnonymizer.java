@@ -25,6 +25,7 @@ import java.util.Set;
 
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.algorithm.AbstractAlgorithm;
+import org.deidentifier.arx.algorithm.BestFirstAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHStrategy;
 import org.deidentifier.arx.algorithm.LIGHTNINGAlgorithm;
@@ -83,6 +84,9 @@ public class ARXAnonymizer { // NO_UCD
         /** Whether the optimum has been found */
         final boolean               optimumFound;
 
+        /** Upper bound on the optimality gap, if known */
+        final Double                optimalityGap;
+
         /**
          * Creates a new instance.
          *
@@ -106,6 +110,7 @@ public class ARXAnonymizer { // NO_UCD
             this.time = time;
             this.optimum = algorithm.getGlobalOptimum();
             this.optimumFound = optimumFound;
+            this.optimalityGap = optimumFound ? Double.valueOf(0d) : algorithm.getOptimalityGap();
         }
 
         /**
@@ -134,7 +139,8 @@ public class ARXAnonymizer { // NO_UCD
                                  lattice,
                                  System.currentTimeMillis() - time,
                                  solutionSpace,
-                                 optimumFound);      
+                                 optimumFound,
+                                 optimalityGap);      
         }
     }
 
@@ -552,6 +558,9 @@ public class ARXAnonymizer { // NO_UCD
         if ((config.getSuppressionLimit() < 0d) || (config.getSuppressionLimit() > 1d)) { 
             throw new IllegalArgumentException("Suppression rate " + config.getSuppressionLimit() + "must be in [0, 1]"); 
         }
+        if (config.isParetoFrontierEnabled() && config.getHeuristicSearchOptimalityGap() > 0d) {
+            throw new IllegalArgumentException("An optimality gap must not be combined with a Pareto frontier");
+        }
         if ((genQis.size() + clusterQis.size()) == 0) { 
             throw new IllegalArgumentException("You need to specify at least one quasi-identifier with generalization"); 
         }
@@ -586,8 +595,12 @@ public class ARXAnonymizer { // NO_UCD
                                            final SolutionSpace solutionSpace,
                                            final TransformationChecker checker) {
         
-        if (config.isHeuristicSearchEnabled() || solutionSpace.getSize() > config.getHeuristicSearchThreshold()) {
-            return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit(), config.getHeuristicSearchStepLimit());
+        if (config.isBestFirstSearchEnabled() && !config.isParetoFrontierEnabled()) {
+            return BestFirstAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit(), config.getHeuristicSearchStepLimit(), config.getHeuristicSearchOptimalityGap());
+            
+        } else if (config.isHeuristicSearchEnabled() || config.isParetoFrontierEnabled() || config.getNumberOfTopTransformations() > 1 ||
+            solutionSpace.getSize() > config.getHeuristicSearchThreshold()) {
+            return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit(), config.getHeuristicSearchStepLimit(), config.getHeuristicSearchOptimalityGap());
             
         } else {
             FLASHStrategy strategy = new FLASHStrategy(solutionSpace, manager.getHierarchies());
@@ -641,18 +654,18 @@ public class ARXAnonymizer { // NO_UCD
 
         // Build or clean the lattice
         SolutionSpace solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        if (config.isParetoFrontierEnabled()) {
+            solutionSpace.setParetoFrontierEnabled();
+        }
+        if (config.getNumberOfTopTransformations() > 1) {
+            solutionSpace.setTopTransformationsEnabled(config.getNumberOfTopTransformations());
+        }
 
         // Initialize the metric
         config.getQualityModel().initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
 
         // Build a transformation checker
-        final TransformationChecker checker = new TransformationChecker(manager,
-                                                                        config.getQualityModel(),
-                                                                        config.getInternalConfiguration(),
-                                                                        historySize,
-                                                                        snapshotSizeDataset,
-                                                                        snapshotSizeSnapshot,
-                                                                        solutionSpace);
+        final TransformationChecker checker = getTransformationChecker(manager, config, solutionSpace);
 
         // Create an algorithm instance
         AbstractAlgorithm algorithm = getAlgorithm(config,
@@ -674,6 +687,27 @@ public class ARXAnonymizer { // NO_UCD
         return new Result(checker, solutionSpace, manager, algorithm, time, optimumFound);
     }
 
+    /**
+     * Creates a transformation checker
+     * 
+     * @param manager
+     * @param config
+     * @param solutionSpace
+     * @return
+     * @throws IOException
+     */
+    protected TransformationChecker getTransformationChecker(final DataManager manager,
+                                                             final ARXConfiguration config,
+                                                             final SolutionSpace solutionSpace) throws IOException {
+        return new TransformationChecker(manager,
+                                         config.getQualityModel(),
+                                         config.getInternalConfiguration(),
+                                         historySize,
+                                         snapshotSizeDataset,
+                                         snapshotSizeSnapshot,
+                                         solutionSpace);
+    }
+
     /**
      * Parses the settings provided by the given instance
      * @param anonymizer
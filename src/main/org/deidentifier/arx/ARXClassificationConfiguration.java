@@ -61,6 +61,8 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
     public static final int     DEFAULT_NUMBER_OF_FOLDS = 10;
     /** Default value */
     public static final int     DEFAULT_VECTOR_LENGTH   = 1000;
+    /** Default value */
+    public static final int     DEFAULT_MAX_RECORDS_EXACT_ROC = DEFAULT_MAX_RECORDS;
 
     /** Deterministic */
     private boolean             deterministic           = DEFAULT_DETERMINISTIC;
@@ -74,6 +76,8 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
     private int                 vectorLength            = DEFAULT_VECTOR_LENGTH;
     /** Modified */
     private boolean             modified                = false;
+    /** Max records for which ROC curves are computed exactly, may be null for instances of previous versions */
+    private Integer             maxRecordsExactROC      = DEFAULT_MAX_RECORDS_EXACT_ROC;
 
     /**
      * Creates a new instance with default settings
@@ -91,11 +95,25 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
      * @param vectorLength
      */
     protected ARXClassificationConfiguration(boolean deterministic, int maxRecords, int numberOfFolds, long seed, int vectorLength) {
+        this(deterministic, maxRecords, numberOfFolds, seed, vectorLength, DEFAULT_MAX_RECORDS_EXACT_ROC);
+    }
+
+    /**
+     * Clone constructor
+     * @param deterministic
+     * @param maxRecords
+     * @param numberOfFolds
+     * @param seed
+     * @param vectorLength
+     * @param maxRecordsExactROC
+     */
+    protected ARXClassificationConfiguration(boolean deterministic, int maxRecords, int numberOfFolds, long seed, int vectorLength, int maxRecordsExactROC) {
         this.deterministic = deterministic;
         this.maxRecords = maxRecords;
         this.numberOfFolds = numberOfFolds;
         this.seed = seed;
         this.vectorLength = vectorLength;
+        this.maxRecordsExactROC = maxRecordsExactROC;
     }
 
     @Override
@@ -108,6 +126,15 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         return maxRecords;
     }
 
+    /**
+     * Returns the maximal number of records for which ROC curves are computed exactly.
+     * For more records, the curves are approximated with a fixed number of bins.
+     * @return
+     */
+    public int getMaxRecordsExactROC() {
+        return maxRecordsExactROC != null ? maxRecordsExactROC : DEFAULT_MAX_RECORDS_EXACT_ROC;
+    }
+
     /**
      * @return the numberOfFolds
      */
@@ -155,6 +182,7 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         this.setNumFolds(config.numberOfFolds);
         this.setSeed((int)config.seed);
         this.setVectorLength(config.vectorLength);
+        this.setMaxRecordsExactROC(config.getMaxRecordsExactROC());
     }
     
     /**
@@ -186,6 +214,25 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         return (T)this;
     }
     
+    /**
+     * Sets the maximal number of records for which ROC curves are computed exactly.
+     * For more records, the curves are approximated with a fixed number of bins.
+     * The default equals the default maximal number of records considered.
+     * @param maxRecordsExactROC
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T setMaxRecordsExactROC(int maxRecordsExactROC) {
+        if (maxRecordsExactROC <= 0) {
+            throw new IllegalArgumentException("Must be >0");
+        }
+        if (this.getMaxRecordsExactROC() != maxRecordsExactROC) {
+            setModified();
+            this.maxRecordsExactROC = maxRecordsExactROC;
+        }
+        return (T)this;
+    }
+    
     /**
      * Sets modified
      */
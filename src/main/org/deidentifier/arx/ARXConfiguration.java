@@ -127,6 +127,22 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getMonotonicityOfUtility();
         }
 
+        /**
+         * Returns the number of anonymous transformations with the lowest information loss to return
+         * @return
+         */
+        public int getNumberOfTopTransformations() {
+            return config.getNumberOfTopTransformations();
+        }
+
+        /**
+         * Returns the size of the sample used for pre-screening transformations relative to the dataset
+         * @return
+         */
+        public double getPrescreeningSampleFraction() {
+            return config.getPrescreeningSampleFraction();
+        }
+
         /**
          * 
          *
@@ -199,6 +215,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getSuppressedAttributeTypes();
         }
 
+        /**
+         * Returns whether a Pareto frontier of anonymous transformations is tracked
+         * @return
+         */
+        public boolean isParetoFrontierEnabled() {
+            return config.isParetoFrontierEnabled();
+        }
+
         /**
          * Is practical monotonicity assumed.
          *
@@ -208,6 +232,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.isPracticalMonotonicity();
         }
 
+        /**
+         * Returns whether transformations are pre-screened on a sample
+         * @return
+         */
+        public boolean isPrescreeningEnabled() {
+            return config.isPrescreeningEnabled();
+        }
+
         /**
          * @param clazz
          * @return
@@ -369,12 +401,30 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given time limit */
     private Integer                            heuristicSearchStepLimit              = Integer.MAX_VALUE;
 
+    /** The heuristic algorithm will terminate when the optimality gap is below this threshold */
+    private Double                             heuristicSearchOptimalityGap          = 0d;
+
+    /** Should we use the best-first search algorithm? */
+    private Boolean                            bestFirstSearchEnabled                = false;
+
     /** Cost/benefit configuration */
     private ARXCostBenefitConfiguration        costBenefitConfiguration              = ARXCostBenefitConfiguration.create();
 
     /** Number of output records */
     private int                                numOutputRecords                      = 0;
 
+    /** Should we track a Pareto frontier of quality, suppression and risk? */
+    private Boolean                            paretoFrontierEnabled                 = false;
+
+    /** Number of anonymous transformations with the lowest information loss to return */
+    private Integer                            numberOfTopTransformations            = 1;
+
+    /** Should transformations be pre-screened on a sample? */
+    private Boolean                            prescreeningEnabled                   = false;
+
+    /** Size of the sample used for pre-screening relative to the dataset */
+    private Double                             prescreeningSampleFraction            = 0.05d;
+
     /**
      * Creates a new configuration without tuple suppression.
      */
@@ -501,6 +551,12 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.heuristicSearchOptimalityGap = this.heuristicSearchOptimalityGap;
+        result.bestFirstSearchEnabled = this.bestFirstSearchEnabled;
+        result.paretoFrontierEnabled = this.paretoFrontierEnabled;
+        result.numberOfTopTransformations = this.numberOfTopTransformations;
+        result.prescreeningEnabled = this.prescreeningEnabled;
+        result.prescreeningSampleFraction = this.prescreeningSampleFraction;
         result.costBenefitConfiguration = this.getCostBenefitConfiguration().clone();
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
@@ -552,6 +608,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.costBenefitConfiguration;
     }
     
+    /**
+     * The heuristic search algorithm will terminate as soon as it can guarantee that the optimality gap
+     * of the best solution found is below the returned threshold. The default is 0, i.e. no early termination.
+     * @return
+     */
+    public double getHeuristicSearchOptimalityGap() {
+        if (this.heuristicSearchOptimalityGap == null) {
+            this.heuristicSearchOptimalityGap = 0d;
+        }
+        return this.heuristicSearchOptimalityGap;
+    }
+    
     /**
      * The heuristic search algorithm will terminate after the returned number of transformations
      * have been checked. The default is <code>Integer.MAX_VALUE</code>, i.e. no limit.
@@ -652,6 +720,30 @@ public class ARXConfiguration implements Serializable, Cloneable {
         }
     }
 
+    /**
+     * Returns the number of anonymous transformations with the lowest information loss
+     * which ARX will return. The default is 1.
+     * @return
+     */
+    public int getNumberOfTopTransformations() {
+        if (this.numberOfTopTransformations == null) {
+            this.numberOfTopTransformations = 1;
+        }
+        return this.numberOfTopTransformations;
+    }
+
+    /**
+     * Returns the size of the sample used for pre-screening transformations relative to
+     * the size of the dataset. The default is 0.05.
+     * @return
+     */
+    public double getPrescreeningSampleFraction() {
+        if (this.prescreeningSampleFraction == null) {
+            this.prescreeningSampleFraction = 0.05d;
+        }
+        return this.prescreeningSampleFraction;
+    }
+
     /**
      * Returns an instance of the class, if any. Throws an exception if more than one such model exists.
      *
@@ -771,6 +863,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         }
         return (suppressedAttributeTypes & (1 << type.getType())) != 0;
     }
+
+    /**
+     * Returns whether ARX will use the best-first search algorithm. The default is false.
+     * @return
+     */
+    public boolean isBestFirstSearchEnabled() {
+        if (this.bestFirstSearchEnabled == null) {
+            this.bestFirstSearchEnabled = false;
+        }
+        return this.bestFirstSearchEnabled;
+    }
     
     /**
      * Returns whether ARX will use a heuristic search strategy. The default is false.
@@ -780,6 +883,19 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchEnabled;
     }
     
+    /**
+     * Returns whether ARX will track the Pareto frontier of all anonymous transformations checked with
+     * respect to the quality model, the number of suppressed records and the highest re-identification
+     * risk. The default is false.
+     * @return
+     */
+    public boolean isParetoFrontierEnabled() {
+        if (this.paretoFrontierEnabled == null) {
+            this.paretoFrontierEnabled = false;
+        }
+        return this.paretoFrontierEnabled;
+    }
+
     /**
      * Is practical monotonicity assumed.
      *
@@ -788,6 +904,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
     public boolean isPracticalMonotonicity() {
         return practicalMonotonicity;
     }
+
+    /**
+     * Returns whether transformations will be pre-screened on a sample of the dataset. The default is false.
+     * @return
+     */
+    public boolean isPrescreeningEnabled() {
+        if (this.prescreeningEnabled == null) {
+            this.prescreeningEnabled = false;
+        }
+        return this.prescreeningEnabled;
+    }
     
     /**
      * Returns whether the configuration contains a privacy model which is an instance of the given class.
@@ -896,6 +1023,20 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.attributeWeights.put(attribute, weight);
     }
 
+    /**
+     * Sets whether ARX will use a best-first branch-and-bound algorithm, which expands transformations
+     * in the order of lower bounds on their information loss and prunes transformations whose bounds
+     * are not better than the current optimum. The algorithm terminates after the time and step limits
+     * defined for heuristic search and always returns the best solution found so far. If it terminates
+     * before the limits have been reached, the solution is optimal. If heuristic search is enabled as
+     * well, the best-first algorithm is used instead of the heuristic search algorithm. This setting is
+     * ignored when a Pareto frontier is tracked. The default is false.
+     * @param bestFirstSearchEnabled
+     */
+    public void setBestFirstSearchEnabled(boolean bestFirstSearchEnabled) {
+        this.bestFirstSearchEnabled = bestFirstSearchEnabled;
+    }
+
     /**
      * Sets the cost/benefit configuration
      * @param config
@@ -909,7 +1050,8 @@ public class ARXConfiguration implements Serializable, Cloneable {
     }
 
     /**
-     * Sets whether ARX will use a heuristic search strategy. The default is false.
+     * Sets whether ARX will use a heuristic search strategy. This setting has no effect if
+     * best-first search is enabled. The default is false.
      * @param heuristicSearchEnabled
      * @return
      */
@@ -917,6 +1059,20 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchEnabled = heuristicSearchEnabled;
     }
 
+    /**
+     * The heuristic search algorithm and the best-first search algorithm will terminate as soon as they
+     * can guarantee that the optimality gap of the best solution found is below the given threshold. The
+     * gap is the distance between the quality of the solution and the quality of the global optimum, relative
+     * to the distance between the quality of the solution and the lowest possible score. Gaps can only be
+     * guaranteed for quality models which provide lower bounds. A threshold cannot be combined with
+     * tracking a Pareto frontier. The default is 0, i.e. no early termination.
+     * @param gap A value in [0, 1]
+     */
+    public void setHeuristicSearchOptimalityGap(double gap) {
+        if (gap < 0d || gap > 1d) { throw new IllegalArgumentException("Parameter must be >= 0 and <= 1"); }
+        this.heuristicSearchOptimalityGap = gap;
+    }
+
     /**
      * The heuristic search algorithm will terminate after the given number of transformations
      * have been checked. The default is <code>Integer.MAX_VALUE</code>, i.e. no limit.
@@ -959,6 +1115,31 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.relMaxOutliers = max;
     }
 
+    /**
+     * Sets the number of anonymous transformations with the lowest information loss which ARX
+     * will return. If greater than one, the heuristic search algorithm is used, which then only
+     * prunes transformations which cannot be better than the worst of the current best transformations,
+     * and the limits of the heuristic search apply. The transformations are available via
+     * {@link ARXResult#getTopTransformations()}. The default is 1.
+     * @param numberOfTransformations
+     */
+    public void setNumberOfTopTransformations(int numberOfTransformations) {
+        if (numberOfTransformations <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numberOfTopTransformations = numberOfTransformations;
+    }
+
+    /**
+     * Sets whether ARX will track the Pareto frontier of all anonymous transformations checked with
+     * respect to the quality model, the number of suppressed records and the highest re-identification
+     * risk. If enabled, the heuristic search algorithm is used, which then only prunes transformations
+     * that are dominated by the frontier, and the limits of the heuristic search apply. The frontier
+     * is available via {@link ARXResult#getParetoFrontier()}. The default is false.
+     * @param paretoFrontierEnabled
+     */
+    public void setParetoFrontierEnabled(boolean paretoFrontierEnabled) {
+        this.paretoFrontierEnabled = paretoFrontierEnabled;
+    }
+
     /**
      * Set, if practical monotonicity assumed.
      *
@@ -967,6 +1148,29 @@ public class ARXConfiguration implements Serializable, Cloneable {
     public void setPracticalMonotonicity(final boolean assumeMonotonicity) {
         this.practicalMonotonicity = assumeMonotonicity;
     }
+
+    /**
+     * Sets whether transformations will be pre-screened on a stratified sample of the dataset.
+     * Transformations which are likely not anonymous are tagged and the search algorithm uses
+     * the tags to determine the order in which transformations are checked. The result of the
+     * search is not affected, as privacy models are only ever evaluated on the complete dataset.
+     * Pre-screening is only performed for privacy models which define a minimal class size and
+     * which do not define a research subset. The default is false.
+     * @param prescreeningEnabled
+     */
+    public void setPrescreeningEnabled(boolean prescreeningEnabled) {
+        this.prescreeningEnabled = prescreeningEnabled;
+    }
+
+    /**
+     * Sets the size of the sample used for pre-screening transformations relative to
+     * the size of the dataset. The default is 0.05.
+     * @param fraction
+     */
+    public void setPrescreeningSampleFraction(double fraction) {
+        if (fraction <= 0d || fraction > 1d) { throw new IllegalArgumentException("Parameter must be > 0 and <= 1"); }
+        this.prescreeningSampleFraction = fraction;
+    }
     
     /**
      * Sets the quality model to be used for optimizing output data.
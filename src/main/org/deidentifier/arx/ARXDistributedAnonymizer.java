@@ -0,0 +1,313 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.TransformedData;
+import org.deidentifier.arx.framework.check.distributed.DistributedCoordinator;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+
+/**
+ * An anonymizer for datasets which are split into several shards, each of which is stored in a
+ * CSV file with a common header. Each shard is loaded by a local worker process, which only reports
+ * the distinct combinations of values of quasi-identifiers in its shard together with their
+ * frequencies. The coordinator merges these summaries and drives the search as usual, while the
+ * workers compute partial equivalence classes for the transformations requested by the search
+ * algorithm. Finally, the workers write their shards transformed with the optimal transformation.
+ * Results are identical to the results of the ARXAnonymizer for the concatenation of all shards.<br>
+ * <br>
+ * Workers communicate with the coordinator via pipes. By default, they are started with the Java
+ * executable and the class path of the current JVM. Only privacy models which require nothing but
+ * the sizes of equivalence classes are supported. Sensitive attributes, microaggregation, response
+ * variables and research subsets are not supported.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXDistributedAnonymizer extends ARXAnonymizer {
+
+    /** The Java executable used for starting workers */
+    private String                 javaCommand = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+
+    /** The class path of the workers */
+    private String                 classPath   = System.getProperty("java.class.path");
+
+    /** Additional arguments for the JVMs of the workers */
+    private String[]               jvmOptions  = new String[0];
+
+    /** The current coordinator, if any */
+    private DistributedCoordinator coordinator = null;
+
+    /**
+     * Creates a new anonymizer, which starts workers with the Java executable
+     * and the class path of the current JVM
+     */
+    public ARXDistributedAnonymizer() {
+        // Empty by design
+    }
+
+    /**
+     * Creates a new anonymizer, which starts workers with the given Java executable and class path
+     *
+     * @param javaCommand
+     * @param classPath
+     */
+    public ARXDistributedAnonymizer(String javaCommand, String classPath) {
+        this.setJavaCommand(javaCommand);
+        this.setClassPath(classPath);
+    }
+
+    /**
+     * Anonymizes the dataset consisting of the given shards. One worker process is started for
+     * each shard. The anonymized shards are written to the given output files, if a solution has
+     * been found. Returns the optimal transformation, which is part of the solution space, or
+     * null if no solution has been found.
+     *
+     * @param input The shards, CSV files with a common header
+     * @param output The output files, one for each shard
+     * @param charset The charset of the CSV files
+     * @param delimiter The delimiter of the CSV files
+     * @param definition The definition of the attributes, including hierarchies for all quasi-identifiers
+     * @param config The privacy config
+     * @return The optimal transformation, if any
+     * @throws IOException
+     */
+    public ARXNode anonymize(final File[] input,
+                             final File[] output,
+                             final Charset charset,
+                             final char delimiter,
+                             final DataDefinition definition,
+                             final ARXConfiguration config) throws IOException {
+
+        // Check
+        checkBeforeLoading(input, output, definition);
+
+        // Start workers
+        this.coordinator = new DistributedCoordinator(getWorkerCommand(), input, charset, delimiter);
+        try {
+
+            // Collect quasi-identifiers
+            String[] header = coordinator.getHeader();
+            Set<String> attributes = definition.getQuasiIdentifiersWithGeneralization();
+            List<Integer> indices = new ArrayList<Integer>();
+            for (int column = 0; column < header.length; column++) {
+                if (attributes.contains(header[column])) {
+                    indices.add(column);
+                }
+            }
+            if (indices.size() != attributes.size()) {
+                throw new IllegalArgumentException("Some quasi-identifiers are not contained in the dataset");
+            }
+            int[] columns = new int[indices.size()];
+            String[] qis = new String[indices.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = indices.get(i);
+                qis[i] = header[columns[i]];
+            }
+
+            // Load summaries and create manager
+            Dictionary dictionary = new Dictionary(columns.length);
+            DataMatrix data = coordinator.load(columns, dictionary);
+            DataManager manager = new DataManager(qis,
+                                                  data,
+                                                  dictionary,
+                                                  definition,
+                                                  config.getPrivacyModels(),
+                                                  new HashMap<String, DistributionAggregateFunction>(),
+                                                  config.getQualityModel());
+            coordinator.setHierarchies(manager.getHierarchies());
+
+            // Execute
+            Result result = anonymize(manager, definition, config);
+            ARXLattice lattice = new ARXLattice(result.solutionSpace,
+                                                result.optimum,
+                                                manager.getDataGeneralized().getHeader(),
+                                                config.getInternalConfiguration());
+
+            // Write output
+            if (result.optimum != null) {
+                boolean[] removed = new boolean[header.length];
+                boolean[] suppressed = new boolean[header.length];
+                for (int column = 0; column < header.length; column++) {
+                    if (attributes.contains(header[column])) {
+                        suppressed[column] = config.isAttributeTypeSuppressed(AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+                    } else if (definition.getInsensitiveAttributes().contains(header[column])) {
+                        suppressed[column] = config.isAttributeTypeSuppressed(AttributeType.INSENSITIVE_ATTRIBUTE);
+                    } else {
+                        removed[column] = true;
+                    }
+                }
+                TransformedData transformed = result.checker.getApplicator().applyTransformation(result.optimum);
+                coordinator.write(output,
+                                  result.optimum.getGeneralization(),
+                                  transformed.bufferGeneralized.getArray(),
+                                  manager.getDataGeneralized().getDictionary(),
+                                  removed,
+                                  suppressed);
+            }
+            return lattice.getOptimum();
+
+        } finally {
+            coordinator.close();
+            coordinator = null;
+        }
+    }
+
+    /**
+     * Returns the class path of the workers
+     * @return
+     */
+    public String getClassPath() {
+        return classPath;
+    }
+
+    /**
+     * Returns the Java executable used for starting workers
+     * @return
+     */
+    public String getJavaCommand() {
+        return javaCommand;
+    }
+
+    /**
+     * Returns additional arguments for the JVMs of the workers
+     * @return
+     */
+    public String[] getJvmOptions() {
+        return jvmOptions.clone();
+    }
+
+    /**
+     * Sets the class path of the workers. It must contain ARX and its dependencies.
+     * @param classPath
+     */
+    public void setClassPath(String classPath) {
+        if (classPath == null) {
+            throw new NullPointerException("Class path must not be null");
+        }
+        this.classPath = classPath;
+    }
+
+    /**
+     * Sets the Java executable used for starting workers
+     * @param javaCommand
+     */
+    public void setJavaCommand(String javaCommand) {
+        if (javaCommand == null) {
+            throw new NullPointerException("Java command must not be null");
+        }
+        this.javaCommand = javaCommand;
+    }
+
+    /**
+     * Sets additional arguments for the JVMs of the workers, e.g. "-Xmx4g"
+     * @param jvmOptions
+     */
+    public void setJvmOptions(String... jvmOptions) {
+        if (jvmOptions == null) {
+            throw new NullPointerException("Options must not be null");
+        }
+        this.jvmOptions = jvmOptions.clone();
+    }
+
+    /**
+     * Performs some sanity checks
+     * @param input
+     * @param output
+     * @param definition
+     */
+    private void checkBeforeLoading(File[] input, File[] output, DataDefinition definition) {
+        if (input == null || output == null || definition == null) {
+            throw new NullPointerException("Parameters must not be null");
+        }
+        if (input.length == 0 || input.length != output.length) {
+            throw new IllegalArgumentException("One output file is required for each of at least one input file");
+        }
+        if (!definition.getSensitiveAttributes().isEmpty()) {
+            throw new IllegalArgumentException("Distributed anonymization does not support sensitive attributes");
+        }
+        if (!definition.getQuasiIdentifiersWithMicroaggregation().isEmpty()) {
+            throw new IllegalArgumentException("Distributed anonymization does not support microaggregation");
+        }
+        if (!definition.getResponseVariables().isEmpty()) {
+            throw new IllegalArgumentException("Distributed anonymization does not support response variables");
+        }
+        if (definition.getQuasiIdentifiersWithGeneralization().isEmpty()) {
+            throw new IllegalArgumentException("You need to specify at least one quasi-identifier with generalization");
+        }
+        for (String attribute : definition.getQuasiIdentifiersWithGeneralization()) {
+            if (definition.getHierarchy(attribute) == null) {
+                throw new IllegalStateException("No hierarchy available for quasi-identifier (" + attribute + ")");
+            }
+        }
+    }
+
+    /**
+     * Returns the command for starting a worker, without the name of the worker class
+     * @return
+     */
+    private List<String> getWorkerCommand() {
+        List<String> command = new ArrayList<String>();
+        command.add(javaCommand);
+        command.addAll(Arrays.asList(jvmOptions));
+        command.add("-cp");
+        command.add(classPath);
+        return command;
+    }
+
+    @Override
+    protected TransformationChecker getTransformationChecker(final DataManager manager,
+                                                             final ARXConfiguration config,
+                                                             final SolutionSpace solutionSpace) throws IOException {
+
+        // Anonymization of a dataset which is not distributed
+        if (coordinator == null) {
+            return super.getTransformationChecker(manager, config, solutionSpace);
+        }
+
+        // Check
+        ARXConfigurationInternal internal = config.getInternalConfiguration();
+        if (internal.getRequirements() != ARXConfiguration.REQUIREMENT_COUNTER || internal.getSubset() != null) {
+            throw new IllegalArgumentException("Distributed anonymization is only supported for privacy models which require class sizes");
+        }
+
+        // Create checker
+        return new TransformationChecker(manager,
+                                         config.getQualityModel(),
+                                         internal,
+                                         getHistorySize(),
+                                         getMaximumSnapshotSizeDataset(),
+                                         getMaximumSnapshotSizeSnapshot(),
+                                         solutionSpace,
+                                         coordinator);
+    }
+}
@@ -1381,6 +1381,15 @@ public class ARXLattice implements Serializable {
         this.maximumInformationLoss = estimator.getGlobalMaximum();
     }
 
+    /**
+     * Returns the node with the given identifier, null if it has not been materialized
+     * @param identifier
+     * @return
+     */
+    protected ARXNode getNode(long identifier) {
+        return map == null ? null : map.get(identifier);
+    }
+
     /**
      * Returns the optimum, if any.
      *
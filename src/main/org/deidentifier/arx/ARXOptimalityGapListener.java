@@ -0,0 +1,38 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+/**
+ * A listener which is additionally notified about the optimality gap of heuristic search.
+ * The gap is an upper bound on the distance between the quality of the best solution found
+ * so far and the quality of the global optimum, relative to the distance between the best
+ * solution and the lowest possible score of the quality model.
+ *
+ * @author Fabian Prasser
+ */
+public interface ARXOptimalityGapListener extends ARXListener {
+
+    /**
+     * Reports an upper bound on the optimality gap in [0, 1]. A value of zero
+     * indicates that the best solution found so far is optimal.
+     *
+     * @param gap The optimality gap in [0, 1]
+     */
+    public void optimalityGap(double gap);
+
+}
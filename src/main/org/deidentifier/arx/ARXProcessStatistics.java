@@ -21,9 +21,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.criteria.ExplicitPrivacyCriterion;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.framework.check.distribution.DistributionResultCache;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.InformationLoss;
 import org.deidentifier.arx.metric.v2.QualityMetadata;
@@ -270,6 +274,12 @@ public class ARXProcessStatistics implements Serializable {
     /** Duration */
     private long              duration;
 
+    /** Checks of distributions restored from the history, which have been performed using the cache */
+    private long              distributionCacheLookups;
+
+    /** Checks of distributions answered from the cache */
+    private long              distributionCacheHits;
+
     /**
      * Clone constructor
      * @param other
@@ -279,6 +289,8 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotal = other.transformationsTotal;
         this.duration = other.duration;
         this.initialNumberOfRecords = other.initialNumberOfRecords;
+        this.distributionCacheLookups = other.distributionCacheLookups;
+        this.distributionCacheHits = other.distributionCacheHits;
         this.steps = new ArrayList<>();
         for (Step step : other.steps) {
             this.steps.add(step.clone());
@@ -294,12 +306,13 @@ public class ARXProcessStatistics implements Serializable {
 
     /**
      * Creates an instance for the global anonymization step
+     * @param config
      * @param lattice
      * @param optimum
      * @param isOptimal
      * @param duration
      */
-    protected ARXProcessStatistics(ARXLattice lattice, ARXNode optimum, boolean isOptimal, long duration) {
+    protected ARXProcessStatistics(ARXConfiguration config, ARXLattice lattice, ARXNode optimum, boolean isOptimal, long duration) {
         
         // Add step
         if (optimum != null) {
@@ -316,6 +329,9 @@ public class ARXProcessStatistics implements Serializable {
                 }
             }
         }
+        
+        // Collect cache statistics
+        this.collectCacheStatistics(config.getPrivacyModels());
     }
 
     /**
@@ -355,6 +371,9 @@ public class ARXProcessStatistics implements Serializable {
                 this.transformationsChecked++;
             }
         }
+        
+        // Collect cache statistics
+        this.collectCacheStatistics(result.checker.getConfiguration().getPrivacyModels());
     }
 
     @Override
@@ -362,6 +381,35 @@ public class ARXProcessStatistics implements Serializable {
         return new ARXProcessStatistics(this);
     }
     
+    /**
+     * Returns the fraction of checks of distributions of sensitive values which
+     * have been answered from the cache. Only distributions which have been restored
+     * from the history can be cached, and only checks of these are considered.
+     * Returns 0, if no such checks have been performed.
+     * @return
+     */
+    public double getDistributionCacheHitRate() {
+        return distributionCacheLookups == 0 ? 0d : (double) distributionCacheHits / (double) distributionCacheLookups;
+    }
+
+    /**
+     * Returns the number of checks of distributions of sensitive values which
+     * have been answered from the cache
+     * @return
+     */
+    public long getDistributionCacheHits() {
+        return this.distributionCacheHits;
+    }
+
+    /**
+     * Returns the number of checks of distributions of sensitive values which
+     * have been performed using the cache, i.e. of distributions restored from the history
+     * @return
+     */
+    public long getDistributionCacheLookups() {
+        return this.distributionCacheLookups;
+    }
+
     /**
      * Returns the duration of the process
      * @return
@@ -449,6 +497,22 @@ public class ARXProcessStatistics implements Serializable {
         return result;
     }
 
+    /**
+     * Collects statistics from the caches of the given privacy models
+     * @param criteria
+     */
+    private void collectCacheStatistics(Set<PrivacyCriterion> criteria) {
+        for (PrivacyCriterion criterion : criteria) {
+            if (criterion instanceof ExplicitPrivacyCriterion) {
+                DistributionResultCache cache = ((ExplicitPrivacyCriterion) criterion).getResultCache();
+                if (cache != null) {
+                    this.distributionCacheLookups += cache.getNumberOfLookups();
+                    this.distributionCacheHits += cache.getNumberOfHits();
+                }
+            }
+        }
+    }
+
     /**
      * Merges this instance with the other instance
      * @param stats
@@ -470,5 +534,7 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotal += stats.transformationsTotal;
         this.transformationsChecked += stats.transformationsChecked;
         this.duration += stats.duration;
+        this.distributionCacheLookups += stats.distributionCacheLookups;
+        this.distributionCacheHits += stats.distributionCacheHits;
     }
 }
\ No newline at end of file
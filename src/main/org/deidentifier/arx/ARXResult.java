@@ -19,12 +19,21 @@ package org.deidentifier.arx;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.common.SharedExecutor;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
 import org.deidentifier.arx.framework.check.TransformationApplicator;
 import org.deidentifier.arx.framework.check.TransformationChecker;
@@ -35,6 +44,7 @@ import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.TopTransformations;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.Metric;
 
@@ -85,6 +95,9 @@ public class ARXResult {
     /** Whether the optimum has been found */
     private final boolean                   optimumFound;
 
+    /** Upper bound on the optimality gap, if known */
+    private final Double                    optimalityGap;
+
     /** Optimization statistics */
     private final ARXProcessStatistics statistics;
 
@@ -161,8 +174,9 @@ public class ARXResult {
         this.lattice = lattice;
         this.optimalTransformation = lattice.getOptimum();
         this.solutionSpace = solutionSpace;
-        this.statistics = statistics != null ? statistics : new ARXProcessStatistics(lattice, optimalTransformation, lattice._legacySearchedWithFlash(), time);
+        this.statistics = statistics != null ? statistics : new ARXProcessStatistics(config, lattice, optimalTransformation, lattice._legacySearchedWithFlash(), time);
         this.optimumFound = this.statistics.isSolutationAvailable() ? this.statistics.getStep(0).isOptimal() : false;
+        this.optimalityGap = this.optimumFound ? Double.valueOf(0d) : null;
         this.duration = this.statistics.getDuration();
     }
     
@@ -179,6 +193,7 @@ public class ARXResult {
      * @param duration
      * @param solutionSpace
      * @param optimumFound
+     * @param optimalityGap
      */
     protected ARXResult(ARXAnonymizer anonymizer,
                         DataRegistry registry,
@@ -189,7 +204,8 @@ public class ARXResult {
                         ARXLattice lattice,
                         long duration,
                         SolutionSpace solutionSpace,
-                        boolean optimumFound) {
+                        boolean optimumFound,
+                        Double optimalityGap) {
 
         this.anonymizer = anonymizer;
         this.registry = registry;
@@ -202,7 +218,8 @@ public class ARXResult {
         this.duration = duration;
         this.solutionSpace = solutionSpace;
         this.optimumFound = optimumFound;
-        this.statistics = new ARXProcessStatistics(lattice, optimalTransformation, optimumFound, duration);
+        this.optimalityGap = optimalityGap;
+        this.statistics = new ARXProcessStatistics(config, lattice, optimalTransformation, optimumFound, duration);
     }
 
     /**
@@ -231,6 +248,28 @@ public class ARXResult {
         return optimalTransformation;
     }
     
+    /**
+     * Returns the Pareto frontier of all anonymous transformations which have been checked with respect
+     * to the quality model, the number of suppressed records and the highest re-identification risk,
+     * sorted by the value of the quality model. The list is empty, if tracking the frontier has not been
+     * enabled via {@link ARXConfiguration#setParetoFrontierEnabled(boolean)} or if the result has been loaded.
+     *
+     * @return
+     */
+    public List<ARXNode> getParetoFrontier() {
+        List<ARXNode> result = new ArrayList<ARXNode>();
+        if (solutionSpace == null || solutionSpace.getParetoFrontier() == null) {
+            return result;
+        }
+        for (long identifier : solutionSpace.getParetoFrontier().getTransformations()) {
+            ARXNode node = lattice.getNode(identifier);
+            if (node != null) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the lattice.
      *
@@ -240,6 +279,18 @@ public class ARXResult {
         return lattice;
     }
 
+    /**
+     * Returns an upper bound on the optimality gap of the best solution found, i.e. on the distance between
+     * its quality and the quality of the best transformation in the solution space, relative to the
+     * distance between its quality and the lowest possible score of the quality model. Returns zero,
+     * if the best solution found is the global optimum, and null, if no bound is known, e.g. because
+     * the quality model does not provide lower bounds or because a Pareto frontier has been tracked.
+     * @return
+     */
+    public Double getOptimalityGap() {
+        return this.optimalityGap;
+    }
+
     /**
      * Returns whether the global optimum has been found
      * @return
@@ -421,6 +472,28 @@ public class ARXResult {
     public long getTime() {
         return duration;
     }
+
+    /**
+     * Returns the anonymous transformations with the lowest information loss, which have been found
+     * during the search, sorted by information loss. Summaries allow comparing them without applying
+     * them to the data. The list is empty if not more than one transformation has been requested via
+     * {@link ARXConfiguration#setNumberOfTopTransformations(int)} or if the result has been loaded.
+     *
+     * @return
+     */
+    public List<ARXTransformationSummary> getTopTransformations() {
+        List<ARXTransformationSummary> result = new ArrayList<ARXTransformationSummary>();
+        if (solutionSpace == null || solutionSpace.getTopTransformations() == null) {
+            return result;
+        }
+        for (TopTransformations.Summary summary : solutionSpace.getTopTransformations().getTransformations()) {
+            ARXNode node = lattice.getNode(summary.identifier);
+            if (node != null) {
+                result.add(new ARXTransformationSummary(node, summary.suppressedRecords, summary.equivalenceClasses));
+            }
+        }
+        return result;
+    }
     
     /**
      * Returns whether local recoding can be applied to the given handle
@@ -579,6 +652,34 @@ public class ARXResult {
                                              double records,
                                              double gsFactor,
                                              ARXListener listener) throws RollbackRequiredException {
+        return optimizeFast(handle, records, gsFactor, 1, listener);
+    }
+    
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * The records which are currently suppressed are split into at most the given number of partitions,
+     * keeping records with the same value of the first quasi-identifier together. The partitions are
+     * recoded independently and in parallel, each with a fresh copy of the privacy models, and the
+     * results are merged back into the handle. Each partition on its own fulfills the privacy models,
+     * which is the same guarantee on which iterative local recoding is based. Fewer, larger partitions
+     * will typically result in more records being recoded.
+     * @param handle
+     * @param records A fraction [0,1] of records that need to be optimized.
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods.
+     * @param partitions The maximal number of partitions
+     * @param listener 
+     * @return The number of optimized records
+     */
+    public ARXProcessStatistics optimizeFast(DataHandle handle,
+                                             double records,
+                                             double gsFactor,
+                                             int partitions,
+                                             final ARXListener listener) throws RollbackRequiredException {
         
         // Check if null
         if (listener == null) {
@@ -600,6 +701,11 @@ public class ARXResult {
             throw new IllegalArgumentException("Generalization/suppression factor must be in [0, 1]");
         }
         
+        // Check bounds
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Number of partitions must be positive");
+        }
+        
         // Check if output
         if (!(handle instanceof DataHandleOutput)) {
             throw new IllegalArgumentException("Local recoding can only be applied to output data");
@@ -637,90 +743,155 @@ public class ARXResult {
         }
         initialRecords = baselineRecords - initialRecords;
         
+        // Partition the records
+        RowSet[] rowsets = getPartitions(rowset, partitions);
+        
         // Everything that is used from here on, needs to be either
         // (a) state-less, or
         // (b) a fresh copy of the original configuration.
+        final ARXConfiguration[] configs = new ARXConfiguration[rowsets.length];
+        final DataDefinition[] definitions = new DataDefinition[rowsets.length];
+        final DataManager[] managers = new DataManager[rowsets.length];
+        for (int partition = 0; partition < rowsets.length; partition++) {
 
-        // We start by creating a projected instance of the configuration
-        // - All privacy models will be cloned
-        // - Subsets will be projected accordingly
-        // - Utility measures will be cloned
-        ARXConfiguration config = this.config.getInstanceForLocalRecoding(rowset, gsFactor);
-        if (!Double.isNaN(records)) {
-            double absoluteRecords = records * baselineRecords;
-            double relativeRecords = absoluteRecords / (double)rowset.size();
-            relativeRecords = relativeRecords < 0d ? 0d : relativeRecords;
-            relativeRecords = relativeRecords > 1d ? 1d : relativeRecords;
-            config.setSuppressionLimit(1d - relativeRecords);
-        }
-        
-        // In the data definition, only microaggregation functions maintain a state, but these 
-        // are cloned, when cloning the definition
-        // TODO: This is probably not necessary, because they are used from the data manager,
-        //       which in turn creates a clone by itself
-        DataDefinition definition = this.definition.clone();
-        
-        // Clone the data manager
-        DataManager manager = this.manager.getSubsetInstance(rowset);
-        
-        // Create an anonymizer
-        ARXAnonymizer anonymizer = new ARXAnonymizer();
-        if (listener != null) {
-            anonymizer.setListener(listener);
-        }
-        if (this.anonymizer != null) {
-            anonymizer.parse(this.anonymizer);
+            // We start by creating a projected instance of the configuration
+            // - All privacy models will be cloned
+            // - Subsets will be projected accordingly
+            // - Utility measures will be cloned
+            configs[partition] = this.config.getInstanceForLocalRecoding(rowsets[partition], gsFactor);
+            if (!Double.isNaN(records)) {
+                double absoluteRecords = records * baselineRecords;
+                double relativeRecords = absoluteRecords / (double)rowset.size();
+                relativeRecords = relativeRecords < 0d ? 0d : relativeRecords;
+                relativeRecords = relativeRecords > 1d ? 1d : relativeRecords;
+                configs[partition].setSuppressionLimit(1d - relativeRecords);
+            }
+            
+            // In the data definition, only microaggregation functions maintain a state, but these 
+            // are cloned, when cloning the definition
+            // TODO: This is probably not necessary, because they are used from the data manager,
+            //       which in turn creates a clone by itself
+            definitions[partition] = this.definition.clone();
+            
+            // Clone the data manager
+            managers[partition] = this.manager.getSubsetInstance(rowsets[partition]);
         }
         
         // Anonymize
-        Result result = null;
-        try {
-            result = anonymizer.anonymize(manager, definition, config);
-        } catch (IOException e) {
-            // This should not happen at this point in time, as data has already been read from the source
-            throw new RuntimeException("Internal error: unexpected IO issue");
+        final Result[] results = new Result[rowsets.length];
+        if (rowsets.length == 1) {
+            results[0] = anonymize(managers[0], definitions[0], configs[0], listener);
+        } else {
+            final double[] progress = new double[rowsets.length];
+            SharedExecutor executor = new SharedExecutor();
+            try {
+                List<Future<?>> futures = new ArrayList<Future<?>>();
+                for (int partition = 0; partition < rowsets.length; partition++) {
+                    final int index = partition;
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            results[index] = anonymize(managers[index], definitions[index], configs[index], new ARXListener() {
+                                @Override
+                                public void progress(double value) {
+                                    synchronized (progress) {
+                                        progress[index] = value;
+                                        double total = 0d;
+                                        for (double _progress : progress) {
+                                            total += _progress;
+                                        }
+                                        listener.progress(total / (double)progress.length);
+                                    }
+                                }
+                            });
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                throw new ComputationInterruptedException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else {
+                    throw new IllegalStateException(e.getCause());
+                }
+            } finally {
+                executor.cancel();
+            }
         }
         
         // Break, if no solution has been found
-        if (result.optimum == null) {
+        boolean found = false;
+        for (Result result : results) {
+            found |= result.optimum != null;
+        }
+        if (!found) {
             return new ARXProcessStatistics();
         }
         
         // Else, merge the results back into the given handle
-        TransformedData data = result.checker.getApplicator().applyTransformation(result.optimum, output.getOutputBufferMicroaggregated().getDictionary());
-        int newIndex = -1;
+        Dictionary dictionary = output.getOutputBufferMicroaggregated().getDictionary();
         DataMatrix oldGeneralized = output.getOutputBufferGeneralized().getArray();
         DataMatrix oldMicroaggregated = output.getOutputBufferMicroaggregated().getArray();
-        DataMatrix newGeneralized = data.bufferGeneralized.getArray();
-        DataMatrix newMicroaggregated = data.bufferMicroaggregated.getArray();
         
         try {
             
-            int optimized = 0;
-            for (int oldIndex = 0; oldIndex < rowset.length(); oldIndex++) {
-                if (rowset.contains(oldIndex)) {
-                    newIndex++;
-                    if (oldGeneralized != null && oldGeneralized.getNumRows() != 0) {
-                        oldGeneralized.copyFrom(oldIndex, newGeneralized, newIndex);
-                        optimized += (newGeneralized.get(newIndex, 0) & Data.OUTLIER_MASK) != 0 ? 0 : 1;
-                    }
-                    if (oldMicroaggregated != null && oldMicroaggregated.getNumRows() != 0) {
-                        oldMicroaggregated.copyFrom(oldIndex, newMicroaggregated, newIndex);
+            int[] optimized = new int[results.length];
+            for (int partition = 0; partition < results.length; partition++) {
+                
+                // Skip partitions without a solution
+                Result result = results[partition];
+                if (result.optimum == null) {
+                    continue;
+                }
+                
+                // Apply transformation
+                TransformedData data = result.checker.getApplicator().applyTransformation(result.optimum, dictionary);
+                DataMatrix newGeneralized = data.bufferGeneralized.getArray();
+                DataMatrix newMicroaggregated = data.bufferMicroaggregated.getArray();
+                
+                // Copy records
+                int newIndex = -1;
+                RowSet _rowset = rowsets[partition];
+                for (int oldIndex = 0; oldIndex < _rowset.length(); oldIndex++) {
+                    if (_rowset.contains(oldIndex)) {
+                        newIndex++;
+                        if (oldGeneralized != null && oldGeneralized.getNumRows() != 0) {
+                            oldGeneralized.copyFrom(oldIndex, newGeneralized, newIndex);
+                            optimized[partition] += (newGeneralized.get(newIndex, 0) & Data.OUTLIER_MASK) != 0 ? 0 : 1;
+                        }
+                        if (oldMicroaggregated != null && oldMicroaggregated.getNumRows() != 0) {
+                            oldMicroaggregated.copyFrom(oldIndex, newMicroaggregated, newIndex);
+                        }
                     }
                 }
+                
+                // Update data types
+                output.updateDataTypes(result.optimum.getGeneralization());
+                
+                // Mark as optimized
+                if (optimized[partition] != 0) {
+                    output.setOptimized(true);
+                }
             }
             
-            // Update data types
-            output.updateDataTypes(result.optimum.getGeneralization());
+            // Invalidate cached analyses
+            output.incrementVersion();
             
-            // Mark as optimized
-            if (optimized != 0) {
-                output.setOptimized(true);
-            }
-            
-            // Done
+            // Done. The duration is only accounted for once, as partitions are processed in parallel
             time = System.currentTimeMillis() - time;
-            return new ARXProcessStatistics(result, initialRecords, optimized, time);
+            ARXProcessStatistics statistics = null;
+            for (int partition = 0; partition < results.length; partition++) {
+                if (results[partition].optimum != null) {
+                    ARXProcessStatistics _statistics = new ARXProcessStatistics(results[partition], initialRecords, optimized[partition], statistics == null ? time : 0L);
+                    statistics = statistics == null ? _statistics : statistics.merge(_statistics);
+                }
+            }
+            return statistics;
             
         // If anything happens in the above block, the operation needs to be rolled back, because
         // the buffer might be in an inconsistent state
@@ -882,6 +1053,30 @@ public class ARXResult {
                                                       double records,
                                                       double gsFactor,
                                                       final ARXListener listener) throws RollbackRequiredException {
+        return this.optimizeIterativeFast(handle, records, gsFactor, 1, listener);
+    }
+    
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * In each step, the records which are still suppressed are split into at most the given
+     * number of partitions, which are recoded in parallel.
+     * @param handle
+     * @param records A fraction [0,1] of records that need to be optimized in each step.
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods. 
+     * @param partitions The maximal number of partitions
+     * @param listener 
+     * @throws RollbackRequiredException 
+     */
+    public ARXProcessStatistics optimizeIterativeFast(final DataHandle handle,
+                                                      double records,
+                                                      double gsFactor,
+                                                      int partitions,
+                                                      final ARXListener listener) throws RollbackRequiredException {
         
         if (!Double.isNaN(gsFactor) && (gsFactor < 0d || gsFactor > 1d)) {
             throw new IllegalArgumentException("Generalization/suppression factor must be in [0, 1]");
@@ -889,6 +1084,9 @@ public class ARXResult {
         if (records < 0d || records > 1d) {
             throw new IllegalArgumentException("Number of records to optimize must be in [0, 1]");
         }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Number of partitions must be positive");
+        }
 
         // Prepare 
         int optimizedCurrent = Integer.MAX_VALUE;
@@ -912,7 +1110,7 @@ public class ARXResult {
             final double maxProgress = minProgress + records;
             
             // Perform individual optimization
-            ARXProcessStatistics _statistics = optimizeFast(handle, records, gsFactor, new ARXListener() {
+            ARXProcessStatistics _statistics = optimizeFast(handle, records, gsFactor, partitions, new ARXListener() {
                 @Override
                 public void progress(double progress) {
                     listener.progress(minProgress + progress * (maxProgress - minProgress));
@@ -920,7 +1118,9 @@ public class ARXResult {
             });
             optimizedCurrent = 0;
             if (_statistics.isSolutationAvailable()) {
-                optimizedCurrent = _statistics.getStep(0).getNumberOfRecordsTransformed();
+                for (int step = 0; step < _statistics.getNumberOfSteps(); step++) {
+                    optimizedCurrent += _statistics.getStep(step).getNumberOfRecordsTransformed();
+                }
                 statistics = statistics.merge(_statistics);
             }
             optimizedTotal += optimizedCurrent;
@@ -936,6 +1136,34 @@ public class ARXResult {
         return statistics;
     }
     
+    /**
+     * Anonymizes the given subset with a new anonymizer
+     * @param manager
+     * @param definition
+     * @param config
+     * @param listener
+     * @return
+     */
+    private Result anonymize(DataManager manager, DataDefinition definition, ARXConfiguration config, ARXListener listener) {
+        
+        // Create an anonymizer
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        if (listener != null) {
+            anonymizer.setListener(listener);
+        }
+        if (this.anonymizer != null) {
+            anonymizer.parse(this.anonymizer);
+        }
+        
+        // Anonymize
+        try {
+            return anonymizer.anonymize(manager, definition, config);
+        } catch (IOException e) {
+            // This should not happen at this point in time, as data has already been read from the source
+            throw new RuntimeException("Internal error: unexpected IO issue");
+        }
+    }
+
     /**
      * Returns a map of all microaggregation functions
      * @param definition
@@ -949,6 +1177,107 @@ public class ARXResult {
         return result;
     }
 
+    /**
+     * Splits the given rows into at most the given number of partitions. Rows with the same value
+     * of the first quasi-identifier are assigned to the same partition and partitions are balanced
+     * greedily, largest groups first. Partitions which contain fewer rows than the minimal size of
+     * an equivalence class are merged into the smallest other partition, because the privacy
+     * models could never be fulfilled for them on their own.
+     * @param rowset
+     * @param partitions
+     * @return
+     */
+    private RowSet[] getPartitions(RowSet rowset, int partitions) {
+        
+        // Check
+        Data input = this.manager.getDataGeneralized();
+        if (partitions == 1 || input.getArray().getNumColumns() == 0) {
+            return new RowSet[] { rowset };
+        }
+        
+        // Count rows per value
+        DataMatrix array = input.getArray();
+        final int[] counts = new int[input.getDictionary().getMapping()[0].length];
+        int distinct = 0;
+        for (int row = 0; row < rowset.length(); row++) {
+            if (rowset.contains(row)) {
+                distinct += counts[array.get(row, 0)]++ == 0 ? 1 : 0;
+            }
+        }
+        
+        // Sort values, largest groups first
+        Integer[] values = new Integer[distinct];
+        int index = 0;
+        for (int value = 0; value < counts.length; value++) {
+            if (counts[value] != 0) {
+                values[index++] = value;
+            }
+        }
+        Arrays.sort(values, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer arg0, Integer arg1) {
+                return Integer.compare(counts[arg1], counts[arg0]);
+            }
+        });
+        
+        // Assign each value to the partition with the fewest rows
+        int[] sizes = new int[Math.min(partitions, distinct)];
+        int[] assignment = new int[counts.length];
+        for (int value : values) {
+            int partition = 0;
+            for (int _partition = 1; _partition < sizes.length; _partition++) {
+                partition = sizes[_partition] < sizes[partition] ? _partition : partition;
+            }
+            assignment[value] = partition;
+            sizes[partition] += counts[value];
+        }
+        
+        // Merge partitions which are too small
+        int minimum = config.getMinimalGroupSize();
+        while (minimum != Integer.MAX_VALUE && sizes.length > 1) {
+            
+            // Find smallest and second smallest partition
+            int smallest = sizes[0] <= sizes[1] ? 0 : 1;
+            int target = 1 - smallest;
+            for (int partition = 2; partition < sizes.length; partition++) {
+                if (sizes[partition] < sizes[smallest]) {
+                    target = smallest;
+                    smallest = partition;
+                } else if (sizes[partition] < sizes[target]) {
+                    target = partition;
+                }
+            }
+            if (sizes[smallest] >= minimum) {
+                break;
+            }
+            
+            // Merge and remove the smallest partition
+            sizes[target] += sizes[smallest];
+            for (int value = 0; value < counts.length; value++) {
+                if (counts[value] != 0) {
+                    int partition = assignment[value] == smallest ? target : assignment[value];
+                    assignment[value] = partition > smallest ? partition - 1 : partition;
+                }
+            }
+            int[] _sizes = new int[sizes.length - 1];
+            System.arraycopy(sizes, 0, _sizes, 0, smallest);
+            System.arraycopy(sizes, smallest + 1, _sizes, smallest, _sizes.length - smallest);
+            sizes = _sizes;
+        }
+        
+        // Create partitions
+        RowSet[] result = new RowSet[sizes.length];
+        for (int partition = 0; partition < result.length; partition++) {
+            result[partition] = RowSet.create(rowset.length());
+        }
+        for (int row = 0; row < rowset.length(); row++) {
+            if (rowset.contains(row)) {
+                result[assignment[array.get(row, 0)]].add(row);
+            }
+        }
+        return result;
+    }
+
     /**
      * Releases the buffer.
      *
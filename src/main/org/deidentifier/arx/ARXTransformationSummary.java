@@ -0,0 +1,83 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A lightweight summary of an anonymous transformation, which has been collected during
+ * the search. It allows comparing transformations without applying them to the data.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXTransformationSummary {
+
+    /** The node */
+    private final ARXNode node;
+
+    /** Number of suppressed records */
+    private final int     suppressedRecords;
+
+    /** Number of equivalence classes */
+    private final int     equivalenceClasses;
+
+    /**
+     * Creates a new instance
+     * @param node
+     * @param suppressedRecords
+     * @param equivalenceClasses
+     */
+    ARXTransformationSummary(ARXNode node, int suppressedRecords, int equivalenceClasses) {
+        this.node = node;
+        this.suppressedRecords = suppressedRecords;
+        this.equivalenceClasses = equivalenceClasses;
+    }
+
+    /**
+     * Returns the information loss of the transformation
+     * @return
+     */
+    public InformationLoss<?> getInformationLoss() {
+        return node.getHighestScore();
+    }
+
+    /**
+     * Returns the node representing the transformation
+     * @return
+     */
+    public ARXNode getNode() {
+        return node;
+    }
+
+    /**
+     * Returns the number of equivalence classes, excluding suppressed records
+     * @return
+     */
+    public int getNumberOfEquivalenceClasses() {
+        return equivalenceClasses;
+    }
+
+    /**
+     * Returns the number of suppressed records
+     * @return
+     */
+    public int getNumberOfSuppressedRecords() {
+        return suppressedRecords;
+    }
+}
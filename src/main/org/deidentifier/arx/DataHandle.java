@@ -48,6 +48,7 @@ import org.deidentifier.arx.io.CSVDataOutput;
 import org.deidentifier.arx.io.CSVSyntax;
 import org.deidentifier.arx.risk.RiskEstimateBuilder;
 import org.deidentifier.arx.risk.RiskModelHistogram;
+import org.deidentifier.arx.risk.RiskModelHistogramCache;
 
 import cern.colt.Swapper;
 
@@ -87,6 +88,12 @@ public abstract class DataHandle {
 
     /** The current research subset. */
     protected DataHandle                   subset           = null;
+
+    /** The version of the data, incremented with every modification. */
+    private int                            version          = 0;
+
+    /** Cached risk analyses. */
+    private RiskModelHistogramCache        riskCache        = null;
     
     /**
      * Returns the name of the specified column.
@@ -937,6 +944,18 @@ public abstract class DataHandle {
         return registry;
     }
 
+    /**
+     * Returns the cache for risk analyses
+     *
+     * @return
+     */
+    protected synchronized RiskModelHistogramCache getRiskCache() {
+        if (riskCache == null) {
+            riskCache = new RiskModelHistogramCache();
+        }
+        return riskCache;
+    }
+
     /**
      * Returns the internal value identifier
      * @param column
@@ -945,6 +964,26 @@ public abstract class DataHandle {
      */
     protected abstract int getValueIdentifier(int column, String value);
 
+    /**
+     * Returns the version of the data, which is incremented with every modification
+     * of values or of outlier flags. The order of records is not reflected.
+     *
+     * @return
+     */
+    protected int getVersion() {
+        return version;
+    }
+
+    /**
+     * Increments the version of the data and releases cached analyses.
+     */
+    protected synchronized void incrementVersion() {
+        version++;
+        if (riskCache != null) {
+            riskCache.clear();
+        }
+    }
+
     /**
      * A negative integer, zero, or a positive integer as the first argument is
      * less than, equal to, or greater than the second. It uses the specified
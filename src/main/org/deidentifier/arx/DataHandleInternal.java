@@ -18,6 +18,7 @@
 package org.deidentifier.arx;
 
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.risk.RiskModelHistogramCache;
 
 /**
  * Wrapper class that provides information to StatisticsBuilder.
@@ -167,6 +168,14 @@ public class DataHandleInternal {
         return handle.getGeneralization(attribute);
     }
 
+    /**
+     * Returns the cache for risk analyses of the underlying handle
+     * @return
+     */
+    public RiskModelHistogramCache getRiskCache() {
+        return handle.getRiskCache();
+    }
+
     /**
      * Returns the underlying handle. This should rarely be used.
      * @return
@@ -234,6 +243,14 @@ public class DataHandleInternal {
         return this.handle.getValueIdentifier(column, value);
     }
     
+    /**
+     * Returns the version of the data, which is incremented with every modification
+     * @return
+     */
+    public int getVersion() {
+        return handle.getVersion();
+    }
+    
     /**
      * Returns the view
      * @return
@@ -219,6 +219,11 @@ public class DataHandleSubset extends DataHandle {
         return source.internalGetValue(this.subset.getArray()[row], col, ignoreSuppression);
     }
 
+    @Override
+    protected int getVersion() {
+        return super.getVersion() + source.getVersion();
+    }
+
     /**
      * Rebuild array representation of subset.
      */
@@ -67,6 +67,12 @@ class DataRegistry {
         if (!output.isEmpty()) {
             replaced |= output.values().iterator().next().internalReplace(column, original, replacement);
         }
+        if (replaced) {
+            input.incrementVersion();
+            for (DataHandleOutput handle : output.values()) {
+                handle.incrementVersion();
+            }
+        }
         return replaced;
     }
     
@@ -24,17 +24,23 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.deidentifier.arx.ARXClassificationConfiguration;
 import org.deidentifier.arx.ARXFeatureScaling;
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.aggregates.classification.ClassificationDataSpecification;
+import org.deidentifier.arx.aggregates.classification.ClassificationFeatureMatrix;
+import org.deidentifier.arx.aggregates.classification.ClassificationFeatureMetadata;
 import org.deidentifier.arx.aggregates.classification.ClassificationMethod;
 import org.deidentifier.arx.aggregates.classification.ClassificationResult;
 import org.deidentifier.arx.aggregates.classification.MultiClassLogisticRegression;
 import org.deidentifier.arx.aggregates.classification.MultiClassNaiveBayes;
 import org.deidentifier.arx.aggregates.classification.MultiClassRandomForest;
 import org.deidentifier.arx.aggregates.classification.MultiClassZeroR;
+import org.deidentifier.arx.common.SharedExecutor;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -65,6 +71,8 @@ public class StatisticsClassification {
         private final double[] falsePositive;
         /** AUC */
         private final double   AUC;
+        /** Maximal absolute error of the AUC */
+        private final double   AUCError;
         /** Sensitivity */
         private double         sensitivity;
         /** Specificity */
@@ -80,18 +88,23 @@ public class StatisticsClassification {
          * @param valueIndex
          * @param handle
          * @param handleIndex
+         * @param bins Number of bins into which confidences are aggregated, 0 for an exact curve
          */
         private ROCCurve(String value,
                          double[] confidences,
                          int numClasses,
                          int valueIndex,
                          DataHandleInternal handle,
-                         int handleIndex) {
+                         int handleIndex,
+                         int bins) {
             
             int numSamples = confidences.length / (numClasses + 1);
             int valueID = handle.getValueIdentifier(handleIndex, value); // Value in 1-vs-all
-            final boolean[] isPositive = new boolean[numSamples]; // isPositive[n]
-            final double[] confidence = new double[numSamples]; // confidence[n]
+            boolean exact = bins == 0;
+            final boolean[] isPositive = exact ? new boolean[numSamples] : null; // isPositive[n]
+            final double[] confidence = exact ? new double[numSamples] : null; // confidence[n]
+            int[] positivesPerBin = exact ? null : new int[bins];
+            int[] negativesPerBin = exact ? null : new int[bins];
 
             int positives = 0;
             int tp = 0;
@@ -107,9 +120,22 @@ public class StatisticsClassification {
                 
                 // Prepare
                 int index = (int)confidences[i];
-                isPositive[j] = (handle.getEncodedValue(index, handleIndex, true) == valueID);
-                confidence[j] = confidences[i + 1 + valueIndex];
-                positives += isPositive[j] ? 1 : 0;
+                boolean _isPositive = (handle.getEncodedValue(index, handleIndex, true) == valueID);
+                double _confidence = confidences[i + 1 + valueIndex];
+                positives += _isPositive ? 1 : 0;
+                
+                // Store or aggregate
+                if (exact) {
+                    isPositive[j] = _isPositive;
+                    confidence[j] = _confidence;
+                } else {
+                    int bin = Math.max(0, Math.min(bins - 1, (int)(_confidence * bins)));
+                    if (_isPositive) {
+                        positivesPerBin[bin]++;
+                    } else {
+                        negativesPerBin[bin]++;
+                    }
+                }
                 
                 // Determine predicted value
                 double max = Double.MIN_VALUE;
@@ -127,11 +153,11 @@ public class StatisticsClassification {
                 
                 // If the prediction was unambiguous 
                 if (maxIndex != -1) {
-                    tp += isPredictedPositive && isPositive[j] ? 1 : 0;
-                    tn += !isPredictedPositive && !isPositive[j] ? 1 : 0;
-                    fp += isPredictedPositive && !isPositive[j] ? 1 : 0;
-                    fn += !isPredictedPositive && isPositive[j] ? 1 : 0;
-                    brier += Math.pow(confidence[j] - (isPositive[j] ? 1 : 0), 2);
+                    tp += isPredictedPositive && _isPositive ? 1 : 0;
+                    tn += !isPredictedPositive && !_isPositive ? 1 : 0;
+                    fp += isPredictedPositive && !_isPositive ? 1 : 0;
+                    fn += !isPredictedPositive && _isPositive ? 1 : 0;
+                    brier += Math.pow(_confidence - (_isPositive ? 1 : 0), 2);
                 }
                 j++;
             }
@@ -141,37 +167,61 @@ public class StatisticsClassification {
             specificity = (double) tn / (fp + tn);
             brierScore = (double) brier / (double)numSamples;
             
-            // Sort by confidence
-            GenericSorting.mergeSort(0, isPositive.length, new IntComparator() {
-                @Override public int compare(int arg0, int arg1) {
-                    return Double.compare(confidence[arg0], confidence[arg1]);
-                }
-            }, new Swapper() {
-                @Override public void swap(int arg0, int arg1) {
-                    double temp = confidence[arg0];
-                    confidence[arg0] = confidence[arg1];
-                    confidence[arg1] = temp;
-                    boolean temp2 = isPositive[arg0];
-                    isPositive[arg0] = isPositive[arg1];
-                    isPositive[arg1] = temp2;
-                }
-            });
-            
-            // Initialize curve
-            truePositive = new double[numSamples];
-            falsePositive = new double[numSamples];
-            
             // Draw curve
             int negatives = numSamples - positives;
-            int x = 0;
-            int y = 0;
-            int offset=0;
-            for (int i = isPositive.length - 1; i >= 0; i--) {
-                x += isPositive[i] ? 0 : 1;
-                y += isPositive[i] ? 1 : 0;
-                falsePositive[offset] = (double)x/(double)(negatives);
-                truePositive[offset] = (double)y/(double)positives;
-                offset++;
+            if (exact) {
+                
+                // Sort by confidence
+                GenericSorting.mergeSort(0, isPositive.length, new IntComparator() {
+                    @Override public int compare(int arg0, int arg1) {
+                        return Double.compare(confidence[arg0], confidence[arg1]);
+                    }
+                }, new Swapper() {
+                    @Override public void swap(int arg0, int arg1) {
+                        double temp = confidence[arg0];
+                        confidence[arg0] = confidence[arg1];
+                        confidence[arg1] = temp;
+                        boolean temp2 = isPositive[arg0];
+                        isPositive[arg0] = isPositive[arg1];
+                        isPositive[arg1] = temp2;
+                    }
+                });
+            
+                // Initialize curve
+                truePositive = new double[numSamples];
+                falsePositive = new double[numSamples];
+            
+                // Draw
+                int x = 0;
+                int y = 0;
+                int offset=0;
+                for (int i = isPositive.length - 1; i >= 0; i--) {
+                    x += isPositive[i] ? 0 : 1;
+                    y += isPositive[i] ? 1 : 0;
+                    falsePositive[offset] = (double)x/(double)(negatives);
+                    truePositive[offset] = (double)y/(double)positives;
+                    offset++;
+                }
+                this.AUCError = 0d;
+            } else {
+                
+                // Initialize curve, starting at the origin
+                truePositive = new double[bins + 1];
+                falsePositive = new double[bins + 1];
+                
+                // Draw, with decreasing confidence
+                int x = 0;
+                int y = 0;
+                double error = 0d;
+                for (int bin = bins - 1; bin >= 0; bin--) {
+                    x += negativesPerBin[bin];
+                    y += positivesPerBin[bin];
+                    falsePositive[bins - bin] = (double)x/(double)(negatives);
+                    truePositive[bins - bin] = (double)y/(double)positives;
+                    // The exact curve is a staircase within the rectangle spanned by each bin
+                    error += (double)positivesPerBin[bin] * (double)negativesPerBin[bin];
+                }
+                this.AUCError = error / (2d * (double)positives * (double)negatives);
             }
 
             // Calculate AUC: trapezoidal rule
@@ -194,6 +244,15 @@ public class StatisticsClassification {
             return AUC;
         }
         
+        /**
+         * Returns an upper bound for the absolute error of the AUC. The AUC is exact,
+         * unless the curve has been computed from binned confidences.
+         * @return
+         */
+        public double getAUCError() {
+            return AUCError;
+        }
+        
         /**
          * Returns the Brier score.
          * @return
@@ -235,31 +294,102 @@ public class StatisticsClassification {
         }
     }
     
+    /**
+     * Results of one type of classifier for each sample, stored in order of folds. Aggregates
+     * are computed in this order, which makes them independent of the order of evaluation.
+     * 
+     * @author Fabian Prasser
+     */
+    private static class Results {
+
+        /** Confidences - (index, conf-1, ..., conf-numClasses), (index, conf-1, ..., numClasses), etc. */
+        private final double[] confidences;
+        /** Errors */
+        private final double[] errors;
+        /** Correct classifications */
+        private final double[] correct;
+        /** Number of classes */
+        private final int      numClasses;
+
+        /**
+         * Creates a new instance
+         * @param numSamples
+         * @param numClasses
+         */
+        private Results(int numSamples, int numClasses) {
+            this.confidences = new double[numSamples * (1 + numClasses)];
+            this.errors = new double[numSamples];
+            this.correct = new double[numSamples];
+            this.numClasses = numClasses;
+        }
+
+        /**
+         * Returns the accuracy
+         * @return
+         */
+        private double getAccuracy() {
+            double result = 0d;
+            for (double value : correct) {
+                result += value;
+            }
+            return result / (double) correct.length;
+        }
+
+        /**
+         * Returns the average error
+         * @return
+         */
+        private double getAverageError() {
+            double result = 0d;
+            for (double value : errors) {
+                result += value;
+            }
+            return result / (double) errors.length;
+        }
+
+        /**
+         * Stores a result
+         * @param sample
+         * @param index
+         * @param result
+         * @param actualValue
+         */
+        private void set(int sample, int index, ClassificationResult result, String actualValue) {
+            this.errors[sample] = result.error(actualValue);
+            this.correct[sample] = result.correct(actualValue) ? 1d : 0d;
+            int offset = sample * (numClasses + 1);
+            this.confidences[offset] = index;
+            double[] confidences = result.confidences();
+            System.arraycopy(confidences, 0, this.confidences, offset + 1, confidences.length);
+        }
+    }
+    
     /**
      * Returns the classification method for the given config
      * @param interrupt
      * @param specification
      * @param config
-     * @param inputHandle
      * @return
      */
     private static ClassificationMethod getClassifier(WrappedBoolean interrupt,
                                                       ClassificationDataSpecification specification,
-                                                      ARXClassificationConfiguration<?> config,
-                                                      DataHandleInternal inputHandle) {
+                                                      ARXClassificationConfiguration<?> config) {
         if (config instanceof ClassificationConfigurationLogisticRegression) {
-            return new MultiClassLogisticRegression(interrupt, specification, (ClassificationConfigurationLogisticRegression)config, inputHandle);
+            return new MultiClassLogisticRegression(interrupt, specification, (ClassificationConfigurationLogisticRegression)config);
         } else if (config instanceof ClassificationConfigurationNaiveBayes) {
             System.setProperty("smile.threads", "1");
-            return new MultiClassNaiveBayes(interrupt, specification, (ClassificationConfigurationNaiveBayes)config, inputHandle);
+            return new MultiClassNaiveBayes(interrupt, specification, (ClassificationConfigurationNaiveBayes)config);
         } else if (config instanceof ClassificationConfigurationRandomForest) {
             System.setProperty("smile.threads", "1");
-            return new MultiClassRandomForest(interrupt, specification, (ClassificationConfigurationRandomForest)config, inputHandle);
+            return new MultiClassRandomForest(interrupt, specification, (ClassificationConfigurationRandomForest)config);
         } else {
             throw new IllegalArgumentException("Unknown type of configuration");
         }
     }
     
+    /** Number of bins for ROC curves of samples which are too large for exact computation */
+    private static final int      ROC_NUM_BINS          = 1000;
+
     /** Interrupt flag */
     private final WrappedBoolean  interrupt;
     /** Interrupt flag */
@@ -340,120 +470,67 @@ public class StatisticsClassification {
         // Number of class values
         this.numClasses = specification.classMap.size();
         
+        // Encode features once for all folds and classifiers
+        ClassificationFeatureMatrix inputFeatures = new ClassificationFeatureMatrix(specification, inputHandle, inputHandle, outputHandle, interrupt);
+        ClassificationFeatureMatrix outputFeatures = null;
+        ClassificationFeatureMatrix outputFeaturesForClassification = null;
+        if (inputHandle != outputHandle) {
+            outputFeatures = new ClassificationFeatureMatrix(specification, outputHandle, outputHandle, outputHandle, interrupt);
+            outputFeaturesForClassification = outputFeatures;
+            for (ClassificationFeatureMetadata metadata : specification.featureMetadata) {
+                // Numeric attributes which have been microaggregated are classified based on input data
+                if (metadata.isNumericMicroaggregation()) {
+                    outputFeaturesForClassification = new ClassificationFeatureMatrix(specification, outputHandle, inputHandle, outputHandle, interrupt);
+                    break;
+                }
+            }
+        }
+        
         // Train and evaluate
         int k = numSamples > config.getNumFolds() ? config.getNumFolds() : numSamples;
         List<List<Integer>> folds = getFolds(inputHandle.getNumRows(), numSamples, k);
+        long[] seeds = getSeeds(folds.size(), config);
 
         // Track
-        int classifications = 0;
-        double total = 100d / ((double)numSamples * (double)folds.size());
-        double done = 0d;
+        int variants = inputHandle == outputHandle ? 1 : 2;
+        double total = 100d / ((double)numSamples * (double)folds.size() * (double)variants);
+        AtomicInteger done = new AtomicInteger();
         
-        // ROC
-        double[] inputConfidences = new double[numSamples * ( 1 + numClasses)];
-        double[] outputConfidences = (inputHandle == outputHandle) ? null : new double[numSamples * ( 1 + numClasses)];
-        double[] zerorConfidences = new double[numSamples * ( 1 + numClasses)];
-        int confidencesIndex = 0;
-                
-        // For each fold as a validation set
+        // Results, in order of folds
+        Results inputResults = new Results(numSamples, numClasses);
+        Results outputResults = (inputHandle == outputHandle) ? null : new Results(numSamples, numClasses);
+        Results zerorResults = new Results(numSamples, numClasses);
+        
+        // For each fold as a validation set, evaluate classifiers trained on input and output
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        int offset = 0;
         for (int evaluationFold = 0; evaluationFold < folds.size(); evaluationFold++) {
-            
-            // Create classifiers
-            ClassificationMethod inputClassifier = getClassifier(interrupt, specification, config, inputHandle);
-            ClassificationMethod inputZeroR = new MultiClassZeroR(interrupt, specification);
-            ClassificationMethod outputClassifier = null;
-            if (inputHandle != outputHandle) {
-                outputClassifier = getClassifier(interrupt, specification, config, inputHandle);
-            }
-            
-            // Try
-            try {
-                
-                // Train with all training sets
-                boolean trained = false;
-                for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
-                    if (trainingFold != evaluationFold) {                        
-                        for (int index : folds.get(trainingFold)) {
-                            checkInterrupt();
-                            inputClassifier.train(inputHandle, outputHandle, index);
-                            inputZeroR.train(inputHandle, outputHandle, index);
-                            if (outputClassifier != null && !outputHandle.isOutlier(index)) {
-                                outputClassifier.train(outputHandle, outputHandle, index);
-                                trained = true;
-                            }
-                            this.progress.value = (int)((++done) * total);
-                        }
-                    }
-                }
-                
-                // Close
-                inputClassifier.close();
-                inputZeroR.close();
-                if (outputClassifier != null && trained) {
-                    outputClassifier.close();
-                }
-                
-                // Now validate
-                for (int index : folds.get(evaluationFold)) {
-                    
-                    // Check
-                    checkInterrupt();
-                    
-                    // Classify
-                    ClassificationResult resultInput = inputClassifier.classify(inputHandle, index);
-                    ClassificationResult resultInputZR = inputZeroR.classify(inputHandle, index);
-                    ClassificationResult resultOutput = outputClassifier == null || !trained ? null : outputClassifier.classify(outputHandle, index);
-                    classifications++;
-                        
-                    // Correct result
-                    String actualValue = outputHandle.getValue(index, specification.classIndex, true);
-                        
-                    // Maintain data about ZeroR
-                    this.zeroRAverageError += resultInputZR.error(actualValue);
-                    this.zeroRAccuracy += resultInputZR.correct(actualValue) ? 1d : 0d;
-                    double[] confidences = resultInputZR.confidences();
-                    zerorConfidences[confidencesIndex] = index;
-                    System.arraycopy(confidences, 0, zerorConfidences, confidencesIndex + 1, confidences.length);
-
-                    // Maintain data about input-based classifier
-                    boolean correct = resultInput.correct(actualValue);
-                    this.originalAverageError += resultInput.error(actualValue);
-                    this.originalAccuracy += correct ? 1d : 0d;
-                    confidences = resultInput.confidences();
-                    inputConfidences[confidencesIndex] = index;
-                    System.arraycopy(confidences, 0, inputConfidences, confidencesIndex + 1, confidences.length);
-
-                    // Maintain data about output-based                     
-                    if (resultOutput != null) {
-                        correct = resultOutput.correct(actualValue);
-                        this.averageError += resultOutput.error(actualValue);
-                        this.accuracy += correct ? 1d : 0d;
-                        confidences = resultOutput.confidences();
-                        outputConfidences[confidencesIndex] = index;
-                        System.arraycopy(confidences, 0, outputConfidences, confidencesIndex + 1, confidences.length);
-                    }
-                        
-                    // Next
-                    confidencesIndex += numClasses + 1;
-                    
-                    this.progress.value = (int)((++done) * total);
-                }
-            } catch (Exception e) {
-                if (e instanceof ComputationInterruptedException) {
-                    throw e;
-                } else {
-                    throw new UnexpectedErrorException(e);
-                }
+            tasks.add(getTask(specification, config, outputHandle, inputFeatures, inputFeatures, folds, evaluationFold, offset, 
+                              seeds[evaluationFold], true, inputResults, zerorResults, done, total));
+            if (outputResults != null) {
+                tasks.add(getTask(specification, config, outputHandle, outputFeatures, outputFeaturesForClassification, folds, evaluationFold, offset, 
+                                  seeds[evaluationFold], false, outputResults, null, done, total));
             }
+            offset += folds.get(evaluationFold).size();
         }
+        execute(tasks);
+        int classifications = offset;
         
         // Maintain data about inputZR
-        this.zeroRAverageError /= (double)classifications;
-        this.zeroRAccuracy/= (double)classifications;
+        this.zeroRAverageError = zerorResults.getAverageError();
+        this.zeroRAccuracy = zerorResults.getAccuracy();
 
         // Maintain data about inputLR
-        this.originalAverageError /= (double)classifications;
-        this.originalAccuracy /= (double)classifications;
+        this.originalAverageError = inputResults.getAverageError();
+        this.originalAccuracy = inputResults.getAccuracy();
+        
+        // ROC
+        double[] zerorConfidences = zerorResults.confidences;
+        double[] inputConfidences = inputResults.confidences;
+        double[] outputConfidences = outputResults == null ? null : outputResults.confidences;
+        
+        // Aggregate confidences of large samples into bins
+        int bins = numSamples > config.getMaxRecordsExactROC() ? ROC_NUM_BINS : 0;
         
         // Initialize ROC curves for zeroR
         for (String attr : specification.classMap.keySet()) {
@@ -462,7 +539,8 @@ public class StatisticsClassification {
                                             numClasses,
                                             specification.classMap.get(attr),
                                             outputHandle,
-                                            specification.classIndex));
+                                            specification.classIndex,
+                                            bins));
         }
 
         // Initialize ROC curves on original data
@@ -472,7 +550,8 @@ public class StatisticsClassification {
                                                numClasses,
                                                specification.classMap.get(attr),
                                                outputHandle,
-                                               specification.classIndex));
+                                               specification.classIndex,
+                                               bins));
         }
         // Initialize ROC curves on anonymized data
         if (inputHandle != outputHandle) {
@@ -482,14 +561,15 @@ public class StatisticsClassification {
                                            numClasses,
                                            specification.classMap.get(attr),
                                            outputHandle,
-                                           specification.classIndex));
+                                           specification.classIndex,
+                                           bins));
             }
         }
 
         // Maintain data about outputLR                        
         if (inputHandle != outputHandle) {
-            this.averageError /= (double)classifications;
-            this.accuracy /= (double)classifications;
+            this.averageError = outputResults.getAverageError();
+            this.accuracy = outputResults.getAccuracy();
         } else {
             this.averageError = this.originalAverageError;
             this.accuracy = this.originalAccuracy;
@@ -636,6 +716,131 @@ public class StatisticsClassification {
         }
     }
 
+    /**
+     * Trains classifiers on all but the evaluation fold and classifies the records in the evaluation fold
+     * @param specification
+     * @param config
+     * @param outputHandle
+     * @param trainingFeatures Features used for training
+     * @param classificationFeatures Features used for classification
+     * @param folds
+     * @param evaluationFold
+     * @param offset Index of the first sample of the evaluation fold
+     * @param seed
+     * @param original Whether to train on input data, or on output data
+     * @param results
+     * @param zerorResults Results of ZeroR, which is only evaluated on input data
+     * @param done
+     * @param total
+     */
+    private void evaluate(ClassificationDataSpecification specification,
+                          ARXClassificationConfiguration<?> config,
+                          DataHandleInternal outputHandle,
+                          ClassificationFeatureMatrix trainingFeatures,
+                          ClassificationFeatureMatrix classificationFeatures,
+                          List<List<Integer>> folds,
+                          int evaluationFold,
+                          int offset,
+                          long seed,
+                          boolean original,
+                          Results results,
+                          Results zerorResults,
+                          AtomicInteger done,
+                          double total) {
+
+        // Seed randomized classifiers, which run on this thread
+        if (config.isDeterministic()) {
+            smile.math.Math.setSeed(seed);
+        }
+        
+        // Create classifiers
+        ClassificationMethod classifier = getClassifier(interrupt, specification, config);
+        ClassificationMethod zeroR = original ? new MultiClassZeroR(interrupt, specification) : null;
+        
+        // Try
+        try {
+            
+            // Train with all training sets
+            boolean trained = false;
+            for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
+                if (trainingFold != evaluationFold) {                        
+                    for (int index : folds.get(trainingFold)) {
+                        checkInterrupt();
+                        if (original) {
+                            classifier.train(trainingFeatures, index);
+                            zeroR.train(trainingFeatures, index);
+                            trained = true;
+                        } else if (!outputHandle.isOutlier(index)) {
+                            classifier.train(trainingFeatures, index);
+                            trained = true;
+                        }
+                        this.progress.value = (int)(done.incrementAndGet() * total);
+                    }
+                }
+            }
+            
+            // Close
+            if (original) {
+                classifier.close();
+                zeroR.close();
+            } else if (trained) {
+                classifier.close();
+            }
+            
+            // Now validate
+            int sample = offset;
+            for (int index : folds.get(evaluationFold)) {
+                
+                // Check
+                checkInterrupt();
+                
+                // Correct result
+                String actualValue = outputHandle.getValue(index, specification.classIndex, true);
+                
+                // Classify
+                if (original) {
+                    results.set(sample, index, classifier.classify(classificationFeatures, index), actualValue);
+                    zerorResults.set(sample, index, zeroR.classify(classificationFeatures, index), actualValue);
+                } else if (trained) {
+                    results.set(sample, index, classifier.classify(classificationFeatures, index), actualValue);
+                }
+                    
+                // Next
+                sample++;
+                this.progress.value = (int)(done.incrementAndGet() * total);
+            }
+        } catch (Exception e) {
+            if (e instanceof ComputationInterruptedException) {
+                throw (ComputationInterruptedException)e;
+            } else {
+                throw new UnexpectedErrorException(e);
+            }
+        }
+    }
+
+    /**
+     * Executes the given tasks concurrently
+     * @param tasks
+     */
+    private void execute(List<Callable<Void>> tasks) {
+        
+        // Execute and wait for all tasks
+        SharedExecutor executor = new SharedExecutor();
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new UnexpectedErrorException(e.getCause());
+            }
+        } finally {
+            executor.cancel();
+        }
+    }
+
     /**
      * Creates the folds
      * @param numRecords
@@ -700,4 +905,62 @@ public class StatisticsClassification {
         }
         return numSamples;
     }
+
+    /**
+     * Returns a seed for each fold, derived from the seed in the config if the process is deterministic
+     * 
+     * @param numFolds
+     * @param config
+     * @return
+     */
+    private long[] getSeeds(int numFolds, ARXClassificationConfiguration<?> config) {
+        Random random = config.isDeterministic() ? new Random(config.getSeed()) : new Random();
+        long[] seeds = new long[numFolds];
+        for (int i = 0; i < numFolds; i++) {
+            seeds[i] = random.nextLong();
+        }
+        return seeds;
+    }
+
+    /**
+     * Returns a task evaluating the given fold
+     * @param specification
+     * @param config
+     * @param outputHandle
+     * @param trainingFeatures
+     * @param classificationFeatures
+     * @param folds
+     * @param evaluationFold
+     * @param offset
+     * @param seed
+     * @param original
+     * @param results
+     * @param zerorResults
+     * @param done
+     * @param total
+     * @return
+     */
+    private Callable<Void> getTask(final ClassificationDataSpecification specification,
+                                   final ARXClassificationConfiguration<?> config,
+                                   final DataHandleInternal outputHandle,
+                                   final ClassificationFeatureMatrix trainingFeatures,
+                                   final ClassificationFeatureMatrix classificationFeatures,
+                                   final List<List<Integer>> folds,
+                                   final int evaluationFold,
+                                   final int offset,
+                                   final long seed,
+                                   final boolean original,
+                                   final Results results,
+                                   final Results zerorResults,
+                                   final AtomicInteger done,
+                                   final double total) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                evaluate(specification, config, outputHandle, trainingFeatures, classificationFeatures, folds, evaluationFold, offset, 
+                         seed, original, results, zerorResults, done, total);
+                return null;
+            }
+        };
+    }
 }
@@ -23,6 +23,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataHandle;
@@ -42,7 +45,9 @@ import org.deidentifier.arx.aggregates.quality.QualityModelRowOrientedAmbiguity;
 import org.deidentifier.arx.aggregates.quality.QualityModelRowOrientedDiscernibility;
 import org.deidentifier.arx.aggregates.quality.QualityModelRowOrientedSSESST;
 import org.deidentifier.arx.aggregates.quality.QualityModelRowOrientedSquaredError;
+import org.deidentifier.arx.aggregates.quality.QualityNumericColumns;
 import org.deidentifier.arx.common.Groupify;
+import org.deidentifier.arx.common.SharedExecutor;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
@@ -96,11 +101,11 @@ public class StatisticsQuality {
      * @param progress
      * @param qis
      */
-    StatisticsQuality(DataHandle input,
-                      DataHandle output,
+    StatisticsQuality(final DataHandle input,
+                      final DataHandle output,
                       ARXConfiguration config,
-                      WrappedBoolean stop,
-                      WrappedInteger progress,
+                      final WrappedBoolean stop,
+                      final WrappedInteger progress,
                       Set<String> qis) {
      
         // State
@@ -108,11 +113,11 @@ public class StatisticsQuality {
         this.progress = progress;
         
         // Build config
-        QualityConfiguration configuration = new QualityConfiguration();
+        final QualityConfiguration configuration = new QualityConfiguration();
         // TODO: Do something with ARXConfiguration here.
         
         // Extract quasi-identifiers
-        int[] indices = getIndicesOfQuasiIdentifiers(qis, input);
+        final int[] indices = getIndicesOfQuasiIdentifiers(qis, input);
         
         // Basic measures
         this.attributes = getAttributes(output, indices);
@@ -142,204 +147,218 @@ public class StatisticsQuality {
             return;
         }
         
-        // Pre-computed frequently needed data
-        Groupify<TupleWrapper> groupedInput = this.getGroupify(input, indices);
-        this.progress.value = 6;
-        Groupify<TupleWrapper> groupedOutput = this.getGroupify(output, indices);
-        this.progress.value = 8;
-        String[][][] hierarchies = getHierarchies(input, indices, configuration);
-        QualityDomainShare[] shares = getDomainShares(input, indices, hierarchies, configuration);
-
-        this.progress.value = 10;
-        
-        // Build
-        int workload = 10;
+        // Evaluate concurrently
+        SharedExecutor executor = new SharedExecutor();
         try {
             
-            this.loss = new QualityModelColumnOrientedLoss(stop,
-                                                           progress,
-                                                           workload,
-                                                           input,
-                                                           output,
-                                                           groupedInput,
-                                                           groupedOutput,
-                                                           hierarchies,
-                                                           shares,
-                                                           indices,
-                                                           configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.loss = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-        
-        // Build
-        workload = 15;
-        try {
-            this.entropy = new QualityModelColumnOrientedNonUniformEntropy(stop,
-                                                                           progress,
-                                                                           workload,
-                                                                           input,
-                                                                           output,
-                                                                           groupedInput,
-                                                                           groupedOutput,
-                                                                           hierarchies,
-                                                                           shares,
-                                                                           indices,
-                                                                           configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.entropy = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.precision = new QualityModelColumnOrientedPrecision(stop,
-                                                                     progress,
-                                                                     workload,
-                                                                     input,
-                                                                     output,
-                                                                     groupedInput,
-                                                                     groupedOutput,
-                                                                     hierarchies,
-                                                                     shares,
-                                                                     indices,
-                                                                     configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.precision = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.mse = new QualityModelColumnOrientedSquaredError(stop,
-                                                         progress,
-                                                         workload,
-                                                         input,
-                                                         output,
-                                                         groupedInput,
-                                                         groupedOutput,
-                                                         hierarchies,
-                                                         shares,
-                                                         indices,
-                                                         configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.mse = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 5;
-        try {
-            this.aecs = new QualityModelRowOrientedAECS(stop,
-                                                        progress,
-                                                        workload,
-                                                        input,
-                                                        output,
-                                                        groupedInput,
-                                                        groupedOutput,
-                                                        hierarchies,
-                                                        shares,
-                                                        indices,
-                                                        configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.aecs = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.ambiguity = new QualityModelRowOrientedAmbiguity(stop,
-                                                                  progress,
-                                                                  workload,
-                                                                  input,
-                                                                  output,
-                                                                  groupedInput,
-                                                                  groupedOutput,
-                                                                  hierarchies,
-                                                                  shares,
-                                                                  indices,
-                                                                  configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.ambiguity = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-        
-        // Build
-        workload = 5;
-        try {
-            this.discernibility = new QualityModelRowOrientedDiscernibility(stop,
-                                                                            progress,
-                                                                            workload,
-                                                                            input,
-                                                                            output,
-                                                                            groupedInput,
-                                                                            groupedOutput,
-                                                                            hierarchies,
-                                                                            shares,
-                                                                            indices,
-                                                                            configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.discernibility = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.ssesst = new QualityModelRowOrientedSSESST(stop,
-                                                            progress,
-                                                            workload,
-                                                            input,
-                                                            output,
-                                                            groupedInput,
-                                                            groupedOutput,
-                                                            hierarchies,
-                                                            shares,
-                                                            indices,
-                                                            configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.ssesst = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-        
-        // Build
-        workload = 15;
-        try {
-            this.sse = new QualityModelRowOrientedSquaredError(stop,
-                                                      progress,
-                                                      workload,
-                                                      input,
-                                                      output,
-                                                      groupedInput,
-                                                      groupedOutput,
-                                                      hierarchies,
-                                                      shares,
-                                                      indices,
-                                                      configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.sse = new QualityMeasureRowOriented();
-            this.progress.value += workload;
+            // Pre-computed frequently needed data
+            Future<Groupify<TupleWrapper>> futureInput = executor.submit(getGroupifyTask(input, indices));
+            Future<Groupify<TupleWrapper>> futureOutput = executor.submit(getGroupifyTask(output, indices));
+            final Groupify<TupleWrapper> groupedInput = getResult(futureInput);
+            this.progress.value = 6;
+            final Groupify<TupleWrapper> groupedOutput = getResult(futureOutput);
+            this.progress.value = 8;
+            final String[][][] hierarchies = getHierarchies(input, indices, configuration);
+            final QualityDomainShare[] shares = getDomainShares(input, indices, hierarchies, configuration);
+            final QualityNumericColumns numericColumns = new QualityNumericColumns();
+            this.progress.value = 10;
+            
+            // Build
+            Future<QualityMeasureColumnOriented> loss = executor.submit(new Callable<QualityMeasureColumnOriented>() {
+                @Override
+                public QualityMeasureColumnOriented call() throws Exception {
+                    QualityMeasureColumnOriented result = new QualityModelColumnOrientedLoss(stop,
+                                                                                             progress,
+                                                                                             10,
+                                                                                             input,
+                                                                                             output,
+                                                                                             groupedInput,
+                                                                                             groupedOutput,
+                                                                                             hierarchies,
+                                                                                             shares,
+                                                                                             indices,
+                                                                                             configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureColumnOriented> entropy = executor.submit(new Callable<QualityMeasureColumnOriented>() {
+                @Override
+                public QualityMeasureColumnOriented call() throws Exception {
+                    QualityMeasureColumnOriented result = new QualityModelColumnOrientedNonUniformEntropy(stop,
+                                                                                                          progress,
+                                                                                                          15,
+                                                                                                          input,
+                                                                                                          output,
+                                                                                                          groupedInput,
+                                                                                                          groupedOutput,
+                                                                                                          hierarchies,
+                                                                                                          shares,
+                                                                                                          indices,
+                                                                                                          configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureColumnOriented> precision = executor.submit(new Callable<QualityMeasureColumnOriented>() {
+                @Override
+                public QualityMeasureColumnOriented call() throws Exception {
+                    QualityMeasureColumnOriented result = new QualityModelColumnOrientedPrecision(stop,
+                                                                                                  progress,
+                                                                                                  10,
+                                                                                                  input,
+                                                                                                  output,
+                                                                                                  groupedInput,
+                                                                                                  groupedOutput,
+                                                                                                  hierarchies,
+                                                                                                  shares,
+                                                                                                  indices,
+                                                                                                  configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureColumnOriented> mse = executor.submit(new Callable<QualityMeasureColumnOriented>() {
+                @Override
+                public QualityMeasureColumnOriented call() throws Exception {
+                    QualityMeasureColumnOriented result = new QualityModelColumnOrientedSquaredError(stop,
+                                                                                                     progress,
+                                                                                                     10,
+                                                                                                     input,
+                                                                                                     output,
+                                                                                                     groupedInput,
+                                                                                                     groupedOutput,
+                                                                                                     hierarchies,
+                                                                                                     shares,
+                                                                                                     indices,
+                                                                                                     numericColumns,
+                                                                                                     configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureRowOriented> aecs = executor.submit(new Callable<QualityMeasureRowOriented>() {
+                @Override
+                public QualityMeasureRowOriented call() throws Exception {
+                    QualityMeasureRowOriented result = new QualityModelRowOrientedAECS(stop,
+                                                                                       progress,
+                                                                                       5,
+                                                                                       input,
+                                                                                       output,
+                                                                                       groupedInput,
+                                                                                       groupedOutput,
+                                                                                       hierarchies,
+                                                                                       shares,
+                                                                                       indices,
+                                                                                       configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureRowOriented> ambiguity = executor.submit(new Callable<QualityMeasureRowOriented>() {
+                @Override
+                public QualityMeasureRowOriented call() throws Exception {
+                    QualityMeasureRowOriented result = new QualityModelRowOrientedAmbiguity(stop,
+                                                                                            progress,
+                                                                                            10,
+                                                                                            input,
+                                                                                            output,
+                                                                                            groupedInput,
+                                                                                            groupedOutput,
+                                                                                            hierarchies,
+                                                                                            shares,
+                                                                                            indices,
+                                                                                            configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureRowOriented> discernibility = executor.submit(new Callable<QualityMeasureRowOriented>() {
+                @Override
+                public QualityMeasureRowOriented call() throws Exception {
+                    QualityMeasureRowOriented result = new QualityModelRowOrientedDiscernibility(stop,
+                                                                                                 progress,
+                                                                                                 5,
+                                                                                                 input,
+                                                                                                 output,
+                                                                                                 groupedInput,
+                                                                                                 groupedOutput,
+                                                                                                 hierarchies,
+                                                                                                 shares,
+                                                                                                 indices,
+                                                                                                 configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureRowOriented> ssesst = executor.submit(new Callable<QualityMeasureRowOriented>() {
+                @Override
+                public QualityMeasureRowOriented call() throws Exception {
+                    QualityMeasureRowOriented result = new QualityModelRowOrientedSSESST(stop,
+                                                                                         progress,
+                                                                                         10,
+                                                                                         input,
+                                                                                         output,
+                                                                                         groupedInput,
+                                                                                         groupedOutput,
+                                                                                         hierarchies,
+                                                                                         shares,
+                                                                                         indices,
+                                                                                         numericColumns,
+                                                                                         configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Build
+            Future<QualityMeasureRowOriented> sse = executor.submit(new Callable<QualityMeasureRowOriented>() {
+                @Override
+                public QualityMeasureRowOriented call() throws Exception {
+                    QualityMeasureRowOriented result = new QualityModelRowOrientedSquaredError(stop,
+                                                                                               progress,
+                                                                                               15,
+                                                                                               input,
+                                                                                               output,
+                                                                                               groupedInput,
+                                                                                               groupedOutput,
+                                                                                               hierarchies,
+                                                                                               shares,
+                                                                                               indices,
+                                                                                               numericColumns,
+                                                                                               configuration).evaluate();
+                    checkInterrupt();
+                    return result;
+                }
+            });
+            
+            // Collect, failing silently
+            this.loss = getResult(loss, new QualityMeasureColumnOriented(), 10);
+            this.entropy = getResult(entropy, new QualityMeasureColumnOriented(), 15);
+            this.precision = getResult(precision, new QualityMeasureColumnOriented(), 10);
+            this.mse = getResult(mse, new QualityMeasureColumnOriented(), 10);
+            this.aecs = getResult(aecs, new QualityMeasureRowOriented(), 5);
+            this.ambiguity = getResult(ambiguity, new QualityMeasureRowOriented(), 10);
+            this.discernibility = getResult(discernibility, new QualityMeasureRowOriented(), 5);
+            this.ssesst = getResult(ssesst, new QualityMeasureRowOriented(), 10);
+            this.sse = getResult(sse, new QualityMeasureRowOriented(), 15);
+            
+        } finally {
+            executor.cancel();
         }
     }
 
@@ -583,6 +602,22 @@ public class StatisticsQuality {
         return groupify;
     }
 
+    /**
+     * Returns a task which groups the dataset
+     * 
+     * @param handle
+     * @param indices
+     * @return
+     */
+    private Callable<Groupify<TupleWrapper>> getGroupifyTask(final DataHandle handle, final int[] indices) {
+        return new Callable<Groupify<TupleWrapper>>() {
+            @Override
+            public Groupify<TupleWrapper> call() throws Exception {
+                return getGroupify(handle, indices);
+            }
+        };
+    }
+
     /**
      * Returns hierarchies, creates trivial hierarchies if no hierarchy is found.
      * Adds an additional level, if there is no root node
@@ -674,6 +709,48 @@ public class StatisticsQuality {
         return result;
     }
 
+    /**
+     * Returns the result of the given task
+     * 
+     * @param future
+     * @return
+     */
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns the result of evaluating a quality model, or the given fallback if evaluation failed
+     * 
+     * @param future
+     * @param fallback
+     * @param workload
+     * @return
+     */
+    private <T> T getResult(Future<T> future, T fallback, int workload) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            // Fail silently
+            synchronized (this.progress) {
+                this.progress.value += workload;
+            }
+            return fallback;
+        }
+    }
+
     /**
      * Returns the fraction of missing values
      * @param output
@@ -730,4 +807,4 @@ public class StatisticsQuality {
         // Return
         return new QualityMeasureColumnOriented(output, indices, minimum, result, maximum);
     }
-}
+}
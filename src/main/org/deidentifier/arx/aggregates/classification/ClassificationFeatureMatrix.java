@@ -0,0 +1,359 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.aggregates.classification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.mahout.math.RandomAccessSparseVector;
+import org.apache.mahout.vectorizer.encoders.ConstantValueEncoder;
+import org.apache.mahout.vectorizer.encoders.StaticWordValueEncoder;
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+/**
+ * Features and classes of all records of a data handle, encoded once for all classifiers.
+ * Each distinct dictionary code of a feature is parsed, scaled and hashed only once.
+ *
+ * @author Fabian Prasser
+ */
+public class ClassificationFeatureMatrix {
+
+    /**
+     * Hashed representation of all features for a given vector length
+     *
+     * @author Fabian Prasser
+     */
+    private static class HashedFeatures {
+
+        /** Length of vectors */
+        private final int          length;
+        /** Entries added to each vector */
+        private final int[]        constantIndices;
+        /** Entries added to each vector */
+        private final double[]     constantWeights;
+        /** Entries per feature and local identifier */
+        private final int[][][]    indices;
+        /** Entries per feature and local identifier */
+        private final double[][][] weights;
+
+        /**
+         * Creates a new instance
+         * @param length
+         * @param constantIndices
+         * @param constantWeights
+         * @param indices
+         * @param weights
+         */
+        private HashedFeatures(int length,
+                               int[] constantIndices,
+                               double[] constantWeights,
+                               int[][][] indices,
+                               double[][][] weights) {
+            this.length = length;
+            this.constantIndices = constantIndices;
+            this.constantWeights = constantWeights;
+            this.indices = indices;
+            this.weights = weights;
+        }
+    }
+
+    /**
+     * Records all entries which an encoder adds to a vector
+     *
+     * @author Fabian Prasser
+     */
+    private static class Recorder extends RandomAccessSparseVector {
+
+        /** Indices */
+        private final IntArrayList    indices = new IntArrayList();
+        /** Weights */
+        private final DoubleArrayList weights = new DoubleArrayList();
+
+        /**
+         * Creates a new instance
+         * @param length
+         */
+        private Recorder(int length) {
+            super(length);
+        }
+
+        @Override
+        public double get(int index) {
+            // Encoders add their weights to the current value
+            return 0d;
+        }
+
+        @Override
+        public void set(int index, double value) {
+            indices.add(index);
+            weights.add(value);
+        }
+
+        /**
+         * Returns the recorded indices and clears the recorder
+         * @return
+         */
+        private int[] getIndices() {
+            int[] result = indices.toArray();
+            indices.clear();
+            return result;
+        }
+
+        /**
+         * Returns the recorded weights and clears the recorder
+         * @return
+         */
+        private double[] getWeights() {
+            double[] result = weights.toArray();
+            weights.clear();
+            return result;
+        }
+    }
+
+    /** Classes */
+    private final int[]                           classes;
+    /** Local identifiers of the values of all features, row-major */
+    private final int[]                           matrix;
+    /** Number of features */
+    private final int                             numFeatures;
+    /** Specification */
+    private final ClassificationDataSpecification specification;
+    /** Values per feature and local identifier */
+    private final String[][]                      values;
+    /** Numeric values per feature and local identifier, NaN if not numeric */
+    private final double[][]                      numericValues;
+    /** Numeric values or value identifiers per feature and local identifier */
+    private final double[][]                      attributeValues;
+    /** Hashed features */
+    private volatile HashedFeatures               hashed = null;
+
+    /**
+     * Creates a new instance
+     *
+     * @param specification
+     * @param features Handle providing the features
+     * @param microaggregation Handle providing values of numeric attributes which have been microaggregated
+     * @param clazz Handle providing the class attribute
+     * @param interrupt
+     */
+    public ClassificationFeatureMatrix(ClassificationDataSpecification specification,
+                                       DataHandleInternal features,
+                                       DataHandleInternal microaggregation,
+                                       DataHandleInternal clazz,
+                                       WrappedBoolean interrupt) {
+
+        // Prepare
+        this.specification = specification;
+        this.numFeatures = specification.featureIndices.length;
+        int numRows = features.getNumRows();
+        this.matrix = new int[numRows * numFeatures];
+        this.classes = new int[numRows];
+        IntIntOpenHashMap[] identifiers = new IntIntOpenHashMap[numFeatures];
+        List<List<String>> values = new ArrayList<List<String>>();
+        for (int feature = 0; feature < numFeatures; feature++) {
+            identifiers[feature] = new IntIntOpenHashMap();
+            values.add(new ArrayList<String>());
+        }
+        IntIntOpenHashMap classIdentifiers = new IntIntOpenHashMap();
+
+        // Encode each record
+        int offset = 0;
+        for (int row = 0; row < numRows; row++) {
+
+            // Check
+            if (interrupt.value) {
+                throw new ComputationInterruptedException("Interrupted");
+            }
+
+            // Features
+            for (int feature = 0; feature < numFeatures; feature++) {
+                int index = specification.featureIndices[feature];
+                DataHandleInternal handle = specification.featureMetadata[feature].isNumericMicroaggregation() ? microaggregation : features;
+                int code = handle.getEncodedValue(row, index, true);
+                IntIntOpenHashMap map = identifiers[feature];
+                int identifier = map.size();
+                if (map.containsKey(code)) {
+                    identifier = map.lget();
+                } else {
+                    map.put(code, identifier);
+                    values.get(feature).add(handle.getValue(row, index, true));
+                }
+                this.matrix[offset++] = identifier;
+            }
+
+            // Class
+            int code = clazz.getEncodedValue(row, specification.classIndex, true);
+            if (classIdentifiers.containsKey(code)) {
+                this.classes[row] = classIdentifiers.lget();
+            } else {
+                int identifier = specification.classMap.get(clazz.getValue(row, specification.classIndex, true));
+                classIdentifiers.put(code, identifier);
+                this.classes[row] = identifier;
+            }
+        }
+
+        // Derive representations of each distinct value
+        this.values = new String[numFeatures][];
+        this.numericValues = new double[numFeatures][];
+        this.attributeValues = new double[numFeatures][];
+        for (int feature = 0; feature < numFeatures; feature++) {
+            int index = specification.featureIndices[feature];
+            ClassificationFeatureMetadata metadata = specification.featureMetadata[feature];
+            this.values[feature] = values.get(feature).toArray(new String[values.get(feature).size()]);
+            this.numericValues[feature] = new double[this.values[feature].length];
+            this.attributeValues[feature] = new double[this.values[feature].length];
+            for (int identifier = 0; identifier < this.values[feature].length; identifier++) {
+                String value = this.values[feature][identifier];
+                double numeric = metadata.getNumericValue(value);
+                this.numericValues[feature][identifier] = numeric;
+                this.attributeValues[feature][identifier] = Double.isNaN(numeric) ? features.getValueIdentifier(index, value) : numeric;
+            }
+        }
+    }
+
+    /**
+     * Returns the class of the given row
+     * @param row
+     * @return
+     */
+    public int getClass(int row) {
+        return this.classes[row];
+    }
+
+    /**
+     * Returns the number of features
+     * @return
+     */
+    public int getNumFeatures() {
+        return this.numFeatures;
+    }
+
+    /**
+     * Returns the given feature of the given row, represented as a numeric value
+     * or as a value identifier, if the feature is not numeric
+     * @param row
+     * @param feature
+     * @return
+     */
+    public double getValue(int row, int feature) {
+        return this.attributeValues[feature][this.matrix[row * numFeatures + feature]];
+    }
+
+    /**
+     * Returns the features of the given row, hashed into a vector of the given length
+     * @param row
+     * @param length
+     * @return
+     */
+    public double[] getVector(int row, int length) {
+
+        // Prepare
+        HashedFeatures hashed = getHashedFeatures(length);
+        double[] vector = new double[length];
+        add(vector, hashed.constantIndices, hashed.constantWeights);
+
+        // For each feature
+        int offset = row * numFeatures;
+        for (int feature = 0; feature < numFeatures; feature++) {
+            int identifier = this.matrix[offset++];
+            add(vector, hashed.indices[feature][identifier], hashed.weights[feature][identifier]);
+        }
+
+        // Return
+        return vector;
+    }
+
+    /**
+     * Adds the given entries to the given vector
+     * @param vector
+     * @param indices
+     * @param weights
+     */
+    private void add(double[] vector, int[] indices, double[] weights) {
+        for (int i = 0; i < indices.length; i++) {
+            vector[indices[i]] += weights[i];
+        }
+    }
+
+    /**
+     * Returns hashed features for the given vector length
+     * @param length
+     * @return
+     */
+    private HashedFeatures getHashedFeatures(int length) {
+        HashedFeatures result = this.hashed;
+        if (result == null || result.length != length) {
+            synchronized (this) {
+                result = this.hashed;
+                if (result == null || result.length != length) {
+                    result = getHashedFeaturesInternal(length);
+                    this.hashed = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hashes all features into vectors of the given length
+     * @param length
+     * @return
+     */
+    private HashedFeatures getHashedFeaturesInternal(int length) {
+
+        // Prepare
+        ConstantValueEncoder interceptEncoder = new ConstantValueEncoder("intercept");
+        StaticWordValueEncoder wordEncoder = new StaticWordValueEncoder("feature");
+        Recorder recorder = new Recorder(length);
+
+        // Entries added to each vector, special case where there are no features
+        interceptEncoder.addToVector("1", recorder);
+        if (numFeatures == 0) {
+            wordEncoder.addToVector("Feature:1", 1, recorder);
+        }
+        int[] constantIndices = recorder.getIndices();
+        double[] constantWeights = recorder.getWeights();
+
+        // For each distinct value of each feature
+        int[][][] indices = new int[numFeatures][][];
+        double[][][] weights = new double[numFeatures][][];
+        for (int feature = 0; feature < numFeatures; feature++) {
+            int index = specification.featureIndices[feature];
+            indices[feature] = new int[values[feature].length][];
+            weights[feature] = new double[values[feature].length][];
+            for (int identifier = 0; identifier < values[feature].length; identifier++) {
+                double numeric = numericValues[feature][identifier];
+                if (Double.isNaN(numeric)) {
+                    wordEncoder.addToVector("Attribute-" + index + ":" + values[feature][identifier], 1, recorder);
+                } else {
+                    wordEncoder.addToVector("Attribute-" + index, numeric, recorder);
+                }
+                indices[feature][identifier] = recorder.getIndices();
+                weights[feature][identifier] = recorder.getWeights();
+            }
+        }
+
+        // Return
+        return new HashedFeatures(length, constantIndices, constantWeights, indices, weights);
+    }
+}
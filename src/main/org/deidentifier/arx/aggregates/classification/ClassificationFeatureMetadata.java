@@ -91,7 +91,10 @@ public class ClassificationFeatureMetadata {
     }
     
     /**
-     * Returns a scaled double representation, NaN if the value cannot be parsed or scaled
+     * Returns a scaled double representation, NaN if the value cannot be parsed or scaled.
+     * This method is not thread-safe, as neither the expression nor data types with formats are.
+     * Values are converted once per distinct value in {@link ClassificationFeatureMatrix} before
+     * any classifier is trained, so that concurrent folds only read the precomputed values.
      * 
      * @param value
      */
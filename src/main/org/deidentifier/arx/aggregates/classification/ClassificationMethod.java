@@ -16,7 +16,6 @@
  */
 package org.deidentifier.arx.aggregates.classification;
 
-import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.WrappedBoolean;
 
 /**
@@ -38,11 +37,11 @@ public abstract class ClassificationMethod {
     
     /**
      * Classify
-     * @param handle
+     * @param features
      * @param row
      * @return
      */
-    public abstract ClassificationResult classify(DataHandleInternal handle, int row);
+    public abstract ClassificationResult classify(ClassificationFeatureMatrix features, int row);
     
     /**
      * Close
@@ -52,9 +51,8 @@ public abstract class ClassificationMethod {
     /**
      * Train
      * @param features
-     * @param clazz
      * @param row
      */
-    public abstract void train(DataHandleInternal features, DataHandleInternal clazz, int row);
+    public abstract void train(ClassificationFeatureMatrix features, int row);
 
 }
@@ -23,10 +23,6 @@ import org.apache.mahout.classifier.sgd.OnlineLogisticRegression;
 import org.apache.mahout.classifier.sgd.PriorFunction;
 import org.apache.mahout.classifier.sgd.UniformPrior;
 import org.apache.mahout.math.DenseVector;
-import org.apache.mahout.math.Vector;
-import org.apache.mahout.vectorizer.encoders.ConstantValueEncoder;
-import org.apache.mahout.vectorizer.encoders.StaticWordValueEncoder;
-import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.aggregates.ClassificationConfigurationLogisticRegression;
 import org.deidentifier.arx.common.WrappedBoolean;
 
@@ -38,35 +34,26 @@ public class MultiClassLogisticRegression extends ClassificationMethod {
 
     /** Config */
     private final ClassificationConfigurationLogisticRegression config;
-    /** Encoder */
-    private final ConstantValueEncoder                          interceptEncoder;
     /** Instance */
     private final OnlineLogisticRegression                      lr;
     /** Specification */
     private final ClassificationDataSpecification               specification;
-    /** Encoder */
-    private final StaticWordValueEncoder                        wordEncoder;
-    /** Input handle */
-    private final DataHandleInternal                            inputHandle;
 
     /**
      * Creates a new instance
      * @param interrupt
      * @param specification
      * @param config
-     * @param inputHandle
      */
     public MultiClassLogisticRegression(WrappedBoolean interrupt,
                                         ClassificationDataSpecification specification,
-                                        ClassificationConfigurationLogisticRegression config,
-                                        DataHandleInternal inputHandle) {
+                                        ClassificationConfigurationLogisticRegression config) {
 
         super(interrupt);
         
         // Store
         this.config = config;
         this.specification = specification;
-        this.inputHandle = inputHandle;
         
         // Prepare classifier
         PriorFunction prior = null;
@@ -94,15 +81,11 @@ public class MultiClassLogisticRegression extends ClassificationMethod {
         this.lr.lambda(config.getLambda());
         this.lr.stepOffset(config.getStepOffset());
         this.lr.decayExponent(config.getDecayExponent());    
-        
-        // Prepare encoders
-        this.interceptEncoder = new ConstantValueEncoder("intercept");
-        this.wordEncoder = new StaticWordValueEncoder("feature");
     }
 
     @Override
-    public ClassificationResult classify(DataHandleInternal features, int row) {
-        return new MultiClassLogisticRegressionClassificationResult(lr.classifyFull(encodeFeatures(features, row, true)), specification.classMap);
+    public ClassificationResult classify(ClassificationFeatureMatrix features, int row) {
+        return new MultiClassLogisticRegressionClassificationResult(lr.classifyFull(encodeFeatures(features, row)), specification.classMap);
     }
 
     @Override
@@ -111,61 +94,17 @@ public class MultiClassLogisticRegression extends ClassificationMethod {
     }
 
     @Override
-    public void train(DataHandleInternal features, DataHandleInternal clazz, int row) {
-        lr.train(encodeClass(clazz, row), encodeFeatures(features, row, false));
-    }
-
-    /**
-     * Encodes a class
-     * @param handle
-     * @param row
-     * @return
-     */
-    private int encodeClass(DataHandleInternal handle, int row) {
-        return specification.classMap.get(handle.getValue(row, specification.classIndex, true));
+    public void train(ClassificationFeatureMatrix features, int row) {
+        lr.train(features.getClass(row), encodeFeatures(features, row));
     }
 
     /**
      * Encodes a feature
-     * @param handle
+     * @param features
      * @param row
-     * @param classify
      * @return
      */
-    private Vector encodeFeatures(DataHandleInternal handle, int row, boolean classify) {
-
-        // Prepare
-        DenseVector vector = new DenseVector(config.getVectorLength());
-        interceptEncoder.addToVector("1", vector);
-        
-        // Special case where there are no features
-        if (specification.featureIndices.length == 0) {
-            wordEncoder.addToVector("Feature:1", 1, vector);
-            return vector;
-        }
-        
-        // For each attribute
-        int count = 0;
-        for (int index : specification.featureIndices) {
-            
-            // Obtain data
-            ClassificationFeatureMetadata metadata = specification.featureMetadata[count];
-            String value = null;
-            if (classify && metadata.isNumericMicroaggregation()) {
-                value = inputHandle.getValue(row, index, true);
-            } else {
-                value = handle.getValue(row, index, true);
-            }
-            Double numeric = metadata.getNumericValue(value);
-            if (Double.isNaN(numeric)) {    
-                wordEncoder.addToVector("Attribute-" + index + ":" + value, 1, vector);
-            } else {
-                wordEncoder.addToVector("Attribute-" + index, numeric, vector);
-            }
-            count++;
-        }
-        
-        // Return
-        return vector;
+    private DenseVector encodeFeatures(ClassificationFeatureMatrix features, int row) {
+        return new DenseVector(features.getVector(row, config.getVectorLength()), true);
     }
 }
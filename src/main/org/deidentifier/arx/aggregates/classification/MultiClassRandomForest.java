@@ -19,7 +19,6 @@ package org.deidentifier.arx.aggregates.classification;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.aggregates.ClassificationConfigurationRandomForest;
 import org.deidentifier.arx.common.WrappedBoolean;
 
@@ -50,8 +49,6 @@ public class MultiClassRandomForest extends ClassificationMethod {
     private IntArrayList                                  classes         = new IntArrayList();
     /** Config */
     private final int                                     numberOfVariablesToSplit;
-    /** Input handle */
-    private final DataHandleInternal                      inputHandle;
     /** Because SMILE sucks */
     private IntIntOpenHashMap                             mapping;
 
@@ -60,19 +57,16 @@ public class MultiClassRandomForest extends ClassificationMethod {
      * @param interrupt
      * @param specification
      * @param config
-     * @param inputHandle
      */
     public MultiClassRandomForest(WrappedBoolean interrupt,
                                   ClassificationDataSpecification specification,
-                                  ClassificationConfigurationRandomForest config,
-                                  DataHandleInternal inputHandle) {
+                                  ClassificationConfigurationRandomForest config) {
 
         super(interrupt);
 
         // Store
         this.config = config;
         this.specification = specification;
-        this.inputHandle = inputHandle;
         
         // Set number of variables to split as floor(sqrt(number of features)) if default value was chosen
         if (config.getNumberOfVariablesToSplit() == ClassificationConfigurationRandomForest.DEFAULT_NUMBER_OF_VARIABLES_TO_SPLIT) {
@@ -83,11 +77,11 @@ public class MultiClassRandomForest extends ClassificationMethod {
     }
 
     @Override
-    public ClassificationResult classify(DataHandleInternal features, int row) {
+    public ClassificationResult classify(ClassificationFeatureMatrix features, int row) {
 
         // Call SMILE
         double[] _probabilities = new double[mapping.size()];
-        int _result = rm.predict(encodeFeatures(features, row, true), _probabilities);
+        int _result = rm.predict(encodeFeatures(features, row), _probabilities);
         
         // Mapping
         int result = mapping.get(_result);
@@ -154,61 +148,29 @@ public class MultiClassRandomForest extends ClassificationMethod {
     }
 
     @Override
-    public void train(DataHandleInternal features, DataHandleInternal clazz, int row) {
+    public void train(ClassificationFeatureMatrix features, int row) {
         // The Random Forest does not support online learning, so we have to cache data
-        this.features.add(encodeFeatures(features, row, false));
-        this.classes.add(encodeClass(clazz, row));
-    }
-
-    /**
-     * Encodes a class
-     * @param handle
-     * @param row
-     * @return
-     */
-    private int encodeClass(DataHandleInternal handle, int row) {
-        return specification.classMap.get(handle.getValue(row, specification.classIndex, true));
+        this.features.add(encodeFeatures(features, row));
+        this.classes.add(features.getClass(row));
     }
 
     /**
      * Encodes a feature
-     * @param handle
+     * @param features
      * @param row
-     * @param classify
      * @return
      */
-    private double[] encodeFeatures(DataHandleInternal handle, int row, boolean classify) {
+    private double[] encodeFeatures(ClassificationFeatureMatrix features, int row) {
 
         // Prepare
-        double[] vector = new double[specification.featureIndices.length];
-        
-        // Special case where there are no features
-        if (specification.featureIndices.length == 0) {
-            return vector;
-        }
+        double[] vector = new double[features.getNumFeatures()];
         
         // For each attribute
-        int count = 0;
-        for (int index : specification.featureIndices) {
-            
-            // Obtain data
-            ClassificationFeatureMetadata metadata = specification.featureMetadata[count];
-            String value = null;
-            if (classify && metadata.isNumericMicroaggregation()) {
-                value = inputHandle.getValue(row, index, true);
-            } else {
-                value = handle.getValue(row, index, true);
-            }
-            Double numeric = metadata.getNumericValue(value);
-            if (Double.isNaN(numeric)) {    
-                vector[count] = handle.getValueIdentifier(index, value);
-            } else {
-                vector[count] = numeric;
-            }
-            count++;
+        for (int feature = 0; feature < vector.length; feature++) {
+            vector[feature] = features.getValue(row, feature);
         }
         
         // Return
         return vector;
     }
-}
\ No newline at end of file
+}
@@ -19,7 +19,6 @@ package org.deidentifier.arx.aggregates.classification;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.WrappedBoolean;
 
 /**
@@ -46,7 +45,7 @@ public class MultiClassZeroR extends ClassificationMethod {
     }
 
     @Override
-    public ClassificationResult classify(DataHandleInternal handle, int row) {
+    public ClassificationResult classify(ClassificationFeatureMatrix features, int row) {
         return result;
     }
 
@@ -57,8 +56,8 @@ public class MultiClassZeroR extends ClassificationMethod {
     }
 
     @Override
-    public void train(DataHandleInternal features, DataHandleInternal clazz, int row) {
-        Integer key = specification.classMap.get(clazz.getValue(row, specification.classIndex, true));
+    public void train(ClassificationFeatureMatrix features, int row) {
+        Integer key = features.getClass(row);
         Integer count = counts.get(key);
         count = count == null ? 1 : count + 1;
         counts.put(key, count);
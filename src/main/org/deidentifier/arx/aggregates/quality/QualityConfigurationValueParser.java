@@ -60,16 +60,19 @@ class QualityConfigurationValueParser<T> {
     }
 
     /**
-     * Returns whether the value is accepted
+     * Returns whether the value is accepted. Synchronized on the data type,
+     * as data types with formats are not thread-safe and may be shared between attributes.
      * @param value
      * @return
      */
     boolean accepts(String value) {
-        return type.isValid(value);
+        synchronized (type) {
+            return type.isValid(value);
+        }
     }
 
     /**
-     * Converts a value into a double
+     * Converts a value into a double. Synchronized on the data type.
      * @param value
      * @return
      */
@@ -81,7 +84,10 @@ class QualityConfigurationValueParser<T> {
         }
         
         // Parse
-        Double result = type.toDouble(type.parse(value));
+        Double result;
+        synchronized (type) {
+            result = type.toDouble(type.parse(value));
+        }
         
         // Silently fall back to 0 for NULL values
         return result != null ? result : 0d;
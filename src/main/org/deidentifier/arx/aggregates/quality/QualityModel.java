@@ -66,12 +66,12 @@ abstract class QualityModel<T> {
     /** Counter */
     private final WrappedInteger         progress;
 
-    /** Workload */
-    private final int                    startWorkload;
-    
     /** Workload */
     private final int                    totalWorkload;
 
+    /** Workload reported to the progress counter */
+    private int                          reportedWorkload = 0;
+
     /** Hierarchies */
     private final String[][][]           hierarchies;
 
@@ -127,7 +127,6 @@ abstract class QualityModel<T> {
         this.hierarchies = hierarchies;
         this.interrupt = interrupt;
         this.progress = progress;
-        this.startWorkload = progress.value;
         this.totalWorkload = totalWorkload;
         this.suppressedValue = config.getSuppressedValue();
         
@@ -309,7 +308,7 @@ abstract class QualityModel<T> {
     protected void setStepPerformed() {
         this.currentSteps++;
         int value = (int)Math.round((double)totalWorkload * (double)currentSteps / (double)totalSteps);
-        this.progress.value = startWorkload + value;
+        this.setWorkloadPerformed(value);
     }
 
     /**
@@ -324,7 +323,19 @@ abstract class QualityModel<T> {
      * All steps performed
      */
     protected void setStepsDone() {
-        this.progress.value = startWorkload + totalWorkload;
+        this.setWorkloadPerformed(totalWorkload);
+    }
+
+    /**
+     * Adds the workload performed since the last update to the progress counter,
+     * which may be shared with models that are evaluated concurrently
+     * @param workload
+     */
+    private void setWorkloadPerformed(int workload) {
+        synchronized (progress) {
+            progress.value += workload - reportedWorkload;
+        }
+        reportedWorkload = workload;
     }
 
     /**
@@ -471,8 +482,16 @@ abstract class QualityModel<T> {
             if (input.getDataType(attribute) instanceof DataTypeWithRatioScale) {
 
                 QualityConfigurationValueParser<?> parser = QualityConfigurationValueParser.create(input.getDataType(attribute));
+                Map<String, Double> numbers = new HashMap<>();
                 for (int row = 0; row < input.getNumRows(); row++) {
-                    double number = parser.getDouble(input.getValue(row, column));
+                    
+                    // Parse each distinct value once
+                    String value = input.getValue(row, column);
+                    Double number = numbers.get(value);
+                    if (number == null) {
+                        number = parser.getDouble(value);
+                        numbers.put(value, number);
+                    }
                     result[row * 2] = number;
                     result[row * 2 + 1] = number;
                     
@@ -516,13 +535,21 @@ abstract class QualityModel<T> {
             if (output.getDataType(attribute) instanceof DataTypeWithRatioScale) {
 
                 QualityConfigurationValueParser<?> parser = QualityConfigurationValueParser.create(output.getDataType(attribute));
+                Map<String, Double> numbers = new HashMap<>();
                 for (int row = 0; row < output.getNumRows(); row++) {
                     
                     if (output.isOutlier(row)) {
                         result[row * 2] = minimum;
                         result[row * 2 + 1] = maximum;    
                     } else {   
-                        double number = parser.getDouble(output.getValue(row, column));
+                        
+                        // Parse each distinct value once
+                        String value = output.getValue(row, column);
+                        Double number = numbers.get(value);
+                        if (number == null) {
+                            number = parser.getDouble(value);
+                            numbers.put(value, number);
+                        }
                         result[row * 2] = number;
                         result[row * 2 + 1] = number;
                     }
@@ -664,6 +691,7 @@ abstract class QualityModel<T> {
             QualityConfigurationRangeParser rangeParser = QualityConfigurationRangeParser.getParser(valueParser, sample);
             
             // Parse
+            Map<String, double[]> ranges = new HashMap<>();
             for (int row = 0; row < output.getNumRows(); row++) {
                 
                 // Parse
@@ -675,7 +703,13 @@ abstract class QualityModel<T> {
                     if (isSuppressed(column, value)) {
                         range = new double[]{minimum, maximum};    
                     } else {
-                        range = rangeParser.getRange(valueParser, value, minimum, maximum);
+                        
+                        // Parse each distinct value once
+                        range = ranges.get(value);
+                        if (range == null) {
+                            range = rangeParser.getRange(valueParser, value, minimum, maximum);
+                            ranges.put(value, range);
+                        }
                     }
                 }
                 
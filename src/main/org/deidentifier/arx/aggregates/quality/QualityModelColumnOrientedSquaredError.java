@@ -29,7 +29,9 @@ import org.deidentifier.arx.common.WrappedInteger;
  * @author Fabian Prasser
  */
 public class QualityModelColumnOrientedSquaredError extends QualityModel<QualityMeasureColumnOriented> {
-    
+
+    /** Numeric representations of the quasi-identifiers */
+    private final QualityNumericColumns numericColumns;
 
     /**
      * Creates a new instance
@@ -44,6 +46,7 @@ public class QualityModelColumnOrientedSquaredError extends QualityModel<Quality
      * @param hierarchies
      * @param shares
      * @param indices
+     * @param numericColumns
      * @param config
      */
     public QualityModelColumnOrientedSquaredError(WrappedBoolean interrupt,
@@ -56,6 +59,7 @@ public class QualityModelColumnOrientedSquaredError extends QualityModel<Quality
                                          String[][][] hierarchies,
                                          QualityDomainShare[] shares,
                                          int[] indices,
+                                         QualityNumericColumns numericColumns,
                                          QualityConfiguration config) {
         super(interrupt,
               progress,
@@ -68,6 +72,7 @@ public class QualityModelColumnOrientedSquaredError extends QualityModel<Quality
               shares,
               indices,
               config);
+        this.numericColumns = numericColumns;
     }
     
     @Override
@@ -78,7 +83,6 @@ public class QualityModelColumnOrientedSquaredError extends QualityModel<Quality
         double[] result = new double[indices.length];
         double[] min = new double[indices.length];
         double[] max = new double[indices.length];
-        String[][][] hierarchies = getHierarchies();
         
         // Progress
         setSteps(result.length);
@@ -89,14 +93,12 @@ public class QualityModelColumnOrientedSquaredError extends QualityModel<Quality
             try {
                 
                 // Map
-                int column = indices[i];
                 double[] input = null;
                 double[] output = null;
                 
                 // Parse
                 try {
-                    double[][] columnsAsNumbers = getColumnsAsNumbers(getInput(), getOutput(), 
-                                                                      hierarchies[i], column);
+                    double[][] columnsAsNumbers = numericColumns.get(this)[i];
                     if (columnsAsNumbers != null) {
                         input = columnsAsNumbers[0];
                         output= columnsAsNumbers[1];
@@ -35,6 +35,9 @@ import org.deidentifier.arx.common.WrappedInteger;
  */
 public class QualityModelRowOrientedSSESST extends QualityModel<QualityMeasureRowOriented> {
 
+    /** Numeric representations of the quasi-identifiers */
+    private final QualityNumericColumns numericColumns;
+
     /**
      * Creates a new instance
      * 
@@ -48,6 +51,7 @@ public class QualityModelRowOrientedSSESST extends QualityModel<QualityMeasureRo
      * @param hierarchies
      * @param shares
      * @param indices
+     * @param numericColumns
      * @param config
      */
     public QualityModelRowOrientedSSESST(WrappedBoolean interrupt,
@@ -60,6 +64,7 @@ public class QualityModelRowOrientedSSESST extends QualityModel<QualityMeasureRo
                                       String[][][] hierarchies,
                                       QualityDomainShare[] shares,
                                       int[] indices,
+                                      QualityNumericColumns numericColumns,
                                       QualityConfiguration config) {
         super(interrupt,
               progress,
@@ -72,6 +77,7 @@ public class QualityModelRowOrientedSSESST extends QualityModel<QualityMeasureRo
               shares,
               indices,
               config);
+        this.numericColumns = numericColumns;
     }
 
     @Override
@@ -83,7 +89,6 @@ public class QualityModelRowOrientedSSESST extends QualityModel<QualityMeasureRo
             int[] indices = getIndices();
             List<double[]> columns1 = new ArrayList<>();
             List<double[]> columns2 = new ArrayList<>();
-            String[][][] hierarchies = getHierarchies();
 
             // Progress
             setSteps(indices.length + 2);
@@ -91,9 +96,7 @@ public class QualityModelRowOrientedSSESST extends QualityModel<QualityMeasureRo
             // Collect
             for (int index = 0; index < indices.length; index++) {
                 try {
-                    int column = indices[index];
-                    double[][] columnsAsNumbers = getColumnsAsNumbers(getInput(), getOutput(), 
-                                                                      hierarchies[index], column);
+                    double[][] columnsAsNumbers = numericColumns.get(this)[index];
                     if (columnsAsNumbers != null) {
                         columns1.add(columnsAsNumbers[0]);
                         columns2.add(columnsAsNumbers[1]);
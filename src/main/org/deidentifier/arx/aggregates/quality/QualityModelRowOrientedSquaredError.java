@@ -35,6 +35,9 @@ import org.deidentifier.arx.common.WrappedInteger;
  */
 public class QualityModelRowOrientedSquaredError extends QualityModel<QualityMeasureRowOriented> {
 
+    /** Numeric representations of the quasi-identifiers */
+    private final QualityNumericColumns numericColumns;
+
     /**
      * Creates a new instance
      * 
@@ -48,6 +51,7 @@ public class QualityModelRowOrientedSquaredError extends QualityModel<QualityMea
      * @param hierarchies
      * @param shares
      * @param indices
+     * @param numericColumns
      * @param config
      */
     public QualityModelRowOrientedSquaredError(WrappedBoolean interrupt,
@@ -60,6 +64,7 @@ public class QualityModelRowOrientedSquaredError extends QualityModel<QualityMea
                                       String[][][] hierarchies,
                                       QualityDomainShare[] shares,
                                       int[] indices,
+                                      QualityNumericColumns numericColumns,
                                       QualityConfiguration config) {
         super(interrupt,
               progress,
@@ -72,6 +77,7 @@ public class QualityModelRowOrientedSquaredError extends QualityModel<QualityMea
               shares,
               indices,
               config);
+        this.numericColumns = numericColumns;
     }
 
     @Override
@@ -84,7 +90,6 @@ public class QualityModelRowOrientedSquaredError extends QualityModel<QualityMea
             List<double[]> columns1 = new ArrayList<>();
             List<double[]> columns2 = new ArrayList<>();
             List<Double> stdDevs = new ArrayList<>();
-            String[][][] hierarchies = getHierarchies();
 
             // Progress
             setSteps(indices.length + 2);
@@ -92,9 +97,7 @@ public class QualityModelRowOrientedSquaredError extends QualityModel<QualityMea
             // Collect
             for (int index = 0; index < indices.length; index++) {
                 try {
-                    int column = indices[index];
-                    double[][] columnsAsNumbers = getColumnsAsNumbers(getInput(), getOutput(), 
-                                                                      hierarchies[index], column);
+                    double[][] columnsAsNumbers = numericColumns.get(this)[index];
                     if (columnsAsNumbers != null) {
                         double stdDev = getStandardDeviation(columnsAsNumbers[0]);
                         columns1.add(columnsAsNumbers[0]);
@@ -0,0 +1,111 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.aggregates.quality;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.deidentifier.arx.common.SharedExecutor;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+/**
+ * Numeric representations of the quasi-identifiers in input and output, which are
+ * shared between all quality models. Columns are converted once, in parallel.
+ *
+ * @author Fabian Prasser
+ */
+public class QualityNumericColumns {
+
+    /** Columns: index -> {input, output}, null if the column cannot be converted */
+    private double[][][] columns = null;
+
+    /**
+     * Returns the numeric representations of all quasi-identifiers, converting them
+     * on first access
+     *
+     * @param model
+     * @return
+     */
+    synchronized double[][][] get(QualityModel<?> model) {
+        if (this.columns == null) {
+            this.columns = convert(model);
+        }
+        return this.columns;
+    }
+
+    /**
+     * Converts all columns concurrently
+     *
+     * @param model
+     * @return
+     */
+    private double[][][] convert(final QualityModel<?> model) {
+
+        // Prepare
+        final int[] indices = model.getIndices();
+        final String[][][] hierarchies = model.getHierarchies();
+        double[][][] result = new double[indices.length][][];
+        if (indices.length == 0) {
+            return result;
+        }
+
+        // Submit a task per column
+        SharedExecutor executor = new SharedExecutor();
+        try {
+            List<Future<double[][]>> futures = new ArrayList<Future<double[][]>>();
+            for (int i = 0; i < indices.length; i++) {
+                final int index = i;
+                futures.add(executor.submit(new Callable<double[][]>() {
+                    @Override
+                    public double[][] call() throws Exception {
+                        try {
+                            return model.getColumnsAsNumbers(model.getInput(), model.getOutput(),
+                                                             hierarchies[index], indices[index]);
+                        } catch (ComputationInterruptedException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            // Fail silently
+                            return null;
+                        }
+                    }
+                }));
+            }
+
+            // Collect
+            for (int i = 0; i < indices.length; i++) {
+                result[i] = futures.get(i).get();
+            }
+
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        } finally {
+            executor.cancel();
+        }
+
+        // Return
+        return result;
+    }
+}
@@ -18,6 +18,7 @@
 package org.deidentifier.arx.algorithm;
 
 import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXOptimalityGapListener;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.framework.check.TransformationChecker;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -43,6 +44,9 @@ public abstract class AbstractAlgorithm {
     /** The listener */
     private ARXListener             listener               = null;
 
+    /** Upper bound on the optimality gap, if known */
+    private Double                  optimalityGap          = null;
+
     /** A node checker. */
     protected TransformationChecker checker                = null;
 
@@ -70,6 +74,16 @@ public abstract class AbstractAlgorithm {
         return globalOptimum;
     }
 
+    /**
+     * Returns an upper bound on the optimality gap of the best solution found in [0, 1],
+     * if it is known, null otherwise.
+     *
+     * @return
+     */
+    public Double getOptimalityGap() {
+        return optimalityGap;
+    }
+
     /**
      * Sets a listener
      * @param listener
@@ -85,6 +99,32 @@ public abstract class AbstractAlgorithm {
      */
     public abstract boolean traverse();
 
+    /**
+     * Computes an upper bound on the optimality gap of the best solution found and reports it.
+     * The given bound must be a lower bound on the information loss of all transformations which
+     * have not been checked and which may be better than the best solution found.
+     *
+     * @param bound The bound, or null if there are no such transformations
+     * @return The gap, or null if no solution has been found
+     */
+    protected Double computeOptimalityGap(InformationLoss<?> bound) {
+
+        // Not applicable
+        if (globalOptimum == null) {
+            return null;
+        }
+
+        // Compute relative gap
+        InformationLoss<?> loss = globalOptimum.getInformationLoss();
+        double gap = 0d;
+        if (bound != null && bound.compareTo(loss) < 0) {
+            InformationLoss<?> lowest = checker.getMetric().createInstanceOfLowestScore();
+            gap = Math.max(0d, Math.min(1d, 1d - bound.relativeTo(lowest, loss)));
+        }
+        optimalityGap(gap);
+        return gap;
+    }
+
     /**
      * Determine information loss of the given node if it can be
      * used for estimating minimum and maximum information
@@ -107,6 +147,17 @@ public abstract class AbstractAlgorithm {
         }
     }
 
+    /**
+     * Stores an upper bound on the optimality gap and propagates it to listeners
+     * @param gap
+     */
+    protected void optimalityGap(double gap) {
+        this.optimalityGap = gap;
+        if (this.listener instanceof ARXOptimalityGapListener) {
+            ((ARXOptimalityGapListener) this.listener).optimalityGap(gap);
+        }
+    }
+
     /**
      * Propagate progress to listeners
      * @param progress
@@ -0,0 +1,337 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.PriorityQueue;
+
+import org.deidentifier.arx.ARXConfiguration.Monotonicity;
+import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+import cern.colt.list.LongArrayList;
+
+import de.linearbits.jhpl.PredictiveProperty;
+
+/**
+ * A best-first branch-and-bound algorithm. Transformations are expanded in the order of lower
+ * bounds on the information loss of themselves and all of their successors. The bound of a
+ * transformation is the maximum of the bound provided by the quality model and the bound of
+ * the predecessor from which it has been reached, which is tightened by the bound computed
+ * when the predecessor was checked. Transformations with bounds which are not better than the
+ * current optimum are pruned together with all of their successors. When the queue is exhausted,
+ * the current optimum is the global optimum. As the search may be terminated by a time or step
+ * limit, it always provides the best solution found so far. The bound at the head of the queue
+ * is a lower bound for all transformations which have not been checked, which provides an upper
+ * bound on the optimality gap of this solution.
+ *
+ * @author Fabian Prasser
+ */
+public class BestFirstAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * An entry in the queue
+     *
+     * @author Fabian Prasser
+     */
+    private static class Entry implements Comparable<Entry> {
+
+        /** Identifier of the transformation */
+        private final long               identifier;
+
+        /** Level of the transformation */
+        private final int                level;
+
+        /** Lower bound for the transformation and its successors, may be null */
+        private final InformationLoss<?> bound;
+
+        /**
+         * Creates a new instance
+         * @param identifier
+         * @param level
+         * @param bound
+         */
+        private Entry(long identifier, int level, InformationLoss<?> bound) {
+            this.identifier = identifier;
+            this.level = level;
+            this.bound = bound;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            // Entries without bounds come first
+            int cmp = this.bound == null ? (other.bound == null ? 0 : -1) : (other.bound == null ? 1 : this.bound.compareTo(other.bound));
+            if (cmp == 0) {
+                cmp = Integer.compare(this.level, other.level);
+            }
+            return cmp != 0 ? cmp : Long.compare(this.identifier, other.identifier);
+        }
+    }
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param timeLimit
+     * @param checkLimit
+     * @param gapLimit
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace, TransformationChecker checker, int timeLimit, int checkLimit, double gapLimit) {
+        return new BestFirstAlgorithm(solutionSpace, checker, timeLimit, checkLimit, gapLimit);
+    }
+
+    /** Property */
+    private final PredictiveProperty propertyChecked;
+    /** Property */
+    private final PredictiveProperty propertyInsufficientUtility;
+    /** Property */
+    private final PredictiveProperty propertyVisited;
+
+    /** Is the utility of successors never better than the utility of predecessors */
+    private final boolean            monotonicUtility;
+    /** Time limit */
+    private final int                timeLimit;
+    /** The start time */
+    private long                     timeStart;
+    /** The number of checks */
+    private int                      checkCount;
+    /** The maximal number of checks */
+    private final int                checkLimit;
+    /** The search terminates when the optimality gap is below this threshold */
+    private final double             gapLimit;
+    /** Whether the search has been terminated because of the optimality gap */
+    private boolean                  gapLimitReached;
+
+    /**
+     * Constructor
+     * @param space
+     * @param checker
+     * @param timeLimit
+     * @param checkLimit
+     * @param gapLimit
+     */
+    private BestFirstAlgorithm(SolutionSpace space, TransformationChecker checker, int timeLimit, int checkLimit, double gapLimit) {
+        super(space, checker);
+        this.checker.getHistory().setStorageStrategy(StorageStrategy.ALL);
+        this.propertyChecked = space.getPropertyChecked();
+        this.propertyInsufficientUtility = space.getPropertyInsufficientUtility();
+        this.propertyVisited = space.getPropertyVisited();
+        this.solutionSpace.setAnonymityPropertyPredictable(false);
+        this.monotonicUtility = checker.getConfiguration().getMonotonicityOfUtility() == Monotonicity.FULL;
+        this.timeLimit = timeLimit;
+        this.checkLimit = checkLimit;
+        this.gapLimit = gapLimit;
+        if (timeLimit <= 0) {
+            throw new IllegalArgumentException("Invalid time limit. Must be greater than zero.");
+        }
+        if (checkLimit <= 0) {
+            throw new IllegalArgumentException("Invalid step limit. Must be greater than zero.");
+        }
+    }
+
+    @Override
+    public boolean traverse() {
+
+        // Prepare
+        timeStart = System.currentTimeMillis();
+        checkCount = 0;
+        gapLimitReached = false;
+        PriorityQueue<Entry> queue = new PriorityQueue<Entry>(solutionSpace.getTop().getLevel() + 1);
+        enqueue(queue, solutionSpace.getBottom(), null);
+
+        // Expand in the order of bounds
+        Entry entry;
+        Entry interrupted = null;
+        while ((entry = queue.poll()) != null) {
+
+            // Prune. As entries without bounds come first, all remaining
+            // entries can be pruned as well, if this entry has a bound.
+            Transformation transformation = solutionSpace.getTransformation(entry.identifier);
+            if (prune(transformation, entry.bound)) {
+                if (entry.bound != null) {
+                    break;
+                }
+                continue;
+            }
+
+            // Check
+            assureChecked(transformation);
+
+            // The bound computed during the check applies to all successors. The information
+            // loss of an anonymous transformation does as well, if utility is monotonic.
+            InformationLoss<?> bound = max(entry.bound, transformation.getLowerBound());
+            if (monotonicUtility && transformation.hasProperty(solutionSpace.getPropertyAnonymous())) {
+                bound = max(bound, transformation.getInformationLoss());
+            }
+            if (mustStop()) {
+                interrupted = new Entry(entry.identifier, entry.level, bound);
+                break;
+            }
+            if (prune(transformation, bound)) {
+                continue;
+            }
+
+            // Expand
+            LongArrayList successors = transformation.getSuccessors();
+            for (int i = 0; i < successors.size(); i++) {
+                enqueue(queue, solutionSpace.getTransformation(successors.getQuick(i)), bound);
+            }
+
+            // Track optimality gap
+            Double gap = trackOptimalityGap(queue, null);
+            if (gap != null && gap < gapLimit) {
+                gapLimitReached = gap > 0d;
+                break;
+            }
+        }
+
+        // Return whether the optimum has been found. This is also the case, if
+        // the search has been terminated early and the gap is known to be zero.
+        boolean optimumFound = !this.mustStop() && !gapLimitReached && (this.getGlobalOptimum() != null);
+        if (optimumFound) {
+            optimalityGap(0d);
+        } else {
+            Double gap = trackOptimalityGap(queue, interrupted);
+            optimumFound = gap != null && gap == 0d;
+        }
+        return optimumFound;
+    }
+
+    /**
+     * Makes sure that the given Transformation has been checked
+     * @param transformation
+     */
+    private void assureChecked(final Transformation transformation) {
+        if (!transformation.hasProperty(propertyChecked)) {
+            transformation.setChecked(checker.check(transformation, true));
+            trackOptimum(transformation);
+            checkCount++;
+            double progressSteps = (double)checkCount / (double)checkLimit;
+            double progressTime = (double)(System.currentTimeMillis() - timeStart) / (double)timeLimit;
+            progress(Math.max(progressSteps, progressTime));
+        }
+    }
+
+    /**
+     * Adds the given transformation to the queue, if it has not been visited before
+     * @param queue
+     * @param transformation
+     * @param inherited Bound inherited from the predecessor, may be null
+     */
+    private void enqueue(PriorityQueue<Entry> queue, Transformation transformation, InformationLoss<?> inherited) {
+
+        // Visited
+        if (transformation.hasProperty(propertyVisited) || transformation.hasProperty(propertyInsufficientUtility)) {
+            return;
+        }
+        transformation.setProperty(propertyVisited);
+
+        // Enqueue with the maximum of both lower bounds, which is a lower bound as well
+        InformationLoss<?> bound = max(inherited, checker.getMetric().getLowerBound(transformation));
+        queue.add(new Entry(transformation.getIdentifier(), transformation.getLevel(), bound));
+    }
+
+    /**
+     * Returns the maximum of both values, ignoring null values
+     * @param value1
+     * @param value2
+     * @return
+     */
+    private InformationLoss<?> max(InformationLoss<?> value1, InformationLoss<?> value2) {
+        if (value1 == null) {
+            return value2;
+        } else if (value2 == null) {
+            return value1;
+        } else {
+            return value1.compareTo(value2) >= 0 ? value1 : value2;
+        }
+    }
+
+    /**
+     * Computes an upper bound on the optimality gap and reports it. All transformations which have
+     * not been checked are in the queue, are successors of transformations in the queue or of the
+     * given transformation, which has been checked but not expanded, or they have been pruned.
+     *
+     * @param queue
+     * @param interrupted The transformation which has not been expanded, may be null
+     * @return The gap, or null if it is unknown
+     */
+    private Double trackOptimalityGap(PriorityQueue<Entry> queue, Entry interrupted) {
+
+        // Determine the lowest bound. As entries without bounds come first, the
+        // bound is unknown, if the head of the queue does not have a bound.
+        Entry head = queue.peek();
+        if ((head != null && head.bound == null) || (interrupted != null && interrupted.bound == null)) {
+            return null;
+        }
+        InformationLoss<?> bound = head == null ? null : head.bound;
+        if (interrupted != null && (bound == null || interrupted.bound.compareTo(bound) < 0)) {
+            bound = interrupted.bound;
+        }
+        return computeOptimalityGap(bound);
+    }
+
+    /**
+     * Returns whether we have exceeded the allowed number of steps or time.
+     * @return
+     */
+    private boolean mustStop() {
+        return ((int)(System.currentTimeMillis() - timeStart) > timeLimit) ||
+               (checkCount >= checkLimit);
+    }
+
+    /**
+     * Returns whether the given transformation and all of its successors can be pruned
+     * @param transformation
+     * @param bound
+     * @return
+     */
+    private boolean prune(Transformation transformation, InformationLoss<?> bound) {
+
+        // Nothing known
+        Transformation optimum = getGlobalOptimum();
+        if (optimum == null || bound == null) {
+            return false;
+        }
+
+        // When looking for several transformations, we compare with the worst of them,
+        // once enough transformations have been found.
+        if (solutionSpace.getTopTransformations() != null) {
+            InformationLoss<?> threshold = solutionSpace.getTopTransformations().getThreshold();
+            if (threshold != null && bound.compareTo(threshold) >= 0) {
+                transformation.setProperty(propertyInsufficientUtility);
+                return true;
+            }
+            return false;
+        }
+
+        // Otherwise, successors with the same information loss as the optimum
+        // are only preferred, if they are on a lower level
+        int cmp = bound.compareTo(optimum.getInformationLoss());
+        if (cmp > 0 || (cmp == 0 && transformation.getLevel() >= optimum.getLevel())) {
+            transformation.setProperty(propertyInsufficientUtility);
+            return true;
+        }
+
+        // We have to process this transformation
+        return false;
+    }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.PriorityQueue;
 
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
+import org.deidentifier.arx.framework.check.TransformationPrescreener;
 import org.deidentifier.arx.framework.check.TransformationResult;
 import org.deidentifier.arx.framework.check.TransformationChecker;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -42,6 +43,7 @@ import com.carrotsearch.hppc.IntArrayList;
 
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.PredictiveProperty;
+import de.linearbits.jhpl.PredictiveProperty.Direction;
 
 /**
  * This class implements the FLASH algorithm.
@@ -52,19 +54,22 @@ import de.linearbits.jhpl.PredictiveProperty;
 public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
     /** Configuration for the algorithm's phases. */
-    protected final FLASHConfiguration config;
+    protected final FLASHConfiguration      config;
 
     /** Are the pointers for a node with id 'index' already sorted?. */
-    private final int[][]              sortedSuccessors;
+    private final int[][]                   sortedSuccessors;
 
     /** The strategy. */
-    private final FLASHStrategy        strategy;
+    private final FLASHStrategy             strategy;
 
     /** List of nodes that may be used for pruning transformations with insufficient utility. */
-    private final List<Integer>        potentiallyInsufficientUtility;
+    private final List<Integer>             potentiallyInsufficientUtility;
 
     /** The number of checked transformations */
-    private int                        checked = 0;
+    private int                             checked = 0;
+
+    /** The pre-screener, if any */
+    private final TransformationPrescreener prescreener;
 
     /**
      * Creates a new instance.
@@ -90,6 +95,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
                                               new LinkedList<Integer>() : null;
+        this.prescreener = checker.getPrescreener();
     }
 
     @Override
@@ -231,11 +237,28 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         int high = path.size() - 1;
         Transformation lastAnonymousTransformation = null;
 
+        // If the property is monotonic, pre-screening predicts a lower bound for the boundary.
+        // The search starts above it. As the prediction is only a hint, a boundary which coincides
+        // with the prediction is confirmed by checking its predecessor.
+        int predicted = 0;
+        int confirm = -1;
+        if (prescreener != null && anonymityProperty.getDirection() == Direction.UP) {
+            predicted = getPredictedBoundary(path);
+            low = predicted;
+        }
+
         // While not done
-        while (low <= high) {
+        while (low <= high || (low == predicted && predicted > 0 && confirm == -1)) {
+
+            // Continue below the prediction
+            if (low > high) {
+                confirm = predicted - 1;
+                low = 0;
+                high = confirm;
+            }
 
             // Init
-            final int mid = (low + high) / 2;
+            final int mid = confirm == high ? confirm : (low + high) / 2;
             final Transformation transformation = path.get(mid);
 
             // Skip
@@ -294,6 +317,27 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return path;
     }
     
+    /**
+     * Returns the index of the first transformation on the path, which is not
+     * likely to violate the privacy model according to pre-screening
+     *
+     * @param path
+     * @return
+     */
+    private int getPredictedBoundary(List<Transformation> path) {
+        int low = 0;
+        int high = path.size() - 1;
+        while (low < high) {
+            int mid = (low + high) / 2;
+            if (prescreener.isLikelyNotAnonymous(path.get(mid))) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Sorts pointers to successor nodes according to the strategy.
      *
@@ -44,10 +44,11 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
      * @param checker
      * @param timeLimit
      * @param checkLimit 
+     * @param gapLimit
      * @return
      */
-    public static AbstractAlgorithm create(SolutionSpace solutionSpace, TransformationChecker checker, int timeLimit, int checkLimit) {
-        return new LIGHTNINGAlgorithm(solutionSpace, checker, timeLimit, checkLimit);
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace, TransformationChecker checker, int timeLimit, int checkLimit, double gapLimit) {
+        return new LIGHTNINGAlgorithm(solutionSpace, checker, timeLimit, checkLimit, gapLimit);
     }
 
     /** Property */
@@ -67,6 +68,16 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     private int                      checkCount;
     /** The number of checks */
     private final int                checkLimit;
+    /** The search terminates when the optimality gap is below this threshold */
+    private final double             gapLimit;
+    /** Whether the search has been terminated because of the optimality gap */
+    private boolean                  gapLimitReached;
+    /** Transformations which may have unchecked successors, ordered by lower bounds */
+    private PriorityQueue<Transformation> frontier;
+    /** Whether we track a Pareto frontier */
+    private final boolean            paretoFrontier;
+    /** Lower bound of the highest risk of anonymous transformations */
+    private final double             paretoFrontierMinimalRisk;
     
     /**
     * Constructor
@@ -74,8 +85,9 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     * @param checker
     * @param timeLimit
     * @param checkLimit
+    * @param gapLimit
     */
-    private LIGHTNINGAlgorithm(SolutionSpace space, TransformationChecker checker, int timeLimit, int checkLimit) {
+    private LIGHTNINGAlgorithm(SolutionSpace space, TransformationChecker checker, int timeLimit, int checkLimit, double gapLimit) {
         super(space, checker);
         this.checker.getHistory().setStorageStrategy(StorageStrategy.ALL);
         int stepping = space.getTop().getLevel();
@@ -86,6 +98,11 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         this.solutionSpace.setAnonymityPropertyPredictable(false);
         this.timeLimit = timeLimit;
         this.checkLimit = checkLimit;
+        this.gapLimit = gapLimit;
+        this.paretoFrontier = checker.getConfiguration().isParetoFrontierEnabled();
+        // Unless all records may be suppressed, at least one class with at most all records remains
+        this.paretoFrontierMinimalRisk = checker.getConfiguration().getMaxOutliers() < 1d ?
+                                         1d / (double) checker.getInputBuffer().getNumRows() : 0d;
         if (timeLimit <= 0) { 
             throw new IllegalArgumentException("Invalid time limit. Must be greater than zero."); 
         }
@@ -98,6 +115,16 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     public boolean traverse() {
         timeStart = System.currentTimeMillis();
         checkCount = 0;
+        gapLimitReached = false;
+        frontier = new PriorityQueue<Transformation>(stepping, new Comparator<Transformation>() {
+            @Override
+            public int compare(Transformation arg0, Transformation arg1) {
+                // Transformations without bounds come first
+                InformationLoss<?> bound0 = arg0.getLowerBound();
+                InformationLoss<?> bound1 = arg1.getLowerBound();
+                return bound0 == null ? (bound1 == null ? 0 : -1) : (bound1 == null ? 1 : bound0.compareTo(bound1));
+            }
+        });
         PriorityQueue<Long> queue = new PriorityQueue<Long>(stepping, new Comparator<Long>() {
             @Override
             public int compare(Long arg0, Long arg1) {
@@ -107,6 +134,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         Transformation bottom = solutionSpace.getBottom();
         assureChecked(bottom);
         queue.add(bottom.getIdentifier());
+        frontier.add(bottom);
         Transformation next;
         int step = 0;
         Long nextId;
@@ -122,12 +150,27 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                 if (mustStop()) {
                     break;
                 }
+                
+                // Track optimality gap
+                Double gap = trackOptimalityGap();
+                if (gap != null && gap < gapLimit) {
+                    gapLimitReached = gap > 0d;
+                    break;
+                }
             }
         }
         
 
-        // Return whether the optimum has been found
-        return !this.mustStop() && (this.getGlobalOptimum() != null);
+        // Return whether the optimum has been found. This is also the case, if
+        // the search has been terminated early and the gap is known to be zero.
+        boolean optimumFound = !this.mustStop() && !gapLimitReached && (this.getGlobalOptimum() != null);
+        if (optimumFound) {
+            optimalityGap(0d);
+        } else {
+            Double gap = trackOptimalityGap();
+            optimumFound = gap != null && gap == 0d;
+        }
+        return optimumFound;
     }
     
     /**
@@ -174,9 +217,11 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         for (int i = 0; i < list.size(); i++) {
             long id = list.getQuick(i);
             Transformation successor = solutionSpace.getTransformation(id);
-            if (!successor.hasProperty(propertyExpanded) && !successor.hasProperty(propertyInsufficientUtility)) {
+            if (!successor.hasProperty(propertyExpanded) && !successor.hasProperty(propertyInsufficientUtility) &&
+                (successor.hasProperty(propertyChecked) || !prune(successor))) {
                 assureChecked(successor);
                 queue.add(successor.getIdentifier());
+                frontier.add(successor);
                 if (result == null || successor.getInformationLoss().compareTo(result.getInformationLoss()) < 0) {
                     result = successor;
                 }
@@ -211,13 +256,30 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
             return true;
         }
         
-        // If a current optimum has been discovered
+        // When tracking a Pareto frontier, successors may still improve suppression and risk. We can
+        // only prune if the frontier is at least as good as the best values which are possible.
+        if (paretoFrontier) {
+            InformationLoss<?> bound = checker.getMetric().getLowerBound(transformation);
+            if (bound != null && solutionSpace.getParetoFrontier().isDominated(bound, 0, paretoFrontierMinimalRisk)) {
+                transformation.setProperty(propertyInsufficientUtility);
+                return true;
+            }
+            return false;
+        }
+        
+        // If a current optimum has been discovered. When looking for several transformations,
+        // we compare with the worst of them, once enough transformations have been found.
         Transformation optimum = getGlobalOptimum();
-        if (optimum != null) {
+        InformationLoss<?> threshold = optimum == null ? null : optimum.getInformationLoss();
+        if (threshold != null && solutionSpace.getTopTransformations() != null) {
+            threshold = solutionSpace.getTopTransformations().getThreshold();
+        }
+        if (threshold != null) {
             
-            // We can compare lower bounds on quality
-            InformationLoss<?> bound = transformation.getLowerBound();
-            if (bound != null && bound.compareTo(optimum.getInformationLoss()) >= 0) {
+            // We can compare lower bounds on quality. For transformations which have not been
+            // checked, bounds which only depend on generalization levels may be available
+            InformationLoss<?> bound = checker.getMetric().getLowerBound(transformation);
+            if (bound != null && bound.compareTo(threshold) >= 0) {
                 transformation.setProperty(propertyInsufficientUtility);
                 return true;
             }
@@ -226,4 +288,33 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         // We have to process this transformation
         return false;
     }
+
+    /**
+     * Computes an upper bound on the optimality gap and reports it. All transformations which have
+     * not been checked are successors of transformations which have been checked but not expanded,
+     * or they have been pruned. Hence, the lowest bound of such transformations is a lower bound for
+     * the information loss of all transformations which have not been checked.
+     * 
+     * @return The gap, or null if it is unknown
+     */
+    private Double trackOptimalityGap() {
+
+        // Not applicable
+        if (paretoFrontier || getGlobalOptimum() == null) {
+            return null;
+        }
+
+        // Remove transformations which have been processed
+        while (!frontier.isEmpty() && (frontier.peek().hasProperty(propertyExpanded) ||
+                                       frontier.peek().hasProperty(propertyInsufficientUtility))) {
+            frontier.poll();
+        }
+
+        // Determine the lowest bound
+        InformationLoss<?> bound = frontier.isEmpty() ? null : frontier.peek().getLowerBound();
+        if (!frontier.isEmpty() && bound == null) {
+            return null;
+        }
+        return computeOptimalityGap(bound);
+    }
 }
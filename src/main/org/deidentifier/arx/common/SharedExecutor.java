@@ -0,0 +1,151 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes tasks on a pool, which is shared by all concurrent computations. The pool is bounded
+ * by the number of processors and its daemon threads terminate when idle. Tasks submitted from
+ * within a task are executed by the calling thread, which means that nested parallel computations
+ * never wait for threads of the pool and the total number of threads remains bounded.
+ *
+ * @author Fabian Prasser
+ */
+public class SharedExecutor {
+
+    /**
+     * A thread of the pool
+     *
+     * @author Fabian Prasser
+     */
+    private static class Worker extends Thread {
+
+        /**
+         * Creates a new instance
+         * @param runnable
+         */
+        private Worker(Runnable runnable) {
+            super(runnable, "ARX worker");
+            this.setDaemon(true);
+        }
+    }
+
+    /** Number of threads */
+    public static final int                 THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Pool, created on first use */
+    private static ThreadPoolExecutor       pool    = null;
+
+    /**
+     * Returns the pool
+     * @return
+     */
+    private static synchronized ThreadPoolExecutor getPool() {
+        if (pool == null) {
+            pool = new ThreadPoolExecutor(THREADS, THREADS, 10L, TimeUnit.SECONDS,
+                                          new LinkedBlockingQueue<Runnable>(),
+                                          new ThreadFactory() {
+                                              @Override
+                                              public Thread newThread(Runnable runnable) {
+                                                  return new Worker(runnable);
+                                              }
+                                          });
+            pool.allowCoreThreadTimeOut(true);
+        }
+        return pool;
+    }
+
+    /**
+     * Returns whether tasks submitted by the current thread are executed by this thread
+     * @return
+     */
+    private static boolean isSequential() {
+        return THREADS <= 1 || Thread.currentThread() instanceof Worker;
+    }
+
+    /** Tasks submitted via this instance */
+    private final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+    /**
+     * Cancels all tasks submitted via this instance, which have not yet completed.
+     * Call this when done, analogously to shutting down a dedicated executor.
+     */
+    public void cancel() {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+        futures.clear();
+    }
+
+    /**
+     * Executes the given tasks and returns their results in the given order. Failures are
+     * reported as for {@link Future#get()}.
+     *
+     * @param tasks
+     * @return
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        List<Future<T>> futures = new ArrayList<Future<T>>();
+        for (Callable<T> task : tasks) {
+            futures.add(tasks.size() == 1 ? run(task) : submit(task));
+        }
+        List<T> result = new ArrayList<T>();
+        for (Future<T> future : futures) {
+            result.add(future.get());
+        }
+        return result;
+    }
+
+    /**
+     * Submits the given task. When called from within a task, the given task is
+     * executed immediately by the calling thread.
+     *
+     * @param task
+     * @return
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        if (isSequential()) {
+            return run(task);
+        }
+        Future<T> future = getPool().submit(task);
+        futures.add(future);
+        return future;
+    }
+
+    /**
+     * Executes the given task in the calling thread
+     * @param task
+     * @return
+     */
+    private <T> Future<T> run(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<T>(task);
+        future.run();
+        return future;
+    }
+}
@@ -122,6 +122,24 @@ public class DPresence extends ImplicitPrivacyCriterion {
         return (delta >= dMin) && (delta <= dMax);
     }
 
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1) {
+                double delta = counts[i] == 0 ? 0d : (double) counts[i] / (double) pcounts[i];
+                if (delta < dMin || delta > dMax) {
+                    result[i] = code;
+                }
+            }
+        }
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return false;
@@ -55,6 +55,21 @@ public class DistinctLDiversity extends LDiversity{
         return entry.distributions[index].size() >= minSize; // minSize=(int)l;
     }
 
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1 && entries[i].distributions[index].size() < minSize) {
+                result[i] = code;
+            }
+        }
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return true;
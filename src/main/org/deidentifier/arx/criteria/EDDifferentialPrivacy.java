@@ -17,9 +17,11 @@
 package org.deidentifier.arx.criteria;
 
 import java.security.SecureRandom;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.math3.analysis.function.Exp;
 import org.apache.commons.math3.analysis.function.Log;
@@ -27,11 +29,17 @@ import org.apache.commons.math3.distribution.BinomialDistribution;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataGeneralizationScheme;
 import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.certificate.elements.ElementData;
+import org.deidentifier.arx.common.SharedExecutor;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntDoubleOpenHashMap;
+
 /**
  * (e,d)-Differential Privacy implemented with (k,b)-SDGS as proposed in:
  * 
@@ -46,7 +54,10 @@ import org.deidentifier.arx.framework.lattice.Transformation;
 public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
     
     /** SVUID */
-    private static final long        serialVersionUID = 242579895476272606L;
+    private static final long        serialVersionUID    = 242579895476272606L;
+
+    /** Number of records sampled by an individual task */
+    private static final int         SAMPLING_CHUNK_SIZE = 1 << 20;
 
     /** Parameter */
     private final double             epsilon;
@@ -102,11 +113,31 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
         this.k = calculateK(delta, epsilon, this.beta);
         this.deterministic = true;
     }
-    
+
+    /**
+     * Creates a new instance with the given derived parameters
+     * @param epsilon
+     * @param delta
+     * @param generalization
+     * @param beta
+     * @param k
+     * @param deterministic
+     */
+    private EDDifferentialPrivacy(double epsilon, double delta,
+                                  DataGeneralizationScheme generalization,
+                                  double beta, int k, boolean deterministic) {
+        super(false, false);
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.generalization = generalization;
+        this.beta = beta;
+        this.k = k;
+        this.deterministic = deterministic;
+    }
 
     @Override
     public EDDifferentialPrivacy clone() {
-        return new EDDifferentialPrivacy(this.getEpsilon(), this.getDelta(), this.getGeneralizationScheme());
+        return new EDDifferentialPrivacy(this.getEpsilon(), this.getDelta(), this.getGeneralizationScheme(), this.getBeta(), this.getK(), this.deterministic);
     }
 
     /**
@@ -189,23 +220,9 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
             return;
         }
 
-        // Create RNG
-        Random random;
-        if (deterministic) {
-            random = new Random(0xDEADBEEF);
-        } else {
-            random = new SecureRandom();
-        }
-
         // Create a data subset via sampling based on beta
-        Set<Integer> subsetIndices = new HashSet<Integer>();
         int records = manager.getDataGeneralized().getDataLength();
-        for (int i = 0; i < records; ++i) {
-            if (random.nextDouble() < beta) {
-                subsetIndices.add(i);
-            }
-        }
-        this.subset = DataSubset.create(records, subsetIndices);
+        this.subset = DataSubset.create(records, sample(records, SAMPLING_CHUNK_SIZE, true));
         this.manager = manager;
     }
 
@@ -249,11 +266,17 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
      * @param n
      * @param epsilon
      * @param beta
+     * @param cache Values of a_n calculated previously
      * @return
      */
-    private double calculateA(int n, double epsilon, double beta) {
+    private double calculateA(int n, double epsilon, double beta, IntDoubleOpenHashMap cache) {
+        if (cache.containsKey(n)) {
+            return cache.lget();
+        }
         double gamma = calculateGamma(epsilon, beta);
-        return calculateBinomialSum((int) Math.floor(n * gamma) + 1, n, beta);
+        double a = calculateBinomialSum((int) Math.floor(n * gamma) + 1, n, beta);
+        cache.put(n, a);
+        return a;
     }
     
     /**
@@ -300,9 +323,10 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
      * @param k
      * @param epsilon
      * @param beta
+     * @param cache Values of a_n calculated previously
      * @return
      */
-    private double calculateDelta(int k, double epsilon, double beta) {
+    private double calculateDelta(int k, double epsilon, double beta, IntDoubleOpenHashMap cache) {
         double gamma = calculateGamma(epsilon, beta);
         int n_m = (int) Math.ceil((double) k / gamma - 1.0d);
 
@@ -310,7 +334,7 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
         double bound = Double.MAX_VALUE;
 
         for (int n = n_m; delta < bound; ++n) {
-            delta = Math.max(delta, calculateA(n, epsilon, beta));
+            delta = Math.max(delta, calculateA(n, epsilon, beta, cache));
             bound = calculateC(n, epsilon, beta);
         }
 
@@ -338,10 +362,115 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
     private int calculateK(double delta, double epsilon, double beta) {
         int k = 1;
 
+        // The values of a_n do not depend on k
+        IntDoubleOpenHashMap cache = new IntDoubleOpenHashMap();
         for (double delta_k = Double.MAX_VALUE; delta_k > delta; ++k) {
-            delta_k = calculateDelta(k, epsilon, beta);
+            delta_k = calculateDelta(k, epsilon, beta, cache);
         }
 
         return k;
     }
+
+    /**
+     * Samples records with probability beta. Datasets with more records than the given chunk size are
+     * split into chunks, each of which is sampled with its own generator. In deterministic mode, the
+     * generators are derived from a fixed seed, which means that the sample does not depend on whether
+     * the chunks are sampled in parallel. Public for testing purposes, only.
+     *
+     * @param records
+     * @param chunkSize
+     * @param parallel
+     * @return
+     */
+    public RowSet sample(final int records, final int chunkSize, boolean parallel) {
+
+        // Create RNG
+        Random random;
+        if (deterministic) {
+            random = new Random(0xDEADBEEF);
+        } else {
+            random = new SecureRandom();
+        }
+
+        // Sample sequentially
+        RowSet result = RowSet.create(records);
+        int chunks = (int) (((long) records + chunkSize - 1) / chunkSize);
+        if (chunks <= 1) {
+            for (int i = 0; i < records; ++i) {
+                if (random.nextDouble() < beta) {
+                    result.add(i);
+                }
+            }
+            return result;
+        }
+
+        // Create one RNG per chunk
+        final Random[] generators = new Random[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            generators[chunk] = deterministic ? new Random(random.nextLong()) : new SecureRandom();
+        }
+
+        // Sample chunks
+        final IntArrayList[] samples = new IntArrayList[chunks];
+        if (!parallel) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                samples[chunk] = sample(records, chunkSize, chunk, generators[chunk]);
+            }
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                final int index = chunk;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        samples[index] = sample(records, chunkSize, index, generators[index]);
+                        return null;
+                    }
+                });
+            }
+            SharedExecutor executor = new SharedExecutor();
+            try {
+                executor.invokeAll(tasks);
+            } catch (InterruptedException e) {
+                throw new ComputationInterruptedException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else {
+                    throw new IllegalStateException(e.getCause());
+                }
+            } finally {
+                executor.cancel();
+            }
+        }
+
+        // Collect
+        for (IntArrayList sample : samples) {
+            for (int i = 0; i < sample.size(); i++) {
+                result.add(sample.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Samples the records of the given chunk with probability beta
+     *
+     * @param records
+     * @param chunkSize
+     * @param chunk
+     * @param generator
+     * @return
+     */
+    private IntArrayList sample(int records, int chunkSize, int chunk, Random generator) {
+        int from = chunk * chunkSize;
+        int to = (int) Math.min(records, (long) from + chunkSize);
+        IntArrayList sample = new IntArrayList((int) ((to - from) * beta) + 1);
+        for (int i = from; i < to; ++i) {
+            if (generator.nextDouble() < beta) {
+                sample.add(i);
+            }
+        }
+        return sample;
+    }
 }
@@ -20,9 +20,12 @@ package org.deidentifier.arx.criteria;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 
+import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.check.distribution.DistributionResultCache;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
 /**
@@ -248,31 +251,30 @@ public class EntropyLDiversity extends LDiversity {
 	}
 
     @Override
-    public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
-
-        Distribution d = entry.distributions[index];
-
-        // If less than l values are present skip
-        if (d.size() < minSize) { return false; }
+    public void initialize(DataManager manager, ARXConfiguration config) {
+        super.initialize(manager, config);
+        this.cache = new DistributionResultCache();
+    }
 
-        // Sum of the frequencies in distribution (=number of elements)
-        final int total = entry.count;
-        // Sum must stay smaller than this constant term
-        final double C = total * (estimator.psi(total) - Math.log(l));
-        double sum1 = 0d;
+    @Override
+    public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
+        return isAnonymous(entry.distributions[index], entry.count, Math.log(l));
+    }
 
-        final int[] buckets = d.getBuckets();
-        for (int i = 0; i < buckets.length; i += 2) {
-            if (buckets[i] != -1) { // bucket not empty
-                final int frequency = buckets[i + 1];
-                sum1 += frequency * estimator.psi(frequency);
-                // If the sum grows over C, we can abort the loop earlier.
-                if (C < sum1) { return false; }
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        final double log = Math.log(l);
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1 && !isAnonymous(entries[i].distributions[index], counts[i], log)) {
+                result[i] = code;
             }
         }
-
-        // If we reach this point, the loop did not return false.
-        return true;
     }
 
     @Override
@@ -294,6 +296,57 @@ public class EntropyLDiversity extends LDiversity {
         return estimator.toString().toLowerCase() + "-entropy-" + l + "-diversity for attribute '" + attribute + "'";
 	}
 
+    /**
+     * Checks the given distribution
+     * @param d
+     * @param total Sum of the frequencies in distribution (=number of elements)
+     * @param log Logarithm of l
+     * @return
+     */
+    private boolean isAnonymous(Distribution d, int total, double log) {
+
+        // Check cache
+        int cached = cache.get(d, total);
+        if (cached != DistributionResultCache.UNKNOWN) {
+            return cached == 1;
+        }
+
+        // Check and cache
+        boolean result = isAnonymousUncached(d, total, log);
+        cache.put(d, total, result);
+        return result;
+    }
+
+    /**
+     * Checks the given distribution without using the cache
+     * @param d
+     * @param total Sum of the frequencies in distribution (=number of elements)
+     * @param log Logarithm of l
+     * @return
+     */
+    private boolean isAnonymousUncached(Distribution d, int total, double log) {
+
+        // If less than l values are present skip
+        if (d.size() < minSize) { return false; }
+
+        // Sum must stay smaller than this constant term
+        final double C = total * (estimator.psi(total) - log);
+        double sum1 = 0d;
+
+        final int[] buckets = d.getBuckets();
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                final int frequency = buckets[i + 1];
+                sum1 += frequency * estimator.psi(frequency);
+                // If the sum grows over C, we can abort the loop earlier.
+                if (C < sum1) { return false; }
+            }
+        }
+
+        // If we reach this point, the loop did not return false.
+        return true;
+    }
+
     /**
      * Custom de-serialization
      * 
@@ -19,6 +19,8 @@ package org.deidentifier.arx.criteria;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.check.distribution.DistributionResultCache;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -59,15 +61,77 @@ public class EqualDistanceTCloseness extends TCloseness {
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
         distribution = manager.getDistribution(attribute);
+        cache = new DistributionResultCache();
     }
 
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
+        return isAnonymous(entry.distributions[index], entry.count);
+    }
+
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1 && !isAnonymous(entries[i].distributions[index], counts[i])) {
+                result[i] = code;
+            }
+        }
+    }
+
+	@Override
+    public boolean isLocalRecodingSupported() {
+        return true;
+    }
+
+    @Override
+    public ElementData render() {
+        ElementData result = new ElementData("t-Closeness");
+        result.addProperty("Attribute", attribute);
+        result.addProperty("Threshold (t)", this.t);
+        result.addProperty("Distance", "Equal");
+        return result;
+    }
+
+    @Override
+	public String toString() {
+		return t+"-closeness with equal ground-distance for attribute '"+attribute+"'";
+	}
+
+    /**
+     * Checks the given distribution, using the cache
+     * @param d
+     * @param count
+     * @return
+     */
+    private boolean isAnonymous(Distribution d, int count) {
+
+        // Check cache
+        int cached = cache.get(d, count);
+        if (cached != DistributionResultCache.UNKNOWN) {
+            return cached == 1;
+        }
+
+        // Check and cache
+        boolean result = isAnonymous(d.getBuckets(), count);
+        cache.put(d, count, result);
+        return result;
+    }
+
+    /**
+     * Checks the given distribution
+     * @param buckets
+     * @param count
+     * @return
+     */
+    private boolean isAnonymous(int[] buckets, double count) {
 
         // Calculate EMD with equal distance
-        int[] buckets = entry.distributions[index].getBuckets();
-        double count = entry.count;
-        
         /* 
          * P = Set of ids of values in local frequency set
          * Q = Set of ids of values in global dataset
@@ -98,23 +162,4 @@ public class EqualDistanceTCloseness extends TCloseness {
         // check
         return val <= t;
     }
-
-	@Override
-    public boolean isLocalRecodingSupported() {
-        return true;
-    }
-
-    @Override
-    public ElementData render() {
-        ElementData result = new ElementData("t-Closeness");
-        result.addProperty("Attribute", attribute);
-        result.addProperty("Threshold (t)", this.t);
-        result.addProperty("Distance", "Equal");
-        return result;
-    }
-
-    @Override
-	public String toString() {
-		return t+"-closeness with equal ground-distance for attribute '"+attribute+"'";
-	}
 }
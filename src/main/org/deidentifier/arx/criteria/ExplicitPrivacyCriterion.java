@@ -17,6 +17,7 @@
 package org.deidentifier.arx.criteria;
 
 import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.framework.check.distribution.DistributionResultCache;
 import org.deidentifier.arx.framework.data.DataManager;
 
 /**
@@ -36,6 +37,9 @@ public abstract class ExplicitPrivacyCriterion extends PrivacyCriterion {
     /**  Attribute index */
     protected int index = -1;
 
+    /** Cache for results of checks on distributions, if supported */
+    protected transient DistributionResultCache cache = null;
+
     /**
      * Creates a new instance
      *
@@ -59,6 +63,16 @@ public abstract class ExplicitPrivacyCriterion extends PrivacyCriterion {
         return attribute;
     }
 
+    /**
+     * Returns the cache for results of checks on distributions, if this
+     * privacy model supports caching. Returns null otherwise.
+     *
+     * @return
+     */
+    public DistributionResultCache getResultCache() {
+        return cache;
+    }
+
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         String[] header = manager.getDataAnalyzed().getHeader();
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.certificate.elements.ElementData;
@@ -25,7 +27,9 @@ import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
 /**
- * The t-closeness criterion with hierarchical-distance EMD.
+ * The t-closeness criterion with hierarchical-distance EMD. The distance is evaluated
+ * sparsely, i.e. only inner nodes of the hierarchy above values which occur in an
+ * equivalence class are visited.
  *
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -38,14 +42,35 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     /** The hierarchy used for the EMD. */
     private final Hierarchy   hierarchy;
 
-    /** Internal tree. */
-    private int[]             tree;
+    /** Number of records in the overall dataset. */
+    private long              totalElementsP;
+
+    /** For each leaf: number of records in the overall dataset. */
+    private int[]             leafCounts;
+
+    /** For each leaf: the inner node above it. */
+    private int[]             leafParents;
+
+    /** For each inner node: number of records in the overall dataset. */
+    private long[]            nodeCounts;
+
+    /** For each inner node: the parent node, -1 for the root. */
+    private int[]             nodeParents;
+
+    /** For each inner node: level divided by height. */
+    private double[]          nodeWeights;
+
+    /** Buffer: for each inner node, number of records of the class. */
+    private long[]            bufferCounts;
+
+    /** Buffer: for each inner node, sum of the absolute extras of its children, minus their extras in an empty class. */
+    private long[]            bufferExtras;
 
-    /** Internal offset. */
-    private int               start;
+    /** Buffer: inner nodes on the current level. */
+    private int[]             bufferCurrent;
 
-    /** Internal empty tree. */
-    private int[]             empty;
+    /** Buffer: inner nodes on the next level. */
+    private int[]             bufferNext;
 
     /**
      * Creates a new instance of the t-closeness criterion with hierarchical earth-movers-distance as proposed in:
@@ -79,91 +104,146 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
-        this.tree = manager.getTree(attribute);
-        this.start = this.tree[1] + 3;
-        this.empty = new int[this.tree[1]];
+        
+        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
+        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
+        // child_x, pos_e, neg_e], ...
+        int[] tree = manager.getTree(attribute);
+        final int numLeafs = tree[1];
+        final double height = tree[2];
+        final int extraStartPos = numLeafs + 3;
+        final int extraEndPos = extraStartPos + numLeafs;
+        
+        // Collect inner nodes, which are ordered by level
+        int numNodes = 0;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            numNodes++;
+        }
+        int[] offsets = new int[numNodes];
+        for (int i = extraEndPos, node = 0; i < tree.length; i += tree[i] + 4) {
+            offsets[node++] = i;
+        }
+        
+        // Leafs
+        this.totalElementsP = tree[0];
+        this.leafCounts = Arrays.copyOfRange(tree, 3, extraStartPos);
+        this.leafParents = new int[numLeafs];
+        Arrays.fill(this.leafParents, -1);
+        
+        // Inner nodes
+        this.nodeCounts = new long[numNodes];
+        this.nodeParents = new int[numNodes];
+        this.nodeWeights = new double[numNodes];
+        Arrays.fill(this.nodeParents, -1);
+        for (int node = 0; node < numNodes; node++) {
+            final int numChilds = tree[offsets[node]];
+            final int level = tree[offsets[node] + 1];
+            this.nodeWeights[node] = level / height;
+            for (int j = 0; j < numChilds; j++) {
+                final int child = tree[offsets[node] + 2 + j];
+                if (level == 1) {
+                    this.leafParents[child - extraStartPos] = node;
+                    this.nodeCounts[node] += this.leafCounts[child - extraStartPos];
+                } else {
+                    final int index = Arrays.binarySearch(offsets, child);
+                    this.nodeParents[index] = node;
+                    this.nodeCounts[node] += this.nodeCounts[index];
+                }
+            }
+        }
+        
+        // Buffers
+        this.bufferCounts = new long[numNodes];
+        this.bufferExtras = new long[numNodes];
+        this.bufferCurrent = new int[numNodes];
+        this.bufferNext = new int[numNodes];
     }
 
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
-        
-        // Empty data in tree
-        System.arraycopy(empty, 0, tree, start, empty.length);
+        return getDistance(entry) <= t;
+    }
 
-        // init parameters
-        final int totalElementsP = tree[0];
-        final int numLeafs = tree[1];
-        final double height = tree[2]; // cast to double as it is used in double
-                                       // calculations
-        final int extraStartPos = numLeafs + 3;
-        final int extraEndPos = extraStartPos + numLeafs;
+    /**
+     * Returns the distance between the distribution of the sensitive attribute in the given
+     * equivalence class and in the overall dataset
+     *
+     * @param entry
+     * @return
+     */
+    protected double getDistance(HashGroupifyEntry entry) {
 
-        // Copy and count
-        int totalElementsQ = 0;
+        // Count
+        final long totalElementsP = this.totalElementsP;
+        long totalElementsQ = 0;
         int[] buckets = entry.distributions[index].getBuckets();
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                totalElementsQ += buckets[i + 1];
+            }
+        }
+        
+        // The extra of a node is p_i * |Q| - q_i * |P|, summed over all leafs below it. For
+        // each inner node, min(pos_e, neg_e) equals the sum of the absolute extras of its children
+        // minus its own absolute extra, divided by two. This is zero for nodes without records
+        // of the class, so only paths above the leafs which occur in the class are visited.
+        int[] current = bufferCurrent;
+        int[] next = bufferNext;
+        int numCurrent = 0;
+        
+        // Leafs
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
                 final int value = buckets[i];
                 final int frequency = buckets[i + 1];
-                tree[value + extraStartPos] = frequency;
-                totalElementsQ += frequency;
+                final int parent = leafParents[value];
+                if (parent != -1) {
+                    final long base = leafCounts[value] * totalElementsQ;
+                    if (bufferCounts[parent] == 0) {
+                        current[numCurrent++] = parent;
+                    }
+                    bufferCounts[parent] += frequency;
+                    bufferExtras[parent] += Math.abs(base - frequency * totalElementsP) - base;
+                }
             }
         }
-        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
-        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
-        // child_x, pos_e, neg_e], ...
+        
+        // Inner nodes, level by level
         double cost = 0;
-
-        // leafs
-        for (int i = extraStartPos; i < extraEndPos; i++) {
-            tree[i] = (tree[i - numLeafs] * totalElementsQ) -
-                      (tree[i] * totalElementsP); // p_i - q_i
-        }
-
-        // innerNodes
-        for (int i = extraEndPos; i < tree.length; i++) {
-            int pos_e = 0;
-            int neg_e = 0;
-
-            final int numChilds = tree[i++];
-            final int level = tree[i++];
-
-            // iterate over all children
-            for (int j = 0; j < numChilds; j++) {
-                // differentiate between first level and rest
-
-                int extra = 0;
-                if (level == 1) {
-                    extra = tree[tree[i + j]];
-                } else {
-                    final int extra_child_index = tree[i + j] +
-                                                  tree[tree[i + j]] + 2; // pointer to the pos_e of node
-                    final int pos_child = tree[extra_child_index];
-                    final int neg_child = tree[extra_child_index + 1];
-                    extra = pos_child - neg_child;
-                }
-
-                if (extra > 0) { // positive
-                    pos_e += extra;
-                } else { // negative
-                    neg_e += (-extra);
+        while (numCurrent > 0) {
+            int numNext = 0;
+            for (int i = 0; i < numCurrent; i++) {
+                
+                // Sum
+                final int _node = current[i];
+                final long base = nodeCounts[_node] * totalElementsQ;
+                final long extra = Math.abs(base - bufferCounts[_node] * totalElementsP);
+                cost += nodeWeights[_node] * ((base + bufferExtras[_node] - extra) / 2);
+                
+                // Propagate
+                final int parent = nodeParents[_node];
+                if (parent != -1) {
+                    if (bufferCounts[parent] == 0) {
+                        next[numNext++] = parent;
+                    }
+                    bufferCounts[parent] += bufferCounts[_node];
+                    bufferExtras[parent] += extra - base;
                 }
+                
+                // Reset
+                bufferCounts[_node] = 0;
+                bufferExtras[_node] = 0;
             }
-
-            // save extras
-            i += numChilds; // increment pointer to extra
-            tree[i++] = pos_e;
-            tree[i] = neg_e;
-
-            // sum
-            final double cost_n = (level / height) * Math.min(pos_e, neg_e);
-            cost += cost_n;
+            
+            // Swap
+            int[] temp = current;
+            current = next;
+            next = temp;
+            numCurrent = numNext;
         }
 
-        cost /= ((double) totalElementsP * (double) totalElementsQ);
-
-        // check
-        return cost <= t;
+        // Normalize
+        return cost / ((double) totalElementsP * (double) totalElementsQ);
     }
     
 	@Override
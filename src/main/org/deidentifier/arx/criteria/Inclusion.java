@@ -66,6 +66,17 @@ public class Inclusion extends DPresence {
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
         return true;
     }
+
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        // Empty by design
+    }
     
     @Override
     public boolean isLocalRecodingSupported() {
@@ -83,4 +94,4 @@ public class Inclusion extends DPresence {
         result.addProperty("Number of records", super.getDataSubset().getSize());
         return result;
     }
-}
+}
@@ -308,6 +308,23 @@ public class KMap extends ImplicitPrivacyCriterion {
         }
     }
 
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        int[] sizes = this.estimator == null ? pcounts : counts;
+        int threshold = this.estimator == null ? this.k : this.derivedK;
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1 && sizes[i] < threshold) {
+                result[i] = code;
+            }
+        }
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return !isAccurate();
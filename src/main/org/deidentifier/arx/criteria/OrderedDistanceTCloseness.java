@@ -20,6 +20,8 @@ package org.deidentifier.arx.criteria;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.common.FastIntDoubleMap;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.check.distribution.DistributionResultCache;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -35,25 +37,28 @@ import org.deidentifier.arx.framework.lattice.Transformation;
 public class OrderedDistanceTCloseness extends TCloseness {
 
     /** SVUID */
-    private static final long serialVersionUID = -2395544663063577862L;
+    private static final long  serialVersionUID = -2395544663063577862L;
 
     /** The original distribution. */
-    private double[]          distribution;
+    private double[]           distribution;
 
     /** The order of the elements. */
-    private int[]             order;
+    private int[]              order;
     
     /** The order of the elements. */
-    private int[]             orderNumber;
+    private int[]              orderNumber;
     
     /** Partial distances of the original distribution. */
-    private double[]          baseDistances;
+    private double[]           baseDistances;
     
     /** Partial sums of the original distribution. */
-    private double[]          baseSums;
+    private double[]           baseSums;
 
     /** Minimal order number that must be present */
-    private int               minOrder;
+    private int                minOrder;
+
+    /** Buffer for the frequencies in a class, allocated lazily. */
+    private transient double[] frequencies;
     
     /**
      * Creates a new instance of the t-closeness criterion for ordered attributes as proposed in:
@@ -85,6 +90,7 @@ public class OrderedDistanceTCloseness extends TCloseness {
         this.orderNumber = getOrderNumbers(order);
         this.baseDistances = new double[order.length];
         this.baseSums = new double[order.length];
+        this.cache = new DistributionResultCache();
         
         // Prepare
         double threshold = t * (order.length - 1d);
@@ -157,6 +163,21 @@ public class OrderedDistanceTCloseness extends TCloseness {
         return true;
     }
     
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1 && !isAnonymous(entries[i].distributions[index], counts[i])) {
+                result[i] = code;
+            }
+        }
+    }
+    
     @Override
     public boolean isLocalRecodingSupported() {
         return true;
@@ -176,6 +197,72 @@ public class OrderedDistanceTCloseness extends TCloseness {
         return t+"-closeness with ordered distance for attribute '"+attribute+"'";
     }
 
+    /**
+     * Checks the given distribution, using the cache
+     * @param d
+     * @param count
+     * @return
+     */
+    private boolean isAnonymous(Distribution d, int count) {
+
+        // Check cache
+        int cached = cache.get(d, count);
+        if (cached != DistributionResultCache.UNKNOWN) {
+            return cached == 1;
+        }
+
+        // Check and cache
+        boolean result = isAnonymous(d.getBuckets(), count);
+        cache.put(d, count, result);
+        return result;
+    }
+
+    /**
+     * Checks the given distribution using a dense buffer instead of a map
+     * @param buckets
+     * @param count
+     * @return
+     */
+    private boolean isAnonymous(int[] buckets, double count) {
+        
+        // Prepare
+        if (frequencies == null) {
+            frequencies = new double[distribution.length];
+        }
+        int currentMinOrder = Integer.MAX_VALUE;
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                int value = buckets[i];
+                frequencies[value] = ((double) buckets[i + 1] / count);
+                currentMinOrder = Math.min(currentMinOrder,  orderNumber[value]);
+            }
+        }
+        
+        // Prune
+        boolean result = currentMinOrder <= this.minOrder;
+        
+        // Calculate and check
+        if (result) {
+            double threshold = t * (order.length - 1d);
+            double distance = currentMinOrder > 0 ? baseDistances[currentMinOrder - 1] : 0d;
+            double sum_i = currentMinOrder > 0 ? baseSums[currentMinOrder - 1] : 0d;
+            for (int i = currentMinOrder; i < order.length && result; i++) {
+                int value = order[i];
+                sum_i += (frequencies[value] - distribution[value]);
+                distance += Math.abs(sum_i);
+                result = distance <= threshold;
+            }
+        }
+        
+        // Reset
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                frequencies[buckets[i]] = 0d;
+            }
+        }
+        return result;
+    }
+
     /**
      * Maps values to order nums
      * @param order
@@ -156,6 +156,34 @@ public abstract class PrivacyCriterion implements Serializable{
      */
     public abstract boolean isAnonymous(Transformation node, HashGroupifyEntry entry);
 
+    /**
+     * Enforces the criterion on a batch of classes. For each class <code>i &lt; size</code> with
+     * <code>result[i] == -1</code>, <code>result[i]</code> is set to <code>code</code>, if the class
+     * does not fulfill the criterion. Classes which have already failed are skipped. Override this
+     * to provide a specialized implementation.
+     * 
+     * @param node
+     * @param entries The classes
+     * @param counts The sizes of the classes
+     * @param pcounts The sizes of the classes, including records from the population table
+     * @param size The number of classes
+     * @param result
+     * @param code
+     */
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1 && !isAnonymous(node, entries[i])) {
+                result[i] = code;
+            }
+        }
+    }
+
     /**
      * Returns whether the criterion supports local recoding.
      * @return
@@ -24,6 +24,7 @@ import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataAggregationInformation;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.v2.DomainShare;
 import org.deidentifier.arx.metric.v2.MetricSDNMEntropyBasedInformationLoss;
@@ -58,6 +59,15 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
     /** Risk model */
     private RiskModelCostBenefit        riskModel;
 
+    /** Shares of all values: Dimension -> Level -> Value */
+    private transient double[][][]      shareTable;
+
+    /** Minimal shares: Dimension -> Level */
+    private transient double[][]        minShares;
+
+    /** Maximal shares: Dimension -> Level */
+    private transient double[][]        maxShares;
+
     /**
      * Creates a new instance of game theoretic approach proposed in:
      * A Game Theoretic Framework for Analyzing Re-Identification Risk.
@@ -107,27 +117,65 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
                 
         // Calculate MaxIL
         this.maxIL = MetricSDNMEntropyBasedInformationLoss.getMaximalEntropyBasedInformationLoss(this.shares, this.aggregation);
+
+        // Prepare table of shares and bounds per level
+        GeneralizationHierarchy[] hierarchies = manager.getHierarchies();
+        this.shareTable = MetricSDNMEntropyBasedInformationLoss.createShareTable(this.shares, hierarchies);
+        this.minShares = new double[shareTable.length][];
+        this.maxShares = new double[shareTable.length][];
+        for (int dimension = 0; dimension < shareTable.length; dimension++) {
+            int[][] hierarchy = hierarchies[dimension].getArray();
+            int levels = shareTable[dimension].length;
+            this.minShares[dimension] = new double[levels];
+            this.maxShares[dimension] = new double[levels];
+            for (int level = 0; level < levels; level++) {
+                double min = Double.MAX_VALUE;
+                double max = 0d;
+                for (int[] values : hierarchy) {
+                    double share = shareTable[dimension][level][values[level]];
+                    min = Math.min(min, share);
+                    max = Math.max(max, share);
+                }
+                this.minShares[dimension][level] = min;
+                this.maxShares[dimension][level] = max;
+            }
+        }
     }
 
     @Override
     public boolean isAnonymous(Transformation transformation, HashGroupifyEntry entry) {
+        return isAnonymous(transformation, entry, 0d, 1d);
+    }
+
+    @Override
+    public void isAnonymous(Transformation transformation,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
         
-        // This is a class containing only records from the population
-        if (entry.count == 0) {
-            return false;
+        // Bound the information loss of all classes of this transformation
+        int[] generalization = transformation.getGeneralization();
+        double minProduct = 1d;
+        double maxProduct = 1d;
+        for (int dimension = 0; dimension < generalization.length; dimension++) {
+            minProduct *= minShares[dimension][generalization[dimension]];
+            maxProduct *= maxShares[dimension][generalization[dimension]];
         }
         
-        // Calculate information loss and success probability
-        double informationLoss = MetricSDNMEntropyBasedInformationLoss.getEntropyBasedInformationLoss(transformation,
-                                                                                                      entry,
-                                                                                                      shares,
-                                                                                                      this.aggregation,
-                                                                                                      maxIL);
-        double successProbability = getSuccessProbability(entry);
-        double publisherPayoff = riskModel.getExpectedPublisherPayout(informationLoss, successProbability);
-                
-        // We keep the set of records if the payoff is > 0
-        return publisherPayoff > 0;
+        // Microaggregation may only reduce the loss
+        boolean microaggregation = aggregation != null && aggregation.getHotQIsNotGeneralized().length != 0;
+        double minLoss = microaggregation ? 0d : getInformationLoss(minProduct);
+        double maxLoss = getInformationLoss(maxProduct);
+        
+        // Check
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1 && !isAnonymous(transformation, entries[i], minLoss, maxLoss)) {
+                result[i] = code;
+            }
+        }
     }
 
     @Override
@@ -182,4 +230,53 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
     protected String toString(String attackerModel) {
         return "profitability (" + attackerModel + ")" + (config != null ? config.toString() : "");
     }
+
+    /**
+     * Returns the information loss of a record for the given product of shares,
+     * without performing range checks
+     * @param product
+     * @return
+     */
+    private double getInformationLoss(double product) {
+        double result = Math.log10(product) / maxIL + 1d;
+        result = result < 0d ? 0d : result;
+        result = result > 1d ? 1d : result;
+        return result;
+    }
+
+    /**
+     * Checks the given class. The payoff is evaluated for the bounds on the information loss
+     * first, which often decides the class without calculating its information loss.
+     * @param transformation
+     * @param entry
+     * @param minLoss Lower bound on the information loss
+     * @param maxLoss Upper bound on the information loss
+     * @return
+     */
+    private boolean isAnonymous(Transformation transformation, HashGroupifyEntry entry, double minLoss, double maxLoss) {
+        
+        // This is a class containing only records from the population
+        if (entry.count == 0) {
+            return false;
+        }
+        
+        // Check bounds
+        double successProbability = getSuccessProbability(entry);
+        if (riskModel.getExpectedPublisherPayout(maxLoss, successProbability) > 0) {
+            return true;
+        } else if (riskModel.getExpectedPublisherPayout(minLoss, successProbability) <= 0) {
+            return false;
+        }
+        
+        // Calculate information loss
+        double informationLoss = MetricSDNMEntropyBasedInformationLoss.getEntropyBasedInformationLoss(transformation,
+                                                                                                      entry,
+                                                                                                      shareTable,
+                                                                                                      this.aggregation,
+                                                                                                      maxIL);
+        double publisherPayoff = riskModel.getExpectedPublisherPayout(informationLoss, successProbability);
+                
+        // We keep the set of records if the payoff is > 0
+        return publisherPayoff > 0;
+    }
 }
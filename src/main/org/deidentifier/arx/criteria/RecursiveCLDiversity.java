@@ -19,9 +19,12 @@ package org.deidentifier.arx.criteria;
 
 import java.util.Arrays;
 
+import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.check.distribution.DistributionResultCache;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
 /**
@@ -36,7 +39,10 @@ public class RecursiveCLDiversity extends LDiversity{
     private static final long serialVersionUID = -5893481096346270328L;
 
     /** The parameter c. */
-    private final double c;
+    private final double    c;
+
+    /** Buffer for the frequencies in a class, allocated lazily. */
+    private transient int[] frequencies;
     
     /**
      * Creates a new instance of the recursive-(c,l)-diversity criterion as proposed in:
@@ -70,35 +76,47 @@ public class RecursiveCLDiversity extends LDiversity{
     }
 
     @Override
-    public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
+    public void initialize(DataManager manager, ARXConfiguration config) {
+        super.initialize(manager, config);
+        this.cache = new DistributionResultCache();
+    }
 
+    @Override
+    public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
         Distribution d = entry.distributions[index];
-        
-        // if less than l values are present skip
-        if (d.size() < minSize) { return false; }
-
-        // Copy and pack
-        int[] buckets = d.getBuckets();
-        final int[] frequencyCopy = new int[d.size()];
-        int count = 0;
-        for (int i = 0; i < buckets.length; i += 2) {
-            if (buckets[i] != -1) { // bucket not empty
-                frequencyCopy[count++] = buckets[i + 1];
-            }
+        int cached = cache.get(d, entry.count);
+        if (cached != DistributionResultCache.UNKNOWN) {
+            return cached == 1;
         }
+        boolean result = isAnonymous(d, new int[d.size()]);
+        cache.put(d, entry.count, result);
+        return result;
+    }
 
-        // Sort
-        Arrays.sort(frequencyCopy);
-        
-        // Compute threshold
-        double threshold = 0;
-        for (int i = frequencyCopy.length - minSize; i >= 0; i--) { // minSize=(int)l;
-            threshold += frequencyCopy[i];
+    @Override
+    public void isAnonymous(Transformation node,
+                            HashGroupifyEntry[] entries,
+                            int[] counts,
+                            int[] pcounts,
+                            int size,
+                            int[] result,
+                            int code) {
+        for (int i = 0; i < size; i++) {
+            if (result[i] == -1) {
+                Distribution d = entries[i].distributions[index];
+                int cached = cache.get(d, counts[i]);
+                if (cached == DistributionResultCache.UNKNOWN) {
+                    if (frequencies == null || frequencies.length < d.size()) {
+                        frequencies = new int[d.size()];
+                    }
+                    cached = isAnonymous(d, frequencies) ? 1 : 0;
+                    cache.put(d, counts[i], cached == 1);
+                }
+                if (cached == 0) {
+                    result[i] = code;
+                }
+            }
         }
-        threshold *= c;
-
-        // Check
-        return frequencyCopy[frequencyCopy.length - 1] < threshold;
     }
     
 	@Override
@@ -119,4 +137,38 @@ public class RecursiveCLDiversity extends LDiversity{
 	public String toString() {
 		return "recursive-("+c+","+minSize+")-diversity for attribute '"+attribute+"'";
 	}
+
+    /**
+     * Checks the given distribution
+     * @param d
+     * @param frequencyCopy A buffer with at least d.size() elements
+     * @return
+     */
+    private boolean isAnonymous(Distribution d, int[] frequencyCopy) {
+        
+        // if less than l values are present skip
+        if (d.size() < minSize) { return false; }
+
+        // Copy and pack
+        int[] buckets = d.getBuckets();
+        int count = 0;
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                frequencyCopy[count++] = buckets[i + 1];
+            }
+        }
+
+        // Sort
+        Arrays.sort(frequencyCopy, 0, count);
+        
+        // Compute threshold
+        double threshold = 0;
+        for (int i = count - minSize; i >= 0; i--) { // minSize=(int)l;
+            threshold += frequencyCopy[i];
+        }
+        threshold *= c;
+
+        // Check
+        return frequencyCopy[count - 1] < threshold;
+    }
 }
@@ -20,8 +20,10 @@ package org.deidentifier.arx.framework.check;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.Transition;
+import org.deidentifier.arx.framework.check.distributed.DistributedCoordinator;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.check.history.History;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -73,6 +75,12 @@ public class TransformationChecker {
     /** Is a minimal class size required */
     private final boolean                           minimalClassSizeRequired;
 
+    /** The coordinator of worker processes, if any */
+    private final DistributedCoordinator            coordinator;
+
+    /** The pre-screener, if any */
+    private final TransformationPrescreener         prescreener;
+
     /**
      * Creates a new transformation checker.
      * 
@@ -91,6 +99,30 @@ public class TransformationChecker {
                                  final double snapshotSizeDataset,
                                  final double snapshotSizeSnapshot,
                                  final SolutionSpace solutionSpace) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot, solutionSpace, null);
+    }
+
+    /**
+     * Creates a new transformation checker, which lets the given worker processes
+     * transform all rows, if required.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param coordinator The coordinator of worker processes, may be null
+     */
+    public TransformationChecker(final DataManager manager,
+                                 final Metric<?> metric,
+                                 final ARXConfigurationInternal config,
+                                 final int historyMaxSize,
+                                 final double snapshotSizeDataset,
+                                 final double snapshotSizeSnapshot,
+                                 final SolutionSpace solutionSpace,
+                                 final DistributedCoordinator coordinator) {
         
         // Store data
         this.metric = metric;
@@ -99,6 +131,8 @@ public class TransformationChecker {
         this.dataGeneralized = manager.getDataGeneralized();
         this.solutionSpace = solutionSpace;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.coordinator = coordinator;
+        this.prescreener = TransformationPrescreener.create(manager, config, solutionSpace);
         
         // Initialize all operators
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
@@ -140,6 +174,14 @@ public class TransformationChecker {
                                              manager.getDataGeneralized().getArray(),
                                              transformer.getBuffer(),
                                              manager.getDataAnalyzed().getArray());
+        
+        // Let the workers transform all rows, or pre-aggregate the population,
+        // if only counts for the sample and the population are required
+        if (coordinator != null) {
+            this.stateMachine.setCoordinator(coordinator);
+        } else if (config.getRequirements() == (ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER)) {
+            this.stateMachine.setPopulationSnapshot(getPopulationSnapshot(snapshotSizeDataset));
+        }
     }
 
     /**
@@ -179,6 +221,9 @@ public class TransformationChecker {
         
         // Apply transition
         switch (transition.type) {
+        case DISTRIBUTED:
+            currentGroupify = transformer.applySnapshot(transition.projection, node.getGeneralization(), currentGroupify, coordinator.getSnapshot(node.getGeneralization()));
+            break;
         case UNOPTIMIZED:
             currentGroupify = transformer.apply(transition.projection, node.getGeneralization(), currentGroupify);
             break;
@@ -202,11 +247,18 @@ public class TransformationChecker {
         InformationLoss<?> loss = result != null ? result.getInformationLoss() : null;
         InformationLoss<?> bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
         
+        // Summary for tracking the Pareto frontier or the best transformations
+        boolean summary = (config.isParetoFrontierEnabled() || config.getNumberOfTopTransformations() > 1) &&
+                          currentGroupify.isPrivacyModelFulfilled();
+        
         // Return result;
         return new TransformationResult(currentGroupify.isPrivacyModelFulfilled(),
                                       minimalClassSizeRequired ? currentGroupify.isMinimalClassSizeFulfilled() : null,
                                       loss,
-                                      bound);
+                                      bound,
+                                      summary ? currentGroupify.getNumberOfSuppressedRecords() : null,
+                                      summary ? currentGroupify.getHighestRisk() : null,
+                                      summary ? currentGroupify.getNumberOfNonSuppressedEquivalenceClasses() : null);
     }
     
     /**
@@ -250,6 +302,14 @@ public class TransformationChecker {
         return this.dataGeneralized.getArray();
     }
     
+    /**
+     * Returns the transition performed for the last transformation checked, if any
+     * @return
+     */
+    public Transition getLastTransition() {
+        return stateMachine.getLastTransition();
+    }
+    
     /**
      * Returns the utility measure
      * @return
@@ -258,6 +318,14 @@ public class TransformationChecker {
         return metric;
     }
     
+    /**
+     * Returns the pre-screener, if pre-screening is enabled
+     * @return The pre-screener or null
+     */
+    public TransformationPrescreener getPrescreener() {
+        return prescreener;
+    }
+    
     /**
      * Returns the output buffer
      * @return
@@ -276,4 +344,45 @@ public class TransformationChecker {
         currentGroupify.stateClear();
         lastGroupify.stateClear();
     }
-}
\ No newline at end of file
+
+    /**
+     * Groups all rows of the population by their values without applying any
+     * generalization and returns a snapshot of the result. Each transformation
+     * refines this grouping, which means that all transformations can be derived
+     * from the snapshot instead of from the population. Returns null, if the
+     * population is not reduced significantly.
+     * 
+     * @param snapshotSizeDataset
+     * @return
+     */
+    private int[] getPopulationSnapshot(final double snapshotSizeDataset) {
+        
+        // Group by input values
+        final int[] generalization = new int[manager.getHierarchies().length];
+        final HashGroupify groupify = transformer.apply(0L, generalization, currentGroupify);
+        final int classes = groupify.getNumberOfEquivalenceClasses();
+        
+        // Check size
+        if (classes > (long) (dataGeneralized.getDataLength() * snapshotSizeDataset)) {
+            groupify.stateClear();
+            return null;
+        }
+        
+        // Create snapshot
+        final int length = config.getSnapshotLength();
+        final int[] snapshot = new int[classes * length];
+        int index = 0;
+        HashGroupifyEntry entry = groupify.getFirstEquivalenceClass();
+        while (entry != null) {
+            snapshot[index] = entry.representative;
+            snapshot[index + 1] = entry.count;
+            snapshot[index + 2] = entry.pcount;
+            index += length;
+            entry = entry.nextOrdered;
+        }
+        
+        // Clean up and return
+        groupify.stateClear();
+        return snapshot;
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.framework.check;
 
+import org.deidentifier.arx.framework.check.distributed.DistributedCoordinator;
 import org.deidentifier.arx.framework.check.history.History;
 
 /**
@@ -55,6 +56,9 @@ public class TransformationCheckerStateMachine {
      */
     public static enum TransitionType {
 
+        /** Let the worker processes transform all rows. */
+        DISTRIBUTED,
+
         /** Apply the roll-up optimization. */
         ROLLUP,
 
@@ -65,20 +69,26 @@ public class TransformationCheckerStateMachine {
         UNOPTIMIZED
     }
 
+    /** The coordinator of worker processes, if any. */
+    private DistributedCoordinator coordinator        = null;
+
     /** The history. */
-    private History    history  = null;
+    private History                history            = null;
 
     /** The last node, which has been checked for k-anonymity. */
-    private int[]      lastTransformation;
+    private int[]                  lastTransformation;
 
     /** The last transition, which has been performed. */
-    private Transition lastTransition;
+    private Transition             lastTransition;
+
+    /** The pre-aggregated population, if any. */
+    private int[]                  populationSnapshot = null;
 
     /** The current snapshot, if any. */
-    private int[]      snapshot = null;
+    private int[]                  snapshot           = null;
 
     /** The node for the current snapshot. */
-    private int[]      snapshotTransformation;
+    private int[]                  snapshotTransformation;
 
     /**
      * Instantiates a new state machine.
@@ -117,6 +127,27 @@ public class TransformationCheckerStateMachine {
         lastTransition = null;
     }
 
+    /**
+     * Sets a coordinator of worker processes. If available, rows are transformed
+     * by the workers instead of locally.
+     *
+     * @param coordinator
+     */
+    public void setCoordinator(DistributedCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Sets a snapshot of the pre-aggregated population, i.e. of the transformation
+     * which applies no generalization at all. If available, it is used instead of
+     * transforming all rows.
+     *
+     * @param populationSnapshot
+     */
+    public void setPopulationSnapshot(int[] populationSnapshot) {
+        this.populationSnapshot = populationSnapshot;
+    }
+
     /**
      * Calculates the best state transition.
      * 
@@ -148,6 +179,7 @@ public class TransformationCheckerStateMachine {
                     result.snapshot = null;
                 }
                 break;
+            case DISTRIBUTED:
             case ROLLUP:
             case SNAPSHOT:
                 if (isPossibleSnapshot(transformation)) {
@@ -167,6 +199,23 @@ public class TransformationCheckerStateMachine {
             }
         }
 
+        // Let the workers transform all rows. Afterwards, only the representatives
+        // of the resulting classes have been transformed locally.
+        if (result.type == TransitionType.UNOPTIMIZED && coordinator != null) {
+            result.projection = 0L;
+            result.type = TransitionType.DISTRIBUTED;
+            result.snapshot = null;
+        }
+
+        // Use the pre-aggregated population instead of transforming all rows. As
+        // the snapshot is based on the most specific transformation, all columns
+        // must be transformed.
+        if (result.type == TransitionType.UNOPTIMIZED && populationSnapshot != null) {
+            result.projection = 0L;
+            result.type = TransitionType.SNAPSHOT;
+            result.snapshot = populationSnapshot;
+        }
+
         // Store
         lastTransformation = transformation;
         lastTransition = result;
@@ -0,0 +1,305 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixAggregated;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+import com.carrotsearch.hppc.LongOpenHashSet;
+
+/**
+ * Pre-screens transformations on a stratified sample of the dataset. Strata are formed by
+ * the distinct tuples of the input, from which records are drawn proportionally. For a given
+ * transformation, the number of equivalence classes in the dataset is estimated from the
+ * sample with the bias-corrected Chao1 estimator. With n records and a minimal class size of k,
+ * at most n / k classes can be large enough, and all remaining classes must be suppressed.
+ * If this exceeds the suppression limit, the transformation is tagged as likely not anonymous.
+ * Tags are hints only and never replace a check on the complete dataset.
+ *
+ * @author Fabian Prasser
+ */
+public class TransformationPrescreener {
+
+    /** Marker for empty buckets */
+    private static final int EMPTY = -1;
+
+    /**
+     * Creates a new instance, if pre-screening is enabled and supported by the privacy models
+     * @param manager
+     * @param config
+     * @param solutionSpace
+     * @return The instance or null
+     */
+    public static TransformationPrescreener create(DataManager manager,
+                                                   ARXConfigurationInternal config,
+                                                   SolutionSpace solutionSpace) {
+        if (!config.isPrescreeningEnabled() || config.getMinimalGroupSize() == Integer.MAX_VALUE || config.getSubset() != null) {
+            return null;
+        }
+        int[] sample = getSample(manager.getDataGeneralized().getArray(), config.getPrescreeningSampleFraction());
+        if (sample.length < 2) {
+            return null;
+        }
+        return new TransformationPrescreener(manager, config, solutionSpace, sample);
+    }
+
+    /**
+     * Draws a stratified sample with proportional allocation. Each stratum contributes
+     * the rounded share of its records. Rounding is randomized by a stratum-specific offset.
+     *
+     * @param matrix
+     * @param fraction
+     * @return Indices of sampled rows
+     */
+    private static int[] getSample(DataMatrix matrix, double fraction) {
+        IntIntOpenHashMap strata = new IntIntOpenHashMap();
+        IntArrayList sample = new IntArrayList();
+        if (matrix instanceof DataMatrixAggregated) {
+            
+            // All records of a distinct tuple share their values and form a contiguous part of their
+            // stratum. Records are drawn from each tuple at once, starting with its first row.
+            DataMatrixAggregated aggregated = (DataMatrixAggregated) matrix;
+            DataMatrix tuples = aggregated.getTuples();
+            for (int tuple = 0; tuple < aggregated.getNumTuples(); tuple++) {
+                int stratum = tuples.hashCode(tuple);
+                int count = aggregated.getCount(tuple);
+                int seen = strata.putOrAdd(stratum, count, count);
+                double offset = (double) ((stratum * 0x9E3779B9) >>> 8) / (double) (1 << 24);
+                int drawn = (int) (Math.floor(seen * fraction + offset) - Math.floor((seen - count) * fraction + offset));
+                for (int i = 0; i < drawn; i++) {
+                    sample.add(aggregated.getFirstRow(tuple) + i);
+                }
+            }
+            return sample.toArray();
+        }
+        for (int row = 0; row < matrix.getNumRows(); row++) {
+            int stratum = matrix.hashCode(row);
+            int seen = strata.putOrAdd(stratum, 1, 1);
+            double offset = (double) ((stratum * 0x9E3779B9) >>> 8) / (double) (1 << 24);
+            if (Math.floor(seen * fraction + offset) > Math.floor((seen - 1) * fraction + offset)) {
+                sample.add(row);
+            }
+        }
+        return sample.toArray();
+    }
+
+    /** Number of columns */
+    private final int              columns;
+
+    /** The hierarchies */
+    private final int[][][]        hierarchies;
+
+    /** The sample, row-major */
+    private final int[]            data;
+
+    /** Number of rows in the sample */
+    private final int              rows;
+
+    /** Number of rows in the dataset */
+    private final int              rowsDataset;
+
+    /** Minimal class size */
+    private final int              minimalClassSize;
+
+    /** Suppression limit */
+    private final int              suppressionLimit;
+
+    /** The solution space */
+    private final SolutionSpace    solutionSpace;
+
+    /** Transformations which have been pre-screened */
+    private final LongOpenHashSet  screened = new LongOpenHashSet();
+
+    /** Hash table */
+    private final int[]            buckets;
+
+    /** Generalized tuples of classes */
+    private final int[]            tuples;
+
+    /** Sizes of classes */
+    private final int[]            counts;
+
+    /**
+     * Creates a new instance
+     * @param manager
+     * @param config
+     * @param solutionSpace
+     * @param sample
+     */
+    private TransformationPrescreener(DataManager manager,
+                                      ARXConfigurationInternal config,
+                                      SolutionSpace solutionSpace,
+                                      int[] sample) {
+
+        // Store
+        DataMatrix matrix = manager.getDataGeneralized().getArray();
+        GeneralizationHierarchy[] hierarchies = manager.getHierarchies();
+        this.columns = hierarchies.length;
+        this.hierarchies = new int[columns][][];
+        for (int column = 0; column < columns; column++) {
+            this.hierarchies[column] = hierarchies[column].getArray();
+        }
+        this.rows = sample.length;
+        this.rowsDataset = matrix.getNumRows();
+        this.minimalClassSize = config.getMinimalGroupSize();
+        this.suppressionLimit = config.getAbsoluteSuppressionLimit();
+        this.solutionSpace = solutionSpace;
+
+        // Extract sample. Rows of aggregated data are mapped to tuples with a cursor, as they are ascending.
+        this.data = new int[rows * columns];
+        if (matrix instanceof DataMatrixAggregated) {
+            DataMatrixAggregated aggregated = (DataMatrixAggregated) matrix;
+            DataMatrixAggregated.Cursor cursor = aggregated.getCursor();
+            DataMatrix tuples = aggregated.getTuples();
+            for (int i = 0; i < rows; i++) {
+                int tuple = cursor.getTuple(sample[i]);
+                for (int column = 0; column < columns; column++) {
+                    this.data[i * columns + column] = tuples.get(tuple, column);
+                }
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int column = 0; column < columns; column++) {
+                    this.data[i * columns + column] = matrix.get(sample[i], column);
+                }
+            }
+        }
+
+        // Buffers
+        int capacity = 1;
+        while (capacity < (rows << 1)) {
+            capacity <<= 1;
+        }
+        this.buckets = new int[capacity];
+        this.tuples = new int[rows * columns];
+        this.counts = new int[rows];
+    }
+
+    /**
+     * Returns whether the given transformation is likely not anonymous. Pre-screens the
+     * transformation, if this has not been done before.
+     *
+     * @param transformation
+     * @return
+     */
+    public boolean isLikelyNotAnonymous(Transformation transformation) {
+
+        // Known
+        if (transformation.hasProperty(solutionSpace.getPropertyLikelyNotAnonymous())) {
+            return true;
+        }
+        if (!screened.add(transformation.getIdentifier())) {
+            return false;
+        }
+
+        // Estimate the number of classes
+        double classes = getNumberOfClasses(transformation.getGeneralization());
+
+        // Classes that need to be suppressed
+        double suppressed = classes - Math.floor((double) rowsDataset / (double) minimalClassSize);
+        if (suppressed > suppressionLimit) {
+            transformation.setProperty(solutionSpace.getPropertyLikelyNotAnonymous());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compares the tuple of the given class to the given tuple
+     * @param id
+     * @param tuple
+     * @return
+     */
+    private boolean equals(int id, int[] tuple) {
+        int base = id * columns;
+        for (int column = 0; column < columns; column++) {
+            if (tuples[base + column] != tuple[column]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Groups the sample according to the given transformation and estimates the number
+     * of classes in the dataset
+     * @param generalization
+     * @return
+     */
+    private double getNumberOfClasses(int[] generalization) {
+
+        // Prepare
+        Arrays.fill(buckets, EMPTY);
+        int mask = buckets.length - 1;
+        int[] tuple = new int[columns];
+        int classes = 0;
+
+        // Group
+        for (int row = 0; row < rows; row++) {
+
+            // Transform and hash
+            int hash = 23;
+            for (int column = 0; column < columns; column++) {
+                tuple[column] = hierarchies[column][data[row * columns + column]][generalization[column]];
+                hash = (37 * hash) + tuple[column];
+            }
+
+            // Probe
+            int index = (hash ^ (hash >>> 16)) & mask;
+            int id = buckets[index];
+            while (id != EMPTY && !equals(id, tuple)) {
+                index = (index + 1) & mask;
+                id = buckets[index];
+            }
+
+            // Create or count
+            if (id == EMPTY) {
+                id = classes++;
+                System.arraycopy(tuple, 0, tuples, id * columns, columns);
+                counts[id] = 0;
+                buckets[index] = id;
+            }
+            counts[id]++;
+        }
+
+        // Frequencies of frequencies
+        int singletons = 0;
+        int doubletons = 0;
+        for (int id = 0; id < classes; id++) {
+            if (counts[id] == 1) {
+                singletons++;
+            } else if (counts[id] == 2) {
+                doubletons++;
+            }
+        }
+
+        // Bias-corrected Chao1 estimator
+        double correction = (double) (rows - 1) / (double) rows;
+        double estimate = classes + correction * singletons * (singletons - 1) / (2d * (doubletons + 1));
+        return Math.min(estimate, rowsDataset);
+    }
+}
@@ -18,6 +18,15 @@ public class TransformationResult {
     
     /** Lower bound. */
     public final InformationLoss<?> lowerBound;
+    
+    /** Number of suppressed records, if tracking transformations. */
+    public final Integer            suppressedRecords;
+    
+    /** Highest re-identification risk, if tracking transformations. */
+    public final Double             highestRisk;
+    
+    /** Number of equivalence classes which are not suppressed, if tracking transformations. */
+    public final Integer            equivalenceClasses;
 
     /**
      * Creates a new instance.
@@ -31,10 +40,34 @@ public class TransformationResult {
            Boolean minimalClassSizeFulfilled,
            InformationLoss<?> infoLoss,
            InformationLoss<?> lowerBound) {
+        this(privacyModelFulfilled, minimalClassSizeFulfilled, infoLoss, lowerBound, null, null, null);
+    }
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param privacyModelFulfilled
+     * @param minimalClassSizeFulfilled
+     * @param infoLoss
+     * @param lowerBound
+     * @param suppressedRecords
+     * @param highestRisk
+     * @param equivalenceClasses
+     */
+    TransformationResult(Boolean privacyModelFulfilled,
+           Boolean minimalClassSizeFulfilled,
+           InformationLoss<?> infoLoss,
+           InformationLoss<?> lowerBound,
+           Integer suppressedRecords,
+           Double highestRisk,
+           Integer equivalenceClasses) {
         
         this.privacyModelFulfilled = privacyModelFulfilled;
         this.minimalClassSizeFulfilled = minimalClassSizeFulfilled;
         this.informationLoss = infoLoss;
         this.lowerBound = lowerBound;
+        this.suppressedRecords = suppressedRecords;
+        this.highestRisk = highestRisk;
+        this.equivalenceClasses = equivalenceClasses;
     }
 }
\ No newline at end of file
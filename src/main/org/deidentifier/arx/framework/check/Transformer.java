@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.framework.check;
 
+import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
@@ -40,6 +41,7 @@ import org.deidentifier.arx.framework.check.transformer.Transformer14;
 import org.deidentifier.arx.framework.check.transformer.Transformer15;
 import org.deidentifier.arx.framework.check.transformer.TransformerAll;
 import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixAggregated;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -80,6 +82,9 @@ public class Transformer {
     /** Number of columns to analyze */
     protected final int                       dataAnalyzedNumberOfColumns;
 
+    /** Snapshot of the distinct tuples of aggregated input, if any */
+    private int[]                             snapshotAggregated;
+
     /**
      * Instantiates a new transformer.
      *
@@ -104,8 +109,7 @@ public class Transformer {
         this.dataAnalyzedNumberOfColumns = dataAnalyzedNumberOfColumns;
         this.hierarchies = hierarchies;
         this.instances = new AbstractTransformer[16];
-        this.outputGeneralized = new DataMatrix(inputGeneralized.getNumRows(), 
-                                                inputGeneralized.getNumColumns());
+        this.outputGeneralized = inputGeneralized.newInstance(inputGeneralized.getNumColumns());
 
         this.dimensions = inputGeneralized.getNumColumns();
         this.dictionarySensValue = dictionarySensValue;
@@ -371,7 +375,15 @@ public class Transformer {
 
         HashGroupifyEntry element = null;
 
-        switch (transition) {
+        // Transform each distinct tuple of aggregated input only once
+        TransitionType _transition = transition;
+        int[] _snapshot = snapshot;
+        if (transition == TransitionType.UNOPTIMIZED && isAggregated()) {
+            _transition = TransitionType.SNAPSHOT;
+            _snapshot = getSnapshotAggregated();
+        }
+
+        switch (_transition) {
         case UNOPTIMIZED:
             startIndex = 0;
             stopIndex = inputGeneralized.getNumRows();
@@ -383,7 +395,7 @@ public class Transformer {
             break;
         case SNAPSHOT:
             startIndex = 0;
-            stopIndex = snapshot.length / config.getSnapshotLength();
+            stopIndex = _snapshot.length / config.getSnapshotLength();
             break;
         }
 
@@ -395,8 +407,8 @@ public class Transformer {
                  state,
                  target,
                  source,
-                 snapshot,
-                 transition,
+                 _snapshot,
+                 _transition,
                  startIndex,
                  stopIndex,
                  element,
@@ -405,6 +417,38 @@ public class Transformer {
         return transformer.call();
     }
 
+    /**
+     * Returns a snapshot, in which each distinct tuple of the aggregated input is a class
+     * @return
+     */
+    private int[] getSnapshotAggregated() {
+        if (snapshotAggregated == null) {
+            DataMatrixAggregated aggregated = (DataMatrixAggregated) inputGeneralized;
+            int length = config.getSnapshotLength();
+            snapshotAggregated = new int[aggregated.getNumTuples() * length];
+            for (int tuple = 0; tuple < aggregated.getNumTuples(); tuple++) {
+                int index = tuple * length;
+                snapshotAggregated[index] = aggregated.getFirstRow(tuple);
+                snapshotAggregated[index + 1] = aggregated.getCount(tuple);
+                if (length > 2) {
+                    snapshotAggregated[index + 2] = aggregated.getCount(tuple);
+                }
+            }
+        }
+        return snapshotAggregated;
+    }
+
+    /**
+     * Returns whether the input is aggregated and can be transformed tuple by tuple. This requires
+     * that neither distributions nor a research subset, which consist of rows, are needed.
+     * @return
+     */
+    private boolean isAggregated() {
+        return inputGeneralized instanceof DataMatrixAggregated &&
+               (config.getRequirements() & ARXConfiguration.REQUIREMENT_DISTRIBUTION) == 0 &&
+               config.getSubset() == null;
+    }
+
     /**
      * Gets the applicator.
      * 
@@ -0,0 +1,400 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixAggregated;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+
+/**
+ * Coordinates a set of local worker processes, each of which loads one shard of the input data
+ * from a CSV file. Workers only report the distinct tuples of quasi-identifiers in their shard
+ * together with their frequencies. The coordinator merges these summaries into an aggregated
+ * data matrix, which contains each distinct tuple once and is used by the search algorithm
+ * instead of the complete dataset. For a given transformation, the workers compute partial
+ * equivalence classes in parallel, which are merged into a snapshot of the complete dataset.
+ *
+ * @author Fabian Prasser
+ */
+public class DistributedCoordinator {
+
+    /** The worker processes */
+    private final Process[]          processes;
+
+    /** Input streams of the workers */
+    private final DataInputStream[]  inputs;
+
+    /** Output streams of the workers */
+    private final DataOutputStream[] outputs;
+
+    /** The common header of all shards */
+    private final String[]           header;
+
+    /** The aggregated data */
+    private DataMatrixAggregated     data;
+
+    /** Have the workers been terminated */
+    private boolean                  closed = false;
+
+    /**
+     * Starts one worker process for each shard. Workers are started with the given command,
+     * followed by the name of the worker class.
+     *
+     * @param command The command, e.g. the Java executable and the class path
+     * @param shards The shards, which are CSV files with a common header
+     * @param charset The charset of the shards
+     * @param delimiter The delimiter of the shards
+     * @throws IOException
+     */
+    public DistributedCoordinator(List<String> command,
+                                  File[] shards,
+                                  Charset charset,
+                                  char delimiter) throws IOException {
+
+        // Store
+        int workers = shards.length;
+        this.processes = new Process[workers];
+        this.inputs = new DataInputStream[workers];
+        this.outputs = new DataOutputStream[workers];
+
+        // Start processes
+        List<String> arguments = new ArrayList<String>(command);
+        arguments.add(DistributedWorker.class.getName());
+        ProcessBuilder builder = new ProcessBuilder(arguments);
+        builder.redirectError(Redirect.INHERIT);
+        try {
+            for (int worker = 0; worker < workers; worker++) {
+                processes[worker] = builder.start();
+                inputs[worker] = new DataInputStream(new BufferedInputStream(processes[worker].getInputStream()));
+                outputs[worker] = new DataOutputStream(new BufferedOutputStream(processes[worker].getOutputStream()));
+                outputs[worker].writeUTF(shards[worker].getAbsolutePath());
+                outputs[worker].writeUTF(charset.name());
+                outputs[worker].writeChar(delimiter);
+                outputs[worker].flush();
+            }
+
+            // Collect headers
+            String[] header = null;
+            for (int worker = 0; worker < workers; worker++) {
+                String[] current = new String[inputs[worker].readInt()];
+                for (int column = 0; column < current.length; column++) {
+                    current[column] = inputs[worker].readUTF();
+                }
+                if (header != null && !Arrays.equals(header, current)) {
+                    throw new IllegalArgumentException("All shards must have the same header");
+                }
+                header = current;
+            }
+            this.header = header;
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Terminates all worker processes
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int worker = 0; worker < processes.length; worker++) {
+            if (processes[worker] != null) {
+                try {
+                    outputs[worker].writeInt(DistributedWorker.COMMAND_TERMINATE);
+                    outputs[worker].close();
+                    processes[worker].waitFor();
+                } catch (IOException e) {
+                    processes[worker].destroy();
+                } catch (InterruptedException e) {
+                    processes[worker].destroy();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the common header of all shards
+     * @return
+     */
+    public String[] getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the number of workers
+     * @return
+     */
+    public int getNumberOfWorkers() {
+        return processes.length;
+    }
+
+    /**
+     * Returns a snapshot of the given transformation of the complete dataset. Classes are represented
+     * by rows of the aggregated data and ordered by their representatives.
+     *
+     * @param generalization
+     * @return
+     */
+    public int[] getSnapshot(int[] generalization) {
+
+        try {
+
+            // Send requests, which are processed in parallel
+            for (DataOutputStream output : outputs) {
+                output.writeInt(DistributedWorker.COMMAND_AGGREGATE);
+                for (int level : generalization) {
+                    output.writeInt(level);
+                }
+                output.flush();
+            }
+
+            // Collect partial snapshots
+            int[][] partial = new int[inputs.length][];
+            int length = 0;
+            for (int worker = 0; worker < inputs.length; worker++) {
+                DataInputStream input = inputs[worker];
+                partial[worker] = new int[input.readInt() * 2];
+                for (int i = 0; i < partial[worker].length; i++) {
+                    partial[worker][i] = input.readInt();
+                }
+                length += partial[worker].length;
+            }
+
+            // Merge. Classes which first occur in a later shard have
+            // representatives which are larger than those of all classes
+            // of previous shards.
+            int[] snapshot = new int[length];
+            int offset = 0;
+            for (int[] part : partial) {
+                System.arraycopy(part, 0, snapshot, offset, part.length);
+                offset += part.length;
+            }
+            return snapshot;
+
+        } catch (IOException e) {
+            close();
+            throw new IllegalStateException("Communication with worker process failed", e);
+        }
+    }
+
+    /**
+     * Lets the workers load their shards and returns the aggregated data. The given
+     * quasi-identifiers are encoded with the given dictionary, in the same order in
+     * which they would be encoded when loading all shards into one dataset. The rows
+     * of the aggregated data are a permutation of the rows of this dataset.
+     *
+     * @param columns The indices of the quasi-identifiers
+     * @param dictionary An empty dictionary with one dimension for each quasi-identifier
+     * @return
+     * @throws IOException
+     */
+    public DataMatrix load(int[] columns, Dictionary dictionary) throws IOException {
+
+        try {
+
+            // Send requests, which are processed in parallel
+            for (DataOutputStream output : outputs) {
+                output.writeInt(DistributedWorker.COMMAND_LOAD);
+                output.writeInt(columns.length);
+                for (int column : columns) {
+                    output.writeInt(column);
+                }
+                output.flush();
+            }
+
+            // Merge summaries in the order of the shards
+            IntArrayDictionary tuples = new IntArrayDictionary(16);
+            int[] counts = new int[16];
+            int size = 0;
+            int[][] identifiers = new int[inputs.length][];
+            for (int worker = 0; worker < inputs.length; worker++) {
+
+                // Local dictionary
+                DataInputStream input = inputs[worker];
+                int[][] codes = new int[columns.length][];
+                for (int column = 0; column < columns.length; column++) {
+                    String[] values = new String[input.readInt()];
+                    for (int code = 0; code < values.length; code++) {
+                        values[code] = input.readUTF();
+                    }
+                    codes[column] = new int[values.length];
+                    for (int code = 0; code < values.length; code++) {
+                        codes[column][code] = dictionary.register(column, values[code]);
+                    }
+                }
+
+                // Distinct tuples
+                identifiers[worker] = new int[input.readInt()];
+                for (int id = 0; id < identifiers[worker].length; id++) {
+                    int[] tuple = new int[columns.length];
+                    for (int column = 0; column < columns.length; column++) {
+                        tuple[column] = codes[column][input.readInt()];
+                    }
+                    int identifier = tuples.probe(tuple);
+                    if (identifier == size) {
+                        size++;
+                        if (size > counts.length) {
+                            counts = Arrays.copyOf(counts, counts.length * 2);
+                        }
+                    }
+                    counts[identifier] += input.readInt();
+                    identifiers[worker][id] = identifier;
+                }
+
+                // Global encoding
+                DataOutputStream output = outputs[worker];
+                for (int[] column : codes) {
+                    output.writeInt(column.length);
+                    for (int code : column) {
+                        output.writeInt(code);
+                    }
+                }
+            }
+            dictionary.finalizeAll();
+
+            // Create aggregated data
+            DataMatrix matrix = new DataMatrix(size, columns.length);
+            for (int identifier = 0; identifier < size; identifier++) {
+                matrix.setRow(identifier, tuples.get(identifier));
+            }
+            this.data = new DataMatrixAggregated(matrix, Arrays.copyOf(counts, size));
+
+            // Send identifiers and representatives
+            for (int worker = 0; worker < outputs.length; worker++) {
+                DataOutputStream output = outputs[worker];
+                for (int identifier : identifiers[worker]) {
+                    output.writeInt(identifier);
+                    output.writeInt(data.getFirstRow(identifier));
+                }
+                output.flush();
+            }
+            return data;
+
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the hierarchies to the workers
+     *
+     * @param hierarchies
+     * @throws IOException
+     */
+    public void setHierarchies(GeneralizationHierarchy[] hierarchies) throws IOException {
+        try {
+            for (DataOutputStream output : outputs) {
+                output.writeInt(DistributedWorker.COMMAND_HIERARCHIES);
+                for (GeneralizationHierarchy hierarchy : hierarchies) {
+                    int[][] array = hierarchy.getArray();
+                    int levels = array.length == 0 ? 0 : array[0].length;
+                    output.writeInt(array.length);
+                    output.writeInt(levels);
+                    for (int[] value : array) {
+                        for (int level = 0; level < levels; level++) {
+                            output.writeInt(value[level]);
+                        }
+                    }
+                }
+                output.flush();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lets the workers transform their shards and write them to the given files. Quasi-identifiers
+     * are generalized with the given transformation, removed attributes are replaced by "*" and
+     * suppressed attributes are replaced by "*" in all rows that are marked as outliers in the
+     * given data. All other attributes are preserved.
+     *
+     * @param files The output files, one for each shard
+     * @param generalization The transformation
+     * @param transformed The transformed aggregated data with outliers being marked
+     * @param dictionary The dictionary of the transformed data
+     * @param removed Whether each attribute is removed
+     * @param suppressed Whether each attribute is suppressed in outliers
+     * @throws IOException
+     */
+    public void write(File[] files,
+                      int[] generalization,
+                      DataMatrix transformed,
+                      Dictionary dictionary,
+                      boolean[] removed,
+                      boolean[] suppressed) throws IOException {
+
+        try {
+
+            // Send requests, which are processed in parallel
+            String[][] mapping = dictionary.getMapping();
+            for (int worker = 0; worker < outputs.length; worker++) {
+                DataOutputStream output = outputs[worker];
+                output.writeInt(DistributedWorker.COMMAND_WRITE);
+                output.writeUTF(files[worker].getAbsolutePath());
+                for (int level : generalization) {
+                    output.writeInt(level);
+                }
+                for (int column = 0; column < header.length; column++) {
+                    output.writeBoolean(removed[column]);
+                    output.writeBoolean(suppressed[column]);
+                }
+                for (int column = 0; column < generalization.length; column++) {
+                    output.writeInt(mapping[column].length);
+                    for (String value : mapping[column]) {
+                        output.writeUTF(value);
+                    }
+                }
+                output.writeInt(data.getNumTuples());
+                for (int tuple = 0; tuple < data.getNumTuples(); tuple++) {
+                    output.writeBoolean((transformed.get(data.getFirstRow(tuple), 0) & Data.OUTLIER_MASK) != 0);
+                }
+                output.flush();
+            }
+
+            // Wait for the workers
+            for (DataInputStream input : inputs) {
+                input.readInt();
+            }
+
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,479 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.CSVDataInput;
+import org.deidentifier.arx.io.CSVDataOutput;
+
+/**
+ * A worker process, which loads a shard of the input data from a CSV file and returns partial
+ * equivalence classes for requested transformations. The shard is only stored as a set of
+ * distinct tuples of quasi-identifiers and their frequencies. It communicates with the
+ * coordinator via standard input and standard output.
+ *
+ * @author Fabian Prasser
+ */
+public class DistributedWorker {
+
+    /** Command: terminate */
+    static final int         COMMAND_TERMINATE   = 0;
+
+    /** Command: aggregate */
+    static final int         COMMAND_AGGREGATE   = 1;
+
+    /** Command: load the shard */
+    static final int         COMMAND_LOAD        = 2;
+
+    /** Command: set the hierarchies */
+    static final int         COMMAND_HIERARCHIES = 3;
+
+    /** Command: write the output */
+    static final int         COMMAND_WRITE       = 4;
+
+    /** Marker for empty buckets */
+    private static final int EMPTY               = -1;
+
+    /**
+     * Main entry point of the worker process
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        // Protect the channel from anything written to standard output
+        PrintStream channel = System.out;
+        System.setOut(System.err);
+
+        // Run
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(channel));
+        DistributedWorker worker = new DistributedWorker(in, out);
+        out.flush();
+        while (true) {
+            int command = in.readInt();
+            if (command == COMMAND_TERMINATE) {
+                break;
+            } else if (command == COMMAND_AGGREGATE) {
+                worker.aggregate(in, out);
+            } else if (command == COMMAND_LOAD) {
+                worker.load(in, out);
+            } else if (command == COMMAND_HIERARCHIES) {
+                worker.setHierarchies(in);
+            } else if (command == COMMAND_WRITE) {
+                worker.write(in, out);
+            } else {
+                throw new IOException("Unknown command: " + command);
+            }
+            out.flush();
+        }
+        out.close();
+    }
+
+    /** The shard */
+    private final File         file;
+
+    /** The charset */
+    private final Charset      charset;
+
+    /** The delimiter */
+    private final char         delimiter;
+
+    /** The header */
+    private final String[]     header;
+
+    /** Indices of the quasi-identifiers in the header */
+    private int[]              columns;
+
+    /** Local dictionary of values of quasi-identifiers */
+    private Dictionary         dictionary;
+
+    /** Local index of each distinct tuple */
+    private IntArrayDictionary index;
+
+    /** Number of distinct tuples */
+    private int                size;
+
+    /** Distinct tuples encoded with the global dictionary, row-major */
+    private int[]              tuples;
+
+    /** Frequencies of the distinct tuples */
+    private int[]              counts;
+
+    /** Global index of each distinct tuple */
+    private int[]              identifiers;
+
+    /** Global row representing each distinct tuple */
+    private int[]              representatives;
+
+    /** Distinct tuples, ordered by their representatives */
+    private int[]              order;
+
+    /** The hierarchies, encoded with the global dictionary */
+    private int[][][]          hierarchies;
+
+    /** Hash table */
+    private int[]              buckets;
+
+    /**
+     * Opens the shard described in the given stream and returns its header
+     * @param in
+     * @param out
+     * @throws IOException
+     */
+    DistributedWorker(DataInputStream in, DataOutputStream out) throws IOException {
+
+        // Shard
+        this.file = new File(in.readUTF());
+        this.charset = Charset.forName(in.readUTF());
+        this.delimiter = in.readChar();
+
+        // Header
+        CSVDataInput input = new CSVDataInput(file, charset, delimiter);
+        Iterator<String[]> iterator = input.iterator();
+        this.header = iterator.hasNext() ? iterator.next() : new String[0];
+        input.close();
+        out.writeInt(header.length);
+        for (String attribute : header) {
+            out.writeUTF(attribute);
+        }
+    }
+
+    /**
+     * Groups the shard according to the given transformation and writes the
+     * resulting classes in snapshot format, ordered by their representatives
+     *
+     * @param in
+     * @param out
+     * @throws IOException
+     */
+    void aggregate(DataInputStream in, DataOutputStream out) throws IOException {
+
+        // Prepare
+        int width = columns.length;
+        int[] generalization = new int[width];
+        for (int column = 0; column < width; column++) {
+            generalization[column] = in.readInt();
+        }
+        Arrays.fill(buckets, EMPTY);
+        int mask = buckets.length - 1;
+        int[] classes = new int[size * width];
+        int[] classRepresentatives = new int[size];
+        int[] classCounts = new int[size];
+        int[] tuple = new int[width];
+        int number = 0;
+
+        // Group
+        for (int id : order) {
+
+            // Transform and hash
+            int hash = 23;
+            for (int column = 0; column < width; column++) {
+                tuple[column] = hierarchies[column][tuples[id * width + column]][generalization[column]];
+                hash = (31 * hash) + tuple[column];
+            }
+
+            // Probe
+            int bucket = (hash ^ (hash >>> 16)) & mask;
+            int clazz = buckets[bucket];
+            while (clazz != EMPTY && !equals(classes, clazz, tuple)) {
+                bucket = (bucket + 1) & mask;
+                clazz = buckets[bucket];
+            }
+
+            // Create
+            if (clazz == EMPTY) {
+                clazz = number++;
+                System.arraycopy(tuple, 0, classes, clazz * width, width);
+                classRepresentatives[clazz] = representatives[id];
+                buckets[bucket] = clazz;
+            }
+            classCounts[clazz] += counts[id];
+        }
+
+        // Write
+        out.writeInt(number);
+        for (int clazz = 0; clazz < number; clazz++) {
+            out.writeInt(classRepresentatives[clazz]);
+            out.writeInt(classCounts[clazz]);
+        }
+    }
+
+    /**
+     * Loads the shard and returns its distinct tuples. Afterwards, reads
+     * their global encoding and representatives.
+     *
+     * @param in
+     * @param out
+     * @throws IOException
+     */
+    void load(DataInputStream in, DataOutputStream out) throws IOException {
+
+        // Columns
+        int width = in.readInt();
+        this.columns = new int[width];
+        for (int column = 0; column < width; column++) {
+            columns[column] = in.readInt();
+        }
+
+        // Encode
+        this.dictionary = new Dictionary(width);
+        this.index = new IntArrayDictionary(16);
+        this.size = 0;
+        this.tuples = new int[16 * width];
+        this.counts = new int[16];
+        Iterator<String[]> iterator = new CSVDataInput(file, charset, delimiter).iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+        }
+        while (iterator.hasNext()) {
+            int id = index.probe(encode(iterator.next(), false));
+            if (id == size) {
+                size++;
+                if (size > counts.length) {
+                    tuples = Arrays.copyOf(tuples, counts.length * 2 * width);
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+                System.arraycopy(index.get(id), 0, tuples, id * width, width);
+            }
+            counts[id]++;
+        }
+
+        // Write the dictionary
+        dictionary.finalizeAll();
+        String[][] mapping = dictionary.getMapping();
+        for (int column = 0; column < width; column++) {
+            out.writeInt(mapping[column].length);
+            for (String value : mapping[column]) {
+                out.writeUTF(value);
+            }
+        }
+        dictionary.definalizeAll();
+
+        // Write the tuples
+        out.writeInt(size);
+        for (int id = 0; id < size; id++) {
+            for (int column = 0; column < width; column++) {
+                out.writeInt(tuples[id * width + column]);
+            }
+            out.writeInt(counts[id]);
+        }
+        out.flush();
+
+        // Read the global encoding
+        int[][] codes = new int[width][];
+        for (int column = 0; column < width; column++) {
+            codes[column] = new int[in.readInt()];
+            for (int code = 0; code < codes[column].length; code++) {
+                codes[column][code] = in.readInt();
+            }
+        }
+        for (int i = 0; i < size * width; i++) {
+            tuples[i] = codes[i % width][tuples[i]];
+        }
+
+        // Read the representatives
+        this.identifiers = new int[size];
+        this.representatives = new int[size];
+        long[] sorted = new long[size];
+        for (int id = 0; id < size; id++) {
+            identifiers[id] = in.readInt();
+            representatives[id] = in.readInt();
+            sorted[id] = ((long) representatives[id] << 32) | id;
+        }
+        Arrays.sort(sorted);
+        this.order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) sorted[i];
+        }
+
+        // Buffers
+        int capacity = 1;
+        while (capacity < (size << 1)) {
+            capacity <<= 1;
+        }
+        this.buckets = new int[capacity];
+    }
+
+    /**
+     * Reads the hierarchies
+     * @param in
+     * @throws IOException
+     */
+    void setHierarchies(DataInputStream in) throws IOException {
+        this.hierarchies = new int[columns.length][][];
+        for (int column = 0; column < columns.length; column++) {
+            int values = in.readInt();
+            int levels = in.readInt();
+            int[][] hierarchy = new int[values][levels];
+            for (int value = 0; value < values; value++) {
+                for (int level = 0; level < levels; level++) {
+                    hierarchy[value][level] = in.readInt();
+                }
+            }
+            this.hierarchies[column] = hierarchy;
+        }
+    }
+
+    /**
+     * Transforms the shard and writes it to the given file
+     * @param in
+     * @param out
+     * @throws IOException
+     */
+    void write(DataInputStream in, DataOutputStream out) throws IOException {
+
+        // Output file and transformation
+        final File output = new File(in.readUTF());
+        final int width = columns.length;
+        final int[] generalization = new int[width];
+        for (int column = 0; column < width; column++) {
+            generalization[column] = in.readInt();
+        }
+
+        // Treatment of attributes
+        final boolean[] removed = new boolean[header.length];
+        final boolean[] suppressed = new boolean[header.length];
+        for (int column = 0; column < header.length; column++) {
+            removed[column] = in.readBoolean();
+            suppressed[column] = in.readBoolean();
+        }
+
+        // Global dictionary
+        final String[][] mapping = new String[width][];
+        for (int column = 0; column < width; column++) {
+            mapping[column] = new String[in.readInt()];
+            for (int code = 0; code < mapping[column].length; code++) {
+                mapping[column][code] = in.readUTF();
+            }
+        }
+
+        // Suppressed tuples
+        final boolean[] outliers = new boolean[in.readInt()];
+        for (int i = 0; i < outliers.length; i++) {
+            outliers[i] = in.readBoolean();
+        }
+
+        // Transform
+        final Iterator<String[]> input = new CSVDataInput(file, charset, delimiter).iterator();
+        if (input.hasNext()) {
+            input.next();
+        }
+        new CSVDataOutput(output, delimiter).write(new Iterator<String[]>() {
+
+            /** Whether the header has been returned */
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                return first || input.hasNext();
+            }
+
+            @Override
+            public String[] next() {
+                if (first) {
+                    first = false;
+                    return header;
+                }
+                String[] row = input.next();
+                int[] codes = encode(row, true);
+                int id = index.probe(codes);
+                boolean outlier = outliers[identifiers[id]];
+                String[] result = new String[header.length];
+                for (int column = 0; column < header.length; column++) {
+                    if (removed[column] || (outlier && suppressed[column])) {
+                        result[column] = DataType.ANY_VALUE;
+                    } else {
+                        result[column] = getValue(row, column);
+                    }
+                }
+                for (int column = 0; column < width; column++) {
+                    if (!outlier || !suppressed[columns[column]]) {
+                        int code = tuples[id * width + column];
+                        result[columns[column]] = mapping[column][hierarchies[column][code][generalization[column]]];
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        // Done
+        out.writeInt(0);
+    }
+
+    /**
+     * Encodes the quasi-identifiers of the given row with the local dictionary
+     * @param row
+     * @param known Whether all values are known to be contained in the dictionary
+     * @return
+     */
+    private int[] encode(String[] row, boolean known) {
+        int[] result = new int[columns.length];
+        for (int column = 0; column < columns.length; column++) {
+            String value = getValue(row, columns[column]);
+            result[column] = known ? dictionary.probe(column, value) : dictionary.register(column, value);
+        }
+        return result;
+    }
+
+    /**
+     * Compares the tuple of the given class to the given tuple
+     * @param classes
+     * @param clazz
+     * @param tuple
+     * @return
+     */
+    private boolean equals(int[] classes, int clazz, int[] tuple) {
+        int base = clazz * tuple.length;
+        for (int column = 0; column < tuple.length; column++) {
+            if (classes[base + column] != tuple[column]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value in the given column, as it is encoded by ARX
+     * @param row
+     * @param column
+     * @return
+     */
+    private String getValue(String[] row, int column) {
+        String value = column < row.length ? row[column] : DataType.NULL_VALUE;
+        return value != null ? value : DataType.NULL_VALUE;
+    }
+}
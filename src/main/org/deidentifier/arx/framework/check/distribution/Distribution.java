@@ -45,6 +45,12 @@ public class Distribution {
     /** The elements. Even index contains value, odd index contains frequency */
     private int[]              elements;
 
+    /** The interned values, if the distribution has been restored from a history entry */
+    private int[]              internedElements;
+
+    /** The interned frequencies, if the distribution has been restored from a history entry */
+    private int[]              internedFrequencies;
+
     /**
      * Default constructor.
      */
@@ -65,6 +71,8 @@ public class Distribution {
                 this.add(element[i], frequency[i]);
             }
         }
+        this.internedElements = element;
+        this.internedFrequencies = frequency;
     }
 
     /**
@@ -98,6 +106,8 @@ public class Distribution {
      */
     public void add(final int element, final int value) {
 
+        internedElements = null;
+        internedFrequencies = null;
         final int mask = (elements.length - 1);
         int index = (element & ((elements.length >> 1) - 1)) << 1; // start at home bucket
         while (true) {
@@ -126,6 +136,8 @@ public class Distribution {
     public void clear() {
         Arrays.fill(elements, -1);
         size = 0;
+        internedElements = null;
+        internedFrequencies = null;
     }
     
     /**
@@ -137,6 +149,26 @@ public class Distribution {
         return elements;
     }
 
+    /**
+     * Returns the interned values of the history entry from which this distribution
+     * has been restored. Returns null, if the distribution has been modified since.
+     *
+     * @return
+     */
+    public int[] getInternedElements() {
+        return internedElements;
+    }
+
+    /**
+     * Returns the interned frequencies of the history entry from which this distribution
+     * has been restored. Returns null, if the distribution has been modified since.
+     *
+     * @return
+     */
+    public int[] getInternedFrequencies() {
+        return internedFrequencies;
+    }
+
     /**
      * Merges two frequency sets.
      * 
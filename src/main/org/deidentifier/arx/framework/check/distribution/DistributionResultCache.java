@@ -0,0 +1,205 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.distribution;
+
+/**
+ * A cache for the results of checking privacy models on distributions of sensitive values.
+ * Only distributions which have been restored from the history are cached. They are identified
+ * by the arrays interned in the history's dictionaries and the size of the class.
+ *
+ * @author Fabian Prasser
+ */
+public class DistributionResultCache {
+
+    /**
+     * An entry in the cache
+     *
+     * @author Fabian Prasser
+     */
+    private static class Entry {
+
+        /** Interned values */
+        private final int[]   elements;
+
+        /** Interned frequencies */
+        private final int[]   frequencies;
+
+        /** Size of the class */
+        private final int     count;
+
+        /** Hash code */
+        private final int     hashcode;
+
+        /** Result */
+        private final boolean result;
+
+        /** Next entry */
+        private Entry         next;
+
+        /**
+         * Creates a new instance
+         * @param elements
+         * @param frequencies
+         * @param count
+         * @param hashcode
+         * @param result
+         */
+        private Entry(int[] elements, int[] frequencies, int count, int hashcode, boolean result) {
+            this.elements = elements;
+            this.frequencies = frequencies;
+            this.count = count;
+            this.hashcode = hashcode;
+            this.result = result;
+        }
+    }
+
+    /** Result, if nothing is known */
+    public static final int    UNKNOWN          = -1;
+
+    /** The initial capacity of the hash table. */
+    private static final int   INITIAL_CAPACITY = 1 << 10;
+
+    /** The maximal number of entries. The cache is cleared when it is exceeded */
+    private static final int   MAXIMAL_SIZE     = 1 << 16;
+
+    /** The load factor. */
+    private static final float LOADFACTOR       = 0.75f;
+
+    /** The buckets */
+    private Entry[]            buckets          = new Entry[INITIAL_CAPACITY];
+
+    /** The number of entries */
+    private int                size             = 0;
+
+    /** Number of lookups of distributions which can be cached */
+    private long               lookups          = 0;
+
+    /** Number of hits */
+    private long               hits             = 0;
+
+    /**
+     * Clears the cache. Statistics are retained.
+     */
+    public void clear() {
+        this.buckets = new Entry[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the cached result for the given distribution and class size: 1 if the privacy
+     * model is fulfilled, 0 if it is not fulfilled and <code>UNKNOWN</code> otherwise.
+     *
+     * @param distribution
+     * @param count
+     * @return
+     */
+    public int get(Distribution distribution, int count) {
+        int[] elements = distribution.getInternedElements();
+        if (elements == null) {
+            return UNKNOWN;
+        }
+        this.lookups++;
+        int[] frequencies = distribution.getInternedFrequencies();
+        int hash = hashCode(elements, frequencies, count);
+        Entry entry = buckets[hash & (buckets.length - 1)];
+        while (entry != null) {
+            if (entry.hashcode == hash && entry.elements == elements &&
+                entry.frequencies == frequencies && entry.count == count) {
+                this.hits++;
+                return entry.result ? 1 : 0;
+            }
+            entry = entry.next;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the number of hits
+     * @return
+     */
+    public long getNumberOfHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups of distributions which have been restored from
+     * the history. Other distributions are never cached and are thus not counted.
+     * @return
+     */
+    public long getNumberOfLookups() {
+        return lookups;
+    }
+
+    /**
+     * Stores the result for the given distribution and class size, if the
+     * distribution has been restored from the history
+     *
+     * @param distribution
+     * @param count
+     * @param result
+     */
+    public void put(Distribution distribution, int count, boolean result) {
+        int[] elements = distribution.getInternedElements();
+        if (elements == null) {
+            return;
+        }
+        if (size == MAXIMAL_SIZE) {
+            clear();
+        } else if (size > buckets.length * LOADFACTOR) {
+            rehash();
+        }
+        int[] frequencies = distribution.getInternedFrequencies();
+        int hash = hashCode(elements, frequencies, count);
+        int index = hash & (buckets.length - 1);
+        Entry entry = new Entry(elements, frequencies, count, hash, result);
+        entry.next = buckets[index];
+        buckets[index] = entry;
+        size++;
+    }
+
+    /**
+     * Computes a hash code
+     * @param elements
+     * @param frequencies
+     * @param count
+     * @return
+     */
+    private int hashCode(int[] elements, int[] frequencies, int count) {
+        int hash = System.identityHashCode(elements);
+        hash = 31 * hash + System.identityHashCode(frequencies);
+        hash = 31 * hash + count;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Doubles the number of buckets
+     */
+    private void rehash() {
+        Entry[] newBuckets = new Entry[buckets.length << 1];
+        for (Entry entry : buckets) {
+            while (entry != null) {
+                Entry next = entry.next;
+                int index = entry.hashcode & (newBuckets.length - 1);
+                entry.next = newBuckets[index];
+                newBuckets[index] = entry;
+                entry = next;
+            }
+        }
+        this.buckets = newBuckets;
+    }
+}
@@ -28,12 +28,11 @@ import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFu
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataAggregationInformation;
 import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixAggregated;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.Metric;
 
-import com.carrotsearch.hppc.ObjectIntOpenHashMap;
-
 /**
  * A hash groupify operator. It implements a hash table with chaining and keeps
  * track of additional properties per equivalence class
@@ -43,12 +42,42 @@ import com.carrotsearch.hppc.ObjectIntOpenHashMap;
  */
 public class HashGroupify {
 
+    /** Number of classes which are checked in one batch. */
+    private static final int             BATCH_SIZE = 256;
+
+    /** Batch: classes. */
+    private final HashGroupifyEntry[]    batchEntries = new HashGroupifyEntry[BATCH_SIZE];
+
+    /** Batch: sizes of the classes. */
+    private final int[]                  batchCounts = new int[BATCH_SIZE];
+
+    /** Batch: sizes of the classes, including tuples from the public table. */
+    private final int[]                  batchPCounts = new int[BATCH_SIZE];
+
+    /** Batch: results, see isPrivacyModelFulfilled(). */
+    private final int[]                  batchResults = new int[BATCH_SIZE];
+
     /** Criteria. */
     private final PrivacyCriterion[]     classBasedCriteria;
 
     /** The current number of outliers. */
     private int                          currentNumOutliers;
 
+    /** The current number of classes which contain at least one tuple. */
+    private int                          currentNumNonEmptyClasses;
+
+    /** The current sum of squared class sizes. */
+    private long                         currentSumOfSquaredClassSizes;
+
+    /** The current number of suppressed classes which contain at least one tuple. */
+    private int                          currentNumSuppressedClasses;
+
+    /** The current sum of the sizes of suppressed classes. */
+    private long                         currentSumOfSuppressedClassSizes;
+
+    /** The current sum of squared sizes of suppressed classes. */
+    private long                         currentSumOfSquaredSuppressedClassSizes;
+
     /** The entry array. */
     private HashGroupifyEntry[]          hashTableBuckets;
 
@@ -288,6 +317,24 @@ public class HashGroupify {
         return hashTableFirstEntry;
     }
     
+    /**
+     * Returns the highest re-identification risk of records which are not suppressed, i.e. one
+     * divided by the size of the smallest class which is not an outlier. Returns zero if all records
+     * are suppressed. Only consistent for transformations which fulfill the privacy model.
+     * @return
+     */
+    public double getHighestRisk() {
+        int minimum = Integer.MAX_VALUE;
+        HashGroupifyEntry entry = hashTableFirstEntry;
+        while (entry != null) {
+            if (entry.isNotOutlier && entry.count > 0 && entry.count < minimum) {
+                minimum = entry.count;
+            }
+            entry = entry.nextOrdered;
+        }
+        return minimum == Integer.MAX_VALUE ? 0d : 1d / (double) minimum;
+    }
+    
     /**
      * Returns the input data matrix
      * @return
@@ -304,6 +351,62 @@ public class HashGroupify {
         return hashTableElementCount;
     }
     
+    /**
+     * Returns the current number of classes which contain at least one tuple.
+     * Maintained while tuples are added, e.g. from the classes of a snapshot.
+     * @return
+     */
+    public int getNumberOfNonEmptyEquivalenceClasses() {
+        return currentNumNonEmptyClasses;
+    }
+    
+    /**
+     * Returns the number of classes which contain at least one tuple that is not suppressed.
+     * Only consistent for transformations which fulfill the privacy model.
+     * @return
+     */
+    public int getNumberOfNonSuppressedEquivalenceClasses() {
+        return currentNumNonEmptyClasses - currentNumSuppressedClasses;
+    }
+    
+    /**
+     * Returns the current number of suppressed records. Only consistent for transformations
+     * which fulfill the privacy model.
+     * @return
+     */
+    public int getNumberOfSuppressedRecords() {
+        return currentNumOutliers;
+    }
+    
+    /**
+     * Returns the current sum of squared class sizes. Maintained while tuples are added
+     * by adding the difference to the previous contribution of the class they are merged into.
+     * @return
+     */
+    public long getSumOfSquaredClassSizes() {
+        return currentSumOfSquaredClassSizes;
+    }
+    
+    /**
+     * Returns the current sum of squared sizes of suppressed classes. Maintained whenever
+     * the size or the suppression state of a class changes. Only consistent for transformations
+     * which fulfill the privacy model.
+     * @return
+     */
+    public long getSumOfSquaredSuppressedClassSizes() {
+        return currentSumOfSquaredSuppressedClassSizes;
+    }
+    
+    /**
+     * Returns the current sum of the sizes of suppressed classes. Maintained whenever
+     * the size or the suppression state of a class changes. Only consistent for transformations
+     * which fulfill the privacy model.
+     * @return
+     */
+    public long getSumOfSuppressedClassSizes() {
+        return currentSumOfSuppressedClassSizes;
+    }
+    
     /**
      * Returns the output data
      * @return
@@ -347,7 +450,8 @@ public class HashGroupify {
         Data result = Data.createWrapper(new DataMatrix(dataOutput.getNumRows(), indices.length), header, columns, dictionary);
 
         // TODO: To improve performance, microaggregation and marking of outliers could be performed in one pass
-        ObjectIntOpenHashMap<Distribution> cache = new ObjectIntOpenHashMap<Distribution>();
+        // Aggregates are computed once per class and then copied into all of its records
+        DataMatrix array = result.getArray();
         for (int row = 0; row < dataOutput.getNumRows(); row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
                 final int hash = dataOutput.hashCode(row);
@@ -357,18 +461,13 @@ public class HashGroupify {
                     m = m.next;
                 }
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before performing microaggregation!"); }
-                result.getArray().iterator(row);
-                for (int i = 0; i < indices.length; i++) {
-                    int columnIndex = indices[i];
-                    Distribution distribution = m.distributions[columnIndex];
-                    int code = cache.getOrDefault(distribution, -1);
-                    if (code == -1) {
-                        String value = functions[i].aggregate(distribution);
-                        code = result.getDictionary().register(i, value);
-                        cache.put(distribution, code);
+                if (m.aggregates == null) {
+                    m.aggregates = new int[indices.length];
+                    for (int i = 0; i < indices.length; i++) {
+                        m.aggregates[i] = dictionary.register(i, functions[i].aggregate(m.distributions[indices[i]]));
                     }
-                    result.getArray().iterator_write(code);
                 }
+                array.setRow(row, m.aggregates);
             }
         }
         
@@ -386,6 +485,12 @@ public class HashGroupify {
      */
     public void performSuppression() {
         
+        // Suppress each distinct tuple of aggregated data only once
+        if (dataOutput instanceof DataMatrixAggregated && privacyModelDefinesSubset == null) {
+            performSuppression((DataMatrixAggregated) dataOutput);
+            return;
+        }
+        
         for (int row = 0; row < dataOutput.getNumRows(); row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
                 final int hash = dataOutput.hashCode(row);
@@ -423,6 +528,11 @@ public class HashGroupify {
         if (hashTableElementCount > 0) {
             this.hashTableElementCount = 0;
             this.currentNumOutliers = 0;
+            this.currentNumNonEmptyClasses = 0;
+            this.currentSumOfSquaredClassSizes = 0;
+            this.currentNumSuppressedClasses = 0;
+            this.currentSumOfSuppressedClassSizes = 0;
+            this.currentSumOfSquaredSuppressedClassSizes = 0;
             this.hashTableFirstEntry = null;
             this.hashTableLastEntry = null;
             HashTableUtil.nullifyArray(hashTableBuckets);
@@ -439,6 +549,9 @@ public class HashGroupify {
             entry = entry.nextOrdered;
         }
         this.currentNumOutliers = 0;
+        this.currentNumSuppressedClasses = 0;
+        this.currentSumOfSuppressedClassSizes = 0;
+        this.currentSumOfSquaredSuppressedClassSizes = 0;
     }
     
     /**
@@ -468,8 +581,16 @@ public class HashGroupify {
         count = (privacyModelDefinesSubset != null && !privacyModelDefinesSubset.contains(representative)) ? 0 : count;
         
         // Track size: private table for d-presence, overall table, else
+        long previous = entry.count;
+        boolean previouslySuppressed = !entry.isNotOutlier && previous > 0;
         entry.count += count;
         
+        // Track contributions of classes
+        if (previous == 0 && entry.count > 0) {
+            currentNumNonEmptyClasses++;
+        }
+        currentSumOfSquaredClassSizes += (long) entry.count * (long) entry.count - previous * previous;
+        
         // Indirectly check if we enforce d-presence
         if (privacyModelDefinesSubset != null) {
             
@@ -509,6 +630,7 @@ public class HashGroupify {
         } else {
             currentNumOutliers += count;
         }
+        updateSuppressedClasses(entry, previous, previouslySuppressed);
         
         // Return
         return entry;
@@ -526,32 +648,45 @@ public class HashGroupify {
         // Iterate over all classes
         boolean dpresent = true;
         currentNumOutliers = 0;
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
+        HashGroupifyEntry next = hashTableFirstEntry;
+        while (next != null) {
             
-            // Check for anonymity
-            int anonymous = isPrivacyModelFulfilled(transformation, entry);
+            // Check a batch of classes for anonymity
+            int size = 0;
+            for (; next != null && size < BATCH_SIZE; next = next.nextOrdered) {
+                batchEntries[size] = next;
+                batchCounts[size] = next.count;
+                batchPCounts[size] = next.pcount;
+                size++;
+            }
+            isPrivacyModelFulfilled(transformation, size);
             
-            // Determine outliers
-            if (anonymous != -1) {
+            for (int i = 0; i < size; i++) {
                 
-                // Note: If d-presence exists, it is stored at criteria[0] by convention.
-                // If it fails, isAnonymous(entry) thus returns 1.
-                // Tuples from the public table that have no matching candidates in the private table
-                // and that do not fulfill d-presence cannot be suppressed. In this case, the whole
-                // transformation must be considered to not fulfill the privacy criteria.
-                if (privacyModelContainsDPresence && entry.count == 0 && anonymous == 1) {
-                    dpresent = false;
-                }
-                
-                currentNumOutliers += entry.count;
-            }
+                // Extract
+                HashGroupifyEntry entry = batchEntries[i];
+                int anonymous = batchResults[i];
             
-            // We only suppress classes that are contained in the research subset
-            entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
+                // Determine outliers
+                if (anonymous != -1) {
+                
+                    // Note: If d-presence exists, it is stored at criteria[0] by convention.
+                    // If it fails, isAnonymous(entry) thus returns 1.
+                    // Tuples from the public table that have no matching candidates in the private table
+                    // and that do not fulfill d-presence cannot be suppressed. In this case, the whole
+                    // transformation must be considered to not fulfill the privacy criteria.
+                    if (privacyModelContainsDPresence && entry.count == 0 && anonymous == 1) {
+                        dpresent = false;
+                    }
+                
+                    currentNumOutliers += entry.count;
+                }
             
-            // Next class
-            entry = entry.nextOrdered;
+                // We only suppress classes that are contained in the research subset
+                boolean previouslySuppressed = !entry.isNotOutlier && entry.count > 0;
+                entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
+                updateSuppressedClasses(entry, entry.count, previouslySuppressed);
+            }
         }
         
         this.analyzeSampleBasedCriteria(transformation, false);
@@ -585,9 +720,12 @@ public class HashGroupify {
             // Early abort
             this.currentNumOutliers = distribution.getNumSuppressedRecords();
             if (earlyAbort && currentNumOutliers > suppressionLimit) {
-                return;
+                break;
             }
         }
+        
+        // Classes have been suppressed and unsuppressed by the distribution
+        this.computeSuppressedClasses();
     }
     
     /**
@@ -615,48 +753,80 @@ public class HashGroupify {
         
         // Iterate over all classes
         currentNumOutliers = 0;
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
+        HashGroupifyEntry next = hashTableFirstEntry;
+        while (next != null) {
             
-            // Check for anonymity
-            int anonymous = isPrivacyModelFulfilled(transformation, entry);
+            // Check a batch of classes for anonymity. The batch ends with the first class at which
+            // the suppression limit would be exceeded, if all classes of the batch were suppressed.
+            // Hence, no classes are checked after the point at which checking them one by one would
+            // have aborted because of the suppression limit.
+            int size = 0;
+            long remaining = suppressionLimit - currentNumOutliers;
+            for (; next != null && size < BATCH_SIZE && remaining >= 0; next = next.nextOrdered) {
+                batchEntries[size] = next;
+                batchCounts[size] = next.count;
+                batchPCounts[size] = next.pcount;
+                remaining -= next.count;
+                size++;
+            }
+            isPrivacyModelFulfilled(transformation, size);
             
-            // Determine outliers
-            if (anonymous != -1) {
+            for (int i = 0; i < size; i++) {
                 
-                // Note: If d-presence exists, it is stored at criteria[0] by convention.
-                // If it fails, isAnonymous(entry) thus returns 1.
-                // Tuples from the public table that have no matching candidates in the private table
-                // and that do not fulfill d-presence cannot be suppressed. In this case, the whole
-                // transformation must be considered to not fulfill the privacy criteria.
-                // CAUTION: This leaves GroupifyEntry.isNotOutlier and currentOutliers in an inconsistent state
-                // for non-anonymous transformations
-                if (privacyModelContainsDPresence && entry.count == 0 && anonymous == 1) {
-                    this.privacyModelFulfilled = false;
-                    return;
-                }
-                currentNumOutliers += entry.count;
+                // Extract
+                HashGroupifyEntry entry = batchEntries[i];
+                int anonymous = batchResults[i];
+            
+                // Determine outliers
+                if (anonymous != -1) {
+                
+                    // Note: If d-presence exists, it is stored at criteria[0] by convention.
+                    // If it fails, isAnonymous(entry) thus returns 1.
+                    // Tuples from the public table that have no matching candidates in the private table
+                    // and that do not fulfill d-presence cannot be suppressed. In this case, the whole
+                    // transformation must be considered to not fulfill the privacy criteria.
+                    // CAUTION: This leaves GroupifyEntry.isNotOutlier and currentOutliers in an inconsistent state
+                    // for non-anonymous transformations
+                    if (privacyModelContainsDPresence && entry.count == 0 && anonymous == 1) {
+                        this.privacyModelFulfilled = false;
+                        return;
+                    }
+                    currentNumOutliers += entry.count;
                 
-                // Break as soon as too many classes are not anonymous
-                // CAUTION: This leaves GroupifyEntry.isNotOutlier and currentOutliers in an inconsistent state
-                // for non-anonymous transformations
-                if (currentNumOutliers > suppressionLimit) {
-                    this.privacyModelFulfilled = false;
-                    return;
+                    // Break as soon as too many classes are not anonymous
+                    // CAUTION: This leaves GroupifyEntry.isNotOutlier and currentOutliers in an inconsistent state
+                    // for non-anonymous transformations
+                    if (currentNumOutliers > suppressionLimit) {
+                        this.privacyModelFulfilled = false;
+                        return;
+                    }
                 }
-            }
-            
-            // We only suppress classes that are contained in the research subset
-            entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
             
-            // Next class
-            entry = entry.nextOrdered;
+                // We only suppress classes that are contained in the research subset
+                boolean previouslySuppressed = !entry.isNotOutlier && entry.count > 0;
+                entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
+                updateSuppressedClasses(entry, entry.count, previouslySuppressed);
+            }
         }
         
         this.analyzeSampleBasedCriteria(transformation, true);
         this.privacyModelFulfilled = (currentNumOutliers <= suppressionLimit);
     }
         
+    /**
+     * Computes the aggregates of suppressed classes from scratch
+     */
+    private void computeSuppressedClasses() {
+        this.currentNumSuppressedClasses = 0;
+        this.currentSumOfSuppressedClassSizes = 0;
+        this.currentSumOfSquaredSuppressedClassSizes = 0;
+        HashGroupifyEntry entry = hashTableFirstEntry;
+        while (entry != null) {
+            updateSuppressedClasses(entry, 0, false);
+            entry = entry.nextOrdered;
+        }
+    }
+
     /**
      * Creates a new entry.
      * 
@@ -705,28 +875,50 @@ public class HashGroupify {
     }
 
     /**
-     * Checks whether the given entry is anonymous.
+     * Checks whether the classes in the current batch are anonymous. For each class, the result is
+     * -1, if all criteria are fulfilled, 0, if minimal group size is not fulfilled, (index+1) if criteria[index]
+     * is not fulfilled. Each criterion is only evaluated for classes which fulfill all previous criteria.
      * @param transformation
-     * @param entry
-     * @return
-     * @returns -1, if all criteria are fulfilled, 0, if minimal group size is not fulfilled, (index+1) if criteria[index] is not fulfilled
+     * @param size
      */
-    private int isPrivacyModelFulfilled(Transformation transformation, HashGroupifyEntry entry) {
+    private void isPrivacyModelFulfilled(Transformation transformation, int size) {
         
         // Check minimal group size
-        if (minimalClassSize != Integer.MAX_VALUE && entry.count < minimalClassSize) {
-            return 0;
+        for (int i = 0; i < size; i++) {
+            batchResults[i] = minimalClassSize != Integer.MAX_VALUE && batchCounts[i] < minimalClassSize ? 0 : -1;
         }
         
         // Check other criteria
         // Note: The d-presence criterion must be checked first to ensure correct handling of d-presence with tuple suppression.
         // This is currently ensured by convention. See ARXConfiguration.getCriteriaAsArray();
         for (int i = 0; i < classBasedCriteria.length; i++) {
-            if (!classBasedCriteria[i].isAnonymous(transformation, entry)) {
-                return i + 1;
+            classBasedCriteria[i].isAnonymous(transformation, batchEntries, batchCounts, batchPCounts, size, batchResults, i + 1);
+        }
+    }
+
+    /**
+     * Suppresses all distinct tuples in the aggregated output dataset which do not satisfy
+     * privacy requirements. All records of a tuple share their values and are therefore
+     * suppressed at once.
+     * @param aggregated
+     */
+    private void performSuppression(DataMatrixAggregated aggregated) {
+        
+        DataMatrix tuples = aggregated.getTuples();
+        for (int tuple = 0; tuple < aggregated.getNumTuples(); tuple++) {
+            final int hash = tuples.hashCode(tuple);
+            final int index = hash & (hashTableBuckets.length - 1);
+            HashGroupifyEntry m = hashTableBuckets[index];
+            while ((m != null) && ((m.hashcode != hash) || !tuples.equalsIgnoringOutliers(tuple, aggregated.getTuple(m.row)))) {
+                m = m.next;
+            }
+            if (m == null) {
+                throw new RuntimeException("Invalid state! Group the data before suppressing records!");
+            }
+            if (!m.isNotOutlier) {
+                tuples.or(tuple, Data.OUTLIER_MASK);
             }
         }
-        return -1;
     }
 
     /**
@@ -746,4 +938,24 @@ public class HashGroupify {
         hashTableBuckets = newData;
         hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
     }
+
+    /**
+     * Updates the aggregates of suppressed classes after the size or the suppression state of the given class changed
+     * @param entry
+     * @param previousCount
+     * @param previouslySuppressed
+     */
+    private void updateSuppressedClasses(HashGroupifyEntry entry, long previousCount, boolean previouslySuppressed) {
+        if (previouslySuppressed) {
+            currentNumSuppressedClasses--;
+            currentSumOfSuppressedClassSizes -= previousCount;
+            currentSumOfSquaredSuppressedClassSizes -= previousCount * previousCount;
+        }
+        if (!entry.isNotOutlier && entry.count > 0) {
+            long count = entry.count;
+            currentNumSuppressedClasses++;
+            currentSumOfSuppressedClassSizes += count;
+            currentSumOfSquaredSuppressedClassSizes += count * count;
+        }
+    }
 }
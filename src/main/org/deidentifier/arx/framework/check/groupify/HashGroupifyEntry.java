@@ -54,6 +54,9 @@ public class HashGroupifyEntry {
 
     /** Frequency set for other attributes *. */
     public Distribution[]    distributions;
+
+    /** Codes of the microaggregated values of this class, if computed */
+    public int[]             aggregates;
     
     /** Matrix*/
     private final DataMatrix matrix;
@@ -61,7 +61,35 @@ public class Data implements Cloneable, Serializable {
             return new Data(null, new String[0], new int[0], new Dictionary(0));
         }
 
-        // Clone matrix
+        // Clone matrix. Of aggregated data, only the distinct tuples are cloned.
+        DataMatrix matrix;
+        if (data instanceof DataMatrixAggregated) {
+            DataMatrixAggregated aggregated = (DataMatrixAggregated) data;
+            matrix = aggregated.newInstance(createProjection(aggregated.getTuples(), columns));
+        } else {
+            matrix = createProjection(data, columns);
+        }
+        
+        // Prepare header
+        String[] newHeader = new String[columns.length];
+        int index = 0;
+        for (int column : columns) {
+            newHeader[index++] = header[column];
+        }
+
+        // Return
+        return new Data(matrix, newHeader, columns, new Dictionary(dictionary, columns));
+    }
+
+    /**
+     * Projects the given matrix onto the given set of columns
+     * 
+     * @param data
+     * @param columns
+     * @return
+     */
+    private static DataMatrix createProjection(final DataMatrix data, final int[] columns) {
+        
         DataMatrix matrix = new DataMatrix(data.getNumRows(), columns.length);
         for (int row = 0; row < data.getNumRows(); row++) {
             
@@ -74,16 +102,7 @@ public class Data implements Cloneable, Serializable {
                 matrix.setValueAtColumn(index, data.getValueAtColumn(columns[index]));
             }
         }
-        
-        // Prepare header
-        String[] newHeader = new String[columns.length];
-        int index = 0;
-        for (int column : columns) {
-            newHeader[index++] = header[column];
-        }
-
-        // Return
-        return new Data(matrix, newHeader, columns, new Dictionary(dictionary, columns));
+        return matrix;
     }
 
     /**
@@ -37,6 +37,7 @@ import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.v2.Cardinalities;
 import org.deidentifier.arx.metric.v2.DomainShare;
 import org.deidentifier.arx.metric.v2.DomainShareInterval;
 import org.deidentifier.arx.metric.v2.DomainShareMaterialized;
@@ -71,6 +72,12 @@ public class DataManager {
     /** The domain shares */
     private DomainShare[]                    shares;
 
+    /** The cardinalities */
+    private Cardinalities                    cardinalities;
+
+    /** The subset for which the cardinalities have been computed */
+    private RowSet                           cardinalitiesSubset;
+
     /** The original input header. */
     private final String[]                   header;
 
@@ -399,6 +406,24 @@ public class DataManager {
         return getDistribution(dataAnalyzed.getArray(), index, distinctValues);
     }
 
+    /**
+     * Returns the cardinalities of all generalized quasi-identifiers in the given subset, which may be null.
+     * They are computed on demand and shared by all metrics.
+     * @param subset
+     * @return
+     */
+    public Cardinalities getCardinalities(RowSet subset) {
+
+        // Build on-demand
+        if (this.cardinalities == null || this.cardinalitiesSubset != subset) {
+            this.cardinalities = new Cardinalities(dataGeneralized, subset, hierarchiesGeneralized);
+            this.cardinalitiesSubset = subset;
+        }
+
+        // Return
+        return this.cardinalities;
+    }
+
     /**
      * Returns the domain shares for all generalized quasi-identifiers
      * @return
@@ -83,9 +83,9 @@ public class DataMatrix implements Serializable {
      * @param sourceRow
      */
     public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
-        int sourceOffset = sourceRow * columns;
+        int sourceOffset = sourceMatrix.getOffset(sourceRow);
         int thisOffset = row * columns;
-        System.arraycopy(sourceMatrix.array, sourceOffset, this.array, thisOffset, columns);
+        System.arraycopy(sourceMatrix.getArray(), sourceOffset, this.array, thisOffset, columns);
     }
 
     /**
@@ -241,6 +241,14 @@ public class DataMatrix implements Serializable {
         return this.array[row * columns + col];
     }
     
+    /**
+     * Returns the backing array
+     * @return
+     */
+    int[] getArray() {
+        return this.array;
+    }
+
     /**
      * Returns the number of columns
      * @return
@@ -257,6 +265,15 @@ public class DataMatrix implements Serializable {
         return rows;
     }
 
+    /**
+     * Returns the offset of the given row in the backing array
+     * @param row
+     * @return
+     */
+    int getOffset(int row) {
+        return row * columns;
+    }
+
     /**
      * Gets the value in the given column for the row which
      * has been set via setRow(row).
@@ -359,6 +376,16 @@ public class DataMatrix implements Serializable {
         iteratorI++;
     }
 
+    /**
+     * Returns a new matrix with the same number of rows and the given number of columns,
+     * which is organized like this matrix. All values are zero.
+     * @param columns
+     * @return
+     */
+    public DataMatrix newInstance(int columns) {
+        return new DataMatrix(this.getNumRows(), columns);
+    }
+
     /**
      * ORs the first value of the row with the given value
      * @param row
@@ -0,0 +1,351 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An aggregated data matrix. It consists of a set of distinct tuples, each of which occurs
+ * a given number of times. The rows of the matrix are the occurrences of the tuples, in the
+ * order of the tuples, but each tuple is only stored once. All rows of a tuple therefore
+ * share their values, which means that this matrix can only be used for data in which all
+ * rows of a tuple are always processed in the same way, e.g. for grouping.<br>
+ * <br>
+ * Accessing a row requires a binary search over the tuples. Passes over all rows should
+ * therefore iterate over the distinct tuples and weight them by their number of rows.
+ * Sequential accesses to rows should use a cursor.
+ *
+ * @author Fabian Prasser
+ */
+public class DataMatrixAggregated extends DataMatrix {
+
+    /**
+     * Maps rows to tuples. Optimized for accessing rows in ascending order.
+     * Not thread-safe, each caller should therefore use its own cursor.
+     *
+     * @author Fabian Prasser
+     */
+    public static class Cursor implements Serializable {
+
+        /** SVUID */
+        private static final long serialVersionUID = 2407335186939337474L;
+
+        /** The first row of each tuple, followed by the number of rows */
+        private final int[]       offsets;
+
+        /** The tuple of the last row accessed */
+        private int               tuple            = 0;
+
+        /**
+         * Creates a new instance
+         * @param offsets
+         */
+        private Cursor(int[] offsets) {
+            this.offsets = offsets;
+        }
+
+        /**
+         * Returns the tuple of the given row
+         * @param row
+         * @return
+         */
+        public int getTuple(int row) {
+            if (row < offsets[tuple] || row >= offsets[tuple + 1]) {
+                if (tuple + 2 < offsets.length && row >= offsets[tuple + 1] && row < offsets[tuple + 2]) {
+                    tuple++;
+                } else {
+                    tuple = DataMatrixAggregated.getTuple(offsets, row);
+                }
+            }
+            return tuple;
+        }
+    }
+
+    /** SVUID*/
+    private static final long serialVersionUID = -6403395322733233411L;
+
+    /** The distinct tuples */
+    private final DataMatrix  matrix;
+
+    /** The first row of each tuple, followed by the number of rows */
+    private final int[]       offsets;
+
+    /** Cursor of the row pointer, i.e. setRow(row) and iterator(row) */
+    private final Cursor      pointer;
+
+    /**
+     * Creates a new instance
+     * @param matrix The distinct tuples
+     * @param counts The number of rows of each tuple
+     */
+    public DataMatrixAggregated(DataMatrix matrix, int[] counts) {
+        this(getOffsets(counts), matrix);
+    }
+
+    /**
+     * Creates a new instance
+     * @param offsets
+     * @param matrix
+     */
+    private DataMatrixAggregated(int[] offsets, DataMatrix matrix) {
+        super(0, 0);
+        if (matrix.getNumRows() != offsets.length - 1) {
+            throw new IllegalArgumentException("Number of tuples and counts do not match");
+        }
+        this.matrix = matrix;
+        this.offsets = offsets;
+        this.pointer = new Cursor(offsets);
+    }
+
+    /**
+     * Returns the offsets of the tuples
+     * @param counts
+     * @return
+     */
+    private static int[] getOffsets(int[] counts) {
+        int[] offsets = new int[counts.length + 1];
+        long rows = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] <= 0) {
+                throw new IllegalArgumentException("Each tuple must occur at least once");
+            }
+            offsets[i] = (int) rows;
+            rows += counts[i];
+        }
+        if (rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many rows: " + rows);
+        }
+        offsets[counts.length] = (int) rows;
+        return offsets;
+    }
+
+    /**
+     * Returns the tuple of the given row
+     * @param offsets
+     * @param row
+     * @return
+     */
+    private static int getTuple(int[] offsets, int row) {
+        if (row < 0 || row >= offsets[offsets.length - 1]) {
+            throw new IndexOutOfBoundsException("Row: " + row);
+        }
+        int index = Arrays.binarySearch(offsets, row);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    @Override
+    public void and(int row, int value) {
+        matrix.and(getTuple(row), value);
+    }
+
+    @Override
+    public DataMatrix clone() {
+        return new DataMatrixAggregated(offsets, matrix.clone());
+    }
+
+    @Override
+    public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
+        matrix.copyFrom(getTuple(row), sourceMatrix, sourceRow);
+    }
+
+    @Override
+    public boolean equals(int row1, int row2) {
+        return matrix.equals(getTuple(row1), getTuple(row2));
+    }
+
+    @Override
+    public boolean equals(int row, int[] data) {
+        return matrix.equals(getTuple(row), data);
+    }
+
+    @Override
+    public boolean equalsIgnore(int row1, int row2, int ignore) {
+        return matrix.equalsIgnore(getTuple(row1), getTuple(row2), ignore);
+    }
+
+    @Override
+    public boolean equalsIgnoringOutliers(int row1, int row2) {
+        return matrix.equalsIgnoringOutliers(getTuple(row1), getTuple(row2));
+    }
+
+    @Override
+    public int get(int row, int col) {
+        return matrix.get(getTuple(row), col);
+    }
+
+    /**
+     * Returns the number of rows of the given tuple
+     * @param tuple
+     * @return
+     */
+    public int getCount(int tuple) {
+        return offsets[tuple + 1] - offsets[tuple];
+    }
+
+    /**
+     * Returns a new cursor for mapping rows to tuples
+     * @return
+     */
+    public Cursor getCursor() {
+        return new Cursor(offsets);
+    }
+
+    /**
+     * Returns the first row of the given tuple
+     * @param tuple
+     * @return
+     */
+    public int getFirstRow(int tuple) {
+        return offsets[tuple];
+    }
+
+    @Override
+    public int getNumColumns() {
+        return matrix.getNumColumns();
+    }
+
+    @Override
+    public int getNumRows() {
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * Returns the number of distinct tuples
+     * @return
+     */
+    public int getNumTuples() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the tuple of the given row. Requires a binary search.
+     * @param row
+     * @return
+     */
+    public int getTuple(int row) {
+        return getTuple(offsets, row);
+    }
+
+    /**
+     * Returns the distinct tuples
+     * @return
+     */
+    public DataMatrix getTuples() {
+        return matrix;
+    }
+
+    @Override
+    public int getValueAtColumn(int column) {
+        return matrix.getValueAtColumn(column);
+    }
+
+    @Override
+    public int hashCode(int row) {
+        return matrix.hashCode(getTuple(row));
+    }
+
+    @Override
+    public int hashCodeIgnore(int row, int ignore) {
+        return matrix.hashCodeIgnore(getTuple(row), ignore);
+    }
+
+    @Override
+    public void iterator(int row) {
+        matrix.iterator(pointer.getTuple(row));
+    }
+
+    @Override
+    public boolean iterator_hasNext() {
+        return matrix.iterator_hasNext();
+    }
+
+    @Override
+    public int iterator_next() {
+        return matrix.iterator_next();
+    }
+
+    @Override
+    public void iterator_write(int value) {
+        matrix.iterator_write(value);
+    }
+
+    @Override
+    public DataMatrix newInstance(int columns) {
+        return newInstance(new DataMatrix(matrix.getNumRows(), columns));
+    }
+
+    /**
+     * Returns a new matrix with the given tuples, each of which has as many rows
+     * as the according tuple of this matrix
+     * @param tuples
+     * @return
+     */
+    public DataMatrixAggregated newInstance(DataMatrix tuples) {
+        return new DataMatrixAggregated(offsets, tuples);
+    }
+
+    @Override
+    public void or(int row, int value) {
+        matrix.or(getTuple(row), value);
+    }
+
+    @Override
+    public void set(int row, int column, int value) {
+        matrix.set(getTuple(row), column, value);
+    }
+
+    @Override
+    public void setRow(int row) {
+        matrix.setRow(pointer.getTuple(row));
+    }
+
+    @Override
+    public void setRow(int row, int[] data) {
+        matrix.setRow(getTuple(row), data);
+    }
+
+    @Override
+    public void setValueAtColumn(int column, int value) {
+        matrix.setValueAtColumn(column, value);
+    }
+
+    @Override
+    public void swap(int row1, int row2) {
+        throw new UnsupportedOperationException("Rows of an aggregated matrix cannot be swapped");
+    }
+
+    @Override
+    protected DataMatrix clone(int[] subset) {
+        int[] tuples = new int[subset.length];
+        for (int i = 0; i < subset.length; i++) {
+            tuples[i] = getTuple(subset[i]);
+        }
+        return matrix.clone(tuples);
+    }
+
+    @Override
+    int[] getArray() {
+        return matrix.getArray();
+    }
+
+    @Override
+    int getOffset(int row) {
+        return matrix.getOffset(getTuple(row));
+    }
+}
@@ -17,7 +17,10 @@
 package org.deidentifier.arx.framework.data;
 
 /**
- * A subset of a data matrix
+ * A subset of a data matrix. This is a view, which accesses the rows of the
+ * underlying matrix via an index without copying them. Row pointers and
+ * iterators are maintained by each view, so that multiple views of the same
+ * matrix can be used concurrently.
  * 
  * @author Fabian Prasser
  */
@@ -31,16 +34,42 @@ public class DataMatrixSubset extends DataMatrix {
 
     /** Matrix */
     private final DataMatrix matrix;
+
+    /** Backing array of the matrix */
+    private final int[]      array;
+
+    /** The number of columns */
+    private final int        columns;
+
+    /** Iterate */
+    private int              iteratorI      = 0;
+
+    /** Iterate */
+    private int              iteratorOffset = 0;
+
+    /** Iterate */
+    private int              baseOffset     = 0;
     
     /**
-     * Creates a new instance
+     * Creates a new instance. Subsets of subsets are mapped to the underlying matrix.
      * @param matrix
      * @param subset
      */
     public DataMatrixSubset(DataMatrix matrix, int[] subset) {
         super(0, 0);
+        if (matrix instanceof DataMatrixSubset) {
+            DataMatrixSubset parent = (DataMatrixSubset) matrix;
+            int[] rows = new int[subset.length];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = parent.subset[subset[i]];
+            }
+            subset = rows;
+            matrix = parent.matrix;
+        }
         this.subset = subset;
         this.matrix = matrix;
+        this.array = matrix == null ? null : matrix.getArray();
+        this.columns = matrix == null ? 0 : matrix.getNumColumns();
     }
 
     @Override
@@ -53,6 +82,11 @@ public class DataMatrixSubset extends DataMatrix {
         return matrix.clone(this.subset);
     }
 
+    @Override
+    public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
+        matrix.copyFrom(subset[row], sourceMatrix, sourceRow);
+    }
+
     @Override
     public boolean equals(int row1, int row2) {
         return matrix.equals(subset[row1], subset[row2]);
@@ -63,6 +97,11 @@ public class DataMatrixSubset extends DataMatrix {
         return matrix.equals(subset[row], data);
     }
     
+    @Override
+    public boolean equalsIgnore(int row1, int row2, int ignore) {
+        return matrix.equalsIgnore(subset[row1], subset[row2], ignore);
+    }
+    
     @Override
     public boolean equalsIgnoringOutliers(int row1, int row2) {
         return matrix.equalsIgnoringOutliers(subset[row1], subset[row2]);
@@ -70,12 +109,17 @@ public class DataMatrixSubset extends DataMatrix {
 
     @Override
     public int get(int row, int col) {
-        return matrix.get(subset[row], col);
+        return array[subset[row] * columns + col];
+    }
+
+    @Override
+    int[] getArray() {
+        return array;
     }
 
     @Override
     public int getNumColumns() {
-        return (matrix == null) ?  0 : matrix.getNumColumns();
+        return columns;
     }
 
     @Override
@@ -83,9 +127,14 @@ public class DataMatrixSubset extends DataMatrix {
         return subset.length;
     }
 
+    @Override
+    int getOffset(int row) {
+        return subset[row] * columns;
+    }
+
     @Override
     public int getValueAtColumn(int column) {
-        return matrix.getValueAtColumn(column);
+        return array[baseOffset + column];
     }
 
     @Override
@@ -93,26 +142,33 @@ public class DataMatrixSubset extends DataMatrix {
         return matrix.hashCode(subset[row]);
     }
 
+    @Override
+    public int hashCodeIgnore(int row, int ignore) {
+        return matrix.hashCodeIgnore(subset[row], ignore);
+    }
+
     @Override
     public void iterator(int row) {
-//        if (matrix != null) {
-            matrix.iterator(subset[row]);
-//        }
+        iteratorOffset = subset[row] * columns;
+        iteratorI = 0;
     }
 
     @Override
     public boolean iterator_hasNext() {
-        return matrix.iterator_hasNext();
+        return iteratorI < columns;
     }
 
     @Override
     public int iterator_next() {
-        return matrix.iterator_next();
+        int result = array[iteratorOffset++];
+        iteratorI++;
+        return result;
     }
 
     @Override
     public void iterator_write(int value) {
-        matrix.iterator_write(value);
+        array[iteratorOffset++] = value;
+        iteratorI++;
     }
 
     @Override
@@ -122,12 +178,12 @@ public class DataMatrixSubset extends DataMatrix {
 
     @Override
     public void set(int row, int column, int value) {
-        matrix.set(subset[row], column, value);
+        array[subset[row] * columns + column] = value;
     }
 
     @Override
     public void setRow(int row) {
-       matrix.setRow(this.subset[row]);
+        baseOffset = subset[row] * columns;
     }
     
     @Override
@@ -137,7 +193,7 @@ public class DataMatrixSubset extends DataMatrix {
 
     @Override
     public void setValueAtColumn(int column, int value) {
-        matrix.setValueAtColumn(column, value);
+        array[baseOffset + column] = value;
     }
     @Override
     public void swap(int row1, int row2) {
@@ -0,0 +1,146 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.lattice;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+
+/**
+ * The Pareto frontier of anonymous transformations with respect to the value of the quality model,
+ * the number of suppressed records and the highest re-identification risk. Values of the quality
+ * model are obtained from the solution space. Of transformations with identical objectives, only
+ * the first one found is kept.
+ *
+ * @author Fabian Prasser
+ */
+public class ParetoFrontier {
+
+    /** The solution space */
+    private final SolutionSpace   solutionSpace;
+
+    /** Identifiers of the transformations on the frontier */
+    private final LongArrayList   identifiers = new LongArrayList();
+
+    /** Number of suppressed records of the transformations on the frontier */
+    private final IntArrayList    suppressed  = new IntArrayList();
+
+    /** Highest risks of the transformations on the frontier */
+    private final DoubleArrayList risks       = new DoubleArrayList();
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     */
+    ParetoFrontier(SolutionSpace solutionSpace) {
+        this.solutionSpace = solutionSpace;
+    }
+
+    /**
+     * Adds the given transformation, if it is not dominated by any transformation on the frontier.
+     * Transformations dominated by the given transformation are removed.
+     *
+     * @param transformation
+     * @param suppressed
+     * @param risk
+     * @return Whether the transformation has been added
+     */
+    public boolean add(Transformation transformation, int suppressed, double risk) {
+
+        // Check
+        InformationLoss<?> loss = transformation.getInformationLoss();
+        if (loss == null || isDominated(loss, suppressed, risk)) {
+            return false;
+        }
+
+        // Remove dominated transformations
+        int index = 0;
+        while (index < identifiers.size()) {
+            if (loss.compareTo(solutionSpace.getInformationLoss(identifiers.get(index))) <= 0 &&
+                suppressed <= this.suppressed.get(index) && risk <= this.risks.get(index)) {
+                identifiers.remove(index);
+                this.suppressed.remove(index);
+                this.risks.remove(index);
+            } else {
+                index++;
+            }
+        }
+
+        // Add
+        identifiers.add(transformation.getIdentifier());
+        this.suppressed.add(suppressed);
+        this.risks.add(risk);
+        return true;
+    }
+
+    /**
+     * Returns the number of transformations on the frontier
+     * @return
+     */
+    public int getSize() {
+        return identifiers.size();
+    }
+
+    /**
+     * Returns the identifiers of all transformations on the frontier, sorted by the
+     * value of the quality model
+     * @return
+     */
+    public long[] getTransformations() {
+        Long[] result = new Long[identifiers.size()];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = identifiers.get(index);
+        }
+        Arrays.sort(result, new Comparator<Long>() {
+            @Override
+            public int compare(Long arg0, Long arg1) {
+                return solutionSpace.getInformationLoss(arg0).compareTo(solutionSpace.getInformationLoss(arg1));
+            }
+        });
+        long[] identifiers = new long[result.length];
+        for (int index = 0; index < result.length; index++) {
+            identifiers[index] = result[index];
+        }
+        return identifiers;
+    }
+
+    /**
+     * Returns whether a transformation on the frontier is at least as good as the given
+     * objectives in all respects. If lower bounds are provided, this means that all
+     * transformations obeying these bounds are dominated.
+     *
+     * @param loss
+     * @param suppressed
+     * @param risk
+     * @return
+     */
+    public boolean isDominated(InformationLoss<?> loss, int suppressed, double risk) {
+        for (int index = 0; index < identifiers.size(); index++) {
+            if (this.suppressed.get(index) <= suppressed && this.risks.get(index) <= risk &&
+                solutionSpace.getInformationLoss(identifiers.get(index)).compareTo(loss) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
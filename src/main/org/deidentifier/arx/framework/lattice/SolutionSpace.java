@@ -63,6 +63,9 @@ public class SolutionSpace {
     /** Static property */
     private final PredictiveProperty                  propertyKAnonymous          = new PredictiveProperty("K-Anonymous",
                                                                                                            Direction.UP);
+    /** Static property */
+    private final PredictiveProperty                  propertyLikelyNotAnonymous  = new PredictiveProperty("Likely not anonymous",
+                                                                                                           Direction.NONE);
     /** Potentially changing property */
     private PredictiveProperty                        propertyNotAnonymous        = new PredictiveProperty("Not anonymous",
                                                                                                            Direction.NONE);
@@ -84,6 +87,12 @@ public class SolutionSpace {
     /** Information loss */
     private LongObjectOpenHashMap<InformationLoss<?>> utility                     = new LongObjectOpenHashMap<InformationLoss<?>>();
 
+    /** Pareto frontier of anonymous transformations, null if not tracked */
+    private ParetoFrontier                            paretoFrontier              = null;
+
+    /** Anonymous transformations with the lowest information loss, null if not tracked */
+    private TopTransformations                        topTransformations          = null;
+
     /**
      * For de-serialization
      * @param lattice
@@ -241,6 +250,14 @@ public class SolutionSpace {
         return propertyKAnonymous;
     }
 
+    /**
+     * Returns a property
+     * @return
+     */
+    public PredictiveProperty getPropertyLikelyNotAnonymous() {
+        return propertyLikelyNotAnonymous;
+    }
+
     /**
      * Returns a property
      * @return
@@ -309,6 +326,24 @@ public class SolutionSpace {
         return new Transformation(transformationJHPL, identifier, lattice, this);
     }
 
+    /**
+     * Returns the Pareto frontier of all anonymous transformations which have been
+     * checked, null if tracking the frontier has not been enabled
+     * @return
+     */
+    public ParetoFrontier getParetoFrontier() {
+        return paretoFrontier;
+    }
+
+    /**
+     * Returns the anonymous transformations with the lowest information loss which have
+     * been checked, null if tracking them has not been enabled
+     * @return
+     */
+    public TopTransformations getTopTransformations() {
+        return topTransformations;
+    }
+
     /**
      * Returns the utility of the transformation with the given identifier
      * @param identifier
@@ -377,6 +412,21 @@ public class SolutionSpace {
         }
     }
 
+    /**
+     * Enables tracking the Pareto frontier of all anonymous transformations which are checked
+     */
+    public void setParetoFrontierEnabled() {
+        this.paretoFrontier = new ParetoFrontier(this);
+    }
+
+    /**
+     * Enables tracking the given number of anonymous transformations with the lowest information loss
+     * @param limit
+     */
+    public void setTopTransformationsEnabled(int limit) {
+        this.topTransformations = new TopTransformations(this, limit);
+    }
+
     /**
      * Returns all transformations in the solution space
      * @return
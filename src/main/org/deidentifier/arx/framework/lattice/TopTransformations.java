@@ -0,0 +1,157 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.lattice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A bounded heap of the anonymous transformations with the lowest information loss, together
+ * with a summary of each transformation. Values of the quality model are obtained from the
+ * solution space.
+ *
+ * @author Fabian Prasser
+ */
+public class TopTransformations {
+
+    /**
+     * Summary of a transformation
+     *
+     * @author Fabian Prasser
+     */
+    public static class Summary {
+
+        /** Identifier of the transformation */
+        public final long identifier;
+        /** Number of suppressed records */
+        public final int  suppressedRecords;
+        /** Number of equivalence classes which are not suppressed */
+        public final int  equivalenceClasses;
+
+        /**
+         * Creates a new instance
+         * @param identifier
+         * @param suppressedRecords
+         * @param equivalenceClasses
+         */
+        private Summary(long identifier, int suppressedRecords, int equivalenceClasses) {
+            this.identifier = identifier;
+            this.suppressedRecords = suppressedRecords;
+            this.equivalenceClasses = equivalenceClasses;
+        }
+    }
+
+    /** The solution space */
+    private final SolutionSpace          solutionSpace;
+
+    /** Maximal number of transformations */
+    private final int                    limit;
+
+    /** Transformations, the one with the highest information loss first */
+    private final PriorityQueue<Summary> heap;
+
+    /** Orders by information loss, ascending */
+    private final Comparator<Summary>    comparator;
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param limit
+     */
+    TopTransformations(SolutionSpace solutionSpace, int limit) {
+        this.solutionSpace = solutionSpace;
+        this.limit = limit;
+        this.comparator = new Comparator<Summary>() {
+            @Override
+            public int compare(Summary arg0, Summary arg1) {
+                return getInformationLoss(arg0).compareTo(getInformationLoss(arg1));
+            }
+        };
+        this.heap = new PriorityQueue<Summary>(limit, Collections.reverseOrder(comparator));
+    }
+
+    /**
+     * Adds the given transformation, if fewer transformations than the limit are known or if
+     * it has a lower information loss than the worst one known
+     *
+     * @param transformation
+     * @param suppressedRecords
+     * @param equivalenceClasses
+     * @return Whether the transformation has been added
+     */
+    public boolean add(Transformation transformation, int suppressedRecords, int equivalenceClasses) {
+
+        // Check
+        InformationLoss<?> loss = transformation.getInformationLoss();
+        if (loss == null) {
+            return false;
+        }
+        for (Summary summary : heap) {
+            if (summary.identifier == transformation.getIdentifier()) {
+                return false;
+            }
+        }
+
+        // Replace the worst transformation, if necessary
+        if (heap.size() == limit) {
+            if (loss.compareTo(getInformationLoss(heap.peek())) >= 0) {
+                return false;
+            }
+            heap.poll();
+        }
+
+        // Add
+        heap.add(new Summary(transformation.getIdentifier(), suppressedRecords, equivalenceClasses));
+        return true;
+    }
+
+    /**
+     * Returns the information loss of the worst transformation, if the limit has been reached.
+     * Transformations with a loss greater or equal than this value cannot be added anymore.
+     * Returns null, if fewer transformations than the limit are known.
+     *
+     * @return
+     */
+    public InformationLoss<?> getThreshold() {
+        return heap.size() < limit ? null : getInformationLoss(heap.peek());
+    }
+
+    /**
+     * Returns summaries of all transformations, sorted by information loss
+     * @return
+     */
+    public List<Summary> getTransformations() {
+        List<Summary> result = new ArrayList<Summary>(heap);
+        Collections.sort(result, comparator);
+        return result;
+    }
+
+    /**
+     * Returns the information loss of the given transformation
+     * @param summary
+     * @return
+     */
+    private InformationLoss<?> getInformationLoss(Summary summary) {
+        return solutionSpace.getInformationLoss(summary.identifier);
+    }
+}
@@ -217,6 +217,16 @@ public class Transformation {
         // Infoloss
         this.setInformationLoss(result.informationLoss);
         this.setLowerBound(result.lowerBound);
+
+        // Track transformations
+        if (result.privacyModelFulfilled && result.suppressedRecords != null) {
+            if (solutionSpace.getParetoFrontier() != null) {
+                solutionSpace.getParetoFrontier().add(this, result.suppressedRecords, result.highestRisk);
+            }
+            if (solutionSpace.getTopTransformations() != null) {
+                solutionSpace.getTopTransformations().add(this, result.suppressedRecords, result.equivalenceClasses);
+            }
+        }
     }
 
     /**
@@ -28,6 +28,7 @@ import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixAggregated;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -204,15 +205,38 @@ public class MetricEntropy extends MetricDefault {
             // Column -> Id -> Level -> Count
         }
 
-		for (int i = 0; i < data.getNumRows(); i++) { 
-			// only use the rows contained in the research subset
-			if (rSubset == null || rSubset.contains(i)) {
-			    data.setRow(i);
-				for (int column = 0; column < data.getNumColumns(); column++) {
-					cardinalities[column][data.getValueAtColumn(column)][0]++;
-				}
-			}
-		}
+        if (data instanceof DataMatrixAggregated) {
+            
+            // Read each distinct tuple once and weight it by its number of rows in the research subset
+            DataMatrixAggregated aggregated = (DataMatrixAggregated) data;
+            DataMatrix tuples = aggregated.getTuples();
+            for (int tuple = 0; tuple < aggregated.getNumTuples(); tuple++) {
+                int count = aggregated.getCount(tuple);
+                if (rSubset != null) {
+                    int first = aggregated.getFirstRow(tuple);
+                    count = 0;
+                    for (int i = first; i < first + aggregated.getCount(tuple); i++) {
+                        if (rSubset.contains(i)) {
+                            count++;
+                        }
+                    }
+                }
+                tuples.setRow(tuple);
+                for (int column = 0; column < tuples.getNumColumns(); column++) {
+                    cardinalities[column][tuples.getValueAtColumn(column)][0] += count;
+                }
+            }
+        } else {
+            for (int i = 0; i < data.getNumRows(); i++) { 
+                // only use the rows contained in the research subset
+                if (rSubset == null || rSubset.contains(i)) {
+                    data.setRow(i);
+                    for (int column = 0; column < data.getNumColumns(); column++) {
+                        cardinalities[column][data.getValueAtColumn(column)][0]++;
+                    }
+                }
+            }
+        }
 
         // Create counts for other levels
         for (int column = 0; column < hierarchies.length; column++) {
@@ -38,6 +38,9 @@ public abstract class AbstractMetricSingleDimensional extends Metric<ILSingleDim
     /** SVUID. */
     private static final long    serialVersionUID = -1082954137578580790L;
 
+    /** Relative tolerance for floating point errors when computing lower bounds */
+    protected static final double TOLERANCE        = 1e-9d;
+
     /** Row count. */
     private Double               tuples           = null;
 
@@ -17,29 +17,47 @@
 
 package org.deidentifier.arx.metric.v2;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.common.SharedExecutor;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixAggregated;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * This class represents cardinalities.
+ * This class represents cardinalities. For each column and level, only the codes
+ * which occur on this level are stored, sorted ascending, together with their counts.
  * TODO: This class can potentially be merged with DomainShare
  * TODO: It is not yet sure, which of both mechanisms performs better
- * 
+ *
  * @author Fabian Prasser
  */
 public class Cardinalities implements Serializable {
-    
+
     /** SVUID. */
     private static final long serialVersionUID = 6164578830669365810L;
-    
-    /** Cardinalities: Column -> Id -> Level -> Count. */
-    private final int[][][] cardinalities;
-    
+
+    /** Dense cardinalities of previous versions: Column -> Id -> Level -> Count. */
+    private int[][][]         cardinalities;
+
+    /** Codes: Column -> Level -> Index -> Code, sorted ascending. */
+    private int[][][]         codes;
+
+    /** Counts: Column -> Level -> Index -> Count. */
+    private int[][][]         counts;
+
     /**
      * Creates a new instance for the given data set.
      *
@@ -47,55 +65,253 @@ public class Cardinalities implements Serializable {
      * @param subset
      * @param hierarchies
      */
-    public Cardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies){
-
-        DataMatrix array = data.getArray();
-        Dictionary dictionary = data.getDictionary();
-        
-        // Initialize counts
-        cardinalities = new int[array.getNumColumns()][][];
-        for (int i = 0; i < cardinalities.length; i++) {
-            cardinalities[i] = new int[dictionary.getMapping()[i].length][hierarchies[i].getArray()[0].length];
+    public Cardinalities(final Data data, final RowSet subset, final GeneralizationHierarchy[] hierarchies){
+
+        final DataMatrix array = data.getArray();
+        final Dictionary dictionary = data.getDictionary();
+        int columns = array.getNumColumns();
+        this.codes = new int[columns][][];
+        this.counts = new int[columns][][];
+        if (columns == 0) {
+            return;
         }
 
-        // Compute counts
-        for (int i = 0; i < array.getNumRows(); i++) { 
-            if (subset == null || subset.contains(i)) {
-                array.setRow(i);
-                for (int column = 0; column < array.getNumColumns(); column++) {
-                    cardinalities[column][array.getValueAtColumn(column)][0]++;
+        // Compute counts for each column
+        SharedExecutor executor = new SharedExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int column = 0; column < columns; column++) {
+                final int index = column;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        initialize(index, array, subset, dictionary.getMapping()[index].length, hierarchies[index].getArray());
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        } finally {
+            executor.cancel();
+        }
+    }
+
+    /**
+     * For backwards compatibility, derives the cardinalities from the given array.
+     *
+     * @param cardinalities
+     */
+    public Cardinalities(int[][][] cardinalities) {
+        this.initialize(cardinalities);
+    }
+
+    /**
+     * Returns a dense representation of the cardinalities: Column -> Id -> Level -> Count.
+     * This is expensive and only provided for backwards compatibility.
+     *
+     * @return
+     */
+    public int[][][] getCardinalities(){
+        int[][][] result = new int[codes.length][][];
+        for (int column = 0; column < codes.length; column++) {
+            int max = -1;
+            for (int level = 0; level < codes[column].length; level++) {
+                int length = codes[column][level].length;
+                max = length == 0 ? max : Math.max(max, codes[column][level][length - 1]);
+            }
+            result[column] = new int[max + 1][codes[column].length];
+            for (int level = 0; level < codes[column].length; level++) {
+                for (int index = 0; index < codes[column][level].length; index++) {
+                    result[column][codes[column][level][index]][level] = counts[column][level][index];
                 }
             }
         }
+        return result;
+    }
+
+    /**
+     * Returns the codes which occur in the given column on the given level, sorted ascending
+     *
+     * @param column
+     * @param level
+     * @return
+     */
+    public int[] getCodes(int column, int level) {
+        return codes[column][level];
+    }
+
+    /**
+     * Returns the number of occurrences of the given code in the given column on the given level
+     *
+     * @param column
+     * @param code
+     * @param level
+     * @return
+     */
+    public int getCount(int column, int code, int level) {
+        int index = Arrays.binarySearch(codes[column][level], code);
+        return index < 0 ? 0 : counts[column][level][index];
+    }
+
+    /**
+     * Returns the counts of the codes which occur in the given column on the given level,
+     * in the order returned by <code>getCodes(column, level)</code>
+     *
+     * @param column
+     * @param level
+     * @return
+     */
+    public int[] getCounts(int column, int level) {
+        return counts[column][level];
+    }
+
+    /**
+     * Computes the counts for the given column
+     *
+     * @param column
+     * @param array
+     * @param subset
+     * @param size
+     * @param hierarchy
+     */
+    private void initialize(int column, DataMatrix array, RowSet subset, int size, int[][] hierarchy) {
+
+        // Count codes on the first level
+        int levels = hierarchy.length == 0 ? 0 : hierarchy[0].length;
+        if (levels == 0) {
+            this.codes[column] = new int[0][];
+            this.counts[column] = new int[0][];
+            return;
+        }
+        int[] buffer = new int[size];
+        if (array instanceof DataMatrixAggregated) {
+            
+            // Read each distinct tuple once and weight it by its number of rows
+            DataMatrixAggregated aggregated = (DataMatrixAggregated) array;
+            DataMatrix tuples = aggregated.getTuples();
+            for (int tuple = 0; tuple < aggregated.getNumTuples(); tuple++) {
+                int value = tuples.get(tuple, column);
+                if (subset == null) {
+                    buffer[value] += aggregated.getCount(tuple);
+                } else {
+                    int first = aggregated.getFirstRow(tuple);
+                    for (int row = first; row < first + aggregated.getCount(tuple); row++) {
+                        if (subset.contains(row)) {
+                            buffer[value]++;
+                        }
+                    }
+                }
+            }
+        } else {
+            for (int row = 0; row < array.getNumRows(); row++) {
+                if (subset == null || subset.contains(row)) {
+                    buffer[array.get(row, column)]++;
+                }
+            }
+        }
+
+        // Compress
+        int[][] columnCodes = new int[levels][];
+        int[][] columnCounts = new int[levels][];
+        int distinct = 0;
+        for (int code = 0; code < size; code++) {
+            if (buffer[code] != 0) {
+                distinct++;
+            }
+        }
+        columnCodes[0] = new int[distinct];
+        columnCounts[0] = new int[distinct];
+        int index = 0;
+        for (int code = 0; code < size; code++) {
+            if (buffer[code] != 0) {
+                columnCodes[0][index] = code;
+                columnCounts[0][index] = buffer[code];
+                buffer[code] = 0;
+                index++;
+            }
+        }
 
         // Create counts for other levels
-        for (int column = 0; column < hierarchies.length; column++) {
-            final int[][] hierarchy = hierarchies[column].getArray();
-            for (int in = 0; in < hierarchy.length; in++) {
-                final int cardinality = cardinalities[column][in][0];
-                for (int level = 1; level < hierarchy[in].length; level++) {
-                    final int out = hierarchy[in][level];
-                    cardinalities[column][out][level] += cardinality;
+        int[] touched = new int[distinct];
+        for (int level = 1; level < levels; level++) {
+            distinct = 0;
+            for (index = 0; index < columnCodes[0].length; index++) {
+                int out = hierarchy[columnCodes[0][index]][level];
+                if (buffer[out] == 0) {
+                    touched[distinct++] = out;
                 }
+                buffer[out] += columnCounts[0][index];
+            }
+            Arrays.sort(touched, 0, distinct);
+            columnCodes[level] = Arrays.copyOf(touched, distinct);
+            columnCounts[level] = new int[distinct];
+            for (index = 0; index < distinct; index++) {
+                columnCounts[level][index] = buffer[touched[index]];
+                buffer[touched[index]] = 0;
             }
         }
+
+        // Store
+        this.codes[column] = columnCodes;
+        this.counts[column] = columnCounts;
     }
-    
+
     /**
-     * For backwards compatibility, derives the cardinalities from the given array.
+     * Derives the sparse representation from the given dense array
      *
      * @param cardinalities
      */
-    public Cardinalities(int[][][] cardinalities) {
-        this.cardinalities = cardinalities;
+    private void initialize(int[][][] cardinalities) {
+        this.codes = new int[cardinalities.length][][];
+        this.counts = new int[cardinalities.length][][];
+        for (int column = 0; column < cardinalities.length; column++) {
+            int[][] cardinality = cardinalities[column];
+            int levels = cardinality.length == 0 ? 0 : cardinality[0].length;
+            this.codes[column] = new int[levels][];
+            this.counts[column] = new int[levels][];
+            for (int level = 0; level < levels; level++) {
+                int distinct = 0;
+                for (int code = 0; code < cardinality.length; code++) {
+                    if (cardinality[code][level] != 0) {
+                        distinct++;
+                    }
+                }
+                this.codes[column][level] = new int[distinct];
+                this.counts[column][level] = new int[distinct];
+                int index = 0;
+                for (int code = 0; code < cardinality.length; code++) {
+                    if (cardinality[code][level] != 0) {
+                        this.codes[column][level][index] = code;
+                        this.counts[column][level][index] = cardinality[code][level];
+                        index++;
+                    }
+                }
+            }
+        }
     }
 
     /**
-     * Returns the cardinalities of the given value.
+     * Converts instances of previous versions
      *
-     * @return
+     * @param stream
+     * @throws IOException
+     * @throws ClassNotFoundException
      */
-    public int[][][] getCardinalities(){
-        return cardinalities;
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        if (this.cardinalities != null) {
+            this.initialize(this.cardinalities);
+            this.cardinalities = null;
+        }
     }
 }
@@ -121,20 +121,16 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         double[] bound = new double[dimensions];
         DomainShare[] shares = super.getShares();
         double gFactor = super.getGeneralizationFactor();
-        // Column -> Id -> Level -> Count
-        int[][][] cardinalities = this.cardinalities.getCardinalities();
-
 
         // For each column
         for (int column = 0; column < dimensionsGeneralized; column++) {
 
             // Check for cached value
             int level = transformation[column];
-            int[][] cardinality = cardinalities[column];
             int[] values = this.values[column][level];
             
             for (int value : values) {
-                double count = cardinality[value][level];
+                double count = cardinalities.getCount(column, value, level);
                 double share = count * shares[column].getShare(value, level);
                 bound[column] += share * gFactor;
             }
@@ -184,7 +184,6 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
     protected double[] getInformationLossInternalRaw(final Transformation node, final HashGroupify g) {
 
         // Prepare
-        int[][][] cardinalities = this.cardinalities.getCardinalities();
         double[] result = new double[hierarchies.length];
         double gFactor = super.getGeneralizationFactor();
 
@@ -196,15 +195,14 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
             double value = cache[column][transformation];
             if (value == NOT_AVAILABLE) {
                 value = 0d;
-                final int[][] cardinality = cardinalities[column];
+                final int[] codes = cardinalities.getCodes(column, 0);
+                final int[] counts = cardinalities.getCounts(column, 0);
                 final int[][] hierarchy = hierarchies[column];
-                for (int in = 0; in < hierarchy.length; in++) {
-                    final int out = hierarchy[in][transformation];
-                    final double a = cardinality[in][0];
-                    final double b = cardinality[out][transformation];
-                    if (a != 0d) {
-                        value += a * log2(a / b);
-                    }
+                for (int i = 0; i < codes.length; i++) {
+                    final int out = hierarchy[codes[i]][transformation];
+                    final double a = counts[i];
+                    final double b = cardinalities.getCount(column, out, transformation);
+                    value += a * log2(a / b);
                 }
                 cache[column][transformation] = value;
             }
@@ -232,7 +230,6 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
     protected double[] getUpperBounds() {
 
         // Prepare
-        int[][][] cardinalities = this.cardinalities.getCardinalities();
         double[] result = new double[hierarchies.length];
         double gFactor = super.getGeneralizationFactor();
 
@@ -241,13 +238,9 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
 
             // Compute entropy
             double value = 0d;
-            final int[][] cardinality = cardinalities[column];
-            final int[][] hierarchy = hierarchies[column];
-            for (int in = 0; in < hierarchy.length; in++) {
-                final double a = cardinality[in][0];
-                if (a != 0d) {
-                    value += a * log2(a / rows);
-                }
+            for (int count : cardinalities.getCounts(column, 0)) {
+                final double a = count;
+                value += a * log2(a / rows);
             }
             result[column] = value * gFactor;
         }
@@ -114,21 +114,12 @@ public class MetricSDAECS extends AbstractMetricSingleDimensional {
     @Override
     protected ILSingleDimensionalWithBound getInformationLossInternal(final Transformation node, final HashGroupify g) {
 
-        // The total number of groups with and without suppression
-        double groupsWithSuppression = 0;
-        double groupsWithoutSuppression = 0;
+        // The total number of groups with and without suppression, maintained while building the classes
+        double groupsWithSuppression = g.getNumberOfNonSuppressedEquivalenceClasses();
+        double groupsWithoutSuppression = g.getNumberOfNonEmptyEquivalenceClasses();
         double gFactor = super.getSuppressionFactor(); // Note: factors are switched on purpose
         double sFactor = super.getGeneralizationFactor(); // Note: factors are switched on purpose
         
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            if (m.count > 0) {
-                groupsWithSuppression += m.isNotOutlier ? 1 : 0;
-                groupsWithoutSuppression++;
-            }
-            m = m.nextOrdered;
-        }
-        
         // If there are suppressed tuples, they form one additional group
         boolean someRecordsSuppressed = (groupsWithSuppression != groupsWithoutSuppression);
         groupsWithSuppression *= gFactor;
@@ -152,13 +143,8 @@ public class MetricSDAECS extends AbstractMetricSingleDimensional {
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node,
                                                         HashGroupify groupify) {
-        // Ignore suppression for the lower bound
-        int groups = 0;
-        HashGroupifyEntry m = groupify.getFirstEquivalenceClass();
-        while (m != null) {
-            groups += (m.count > 0) ? 1 : 0;
-            m = m.nextOrdered;
-        }
+        // Ignore suppression for the lower bound, maintained while building the classes
+        int groups = groupify.getNumberOfNonEmptyEquivalenceClasses();
         
         // Compute AECS
         double gFactor = super.getSuppressionFactor(); // Note: factors are switched on purpose
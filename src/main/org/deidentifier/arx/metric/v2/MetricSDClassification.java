@@ -18,11 +18,13 @@
 package org.deidentifier.arx.metric.v2;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
+import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -31,10 +33,13 @@ import org.deidentifier.arx.framework.check.groupify.MetaHashGroupify;
 import org.deidentifier.arx.framework.check.groupify.MetaHashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.MetricConfiguration;
 
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
 /**
  * This class provides an implementation of the classification metric.
  * 
@@ -63,6 +68,8 @@ public class MetricSDClassification extends AbstractMetricSingleDimensional {
     private double            penaltyMax;
     /** Maximal penality */
     private double            penaltyMaxScale;
+    /** Lower bound for all transformations, null if not available */
+    private transient Double  lowerBound                      = null;
     
     
     /**
@@ -177,6 +184,79 @@ public class MetricSDClassification extends AbstractMetricSingleDimensional {
         return result;
     }
     
+    /**
+     * Returns a lower bound which holds for all transformations. Records which do not belong to the
+     * majority response within their class in the input data are penalized in every transformation,
+     * as neither merging classes nor suppressing records decreases their number. Response variables
+     * which are quasi-identifiers are ignored.
+     * @param generalized
+     * @param analyzed
+     * @param subset
+     * @return
+     */
+    private double getLowerBound(final DataMatrix generalized, DataMatrix analyzed, RowSet subset) {
+        
+        // Special case
+        if (responseVariablesNonQI.length == 0 || penaltyMax == 0d) {
+            return 0d;
+        }
+        
+        // Assign identifiers to classes, column by column, by mapping pairs
+        // of the identifier for the previous columns and the current value
+        int numRows = generalized.getNumRows();
+        int[] classes = new int[numRows];
+        int numClasses = 1;
+        LongIntOpenHashMap identifiers = new LongIntOpenHashMap();
+        for (int column = 0; column < generalized.getNumColumns(); column++) {
+            identifiers.clear();
+            numClasses = 0;
+            for (int row = 0; row < numRows; row++) {
+                if (subset == null || subset.contains(row)) {
+                    long key = getKey(classes[row], generalized.get(row, column));
+                    if (identifiers.containsKey(key)) {
+                        classes[row] = identifiers.lget();
+                    } else {
+                        identifiers.put(key, numClasses);
+                        classes[row] = numClasses++;
+                    }
+                }
+            }
+        }
+        
+        // Count records which do not belong to the majority response of their class
+        long penalized = 0;
+        int[] top1 = new int[numClasses];
+        LongIntOpenHashMap frequencies = new LongIntOpenHashMap();
+        for (int index : this.responseVariablesNonQI) {
+            frequencies.clear();
+            Arrays.fill(top1, 0);
+            for (int row = 0; row < numRows; row++) {
+                if (subset == null || subset.contains(row)) {
+                    int frequency = frequencies.putOrAdd(getKey(classes[row], analyzed.get(row, index)), 1, 1);
+                    top1[classes[row]] = Math.max(top1[classes[row]], frequency);
+                    penalized++;
+                }
+            }
+            for (int frequency : top1) {
+                penalized -= frequency;
+            }
+        }
+        
+        // Each of them receives at least the minimal penalty
+        double penalty = Math.min(penaltySuppressed, Math.min(penaltyInfrequentResponse, penaltyNoMajorityResponse));
+        return penalized * (penalty / penaltyMax);
+    }
+
+    /**
+     * Returns a key for the given class and value
+     * @param clazz
+     * @param value
+     * @return
+     */
+    private long getKey(int clazz, int value) {
+        return ((long) clazz << 32) | (value & 0xffffffffL);
+    }
+
     /**
      * Returns the penalty for a distribution
      * @param distribution
@@ -325,14 +405,13 @@ public class MetricSDClassification extends AbstractMetricSingleDimensional {
 
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node) {
-        // TODO: Can a lower bound be calculated for this model?
-        return null;
+        // Not available, e.g. after de-serialization
+        return lowerBound == null ? null : new ILSingleDimensional(lowerBound);
     }
 
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node, HashGroupify groupify) {
-        // TODO: Can a lower bound be calculated for this model?
-        return null;
+        return getLowerBoundInternal(node);
     }
 
     @Override
@@ -380,5 +459,8 @@ public class MetricSDClassification extends AbstractMetricSingleDimensional {
             }
             i++;
         }
+        
+        // Compute lower bound
+        this.lowerBound = getLowerBound(manager.getDataGeneralized().getArray(), manager.getDataAnalyzed().getArray(), super.getSubset(config));
     }
 }
\ No newline at end of file
@@ -102,19 +102,11 @@ public class MetricSDNMDiscernability extends AbstractMetricSingleDimensional {
     @Override
     protected ILSingleDimensionalWithBound getInformationLossInternal(final Transformation node, final HashGroupify g) {
         
+        // All sums have been maintained while building the classes. Each suppressed
+        // record contributes the number of rows instead of the size of its class.
         double rows = getNumTuples();
-        double dm = 0;
-        double dmStar = 0;
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            if (m.count>0){
-                double count = (double)m.count;
-                double current = count * count;
-                dmStar += current;
-                dm += m.isNotOutlier ? current : rows * count;
-            }
-            m = m.nextOrdered;
-        }
+        double dmStar = (double) g.getSumOfSquaredClassSizes();
+        double dm = dmStar + rows * (double) g.getSumOfSuppressedClassSizes() - (double) g.getSumOfSquaredSuppressedClassSizes();
         return new ILSingleDimensionalWithBound(dm, dmStar);
     }
 
@@ -131,13 +123,8 @@ public class MetricSDNMDiscernability extends AbstractMetricSingleDimensional {
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node,
                                                         HashGroupify groupify) {
-        double lowerBound = 0;
-        HashGroupifyEntry m = groupify.getFirstEquivalenceClass();
-        while (m != null) {
-            lowerBound += (m.count>0) ? ((double) m.count * (double) m.count) : 0;
-            m = m.nextOrdered;
-        }
-        return new ILSingleDimensional(lowerBound);
+        // Maintained while building the classes
+        return new ILSingleDimensional((double) groupify.getSumOfSquaredClassSizes());
     }
 }
 
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.metric.v2;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.certificate.elements.ElementData;
@@ -46,6 +48,108 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
     /** SVUID*/
     private static final long serialVersionUID = -2443537745262162075L;
 
+    /**
+     * Creates a cache for the terms of lower bounds computed with 
+     * <code>getEntropyBasedInformationLossLowerBound()</code>
+     * @param hierarchies
+     * @return
+     */
+    public static double[][] createEntropyBasedInformationLossLowerBoundCache(GeneralizationHierarchy[] hierarchies) {
+        double[][] cache = new double[hierarchies.length][];
+        for (int i = 0; i < cache.length; i++) {
+            cache[i] = new double[hierarchies[i].getHeight()];
+            Arrays.fill(cache[i], Double.NaN);
+        }
+        return cache;
+    }
+
+    /**
+     * Creates a table of the shares of all values on all levels of the given hierarchies,
+     * to be used with <code>getEntropyBasedInformationLoss()</code>: Dimension -> Level -> Value -> Share.
+     * @param shares
+     * @param hierarchies
+     * @return
+     */
+    public static double[][][] createShareTable(DomainShare[] shares, GeneralizationHierarchy[] hierarchies) {
+        double[][][] table = new double[shares.length][][];
+        for (int dimension = 0; dimension < shares.length; dimension++) {
+            int[][] hierarchy = hierarchies[dimension].getArray();
+            int levels = hierarchy.length == 0 ? 0 : hierarchy[0].length;
+            table[dimension] = new double[levels][];
+            for (int level = 0; level < levels; level++) {
+                int max = -1;
+                for (int[] values : hierarchy) {
+                    max = Math.max(max, values[level]);
+                }
+                double[] column = new double[max + 1];
+                for (int[] values : hierarchy) {
+                    column[values[level]] = shares[dimension].getShare(values[level], level);
+                }
+                table[dimension][level] = column;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns a lower bound on the sum of the entropy-based IL of all records, which only depends on
+     * the generalization levels and is thus also a lower bound for all successors. The logarithm of
+     * the product of shares decomposes into one term per attribute, which is derived from the
+     * cardinalities of the values on the according level. For microaggregated attributes, the
+     * minimal share is assumed.
+     * @param transformation
+     * @param cardinalities
+     * @param shares
+     * @param aggregation
+     * @param cache Column -> Level -> Term, NaN if not available
+     * @param records
+     * @param maxIL
+     * @return
+     */
+    public static double getEntropyBasedInformationLossLowerBound(Transformation transformation,
+                                                                  Cardinalities cardinalities,
+                                                                  DomainShare[] shares,
+                                                                  DataAggregationInformation aggregation,
+                                                                  double[][] cache,
+                                                                  double records,
+                                                                  double maxIL) {
+        
+        // Special case
+        if (maxIL == 0d) {
+            return 0d;
+        }
+        
+        // Sum up log(share) over all records for each attribute
+        int[] generalization = transformation.getGeneralization();
+        double sum = 0d;
+        for (int dimension = 0; dimension < shares.length; dimension++) {
+            int level = generalization[dimension];
+            double term = cache[dimension][level];
+            if (Double.isNaN(term)) {
+                term = 0d;
+                int[] codes = cardinalities.getCodes(dimension, level);
+                int[] counts = cardinalities.getCounts(dimension, level);
+                for (int i = 0; i < codes.length; i++) {
+                    term += counts[i] * Math.log10(shares[dimension].getShare(codes[i], level));
+                }
+                cache[dimension][level] = term;
+            }
+            sum += term;
+        }
+        
+        // Microaggregation
+        if (aggregation != null) {
+            for (int size : aggregation.getHotQIsNotGeneralizedDomainSizes()) {
+                sum -= records * Math.log10(size);
+            }
+        }
+        
+        // Finalize, accounting for floating point errors
+        double result = sum / maxIL + records;
+        result -= Math.abs(result) * TOLERANCE;
+        return result < 0d ? 0d : result;
+    }
+
     /**
      * Implements the entropy-based IL model. Ignores record suppression. Returns the loss for exactly one record.
      * @param transformation
@@ -92,6 +196,67 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
             int level = generalization[dimension];
             infoLoss *= shares[dimension].getShare(value, level);
         }
+        return getEntropyBasedInformationLoss(infoLoss, entry, aggregation, maxIL);
+    }
+
+    /**
+     * Implements the entropy-based IL model with shares obtained from a table created with
+     * <code>createShareTable()</code>. Ignores record suppression. Returns the loss for exactly one record.
+     * @param transformation
+     * @param entry
+     * @param shares
+     * @param aggregation
+     * @param maxIL
+     * @return
+     */
+    public static double getEntropyBasedInformationLoss(Transformation transformation, 
+                                                        HashGroupifyEntry entry,
+                                                        double[][][] shares,
+                                                        DataAggregationInformation aggregation,
+                                                        double maxIL) {
+
+        int[] generalization = transformation.getGeneralization();
+        double infoLoss = 1d;
+        entry.read();
+        for (int dimension = 0; dimension < shares.length; dimension++) {
+            infoLoss *= shares[dimension][generalization[dimension]][entry.next()];
+        }
+        return getEntropyBasedInformationLoss(infoLoss, entry, aggregation, maxIL);
+    }
+
+    /**
+     * Returns the maximal entropy-based information loss
+     * @param domainShares For generalized attributes
+     * @param aggregation For microaggregated attributes
+     * @return
+     */
+    public static double getMaximalEntropyBasedInformationLoss(DomainShare[] domainShares,
+                                                               DataAggregationInformation aggregation) {
+        double maxIL = 1d;
+        for (DomainShare share : domainShares) {
+            maxIL *= share.getDomainSize();
+        }
+        if (aggregation != null) {
+            for (int size : aggregation.getHotQIsNotGeneralizedDomainSizes()) {
+                maxIL *= size;
+            }
+        }
+        maxIL = Math.log10(maxIL);
+        return maxIL;
+    }
+
+    /**
+     * Completes the computation of the entropy-based IL from the product of the shares of the generalized attributes
+     * @param infoLoss
+     * @param entry
+     * @param aggregation
+     * @param maxIL
+     * @return
+     */
+    private static double getEntropyBasedInformationLoss(double infoLoss,
+                                                         HashGroupifyEntry entry,
+                                                         DataAggregationInformation aggregation,
+                                                         double maxIL) {
         
         if (aggregation != null) {
             int[] microaggregationIndices = aggregation.getHotQIsNotGeneralized();
@@ -117,33 +282,18 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
         return result;
     }
 
-    /**
-     * Returns the maximal entropy-based information loss
-     * @param domainShares For generalized attributes
-     * @param aggregation For microaggregated attributes
-     * @return
-     */
-    public static double getMaximalEntropyBasedInformationLoss(DomainShare[] domainShares,
-                                                               DataAggregationInformation aggregation) {
-        double maxIL = 1d;
-        for (DomainShare share : domainShares) {
-            maxIL *= share.getDomainSize();
-        }
-        if (aggregation != null) {
-            for (int size : aggregation.getHotQIsNotGeneralizedDomainSizes()) {
-                maxIL *= size;
-            }
-        }
-        maxIL = Math.log10(maxIL);
-        return maxIL;
-    }
-
     /** Domain shares for each dimension. */
     private DomainShare[]                     shares;
 
     /** MaxIL */
     private double                            maxIL;
 
+    /** Cardinalities, for computing lower bounds */
+    private transient Cardinalities           cardinalities;
+
+    /** Cached terms of lower bounds */
+    private transient double[][]              cache;
+
     /**
      * Creates a new instance. Default constructor which treats all transformation methods equally.
      */
@@ -271,7 +421,23 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
 
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation transformation) {
-        return null;
+        
+        // Not available, e.g. after de-serialization
+        if (this.cardinalities == null) {
+            return null;
+        }
+        
+        // Compute
+        double bound = getEntropyBasedInformationLossLowerBound(transformation,
+                                                                cardinalities,
+                                                                shares,
+                                                                super.getAggregationInformation(),
+                                                                cache,
+                                                                super.getNumTuples(),
+                                                                maxIL);
+        
+        // Return
+        return new ILSingleDimensional(super.getGeneralizationFactor() * bound);
     }
 
     @Override
@@ -320,5 +486,9 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
 
         // Calculate MaxIL
         this.maxIL = getMaximalEntropyBasedInformationLoss(this.shares, super.getAggregationInformation());
+        
+        // Prepare lower bounds
+        this.cardinalities = manager.getCardinalities(super.getSubset(config));
+        this.cache = createEntropyBasedInformationLossLowerBoundCache(hierarchies);
     }
 }
@@ -17,8 +17,7 @@
 
 package org.deidentifier.arx.metric.v2;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
@@ -43,41 +42,6 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  */
 public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
 
-    /** Tuple wrapper*/
-    class TupleWrapper {
-
-        /** Field */
-        private final DataMatrix matrix;
-        /** Field */
-        private final int        tuple;
-        /** Field */
-        private final int        hash;
-        
-        /**
-         * Constructor
-         * @param matrix
-         * @param tuple
-         */
-        public TupleWrapper(DataMatrix matrix, int tuple) {
-            this.tuple = tuple;
-            this.hash = matrix.hashCode(tuple);
-            this.matrix = matrix;
-        }
-
-        @Override
-        public boolean equals(Object other) {
-            if (this.matrix != ((TupleWrapper)other).matrix) {
-                throw new IllegalStateException("Incompatible matrix");
-            }
-            return matrix.equals(this.tuple, ((TupleWrapper)other).tuple);
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-    }
-
     /** SUID. */
     private static final long serialVersionUID  = -4918601543733931921L;
 
@@ -100,18 +64,42 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     /** Maximum value */
     private Double                 max               = null;
 
-    /** Tuple matcher */
-    private transient TupleMatcher matcher           = null;
-
-    /** Distribution */
-    private double[]               inputDistribution = null;
-
     /** Log 2. */
     private static final double    LOG2              = Math.log(2);
 
     /** Maximal area */
     private double                 maximalArea       = 0d;
 
+    /** Hierarchies */
+    private transient int[][][]    hierarchies       = null;
+
+    /** Codes of the distinct input tuples, row-major */
+    private transient int[]        inputTuples       = null;
+
+    /** Frequencies of the distinct input tuples */
+    private transient double[]     inputFrequencies  = null;
+
+    /** Number of records of the distinct input tuples */
+    private transient double[]     inputCounts       = null;
+
+    /** Domain share times domain size: Column -> Level -> Input value -> Area, null if not yet computed */
+    private transient double[][][] areas             = null;
+
+    /** Buffer holding the areas for the levels of the current transformation */
+    private transient double[][]   areasBuffer       = null;
+
+    /** Buffer holding the generalized tuple */
+    private transient int[]        tupleBuffer       = null;
+
+    /** Sum of input frequencies per column and value, for computing lower bounds */
+    private transient double[][]   weights           = null;
+
+    /** Sum of f * log2(f) over all input frequencies f, for computing lower bounds */
+    private transient double       entropy           = 0d;
+
+    /** Cached terms of lower bounds: Column -> Level -> Term, NaN if not available */
+    private transient double[][]   cache             = null;
+
     /**
      * Default constructor.
      */
@@ -165,18 +153,22 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     }
     
     /**
-     * Returns the area
-     * @param output
-     * @param generalization
+     * Returns the products of domain share and domain size of all input values of the
+     * given dimension when generalized to the given level
+     * @param dimension
+     * @param level
      * @return
      */
-    private double getArea(HashGroupifyEntry entry, int[] generalization) {
-        
-        double result = 1d;
-        entry.read();
-        for (int dimension = 0; dimension < generalization.length; dimension++) {
+    private double[] getAreas(int dimension, int level) {
+        double[] result = this.areas[dimension][level];
+        if (result == null) {
             DomainShare share = this.shares[dimension];
-            result *= share.getShare(entry.next(), generalization[dimension]) * share.getDomainSize();
+            int[][] hierarchy = this.hierarchies[dimension];
+            result = new double[hierarchy.length];
+            for (int value = 0; value < hierarchy.length; value++) {
+                result[value] = share.getShare(hierarchy[value][level], level) * share.getDomainSize();
+            }
+            this.areas[dimension][level] = result;
         }
         return result;
     }
@@ -192,27 +184,37 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
             m = m.nextOrdered;
         }
         
+        // Prepare areas
+        int[] generalization = node.getGeneralization();
+        int dimensions = generalization.length;
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            this.areasBuffer[dimension] = getAreas(dimension, generalization[dimension]);
+        }
+        
         // Init
         double result = 0d;
+        int offset = 0;
         
-        // For each tuple
-        for (int row = 0; row < this.inputDistribution.length; row++) {
+        // For each distinct input tuple
+        for (int index = 0; index < this.inputFrequencies.length; index++) {
+            
+            // Generalize and compute area
+            double area = 1d;
+            for (int dimension = 0; dimension < dimensions; dimension++) {
+                int value = this.inputTuples[offset++];
+                this.tupleBuffer[dimension] = this.hierarchies[dimension][value][generalization[dimension]];
+                area *= this.areasBuffer[dimension][value];
+            }
             
             // Obtain frequency
-            double inputFrequency = inputDistribution[row];
+            double inputFrequency = this.inputFrequencies[index];
+            HashGroupifyEntry entry = g.getEntry(this.tupleBuffer);
+            double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
+            outputFrequency /= this.tuples;
+            outputFrequency /= entry.isNotOutlier ? area : maximalArea;
             
-            // Only if present
-            if (inputFrequency != 0d) {
-                
-                int[] generalization = node.getGeneralization();
-                HashGroupifyEntry entry = this.matcher.getEntry(row, generalization, g);
-                double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
-                outputFrequency /= this.tuples;
-                outputFrequency /= entry.isNotOutlier ? getArea(entry, generalization) : maximalArea;
-                
-                // Compute KL-Divergence
-                result += inputFrequency * log2(inputFrequency / outputFrequency);
-            }
+            // Compute KL-Divergence for all records of this tuple
+            result += this.inputCounts[index] * inputFrequency * log2(inputFrequency / outputFrequency);
         }
         
         // Return
@@ -226,13 +228,44 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
 
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node) {
-        return null;
+        
+        // Not available, e.g. after de-serialization
+        if (this.weights == null) {
+            return null;
+        }
+        
+        // Each record contributes f * log2(f * area * tuples / count), where count <= tuples and the area of
+        // its class is the product of share * size over all attributes. Suppressed records use the maximal area.
+        // Hence, sum(f * log2(f)) + sum(f * log2(area)) is a lower bound, which decomposes into one term per
+        // attribute. As shares grow with generalization, this is also a lower bound for all successors.
+        int[] generalization = node.getGeneralization();
+        double result = this.entropy;
+        for (int dimension = 0; dimension < generalization.length; dimension++) {
+            int level = generalization[dimension];
+            double term = cache[dimension][level];
+            if (Double.isNaN(term)) {
+                term = 0d;
+                double[] weights = this.weights[dimension];
+                double[] areas = getAreas(dimension, level);
+                for (int value = 0; value < weights.length; value++) {
+                    if (weights[value] != 0d) {
+                        term += weights[value] * log2(areas[value]);
+                    }
+                }
+                cache[dimension][level] = term;
+            }
+            result += term;
+        }
+        
+        // Account for floating point errors
+        result -= Math.abs(result) * TOLERANCE;
+        return new ILSingleDimensional(result < 0d ? 0d : result);
     }
     
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node,
                                                         HashGroupify g) {
-        return null;
+        return getLowerBoundInternal(node);
     }
 
     @Override
@@ -261,36 +294,78 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
         this.tuples = (double)super.getNumRecords(config, input);
         RowSet subset = super.getSubset(config);
         
-        // Tuple matcher
-        this.matcher = new TupleMatcher(hierarchies);
-       
         // Areamax
         this.maximalArea = 1d;
         for (int dimension = 0; dimension < this.shares.length; dimension++) {
             maximalArea *= this.shares[dimension].getDomainSize();
         }
         
-        // Groupify
-       Map<TupleWrapper, Integer> groupify = new HashMap<TupleWrapper, Integer>();
-       for (int row = 0; row < input.getDataLength(); row++) {
-           if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray(), row);
-               Integer count = groupify.get(wrapper);
-               count = count == null ? 1 : count + 1;
-               groupify.put(wrapper, count);
-           }
-       }
-       
-       // Build input distribution and compute max
-       this.max = 0d;
-       this.inputDistribution = new double[input.getArray().getNumRows()];
-       for (int row = 0; row < input.getDataLength(); row++) {
-           if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray(), row);
-               double frequency = groupify.get(wrapper).doubleValue() / this.tuples;
-               this.inputDistribution[row] = frequency ;
-               this.max += frequency * log2(frequency * maximalArea);
-           }
-       }
+        // Groupify input tuples with open addressing
+        DataMatrix array = input.getArray();
+        int dimensions = hierarchies.length;
+        int rows = input.getDataLength();
+        int capacity = Integer.highestOneBit(Math.max(rows, 1)) << 2;
+        int mask = capacity - 1;
+        int[] table = new int[capacity];
+        int[] representatives = new int[rows];
+        int[] counts = new int[rows];
+        int distinct = 0;
+        for (int row = 0; row < rows; row++) {
+            if (subset == null || subset.contains(row)) {
+                int slot = array.hashCode(row) & mask;
+                while (table[slot] != 0 && !array.equals(representatives[table[slot] - 1], row)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (table[slot] == 0) {
+                    representatives[distinct] = row;
+                    table[slot] = ++distinct;
+                }
+                counts[table[slot] - 1]++;
+            }
+        }
+        
+        // Build input distribution and compute max
+        this.max = 0d;
+        this.inputTuples = new int[distinct * dimensions];
+        this.inputFrequencies = new double[distinct];
+        this.inputCounts = new double[distinct];
+        for (int index = 0; index < distinct; index++) {
+            double frequency = (double)counts[index] / this.tuples;
+            this.inputFrequencies[index] = frequency;
+            this.inputCounts[index] = counts[index];
+            this.max += counts[index] * frequency * log2(frequency * maximalArea);
+            array.iterator(representatives[index]);
+            for (int dimension = 0; dimension < dimensions; dimension++) {
+                this.inputTuples[index * dimensions + dimension] = array.iterator_next();
+            }
+        }
+        
+        // Prepare hierarchies, areas and buffers
+        this.hierarchies = new int[dimensions][][];
+        this.areas = new double[dimensions][][];
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            this.hierarchies[dimension] = hierarchies[dimension].getArray();
+            this.areas[dimension] = new double[hierarchies[dimension].getHeight()][];
+        }
+        this.areasBuffer = new double[dimensions][];
+        this.tupleBuffer = new int[dimensions];
+        
+        // Prepare lower bounds
+        this.entropy = 0d;
+        this.weights = new double[dimensions][];
+        this.cache = new double[dimensions][];
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            this.weights[dimension] = new double[this.hierarchies[dimension].length];
+            this.cache[dimension] = new double[hierarchies[dimension].getHeight()];
+            Arrays.fill(this.cache[dimension], Double.NaN);
+        }
+        int offset = 0;
+        for (int index = 0; index < distinct; index++) {
+            double frequency = this.inputFrequencies[index];
+            this.entropy += this.inputCounts[index] * frequency * log2(frequency);
+            for (int dimension = 0; dimension < dimensions; dimension++) {
+                this.weights[dimension][this.inputTuples[offset++]] += this.inputCounts[index] * frequency;
+            }
+        }
     }
 }
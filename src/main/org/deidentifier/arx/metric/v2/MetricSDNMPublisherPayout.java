@@ -70,6 +70,12 @@ public class MetricSDNMPublisherPayout extends AbstractMetricSingleDimensional {
     /** Maximal payout */
     private QualityMetadata<Double>     maximalPayout;
 
+    /** Cardinalities, for computing lower bounds */
+    private transient Cardinalities     cardinalities;
+
+    /** Cached terms of lower bounds */
+    private transient double[][]        cache;
+
     /**
      * Creates a new instance
      * @param journalistAttackerModel If set to true, the journalist attacker model will be assumed, 
@@ -258,7 +264,23 @@ public class MetricSDNMPublisherPayout extends AbstractMetricSingleDimensional {
 
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation transformation) {
-        return null;
+        
+        // Not available, e.g. after de-serialization
+        if (this.cardinalities == null) {
+            return null;
+        }
+        
+        // The payout bound of a record is maxPayout * IL, as the expected publisher benefit is linear
+        double informationLoss = MetricSDNMEntropyBasedInformationLoss.getEntropyBasedInformationLossLowerBound(transformation,
+                                                                                                                cardinalities,
+                                                                                                                shares,
+                                                                                                                super.getAggregationInformation(),
+                                                                                                                cache,
+                                                                                                                super.getNumTuples(),
+                                                                                                                maxIL);
+        
+        // Return
+        return new ILSingleDimensional(super.getGeneralizationFactor() * this.config.getPublisherBenefit() * informationLoss);
     }
 
     @Override
@@ -300,5 +322,9 @@ public class MetricSDNMPublisherPayout extends AbstractMetricSingleDimensional {
                 
         // Calculate MaxIL
         this.maxIL = MetricSDNMEntropyBasedInformationLoss.getMaximalEntropyBasedInformationLoss(this.shares, super.getAggregationInformation());
+        
+        // Prepare lower bounds
+        this.cardinalities = manager.getCardinalities(super.getSubset(config));
+        this.cache = MetricSDNMEntropyBasedInformationLoss.createEntropyBasedInformationLossLowerBoundCache(hierarchies);
     }
 }
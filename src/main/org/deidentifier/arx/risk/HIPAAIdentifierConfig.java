@@ -98,6 +98,15 @@ class HIPAAIdentifierConfig {
         return null;
     }
     
+    /**
+     * Returns whether this configuration matches attribute values
+     * 
+     * @return
+     */
+    boolean isValueMatcher() {
+        return matcherValue != null;
+    }
+    
     /**
      * Returns the value itself if it matches
      * 
@@ -20,7 +20,6 @@ package org.deidentifier.arx.risk;
 import java.util.Calendar;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.validator.routines.CalendarValidator;
@@ -53,7 +52,7 @@ abstract class HIPAAMatcherAttributeValue {
         
         @Override
         public boolean matches(String value) {
-            if (value.isEmpty()) {
+            if (value.isEmpty() || !containsDigit(value)) {
                 return false;
             }
             
@@ -108,6 +107,11 @@ abstract class HIPAAMatcherAttributeValue {
             }
             
             value = value.toLowerCase().trim();
+            
+            // Each supported format contains a numeric day or year
+            if (!containsDigit(value)) {
+                return false;
+            }
 
             if (isDate(value)) {
                 return true;
@@ -290,17 +294,18 @@ abstract class HIPAAMatcherAttributeValue {
      * @author Florian Kohlmayer, Fabian Prasser, David Gassmann
      */
     static abstract class HIPAAMatcherString extends HIPAAMatcherAttributeValue {
-        Matcher matcher;
+        
+        /** Pattern, which, in contrast to a matcher, may be shared between threads */
+        private final Pattern pattern;
         
         HIPAAMatcherString(String regex) {
             super(null);
-            Pattern pattern = Pattern.compile(regex);
-            matcher = pattern.matcher("");
+            pattern = Pattern.compile(regex);
         }
         
         @Override
         public boolean matches(String value) {
-            return matcher.reset(value).matches();
+            return pattern.matcher(value).matches();
         }
     }
     
@@ -346,17 +351,11 @@ abstract class HIPAAMatcherAttributeValue {
      * @author Florian Kohlmayer, Fabian Prasser, David Gassmann
      */
     static class HIPAAMatcherZIP extends HIPAAMatcherAttributeValue {
-        private Set<String> zipCodes;
-
-        /**
-         * Creates a new instance
-         * @param constants
-         */
-        HIPAAMatcherZIP(HIPAAConstants constants) {
-            super(constants);
         
-            zipCodes = new HashSet<>();
-            
+        /** Restricted three-digit prefixes, built once per JVM */
+        private static final Set<String> zipCodes = new HashSet<>();
+        
+        static {
             zipCodes.add("036");
             zipCodes.add("059");
             zipCodes.add("063");
@@ -377,9 +376,20 @@ abstract class HIPAAMatcherAttributeValue {
             zipCodes.add("890");
             zipCodes.add("893");
         }
+
+        /**
+         * Creates a new instance
+         * @param constants
+         */
+        HIPAAMatcherZIP(HIPAAConstants constants) {
+            super(constants);
+        }
         
         @Override
         public boolean matches(String value) {
+            if (!containsDigit(value)) {
+                return false;
+            }
             value = value.replaceAll("\\s+", "").replaceAll("-", "");
             if (constants.isZipcode(value)) {
                 if (value.length() >= 3) {
@@ -403,9 +413,25 @@ abstract class HIPAAMatcherAttributeValue {
     }
     
     /**
-     * Returns true if the value matches the given Pattern.
+     * Returns true if the value matches the given Pattern. Implementations must be thread-safe,
+     * as columns may be matched concurrently.
      * @param value
      * @return
      */
     public abstract boolean matches(String value);
+    
+    /**
+     * Returns whether the value contains at least one digit
+     * @param value
+     * @return
+     */
+    protected static boolean containsDigit(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
 }
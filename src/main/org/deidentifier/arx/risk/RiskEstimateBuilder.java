@@ -321,8 +321,19 @@ public class RiskEstimateBuilder {
     private RiskModelHistogram getHistogram(double factor) {
         synchronized (this) {
             if (classes == null) {
-                progress.value = 0;
-                classes = new RiskModelHistogram(handle, identifiers, stop, progress, factor);
+                
+                // Try to re-use the classes of a sibling builder
+                int[] indices = RiskModelHistogram.getIndices(handle, identifiers);
+                int version = handle.getVersion();
+                RiskModelHistogramCache cache = handle.getRiskCache();
+                classes = cache.get(version, indices);
+                
+                // Build
+                if (classes == null) {
+                    progress.value = 0;
+                    classes = new RiskModelHistogram(handle, identifiers, stop, progress, factor);
+                    cache.put(version, indices, classes);
+                }
             }
             return classes;
         }
@@ -19,8 +19,12 @@ package org.deidentifier.arx.risk;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.SharedExecutor;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 import org.deidentifier.arx.risk.HIPAAIdentifierMatch.HIPAAIdentifier;
@@ -64,69 +68,137 @@ class RiskModelHIPAASafeHarbor {
      * @return An array of warnings
      */
     public HIPAAIdentifierMatch[] getMatches(DataHandleInternal handle, 
-                                             double threshold,
-                                             WrappedBoolean stop) {
+                                             final double threshold,
+                                             final WrappedBoolean stop) {
+        
+        // Extract distinct values of each attribute. The handle is accessed from this thread only.
+        int columns = handle.getNumColumns();
+        final String[] attributes = new String[columns];
+        final String[][] values = new String[columns][];
+        for (int column = 0; column < columns; column++) {
+            if (stop.value) {
+                throw new ComputationInterruptedException();
+            }
+            attributes[column] = handle.getAttributeName(column);
+            values[column] = handle.getDistinctValues(column);
+        }
         
         // Prepare
         List<HIPAAIdentifierMatch> results = new ArrayList<HIPAAIdentifierMatch>();
         
-        // Check each attribute
-        for (int column = 0; column < handle.getNumColumns(); column++) {
+        // Check each attribute sequentially
+        if (Math.min(columns, SharedExecutor.THREADS) <= 1) {
+            for (int column = 0; column < columns; column++) {
+                results.addAll(getMatches(attributes[column], values[column], threshold, stop));
+            }
+            return results.toArray(new HIPAAIdentifierMatch[results.size()]);
+        }
+        
+        // Check attributes in parallel
+        List<Future<List<HIPAAIdentifierMatch>>> futures = new ArrayList<Future<List<HIPAAIdentifierMatch>>>();
+        SharedExecutor executor = new SharedExecutor();
+        try {
+            for (int column = 0; column < columns; column++) {
+                final int _column = column;
+                futures.add(executor.submit(new Callable<List<HIPAAIdentifierMatch>>() {
+                    @Override
+                    public List<HIPAAIdentifierMatch> call() throws Exception {
+                        return getMatches(attributes[_column], values[_column], threshold, stop);
+                    }
+                }));
+            }
+            
+            // Collect in order of columns
+            for (Future<List<HIPAAIdentifierMatch>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.cancel();
+        }
+        
+        // Return
+        return results.toArray(new HIPAAIdentifierMatch[results.size()]);
+    }
+    
+    /**
+     * Returns a list of matches for the given attribute
+     * 
+     * @param attribute
+     * @param values Distinct values
+     * @param threshold
+     * @param stop
+     * @return
+     */
+    private List<HIPAAIdentifierMatch> getMatches(String attribute, 
+                                                  String[] values, 
+                                                  double threshold,
+                                                  WrappedBoolean stop) {
 
-            // Init
-            String attribute = handle.getAttributeName(column);
-            String[] values = handle.getDistinctValues(column);
+        // Prepare
+        List<HIPAAIdentifierMatch> results = new ArrayList<HIPAAIdentifierMatch>();
+        
+        // Match attribute name
+        for (HIPAAIdentifierConfig config : configurations) {
+            if (stop.value) {
+                throw new ComputationInterruptedException();
+            }
+            String match = config.getMatchingAttributeName(attribute);
+            if (match != null) {
+                results.add(new HIPAAIdentifierMatch(attribute, 
+                                                     config.getIdentifier(), 
+                                                     config.getInstance(),
+                                                     MatchType.ATTRIBUTE_NAME, 
+                                                     match));
+            }
+        }
+        
+        // Match attribute values
+        for (HIPAAIdentifierConfig config : configurations) {
             
-            // Match attribute name
-            for (HIPAAIdentifierConfig config : configurations) {
+            // Skip configurations which match names only
+            if (!config.isValueMatcher()) {
+                continue;
+            }
+            
+            int matches = 0;
+            int nonmatches = 0;
+            for (String value : values) {
                 if (stop.value) {
                     throw new ComputationInterruptedException();
                 }
-                String match = config.getMatchingAttributeName(attribute);
-                if (match != null) {
-                    results.add(new HIPAAIdentifierMatch(attribute, 
-                                                         config.getIdentifier(), 
-                                                         config.getInstance(),
-                                                         MatchType.ATTRIBUTE_NAME, 
-                                                         match));
-                }
-            }
-            
-            // Match attribute values
-            for (HIPAAIdentifierConfig config : configurations) {
-                int matches = 0;
-                int nonmatches = 0;
-                for (String value : values) {
-                    if (stop.value) {
-                        throw new ComputationInterruptedException();
-                    }
+                
+                // Count matching values
+                if (config.getMatchingAttributeValue(value) != null) {
+                    matches++;
+                } else {
                     
-                    // Count matching values
-                    if (config.getMatchingAttributeValue(value) != null) {
-                        matches++;
-                    } else {
-                        
-                        // Break if too many non-matching values
-                        nonmatches++;
-                        double nonpercentage = (double)nonmatches / (double)values.length;
-                        if (nonpercentage > 1d - threshold) {
-                            break;
-                        }
+                    // Break if too many non-matching values
+                    nonmatches++;
+                    double nonpercentage = (double)nonmatches / (double)values.length;
+                    if (nonpercentage > 1d - threshold) {
+                        break;
                     }
                 }
-                double percentage = (double)matches / (double)values.length;
-                if (percentage > threshold) {
-                    results.add(new HIPAAIdentifierMatch(attribute, 
-                                                         config.getIdentifier(), 
-                                                         config.getInstance(),
-                                                         MatchType.ATTRIBUTE_VALUE, 
-                                                         String.valueOf(percentage)));
-                }
+            }
+            double percentage = (double)matches / (double)values.length;
+            if (percentage > threshold) {
+                results.add(new HIPAAIdentifierMatch(attribute, 
+                                                     config.getIdentifier(), 
+                                                     config.getInstance(),
+                                                     MatchType.ATTRIBUTE_VALUE, 
+                                                     String.valueOf(percentage)));
             }
         }
         
         // Return
-        return results.toArray(new HIPAAIdentifierMatch[results.size()]);
+        return results;
     }
     
     /**
@@ -74,22 +74,11 @@ public class RiskModelHistogram {
         /* ********************************
          * Check 
          * ********************************/
-        if (handle == null) { throw new NullPointerException("Handle is null"); }
-        if (qis == null) { throw new NullPointerException("Quasi identifiers must not be null"); }
-        for (String q : qis) {
-            if (handle.getColumnIndexOf(q) == -1) { throw new IllegalArgumentException(q + " is not an attribute"); }
-        }
+        final int[] indices = getIndices(handle, qis);
 
         /* ********************************
          * Build equivalence classes 
          * ********************************/
-        final int[] indices = new int[qis.size()];
-        int index = 0;
-        for (final String attribute : qis) {
-            indices[index++] = handle.getColumnIndexOf(attribute);
-        }
-        Arrays.sort(indices);
-
         // Calculate equivalence classes
         int capacity = handle.getNumRows() / 10;
         capacity = capacity > 10 ? capacity : 10;
@@ -130,6 +119,32 @@ public class RiskModelHistogram {
         convertAndAnalyze(grouped, stop, progress);
     }
 
+    /**
+     * Checks the arguments and returns the sorted column indices of the quasi-identifiers
+     * 
+     * @param handle
+     * @param qis
+     * @return
+     */
+    static int[] getIndices(final DataHandleInternal handle, final Set<String> qis) {
+
+        // Check
+        if (handle == null) { throw new NullPointerException("Handle is null"); }
+        if (qis == null) { throw new NullPointerException("Quasi identifiers must not be null"); }
+        for (String q : qis) {
+            if (handle.getColumnIndexOf(q) == -1) { throw new IllegalArgumentException(q + " is not an attribute"); }
+        }
+
+        // Collect
+        final int[] indices = new int[qis.size()];
+        int index = 0;
+        for (final String attribute : qis) {
+            indices[index++] = handle.getColumnIndexOf(attribute);
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
     /**
      * Returns a property of the class distribution
      * 
@@ -0,0 +1,108 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+/**
+ * A cache for equivalence class models of a data handle. Entries are keyed by the set
+ * of quasi-identifiers and are valid for one version of the represented data only.
+ * Outlier flags are part of the data, as they are modified by local recoding only, which
+ * increments the version. Least recently used entries are evicted if the cached histograms
+ * exceed a fixed number of integers.
+ *
+ * @author Fabian Prasser
+ */
+public class RiskModelHistogramCache {
+
+    /** Maximal number of integers held by all cached histograms */
+    private static final long                               MAX_SIZE = 1L << 22;
+
+    /** Entries in access order */
+    private final LinkedHashMap<String, RiskModelHistogram> cache    = new LinkedHashMap<String, RiskModelHistogram>(16, 0.75f, true);
+
+    /** The version of the data for which the entries are valid */
+    private int                                             version  = 0;
+
+    /** The number of integers held by all cached histograms */
+    private long                                            size     = 0;
+
+    /**
+     * Removes all entries
+     */
+    public synchronized void clear() {
+        this.cache.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the cached equivalence class model, null if there is none
+     *
+     * @param version Version of the data
+     * @param indices Sorted column indices of the quasi-identifiers
+     * @return
+     */
+    synchronized RiskModelHistogram get(int version, int[] indices) {
+        if (version != this.version) {
+            return null;
+        }
+        return this.cache.get(Arrays.toString(indices));
+    }
+
+    /**
+     * Stores the given equivalence class model
+     *
+     * @param version Version of the data
+     * @param indices Sorted column indices of the quasi-identifiers
+     * @param histogram
+     */
+    synchronized void put(int version, int[] indices, RiskModelHistogram histogram) {
+
+        // Ignore models of outdated data
+        if (version < this.version) {
+            return;
+        }
+
+        // Invalidate
+        if (version != this.version) {
+            this.clear();
+            this.version = version;
+        }
+
+        // Ignore models which are too large to be cached
+        long entrySize = histogram.getHistogram().length;
+        if (entrySize > MAX_SIZE) {
+            return;
+        }
+
+        // Store
+        RiskModelHistogram previous = this.cache.put(Arrays.toString(indices), histogram);
+        this.size += entrySize - (previous == null ? 0 : previous.getHistogram().length);
+
+        // Evict least recently used entries
+        Iterator<Entry<String, RiskModelHistogram>> iterator = this.cache.entrySet().iterator();
+        while (this.size > MAX_SIZE && iterator.hasNext()) {
+            Entry<String, RiskModelHistogram> entry = iterator.next();
+            this.size -= entry.getValue().getHistogram().length;
+            iterator.remove();
+        }
+    }
+}
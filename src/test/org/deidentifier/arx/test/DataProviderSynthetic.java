@@ -0,0 +1,106 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.util.Random;
+
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataType;
+
+/**
+ * Provides synthetic data for test cases, which do not depend on files that are not
+ * part of the repository. Data is generated from a seed and is thus reproducible.
+ * It contains the quasi-identifiers age, sex, zipcode and education, an insensitive
+ * attribute disease and a numeric insensitive attribute income.
+ *
+ * @author Fabian Prasser
+ */
+public class DataProviderSynthetic {
+
+    /** Values */
+    private static final String[] DISEASES   = { "flu", "gastritis", "bronchitis", "pneumonia", "gastric ulcer", "stomach cancer" };
+
+    /** Values */
+    private static final String[] EDUCATIONS = { "Preschool", "Primary", "Secondary", "Bachelors", "Masters", "Doctorate" };
+
+    /** Values */
+    private static final String[] GROUPS     = { "Basic", "Basic", "Basic", "Higher", "Higher", "Higher" };
+
+    /**
+     * Creates a dataset with the given number of records
+     * @param rows
+     * @param seed
+     * @return
+     */
+    public static Data getData(int rows, long seed) {
+
+        // Generate records. Attributes are correlated, so that classifiers can learn something.
+        Random random = new Random(seed);
+        DefaultData data = Data.create();
+        data.add("age", "sex", "zipcode", "education", "disease", "income");
+        for (int row = 0; row < rows; row++) {
+            int age = 18 + random.nextInt(62);
+            boolean male = random.nextBoolean();
+            int education = Math.min(EDUCATIONS.length - 1, random.nextInt(3) + (age > 40 ? random.nextInt(4) : 0));
+            String zipcode = "81" + (6 + random.nextInt(4)) + random.nextInt(10) + random.nextInt(10);
+            String disease = DISEASES[(age / 20 + (male ? 1 : 0) + random.nextInt(2)) % DISEASES.length];
+            int income = 1000 + education * 800 + random.nextInt(1000);
+            data.add(String.valueOf(age), male ? "male" : "female", zipcode, EDUCATIONS[education], disease, String.valueOf(income));
+        }
+
+        // Hierarchies
+        DefaultHierarchy age = Hierarchy.create();
+        for (int value = 18; value < 80; value++) {
+            int lower5 = value / 5 * 5;
+            int lower10 = value / 10 * 10;
+            int lower20 = value / 20 * 20;
+            age.add(String.valueOf(value),
+                    lower5 + "-" + (lower5 + 4),
+                    lower10 + "-" + (lower10 + 9),
+                    lower20 + "-" + (lower20 + 19),
+                    "*");
+        }
+        DefaultHierarchy sex = Hierarchy.create();
+        sex.add("male", "*");
+        sex.add("female", "*");
+        DefaultHierarchy zipcode = Hierarchy.create();
+        for (int value = 81600; value < 82000; value++) {
+            String code = String.valueOf(value);
+            zipcode.add(code, code.substring(0, 4) + "*", code.substring(0, 3) + "**", code.substring(0, 2) + "***", "*****");
+        }
+        DefaultHierarchy education = Hierarchy.create();
+        for (int i = 0; i < EDUCATIONS.length; i++) {
+            education.add(EDUCATIONS[i], GROUPS[i], "*");
+        }
+
+        // Definition
+        data.getDefinition().setAttributeType("age", age);
+        data.getDefinition().setDataType("age", DataType.INTEGER);
+        data.getDefinition().setAttributeType("sex", sex);
+        data.getDefinition().setAttributeType("zipcode", zipcode);
+        data.getDefinition().setAttributeType("education", education);
+        data.getDefinition().setAttributeType("disease", AttributeType.INSENSITIVE_ATTRIBUTE);
+        data.getDefinition().setAttributeType("income", AttributeType.INSENSITIVE_ATTRIBUTE);
+        data.getDefinition().setDataType("income", DataType.INTEGER);
+        return data;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * Anonymizes data with FLASH and evaluates all anonymous transformations of the solution space
+ * by applying them to the data. Serves as a reference for search modes which return several
+ * transformations or which may terminate early.
+ *
+ * @author Fabian Prasser
+ */
+public class ExhaustiveEvaluation {
+
+    /**
+     * The properties of an anonymous transformation
+     *
+     * @author Fabian Prasser
+     */
+    public static class Entry {
+
+        /** Transformation */
+        public final int[]              transformation;
+
+        /** Level */
+        public final int                level;
+
+        /** Information loss */
+        public final InformationLoss<?> loss;
+
+        /** Number of suppressed records */
+        public final int                suppressed;
+
+        /** Number of equivalence classes, excluding suppressed records */
+        public final int                classes;
+
+        /** Highest re-identification risk of records which are not suppressed */
+        public final double             risk;
+
+        /**
+         * Creates a new instance
+         * @param node
+         * @param output
+         */
+        private Entry(ARXNode node, DataHandle output) {
+
+            // Collect sizes of classes which are not suppressed
+            Map<List<String>, Integer> sizes = new HashMap<List<String>, Integer>();
+            int suppressed = 0;
+            String[] attributes = node.getQuasiIdentifyingAttributes();
+            for (int row = 0; row < output.getNumRows(); row++) {
+                if (output.isOutlier(row)) {
+                    suppressed++;
+                } else {
+                    String[] key = new String[attributes.length];
+                    for (int i = 0; i < attributes.length; i++) {
+                        key[i] = output.getValue(row, output.getColumnIndexOf(attributes[i]));
+                    }
+                    List<String> _key = Arrays.asList(key);
+                    Integer size = sizes.get(_key);
+                    sizes.put(_key, size == null ? 1 : size + 1);
+                }
+            }
+            int minimum = Integer.MAX_VALUE;
+            for (int size : sizes.values()) {
+                minimum = Math.min(minimum, size);
+            }
+
+            // Store
+            this.transformation = node.getTransformation();
+            this.level = node.getTotalGeneralizationLevel();
+            this.loss = node.getHighestScore();
+            this.suppressed = suppressed;
+            this.classes = sizes.size();
+            this.risk = minimum == Integer.MAX_VALUE ? 0d : 1d / (double) minimum;
+        }
+
+        /**
+         * Returns whether this entry is at least as good as the other entry in terms of
+         * information loss, suppressed records and risk
+         * @param other
+         * @return
+         */
+        public boolean isAsGoodAs(Entry other) {
+            return loss.compareTo(other.loss) <= 0 && suppressed <= other.suppressed && risk <= other.risk;
+        }
+    }
+
+    /**
+     * Anonymizes the data with the given configuration, which must result in FLASH being
+     * used, and evaluates all anonymous transformations.
+     * @param data
+     * @param config
+     * @return
+     * @throws IOException
+     */
+    public static ExhaustiveEvaluation evaluate(Data data, ARXConfiguration config) throws IOException {
+        return new ExhaustiveEvaluation(new ARXAnonymizer().anonymize(data, config));
+    }
+
+    /** Anonymous transformations */
+    private final Map<String, Entry>   entries = new HashMap<String, Entry>();
+
+    /** All transformations */
+    private final Map<String, ARXNode> nodes   = new HashMap<String, ARXNode>();
+
+    /** The result of FLASH */
+    private final ARXResult            result;
+
+    /** Number of transformations */
+    private final int                  size;
+
+    /**
+     * Creates a new instance
+     * @param result
+     */
+    private ExhaustiveEvaluation(ARXResult result) {
+        this.result = result;
+
+        // Materialize all transformations
+        List<ARXNode> queue = new ArrayList<ARXNode>();
+        queue.add(result.getLattice().getBottom());
+        nodes.put(Arrays.toString(result.getLattice().getBottom().getTransformation()), result.getLattice().getBottom());
+        while (!queue.isEmpty()) {
+            ARXNode node = queue.remove(queue.size() - 1);
+            node.expand();
+            for (ARXNode successor : node.getSuccessors()) {
+                String key = Arrays.toString(successor.getTransformation());
+                if (!nodes.containsKey(key)) {
+                    nodes.put(key, successor);
+                    queue.add(successor);
+                }
+            }
+        }
+
+        // Apply all transformations
+        for (ARXNode node : nodes.values()) {
+            DataHandle output = result.getOutput(node, false);
+            if (node.getAnonymity() == Anonymity.ANONYMOUS) {
+                entries.put(Arrays.toString(node.getTransformation()), new Entry(node, output));
+            }
+            output.release();
+        }
+        this.size = nodes.size();
+    }
+
+    /**
+     * Returns all anonymous transformations
+     * @return
+     */
+    public List<Entry> getEntries() {
+        return new ArrayList<Entry>(entries.values());
+    }
+
+    /**
+     * Returns the entry for the given transformation, null if it is not anonymous
+     * @param transformation
+     * @return
+     */
+    public Entry getEntry(int[] transformation) {
+        return entries.get(Arrays.toString(transformation));
+    }
+
+    /**
+     * Returns the transformation with the given generalization levels
+     * @param transformation
+     * @return
+     */
+    public ARXNode getNode(int[] transformation) {
+        return nodes.get(Arrays.toString(transformation));
+    }
+
+    /**
+     * Returns the number of transformations in the solution space
+     * @return
+     */
+    public int getNumberOfTransformations() {
+        return size;
+    }
+
+    /**
+     * Returns the result of FLASH
+     * @return
+     */
+    public ARXResult getResult() {
+        return result;
+    }
+}
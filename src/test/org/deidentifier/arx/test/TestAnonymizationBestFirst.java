@@ -0,0 +1,234 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.ARXTransformationSummary;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.AverageReidentificationRisk;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.ExhaustiveEvaluation.Entry;
+import org.junit.Test;
+
+/**
+ * Tests the best-first search against FLASH and against all anonymous transformations of the solution space
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationBestFirst {
+
+    /** Rows */
+    private static final int  ROWS = 300;
+
+    /** Seed */
+    private static final long SEED = 7L;
+
+    /**
+     * Returns a configuration
+     * @param criterion
+     * @param suppressionLimit
+     * @param metric
+     * @param bestFirst
+     * @return
+     */
+    private ARXConfiguration getConfiguration(PrivacyCriterion criterion, double suppressionLimit, Metric<?> metric, boolean bestFirst) {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(criterion);
+        config.setSuppressionLimit(suppressionLimit);
+        config.setQualityModel(metric);
+        config.setBestFirstSearchEnabled(bestFirst);
+        return config;
+    }
+
+    /**
+     * Returns the data. Diseases are sensitive if required by the privacy model.
+     * @param criterion
+     * @return
+     */
+    private Data getData(PrivacyCriterion criterion) {
+        Data data = DataProviderSynthetic.getData(ROWS, SEED);
+        if (criterion instanceof DistinctLDiversity) {
+            data.getDefinition().setAttributeType("disease", AttributeType.SENSITIVE_ATTRIBUTE);
+        }
+        return data;
+    }
+
+    /**
+     * Compares the optimum of the best-first search with the optimum of FLASH. Both must have the
+     * lowest information loss of all anonymous transformations. Among transformations with the same
+     * information loss, the best-first search returns a transformation on the lowest level, while
+     * FLASH may return a transformation on a higher level, if it has not checked all of them.
+     * Transformations are only compared if the optimum is unique.
+     * @param criterion
+     * @param suppressionLimit
+     * @param metric
+     * @throws IOException
+     */
+    private void testOptimum(PrivacyCriterion criterion, double suppressionLimit, Metric<?> metric) throws IOException {
+
+        // Reference
+        ExhaustiveEvaluation reference = ExhaustiveEvaluation.evaluate(getData(criterion),
+                                                                       getConfiguration(criterion.clone(), suppressionLimit, metric, false));
+        ARXNode expected = reference.getResult().getGlobalOptimum();
+        assertNotNull(expected);
+
+        // Best-first search
+        ARXResult result = new ARXAnonymizer().anonymize(getData(criterion), getConfiguration(criterion.clone(), suppressionLimit, metric, true));
+        ARXNode actual = result.getGlobalOptimum();
+        assertNotNull(actual);
+        assertTrue(result.getOptimumFound());
+
+        // Optimum of all anonymous transformations
+        Entry optimum = null;
+        int candidates = 0;
+        for (Entry entry : reference.getEntries()) {
+            int cmp = optimum == null ? -1 : entry.loss.compareTo(optimum.loss);
+            if (cmp == 0) {
+                cmp = Integer.compare(entry.level, optimum.level);
+            }
+            if (cmp < 0) {
+                optimum = entry;
+                candidates = 1;
+            } else if (cmp == 0) {
+                candidates++;
+            }
+        }
+
+        // Compare
+        String label = criterion + "-" + suppressionLimit + "-" + metric;
+        Entry entry = reference.getEntry(actual.getTransformation());
+        assertNotNull(label, entry);
+        assertEquals(label, 0, entry.loss.compareTo(actual.getHighestScore()));
+        assertEquals(label, 0, optimum.loss.compareTo(actual.getHighestScore()));
+        assertEquals(label, 0, optimum.loss.compareTo(expected.getHighestScore()));
+        assertEquals(label, optimum.level, actual.getTotalGeneralizationLevel());
+        assertTrue(label, optimum.level <= expected.getTotalGeneralizationLevel());
+        if (candidates == 1) {
+            assertArrayEquals(label, optimum.transformation, actual.getTransformation());
+            if (optimum.level == expected.getTotalGeneralizationLevel()) {
+                assertArrayEquals(label, expected.getTransformation(), actual.getTransformation());
+            }
+        }
+    }
+
+    /**
+     * Compares the top transformations of the best-first search with a ranking of all anonymous transformations
+     * @param number
+     * @param suppressionLimit
+     * @param metric
+     * @throws IOException
+     */
+    private void testTopTransformations(int number, double suppressionLimit, Metric<?> metric) throws IOException {
+
+        // Reference
+        ExhaustiveEvaluation reference = ExhaustiveEvaluation.evaluate(DataProviderSynthetic.getData(ROWS, SEED),
+                                                                       getConfiguration(new KAnonymity(3), suppressionLimit, metric, false));
+        List<Entry> expected = reference.getEntries();
+        Collections.sort(expected, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry arg0, Entry arg1) {
+                return arg0.loss.compareTo(arg1.loss);
+            }
+        });
+
+        // Best-first search
+        ARXConfiguration config = getConfiguration(new KAnonymity(3), suppressionLimit, metric, true);
+        config.setNumberOfTopTransformations(number);
+        List<ARXTransformationSummary> actual = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(ROWS, SEED), config).getTopTransformations();
+
+        // Compare
+        assertEquals(Math.min(number, expected.size()), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            ARXTransformationSummary summary = actual.get(i);
+            String label = Arrays.toString(summary.getNode().getTransformation());
+            Entry entry = reference.getEntry(summary.getNode().getTransformation());
+            assertNotNull(label, entry);
+            assertEquals(label, 0, expected.get(i).loss.compareTo(summary.getInformationLoss()));
+            assertEquals(label, 0, entry.loss.compareTo(summary.getInformationLoss()));
+        }
+    }
+
+    @Test
+    public void testAverageRisk() throws IOException {
+        testOptimum(new AverageReidentificationRisk(0.2d), 0.05d, Metric.createLossMetric());
+        testOptimum(new AverageReidentificationRisk(0.2d), 0.05d, Metric.createEntropyMetric());
+    }
+
+    @Test
+    public void testDiscernibility() throws IOException {
+        testOptimum(new KAnonymity(5), 0.05d, Metric.createDiscernabilityMetric(true));
+        testOptimum(new KAnonymity(5), 0.05d, Metric.createDiscernabilityMetric(false));
+        testOptimum(new KAnonymity(5), 0d, Metric.createDiscernabilityMetric(true));
+    }
+
+    @Test
+    public void testEntropy() throws IOException {
+        testOptimum(new KAnonymity(3), 0.05d, Metric.createEntropyMetric());
+        testOptimum(new KAnonymity(3), 0d, Metric.createEntropyMetric());
+        testOptimum(new KAnonymity(10), 0.1d, Metric.createEntropyMetric(true));
+    }
+
+    @Test
+    public void testKLDivergence() throws IOException {
+        testOptimum(new KAnonymity(3), 0.05d, Metric.createKLDivergenceMetric());
+    }
+
+    @Test
+    public void testLDiversity() throws IOException {
+        testOptimum(new DistinctLDiversity("disease", 2), 0.05d, Metric.createLossMetric());
+        testOptimum(new DistinctLDiversity("disease", 3), 0d, Metric.createPrecisionMetric());
+    }
+
+    @Test
+    public void testLoss() throws IOException {
+        testOptimum(new KAnonymity(3), 0.05d, Metric.createLossMetric());
+        testOptimum(new KAnonymity(3), 0d, Metric.createLossMetric());
+        testOptimum(new KAnonymity(10), 0.1d, Metric.createLossMetric());
+    }
+
+    @Test
+    public void testPrecision() throws IOException {
+        testOptimum(new KAnonymity(5), 0.05d, Metric.createPrecisionMetric());
+        testOptimum(new KAnonymity(5), 0.05d, Metric.createPrecisionMetric(true));
+    }
+
+    @Test
+    public void testTopTransformations() throws IOException {
+        testTopTransformations(5, 0.05d, Metric.createLossMetric());
+        testTopTransformations(10, 0.05d, Metric.createEntropyMetric());
+        testTopTransformations(3, 0d, Metric.createDiscernabilityMetric(false));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests local recoding with several partitions. Records are partitioned by the value of the
+ * first quasi-identifier. In the data used here, this attribute cannot be generalized and all of
+ * its values occur with the same records, so that the problem decomposes into identical
+ * partitions. Recoding the partitions independently must then give the same result as recoding
+ * all records at once.
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationLocalRecodingPartitions {
+
+    /** Groups */
+    private static final int          GROUPS     = 4;
+
+    /** Attributes */
+    private static final String[]     ATTRIBUTES = { "age", "sex", "zipcode" };
+
+    /** Listener */
+    private static final ARXListener  LISTENER   = new ARXListener() {
+                                                     @Override
+                                                     public void progress(double progress) {
+                                                         // Empty by design
+                                                     }
+                                                 };
+
+    /**
+     * Returns the data, which consists of one copy of the synthetic records per group
+     * @return
+     */
+    private Data getData() {
+
+        // Base records
+        Data synthetic = DataProviderSynthetic.getData(150, 13L);
+        DataHandle handle = synthetic.getHandle();
+        int[] columns = new int[ATTRIBUTES.length];
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            columns[i] = handle.getColumnIndexOf(ATTRIBUTES[i]);
+        }
+
+        // Records
+        DefaultData data = Data.create();
+        String[] header = new String[ATTRIBUTES.length + 1];
+        header[0] = "group";
+        System.arraycopy(ATTRIBUTES, 0, header, 1, ATTRIBUTES.length);
+        data.add(header);
+        DefaultHierarchy group = Hierarchy.create();
+        for (int value = 0; value < GROUPS; value++) {
+            group.add("group-" + value);
+            for (int row = 0; row < handle.getNumRows(); row++) {
+                String[] record = new String[ATTRIBUTES.length + 1];
+                record[0] = "group-" + value;
+                for (int i = 0; i < ATTRIBUTES.length; i++) {
+                    record[i + 1] = handle.getValue(row, columns[i]);
+                }
+                data.add(record);
+            }
+        }
+
+        // Definition
+        data.getDefinition().setAttributeType("group", group);
+        for (String attribute : ATTRIBUTES) {
+            data.getDefinition().setAttributeType(attribute, synthetic.getDefinition().getHierarchyObject(attribute));
+            data.getDefinition().setDataType(attribute, synthetic.getDefinition().getDataType(attribute));
+        }
+        return data;
+    }
+
+    /**
+     * Anonymizes the data and recodes the suppressed records with the given number of partitions
+     * @param k
+     * @param partitions
+     * @param iterative
+     * @return
+     * @throws Exception
+     */
+    private List<String[]> getOutput(int k, int partitions, boolean iterative) throws Exception {
+
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(k));
+        config.setSuppressionLimit(0.1d);
+        config.setQualityModel(Metric.createLossMetric());
+
+        ARXResult result = new ARXAnonymizer().anonymize(getData(), config);
+        DataHandle output = result.getOutput();
+        assertTrue(getNumberOfSuppressedRecords(output) > 0);
+
+        if (iterative) {
+            result.optimizeIterativeFast(output, 0.1d, Double.NaN, partitions, LISTENER);
+        } else {
+            result.optimizeFast(output, 1d, Double.NaN, partitions, LISTENER);
+        }
+
+        List<String[]> records = new ArrayList<String[]>();
+        for (int row = 0; row < output.getNumRows(); row++) {
+            String[] record = new String[output.getNumColumns() + 1];
+            for (int column = 0; column < output.getNumColumns(); column++) {
+                record[column] = output.getValue(row, column);
+            }
+            record[output.getNumColumns()] = String.valueOf(output.isOutlier(row));
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Returns the number of suppressed records
+     * @param handle
+     * @return
+     */
+    private int getNumberOfSuppressedRecords(DataHandle handle) {
+        int count = 0;
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            count += handle.isOutlier(row) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Compares the results obtained with several partitions to the result obtained with one partition
+     * @param k
+     * @param iterative
+     * @throws Exception
+     */
+    private void test(int k, boolean iterative) throws Exception {
+        List<String[]> expected = getOutput(k, 1, iterative);
+        for (int partitions : new int[] { 2, GROUPS, 2 * GROUPS }) {
+            List<String[]> actual = getOutput(k, partitions, iterative);
+            assertEquals(expected.size(), actual.size());
+            for (int row = 0; row < expected.size(); row++) {
+                assertArrayEquals("Partitions: " + partitions + ", row: " + row, expected.get(row), actual.get(row));
+            }
+        }
+    }
+
+    @Test
+    public void testOptimizeFast() throws Exception {
+        test(4, false);
+    }
+
+    @Test
+    public void testOptimizeIterativeFast() throws Exception {
+        test(4, true);
+    }
+
+    @Test
+    public void testPartitionsSmallerThanK() throws Exception {
+        test(5, false);
+    }
+}
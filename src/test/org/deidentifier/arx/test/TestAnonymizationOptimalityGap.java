@@ -0,0 +1,163 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests the optimality gaps reported by the heuristic search and the best-first search
+ * against the global optimum determined with FLASH
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationOptimalityGap {
+
+    /** Rows */
+    private static final int  ROWS = 500;
+
+    /** Seed */
+    private static final long SEED = 13L;
+
+    /**
+     * Returns a configuration
+     * @param metric
+     * @return
+     */
+    private ARXConfiguration getConfiguration(Metric<?> metric) {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setSuppressionLimit(0.05d);
+        config.setQualityModel(metric);
+        return config;
+    }
+
+    /**
+     * Performs step-limited searches and compares the reported gaps with the true gaps. Returns the
+     * number of searches, which have been terminated early and reported a gap which is larger than zero.
+     * @param metric
+     * @param bestFirst
+     * @return
+     * @throws IOException
+     */
+    private int test(Metric<?> metric, boolean bestFirst) throws IOException {
+
+        // Global optimum
+        ARXResult reference = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(ROWS, SEED), getConfiguration(metric));
+        assertNotNull(reference.getGlobalOptimum());
+        InformationLoss<?> optimum = reference.getGlobalOptimum().getHighestScore();
+        InformationLoss<?> lowest = metric.createInstanceOfLowestScore();
+
+        // Step-limited searches
+        int gaps = 0;
+        for (int steps = 1; steps <= 150; steps += 3) {
+
+            // Anonymize
+            ARXConfiguration config = getConfiguration(metric);
+            config.setHeuristicSearchEnabled(!bestFirst);
+            config.setBestFirstSearchEnabled(bestFirst);
+            config.setHeuristicSearchStepLimit(steps);
+            ARXResult result = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(ROWS, SEED), config);
+            if (result.getGlobalOptimum() == null) {
+                continue;
+            }
+
+            // True gap
+            String label = "Steps: " + steps;
+            InformationLoss<?> loss = result.getGlobalOptimum().getHighestScore();
+            assertTrue(label, optimum.compareTo(loss) <= 0);
+            double gap = optimum.compareTo(loss) < 0 ? 1d - optimum.relativeTo(lowest, loss) : 0d;
+
+            // Reported gap
+            Double reported = result.getOptimalityGap();
+            assertNotNull(label, reported);
+            assertTrue(label + ", reported: " + reported + ", true: " + gap, reported >= gap - 1e-9);
+            assertEquals(label, reported == 0d, result.getOptimumFound());
+            if (result.getOptimumFound()) {
+                assertEquals(label, 0, optimum.compareTo(loss));
+            } else {
+                gaps++;
+            }
+        }
+        return gaps;
+    }
+
+    @Test
+    public void testBestFirstLoss() throws IOException {
+        assertTrue(test(Metric.createLossMetric(), true) > 0);
+    }
+
+    @Test
+    public void testBestFirstPrecision() throws IOException {
+        assertTrue(test(Metric.createPrecisionMetric(), true) > 0);
+    }
+
+    @Test
+    public void testHeuristicLoss() throws IOException {
+        assertTrue(test(Metric.createLossMetric(), false) > 0);
+    }
+
+    @Test
+    public void testHeuristicPrecision() throws IOException {
+        assertTrue(test(Metric.createPrecisionMetric(), false) > 0);
+    }
+
+    @Test
+    public void testGapLimit() throws IOException {
+
+        // Global optimum
+        Metric<?> metric = Metric.createLossMetric();
+        ARXResult reference = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(ROWS, SEED), getConfiguration(metric));
+        InformationLoss<?> optimum = reference.getGlobalOptimum().getHighestScore();
+        InformationLoss<?> lowest = metric.createInstanceOfLowestScore();
+
+        // Searches with a gap limit
+        for (boolean bestFirst : new boolean[] { false, true }) {
+            ARXConfiguration config = getConfiguration(metric);
+            config.setHeuristicSearchEnabled(!bestFirst);
+            config.setBestFirstSearchEnabled(bestFirst);
+            config.setHeuristicSearchOptimalityGap(0.2d);
+            ARXResult result = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(ROWS, SEED), config);
+            assertNotNull(result.getGlobalOptimum());
+            InformationLoss<?> loss = result.getGlobalOptimum().getHighestScore();
+            double gap = optimum.compareTo(loss) < 0 ? 1d - optimum.relativeTo(lowest, loss) : 0d;
+            assertNotNull(result.getOptimalityGap());
+            assertTrue(result.getOptimalityGap() < 0.2d);
+            assertTrue(gap <= result.getOptimalityGap() + 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGapLimitWithParetoFrontier() throws IOException {
+        ARXConfiguration config = getConfiguration(Metric.createLossMetric());
+        config.setParetoFrontierEnabled(true);
+        config.setHeuristicSearchOptimalityGap(0.1d);
+        new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(ROWS, SEED), config);
+    }
+}
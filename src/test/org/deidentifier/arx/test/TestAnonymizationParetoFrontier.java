@@ -0,0 +1,136 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.ExhaustiveEvaluation.Entry;
+import org.junit.Test;
+
+/**
+ * Tests the Pareto frontier of quality, suppression and risk against all anonymous
+ * transformations of the solution space
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationParetoFrontier {
+
+    /**
+     * Returns a configuration
+     * @param k
+     * @param suppressionLimit
+     * @param metric
+     * @return
+     */
+    private ARXConfiguration getConfiguration(int k, double suppressionLimit, Metric<?> metric) {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(k));
+        config.setSuppressionLimit(suppressionLimit);
+        config.setQualityModel(metric);
+        return config;
+    }
+
+    /**
+     * Compares the frontier with the transformations which are not dominated by any other transformation
+     * @param k
+     * @param suppressionLimit
+     * @param metric
+     * @throws IOException
+     */
+    private void test(int k, double suppressionLimit, Metric<?> metric) throws IOException {
+
+        // Reference
+        ExhaustiveEvaluation reference = ExhaustiveEvaluation.evaluate(DataProviderSynthetic.getData(300, 3L),
+                                                                       getConfiguration(k, suppressionLimit, metric));
+        assertEquals(150, reference.getNumberOfTransformations());
+        List<Entry> expected = new ArrayList<Entry>();
+        for (Entry entry : reference.getEntries()) {
+            boolean dominated = false;
+            for (Entry other : reference.getEntries()) {
+                if (other.isAsGoodAs(entry) && !entry.isAsGoodAs(other)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                expected.add(entry);
+            }
+        }
+
+        // Frontier
+        ARXConfiguration config = getConfiguration(k, suppressionLimit, metric);
+        config.setParetoFrontierEnabled(true);
+        List<ARXNode> frontier = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(300, 3L), config).getParetoFrontier();
+        assertFalse(frontier.isEmpty());
+
+        // Each transformation on the frontier must not be dominated and must be unique in terms of objectives
+        List<Entry> actual = new ArrayList<Entry>();
+        for (ARXNode node : frontier) {
+            Entry entry = reference.getEntry(node.getTransformation());
+            assertNotNull(Arrays.toString(node.getTransformation()), entry);
+            assertTrue(Arrays.toString(node.getTransformation()), expected.contains(entry));
+            for (Entry other : actual) {
+                assertFalse(other.isAsGoodAs(entry) && entry.isAsGoodAs(other));
+            }
+            actual.add(entry);
+        }
+
+        // Each non-dominated transformation must be represented by a transformation with the same objectives
+        for (Entry entry : expected) {
+            boolean found = false;
+            for (Entry other : actual) {
+                found |= other.isAsGoodAs(entry) && entry.isAsGoodAs(other);
+            }
+            assertTrue(Arrays.toString(entry.transformation), found);
+        }
+
+        // Sorted by quality
+        for (int i = 1; i < frontier.size(); i++) {
+            assertTrue(frontier.get(i - 1).getHighestScore().compareTo(frontier.get(i).getHighestScore()) <= 0);
+        }
+        assertEquals(actual.size(), frontier.size());
+    }
+
+    @Test
+    public void testDiscernibility() throws IOException {
+        test(3, 0.1d, Metric.createDiscernabilityMetric(false));
+    }
+
+    @Test
+    public void testLoss() throws IOException {
+        test(5, 0.05d, Metric.createLossMetric());
+    }
+
+    @Test
+    public void testLossWithoutSuppression() throws IOException {
+        test(2, 0d, Metric.createLossMetric());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests that pre-screening transformations does not change the results of FLASH
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationPrescreening {
+
+    /**
+     * Returns a configuration
+     * @param k
+     * @param suppressionLimit
+     * @param metric
+     * @param fraction The sample fraction, or 0 to disable pre-screening
+     * @return
+     */
+    private ARXConfiguration getConfiguration(int k, double suppressionLimit, Metric<?> metric, double fraction) {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(k));
+        config.setSuppressionLimit(suppressionLimit);
+        config.setQualityModel(metric);
+        if (fraction > 0d) {
+            config.setPrescreeningEnabled(true);
+            config.setPrescreeningSampleFraction(fraction);
+        }
+        return config;
+    }
+
+    /**
+     * Returns the anonymity of all transformations, which have been classified
+     * @param result
+     * @return
+     */
+    private Map<String, Anonymity> getAnonymity(ARXResult result) {
+        Map<String, Anonymity> anonymity = new HashMap<String, Anonymity>();
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                if (node.getAnonymity() == Anonymity.ANONYMOUS || node.getAnonymity() == Anonymity.NOT_ANONYMOUS) {
+                    anonymity.put(Arrays.toString(node.getTransformation()), node.getAnonymity());
+                }
+            }
+        }
+        return anonymity;
+    }
+
+    /**
+     * Compares the results of FLASH with and without pre-screening
+     * @param rows
+     * @param seed
+     * @param k
+     * @param suppressionLimit
+     * @param metric
+     * @param fraction
+     * @throws IOException
+     */
+    private void test(int rows, long seed, int k, double suppressionLimit, Metric<?> metric, double fraction) throws IOException {
+
+        // Anonymize
+        ARXResult expected = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(rows, seed),
+                                                           getConfiguration(k, suppressionLimit, metric, 0d));
+        ARXResult actual = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(rows, seed),
+                                                         getConfiguration(k, suppressionLimit, metric, fraction));
+
+        // Compare optima
+        assertNotNull(expected.getGlobalOptimum());
+        assertNotNull(actual.getGlobalOptimum());
+        assertArrayEquals(expected.getGlobalOptimum().getTransformation(), actual.getGlobalOptimum().getTransformation());
+        assertEquals(0, expected.getGlobalOptimum().getHighestScore().compareTo(actual.getGlobalOptimum().getHighestScore()));
+
+        // Transformations classified by both runs must be classified equally
+        Map<String, Anonymity> reference = getAnonymity(expected);
+        for (Map.Entry<String, Anonymity> entry : getAnonymity(actual).entrySet()) {
+            Anonymity anonymity = reference.get(entry.getKey());
+            if (anonymity != null) {
+                assertEquals(entry.getKey(), anonymity, entry.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testDiscernibility() throws IOException {
+        test(1000, 11L, 10, 0.05d, Metric.createDiscernabilityMetric(true), 0.1d);
+    }
+
+    @Test
+    public void testEntropy() throws IOException {
+        test(1000, 11L, 5, 0.02d, Metric.createEntropyMetric(), 0.2d);
+    }
+
+    @Test
+    public void testLargeK() throws IOException {
+        test(1000, 11L, 50, 0.05d, Metric.createLossMetric(), 0.05d);
+    }
+
+    @Test
+    public void testLoss() throws IOException {
+        test(1000, 11L, 3, 0.05d, Metric.createLossMetric(), 0.05d);
+    }
+
+    /**
+     * Pre-screening predicts boundaries above the actual boundaries for these configurations
+     * @throws IOException
+     */
+    @Test
+    public void testMisprediction() throws IOException {
+        test(300, 23L, 2, 0.1d, Metric.createLossMetric(), 0.05d);
+        test(1000, 23L, 5, 0.1d, Metric.createLossMetric(), 0.05d);
+    }
+
+    @Test
+    public void testSmallSample() throws IOException {
+        test(2000, 11L, 20, 0.1d, Metric.createLossMetric(), 0.01d);
+    }
+
+    @Test
+    public void testWithoutSuppression() throws IOException {
+        test(1000, 11L, 5, 0d, Metric.createLossMetric(), 0.1d);
+    }
+}
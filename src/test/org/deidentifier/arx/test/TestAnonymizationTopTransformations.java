@@ -0,0 +1,117 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXTransformationSummary;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.ExhaustiveEvaluation.Entry;
+import org.junit.Test;
+
+/**
+ * Tests the k best transformations against all anonymous transformations of the solution space
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationTopTransformations {
+
+    /**
+     * Returns a configuration
+     * @param suppressionLimit
+     * @param metric
+     * @return
+     */
+    private ARXConfiguration getConfiguration(double suppressionLimit, Metric<?> metric) {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setSuppressionLimit(suppressionLimit);
+        config.setQualityModel(metric);
+        return config;
+    }
+
+    /**
+     * Compares the top transformations with a ranking of all anonymous transformations
+     * @param number
+     * @param suppressionLimit
+     * @param metric
+     * @throws IOException
+     */
+    private void test(int number, double suppressionLimit, Metric<?> metric) throws IOException {
+
+        // Reference
+        ExhaustiveEvaluation reference = ExhaustiveEvaluation.evaluate(DataProviderSynthetic.getData(300, 5L),
+                                                                       getConfiguration(suppressionLimit, metric));
+        assertEquals(150, reference.getNumberOfTransformations());
+        List<Entry> expected = reference.getEntries();
+        Collections.sort(expected, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry arg0, Entry arg1) {
+                return arg0.loss.compareTo(arg1.loss);
+            }
+        });
+
+        // Top transformations
+        ARXConfiguration config = getConfiguration(suppressionLimit, metric);
+        config.setNumberOfTopTransformations(number);
+        List<ARXTransformationSummary> actual = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(300, 5L), config).getTopTransformations();
+
+        // Compare
+        assertEquals(Math.min(number, expected.size()), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            ARXTransformationSummary summary = actual.get(i);
+            String label = Arrays.toString(summary.getNode().getTransformation());
+            Entry entry = reference.getEntry(summary.getNode().getTransformation());
+            assertNotNull(label, entry);
+            assertEquals(label, 0, expected.get(i).loss.compareTo(summary.getInformationLoss()));
+            assertEquals(label, 0, entry.loss.compareTo(summary.getInformationLoss()));
+            assertEquals(label, entry.suppressed, summary.getNumberOfSuppressedRecords());
+            assertEquals(label, entry.classes, summary.getNumberOfEquivalenceClasses());
+        }
+    }
+
+    @Test
+    public void testDiscernibility() throws IOException {
+        test(5, 0.1d, Metric.createDiscernabilityMetric(false));
+    }
+
+    @Test
+    public void testEntropy() throws IOException {
+        test(10, 0.05d, Metric.createEntropyMetric());
+    }
+
+    @Test
+    public void testLoss() throws IOException {
+        test(5, 0.05d, Metric.createLossMetric());
+    }
+
+    @Test
+    public void testLossWithoutSuppression() throws IOException {
+        test(3, 0d, Metric.createLossMetric());
+    }
+}
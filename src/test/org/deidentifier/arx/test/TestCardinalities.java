@@ -0,0 +1,94 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.metric.v2.Cardinalities;
+import org.junit.Test;
+
+/**
+ * Tests the sparse representation of cardinalities
+ *
+ * @author Fabian Prasser
+ */
+public class TestCardinalities {
+
+    /**
+     * Creates a data object with one column and the given values
+     * @param dictionary
+     * @param values
+     * @return
+     */
+    private Data getData(Dictionary dictionary, String... values) {
+        DataMatrix matrix = new DataMatrix(values.length, 1);
+        for (int row = 0; row < values.length; row++) {
+            matrix.set(row, 0, dictionary.register(0, values[row]));
+        }
+        return Data.createWrapper(matrix, new String[] { "attribute" }, new int[] { 0 }, dictionary);
+    }
+
+    @Test
+    public void testCounts() {
+
+        // Data and hierarchy
+        Dictionary dictionary = new Dictionary(1);
+        Data data = getData(dictionary, "a", "b", "a", "c");
+        GeneralizationHierarchy hierarchy = new GeneralizationHierarchy("attribute",
+                                                                        new String[][] { { "a", "ab", "*" },
+                                                                                         { "b", "ab", "*" },
+                                                                                         { "c", "c", "*" } },
+                                                                        0, dictionary);
+        dictionary.finalizeAll();
+
+        // Check
+        Cardinalities cardinalities = new Cardinalities(data, null, new GeneralizationHierarchy[] { hierarchy });
+        int[][] map = hierarchy.getArray();
+        assertArrayEquals(new int[] { map[0][0], map[1][0], map[2][0] }, cardinalities.getCodes(0, 0));
+        assertArrayEquals(new int[] { 2, 1, 1 }, cardinalities.getCounts(0, 0));
+        assertEquals(3, cardinalities.getCount(0, map[0][1], 1));
+        assertEquals(1, cardinalities.getCount(0, map[2][1], 1));
+        assertEquals(4, cardinalities.getCount(0, map[0][2], 2));
+        assertEquals(0, cardinalities.getCount(0, map[0][2], 1));
+    }
+
+    @Test
+    public void testEmptyHierarchy() {
+
+        // Hierarchy without levels
+        Dictionary dictionary = new Dictionary(1);
+        Data data = getData(dictionary, "a", "a");
+        GeneralizationHierarchy hierarchy = new GeneralizationHierarchy("attribute", new String[][] { { "a", "*" } }, 0, dictionary) {
+            @Override
+            public int[][] getArray() {
+                return new int[0][];
+            }
+        };
+        dictionary.finalizeAll();
+
+        // Check
+        Cardinalities cardinalities = new Cardinalities(data, null, new GeneralizationHierarchy[] { hierarchy });
+        assertEquals(0, cardinalities.getCardinalities()[0].length);
+        assertEquals(0, new Cardinalities(cardinalities.getCardinalities()).getCardinalities()[0].length);
+    }
+}
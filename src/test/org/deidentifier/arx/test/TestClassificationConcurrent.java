@@ -0,0 +1,107 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXClassificationConfiguration;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.aggregates.StatisticsClassification;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests that the concurrent evaluation of folds provides reproducible results
+ *
+ * @author Fabian Prasser
+ */
+public class TestClassificationConcurrent {
+
+    /** Features */
+    private static final String[] FEATURES = { "age", "sex", "zipcode", "education" };
+
+    /** Class */
+    private static final String   CLAZZ    = "disease";
+
+    /**
+     * Anonymizes the synthetic dataset
+     * @return
+     * @throws IOException
+     */
+    private DataHandle getOutput() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setSuppressionLimit(0.05d);
+        config.setQualityModel(Metric.createLossMetric());
+        return new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(600, 7L), config).getOutput();
+    }
+
+    /**
+     * Returns all results as an array
+     * @param statistics
+     * @return
+     */
+    private double[] toArray(StatisticsClassification statistics) {
+        return new double[] { statistics.getAccuracy(),
+                              statistics.getAverageError(),
+                              statistics.getOriginalAccuracy(),
+                              statistics.getOriginalAverageError(),
+                              statistics.getZeroRAccuracy(),
+                              statistics.getZeroRAverageError(),
+                              statistics.getROCCurve("flu").getAUC(),
+                              statistics.getOriginalROCCurve("flu").getAUC(),
+                              statistics.getZeroRROCCurve("flu").getAUC() };
+    }
+
+    /**
+     * Evaluates the given configuration twice and compares the results
+     * @param config
+     * @throws IOException
+     * @throws ParseException
+     */
+    private void testReproducible(ARXClassificationConfiguration<?> config) throws IOException, ParseException {
+        DataHandle output = getOutput();
+        double[] first = toArray(output.getStatistics().getClassificationPerformance(FEATURES, CLAZZ, config));
+        double[] second = toArray(output.getStatistics().getClassificationPerformance(FEATURES, CLAZZ, config));
+        assertEquals(first.length, second.length);
+        for (int i = 0; i < first.length; i++) {
+            assertEquals("Value " + i, first[i], second[i], 0d);
+        }
+    }
+
+    @Test
+    public void testReproducibleLogisticRegression() throws IOException, ParseException {
+        testReproducible(ARXClassificationConfiguration.createLogisticRegression());
+    }
+
+    @Test
+    public void testReproducibleNaiveBayes() throws IOException, ParseException {
+        testReproducible(ARXClassificationConfiguration.createNaiveBayes());
+    }
+
+    @Test
+    public void testReproducibleRandomForest() throws IOException, ParseException {
+        testReproducible(ARXClassificationConfiguration.createRandomForest());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXClassificationConfiguration;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.aggregates.StatisticsClassification;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests classifiers which are trained on features that are encoded once per handle. Expected
+ * values have been computed with the implementation that encoded each record for each fold
+ * and model.
+ *
+ * @author Fabian Prasser
+ */
+public class TestClassificationFeatureMatrix {
+
+    /** Features */
+    private static final String[] FEATURES = { "age", "sex", "zipcode", "education" };
+
+    /** Class */
+    private static final String   CLAZZ    = "disease";
+
+    /**
+     * Anonymizes the synthetic dataset and evaluates the given configuration
+     * @param config
+     * @return
+     * @throws IOException
+     * @throws ParseException
+     */
+    private StatisticsClassification evaluate(ARXClassificationConfiguration<?> config) throws IOException, ParseException {
+        ARXConfiguration anonymization = ARXConfiguration.create();
+        anonymization.addPrivacyModel(new KAnonymity(3));
+        anonymization.setSuppressionLimit(0.05d);
+        anonymization.setQualityModel(Metric.createLossMetric());
+        DataHandle output = new ARXAnonymizer().anonymize(DataProviderSynthetic.getData(600, 7L), anonymization).getOutput();
+        return output.getStatistics().getClassificationPerformance(FEATURES, CLAZZ, config);
+    }
+
+    /**
+     * Compares the results
+     * @param statistics
+     * @param expected
+     */
+    private void compare(StatisticsClassification statistics, double[] expected) {
+        assertEquals(expected[0], statistics.getAccuracy(), 0d);
+        assertEquals(expected[1], statistics.getAverageError(), 0d);
+        assertEquals(expected[2], statistics.getOriginalAccuracy(), 0d);
+        assertEquals(expected[3], statistics.getOriginalAverageError(), 0d);
+        assertEquals(expected[4], statistics.getZeroRAccuracy(), 0d);
+        assertEquals(expected[5], statistics.getZeroRAverageError(), 0d);
+        assertEquals(expected[6], statistics.getROCCurve("flu").getAUC(), 0d);
+        assertEquals(expected[7], statistics.getOriginalROCCurve("flu").getAUC(), 0d);
+        assertEquals(expected[8], statistics.getZeroRROCCurve("flu").getAUC(), 0d);
+    }
+
+    @Test
+    public void testLogisticRegression() throws IOException, ParseException {
+        compare(evaluate(ARXClassificationConfiguration.createLogisticRegression()),
+                new double[] { 0.435, 0.6298896655422921, 0.3883333333333333, 0.6908631373386585, 0.32, 0.68,
+                               0.9431438127090301, 0.46822742474916385, 0.10451505016722407 });
+    }
+
+    @Test
+    public void testNaiveBayes() throws IOException, ParseException {
+        compare(evaluate(ARXClassificationConfiguration.createNaiveBayes()),
+                new double[] { 0.44666666666666666, 0.5629437657932966, 0.415, 0.6111002669246645, 0.32, 0.68,
+                               0.5409698996655519, 0.08277591973244147, 0.10451505016722407 });
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import org.deidentifier.arx.ARXClassificationConfiguration;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.aggregates.StatisticsClassification;
+import org.deidentifier.arx.aggregates.StatisticsClassification.ROCCurve;
+import org.junit.Test;
+
+/**
+ * Tests ROC curves which are approximated from binned confidences against exact curves
+ *
+ * @author Fabian Prasser
+ */
+public class TestClassificationROCCurve {
+
+    /** Features */
+    private static final String[] FEATURES = { "age", "sex", "zipcode", "education" };
+
+    /** Class */
+    private static final String   CLAZZ    = "disease";
+
+    /** Values */
+    private static final String[] VALUES   = { "flu", "gastritis", "bronchitis", "pneumonia" };
+
+    /**
+     * Compares both curves. The approximated AUC must be within the reported error bound.
+     * @param exact
+     * @param binned
+     */
+    private void compare(ROCCurve exact, ROCCurve binned) {
+        assertEquals(0d, exact.getAUCError(), 0d);
+        assertTrue(binned.getAUCError() > 0d);
+        assertEquals(exact.getAUC(), binned.getAUC(), binned.getAUCError() + 1e-12);
+    }
+
+    /**
+     * Evaluates the given configuration with exact and binned ROC curves
+     * @param config
+     * @param tolerance Tolerance for the AUC of the classifier, which is checked in addition to the error bound
+     * @throws IOException
+     * @throws ParseException
+     */
+    private void test(ARXClassificationConfiguration<?> config, double tolerance) throws IOException, ParseException {
+        DataHandle handle = DataProviderSynthetic.getData(2000, 11L).getHandle();
+        StatisticsClassification exact = handle.getStatistics().getClassificationPerformance(FEATURES, CLAZZ, config.clone().setMaxRecordsExactROC(2000));
+        StatisticsClassification binned = handle.getStatistics().getClassificationPerformance(FEATURES, CLAZZ, config.clone().setMaxRecordsExactROC(1999));
+        assertEquals(exact.getOriginalAccuracy(), binned.getOriginalAccuracy(), 0d);
+        for (String value : VALUES) {
+            compare(exact.getOriginalROCCurve(value), binned.getOriginalROCCurve(value));
+            assertEquals(exact.getOriginalROCCurve(value).getAUC(), binned.getOriginalROCCurve(value).getAUC(), tolerance);
+            compare(exact.getZeroRROCCurve(value), binned.getZeroRROCCurve(value));
+        }
+    }
+
+    @Test
+    public void testClone() {
+        ARXClassificationConfiguration<?> config = ARXClassificationConfiguration.createNaiveBayes().setMaxRecordsExactROC(500);
+        assertEquals(500, config.clone().getMaxRecordsExactROC());
+        ARXClassificationConfiguration<?> other = ARXClassificationConfiguration.createRandomForest();
+        other.parse(config);
+        assertEquals(500, other.getMaxRecordsExactROC());
+        assertEquals(ARXClassificationConfiguration.DEFAULT_MAX_RECORDS_EXACT_ROC, ARXClassificationConfiguration.createLogisticRegression().getMaxRecordsExactROC());
+    }
+
+    @Test
+    public void testLogisticRegression() throws IOException, ParseException {
+        test(ARXClassificationConfiguration.createLogisticRegression(), 0.001d);
+    }
+
+    @Test
+    public void testNaiveBayes() throws IOException, ParseException {
+        // Naive Bayes provides confidences which are concentrated in few bins
+        test(ARXClassificationConfiguration.createNaiveBayes(), 0.5d);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixAggregated;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.v2.Cardinalities;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * Tests that passes over an aggregated data matrix access each distinct tuple once,
+ * and compares their results with passes over a matrix containing all rows
+ *
+ * @author Fabian Prasser
+ */
+public class TestDataMatrixAggregated {
+
+    /**
+     * Captures the data manager and the configuration
+     *
+     * @author Fabian Prasser
+     */
+    private static class CapturingAnonymizer extends ARXAnonymizer {
+
+        /** Manager */
+        private DataManager           manager;
+
+        /** Checker */
+        private TransformationChecker checker;
+
+        @Override
+        protected TransformationChecker getTransformationChecker(DataManager manager,
+                                                                 ARXConfiguration config,
+                                                                 SolutionSpace solutionSpace) throws IOException {
+            this.manager = manager;
+            this.checker = super.getTransformationChecker(manager, config, solutionSpace);
+            return this.checker;
+        }
+    }
+
+    /**
+     * Matrix, which counts accesses to each of its rows
+     *
+     * @author Fabian Prasser
+     */
+    private static class CountingMatrix extends DataMatrix {
+
+        /** SVUID */
+        private static final long        serialVersionUID = 2766403934380945457L;
+
+        /** Accesses */
+        private final AtomicIntegerArray accesses;
+
+        /**
+         * Creates a new instance
+         * @param rows
+         * @param columns
+         */
+        private CountingMatrix(int rows, int columns) {
+            super(rows, columns);
+            this.accesses = new AtomicIntegerArray(rows);
+        }
+
+        @Override
+        public int get(int row, int col) {
+            accesses.incrementAndGet(row);
+            return super.get(row, col);
+        }
+
+        @Override
+        public int hashCode(int row) {
+            accesses.incrementAndGet(row);
+            return super.hashCode(row);
+        }
+
+        @Override
+        public void iterator(int row) {
+            accesses.incrementAndGet(row);
+            super.iterator(row);
+        }
+
+        @Override
+        public void setRow(int row) {
+            accesses.incrementAndGet(row);
+            super.setRow(row);
+        }
+
+        /**
+         * Checks that each row has been accessed the given number of times and resets the counts
+         * @param expected
+         */
+        private void verify(int expected) {
+            for (int row = 0; row < accesses.length(); row++) {
+                assertEquals("Row: " + row, expected, accesses.getAndSet(row, 0));
+            }
+        }
+    }
+
+    /** Rows */
+    private static final int     ROWS = 3000;
+
+    /** Seed */
+    private static final long    SEED = 37L;
+
+    /** Anonymizer */
+    private CapturingAnonymizer  anonymizer;
+
+    /** Distinct tuples */
+    private CountingMatrix       tuples;
+
+    /** Aggregated data */
+    private DataMatrixAggregated aggregated;
+
+    /** All rows, in the order of the aggregated data */
+    private DataMatrix           expanded;
+
+    /**
+     * Compares the contents of both matrices
+     * @param expected
+     * @param actual
+     */
+    private void assertMatrixEquals(DataMatrix expected, DataMatrix actual) {
+        assertEquals(expected.getNumRows(), actual.getNumRows());
+        assertEquals(expected.getNumColumns(), actual.getNumColumns());
+        for (int row = 0; row < expected.getNumRows(); row++) {
+            for (int column = 0; column < expected.getNumColumns(); column++) {
+                assertEquals(expected.get(row, column), actual.get(row, column));
+            }
+        }
+    }
+
+    /**
+     * Returns a wrapper of the given matrix
+     * @param matrix
+     * @return
+     */
+    private Data getData(DataMatrix matrix) {
+        Data data = anonymizer.manager.getDataGeneralized();
+        return Data.createWrapper(matrix, data.getHeader(), data.getColumns(), data.getDictionary());
+    }
+
+    /**
+     * Anonymizes a dataset with many duplicates and aggregates its quasi-identifiers
+     * @throws IOException
+     */
+    @Before
+    public void setUp() throws IOException {
+
+        // Data with many duplicates, as zipcodes are not quasi-identifying
+        org.deidentifier.arx.Data data = DataProviderSynthetic.getData(ROWS, SEED);
+        data.getDefinition().setAttributeType("zipcode", AttributeType.INSENSITIVE_ATTRIBUTE);
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setSuppressionLimit(1d);
+        anonymizer = new CapturingAnonymizer();
+        anonymizer.anonymize(data, config);
+
+        // Collect distinct tuples in the order of their first occurrence
+        DataMatrix input = anonymizer.manager.getDataGeneralized().getArray();
+        Map<List<Integer>, Integer> identifiers = new HashMap<List<Integer>, Integer>();
+        List<int[]> distinct = new ArrayList<int[]>();
+        List<Integer> counts = new ArrayList<Integer>();
+        for (int row = 0; row < input.getNumRows(); row++) {
+            int[] tuple = new int[input.getNumColumns()];
+            List<Integer> key = new ArrayList<Integer>();
+            for (int column = 0; column < tuple.length; column++) {
+                tuple[column] = input.get(row, column);
+                key.add(tuple[column]);
+            }
+            Integer identifier = identifiers.get(key);
+            if (identifier == null) {
+                identifiers.put(key, distinct.size());
+                distinct.add(tuple);
+                counts.add(1);
+            } else {
+                counts.set(identifier, counts.get(identifier) + 1);
+            }
+        }
+        assertTrue(distinct.size() * 4 < ROWS);
+
+        // Create matrices
+        tuples = new CountingMatrix(distinct.size(), input.getNumColumns());
+        expanded = new DataMatrix(ROWS, input.getNumColumns());
+        int[] _counts = new int[distinct.size()];
+        int row = 0;
+        for (int tuple = 0; tuple < distinct.size(); tuple++) {
+            tuples.setRow(tuple, distinct.get(tuple));
+            _counts[tuple] = counts.get(tuple);
+            for (int i = 0; i < _counts[tuple]; i++) {
+                expanded.setRow(row++, distinct.get(tuple));
+            }
+        }
+        aggregated = new DataMatrixAggregated(tuples, _counts);
+        tuples.verify(0);
+    }
+
+    @Test
+    public void testCardinalities() {
+
+        // Without subset
+        Cardinalities actual = new Cardinalities(getData(aggregated), null, anonymizer.manager.getHierarchies());
+        tuples.verify(tuples.getNumColumns());
+        Cardinalities expected = new Cardinalities(getData(expanded), null, anonymizer.manager.getHierarchies());
+        assertArrayEquals(expected.getCardinalities(), actual.getCardinalities());
+
+        // With subset
+        Random random = new Random(SEED);
+        RowSet subset = RowSet.create(ROWS);
+        for (int row = 0; row < ROWS; row++) {
+            if (random.nextInt(3) == 0) {
+                subset.add(row);
+            }
+        }
+        actual = new Cardinalities(getData(aggregated), subset, anonymizer.manager.getHierarchies());
+        tuples.verify(tuples.getNumColumns());
+        expected = new Cardinalities(getData(expanded), subset, anonymizer.manager.getHierarchies());
+        assertArrayEquals(expected.getCardinalities(), actual.getCardinalities());
+    }
+
+    @Test
+    public void testCursor() {
+
+        // Cursors of different callers are independent
+        DataMatrixAggregated.Cursor ascending = aggregated.getCursor();
+        DataMatrixAggregated.Cursor descending = aggregated.getCursor();
+        for (int row = 0; row < ROWS; row++) {
+            int tuple = aggregated.getTuple(row);
+            assertTrue(aggregated.getFirstRow(tuple) <= row);
+            assertTrue(row < aggregated.getFirstRow(tuple) + aggregated.getCount(tuple));
+            assertEquals(tuple, ascending.getTuple(row));
+            assertEquals(aggregated.getTuple(ROWS - 1 - row), descending.getTuple(ROWS - 1 - row));
+        }
+        assertEquals(0, ascending.getTuple(0));
+        assertEquals(aggregated.getNumTuples() - 1, descending.getTuple(ROWS - 1));
+    }
+
+    @Test
+    public void testProjection() {
+        Data data = anonymizer.manager.getDataGeneralized();
+        int[] columns = new int[] { 2, 0 };
+        Data actual = Data.createProjection(aggregated, data.getHeader(), columns, data.getDictionary());
+        tuples.verify(1);
+        assertTrue(actual.getArray() instanceof DataMatrixAggregated);
+        Data expected = Data.createProjection(expanded, data.getHeader(), columns, data.getDictionary());
+        assertMatrixEquals(expected.getArray(), actual.getArray());
+    }
+
+    @Test
+    public void testTransformation() {
+
+        // Prepare
+        DataManager manager = anonymizer.manager;
+        ARXConfigurationInternal config = anonymizer.checker.getConfiguration();
+        int threshold = manager.getAggregationInformation().getHotThreshold();
+        DataMatrix analyzed = manager.getDataAnalyzed().getArray();
+        Transformer transformerAggregated = new Transformer(aggregated, analyzed, threshold, manager.getHierarchies(), config,
+                                                            new IntArrayDictionary(0), new IntArrayDictionary(0));
+        Transformer transformerExpanded = new Transformer(expanded, analyzed, threshold, manager.getHierarchies(), config,
+                                                          new IntArrayDictionary(0), new IntArrayDictionary(0));
+        HashGroupify groupifyAggregated = new HashGroupify(16, config, threshold, aggregated, transformerAggregated.getBuffer(), analyzed);
+        HashGroupify groupifyExpanded = new HashGroupify(16, config, threshold, expanded, transformerExpanded.getBuffer(), analyzed);
+
+        // Apply all transformations
+        int suppressed = 0;
+        int transformations = 0;
+        SolutionSpace solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        LongIterator iterator = solutionSpace.unsafeGetAllTransformations();
+        while (iterator.hasNext()) {
+            Transformation transformation = solutionSpace.getTransformation(iterator.next());
+            transformations++;
+
+            // Transform
+            HashGroupify actual = transformerAggregated.apply(0L, transformation.getGeneralization(), groupifyAggregated);
+            tuples.verify(1);
+            HashGroupify expected = transformerExpanded.apply(0L, transformation.getGeneralization(), groupifyExpanded);
+
+            // Compare classes
+            assertEquals(expected.getNumberOfEquivalenceClasses(), actual.getNumberOfEquivalenceClasses());
+            HashGroupifyEntry entryExpected = expected.getFirstEquivalenceClass();
+            HashGroupifyEntry entryActual = actual.getFirstEquivalenceClass();
+            while (entryExpected != null) {
+                assertEquals(entryExpected.representative, entryActual.representative);
+                assertEquals(entryExpected.count, entryActual.count);
+                entryExpected = entryExpected.nextOrdered;
+                entryActual = entryActual.nextOrdered;
+            }
+            assertNull(entryActual);
+
+            // Suppress and compare
+            expected.stateAnalyze(transformation, true);
+            actual.stateAnalyze(transformation, true);
+            assertEquals(expected.isPrivacyModelFulfilled(), actual.isPrivacyModelFulfilled());
+            expected.performSuppression();
+            actual.performSuppression();
+            tuples.verify(0);
+            assertMatrixEquals(transformerExpanded.getBuffer(), transformerAggregated.getBuffer());
+            suppressed += expected.getNumberOfSuppressedRecords() > 0 ? 1 : 0;
+        }
+
+        // Transformations with and without suppressed records must have been compared
+        assertTrue(suppressed > 0);
+        assertTrue(suppressed < transformations);
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixSubset;
+import org.junit.Test;
+
+/**
+ * Tests subsets and subsets of subsets of data matrices against materialized copies
+ *
+ * @author Fabian Prasser
+ */
+public class TestDataMatrixSubset {
+
+    /** Rows */
+    private static final int ROWS    = 200;
+
+    /** Columns */
+    private static final int COLUMNS = 5;
+
+    /** Values per column */
+    private static final int VALUES  = 3;
+
+    /**
+     * Compares the view with the materialized copy
+     * @param expected
+     * @param actual
+     */
+    private void assertMatrixEquals(DataMatrix expected, DataMatrix actual) {
+
+        // Size and values
+        assertEquals(expected.getNumRows(), actual.getNumRows());
+        assertEquals(expected.getNumColumns(), actual.getNumColumns());
+        for (int row = 0; row < expected.getNumRows(); row++) {
+            assertArrayEquals("Row: " + row, getRow(expected, row), getRow(actual, row));
+        }
+
+        // Iteration
+        for (int row = 0; row < expected.getNumRows(); row++) {
+            expected.iterator(row);
+            actual.iterator(row);
+            while (expected.iterator_hasNext()) {
+                assertTrue("Row: " + row, actual.iterator_hasNext());
+                assertEquals("Row: " + row, expected.iterator_next(), actual.iterator_next());
+            }
+            assertFalse("Row: " + row, actual.iterator_hasNext());
+        }
+
+        // Row pointer
+        for (int row = 0; row < expected.getNumRows(); row++) {
+            expected.setRow(row);
+            actual.setRow(row);
+            for (int column = 0; column < expected.getNumColumns(); column++) {
+                assertEquals("Row: " + row, expected.getValueAtColumn(column), actual.getValueAtColumn(column));
+            }
+        }
+
+        // Comparisons and hash codes
+        for (int row1 = 0; row1 < expected.getNumRows(); row1++) {
+            String label = "Row: " + row1;
+            assertEquals(label, expected.hashCode(row1), actual.hashCode(row1));
+            for (int ignore = 0; ignore < expected.getNumColumns(); ignore++) {
+                assertEquals(label, expected.hashCodeIgnore(row1, ignore), actual.hashCodeIgnore(row1, ignore));
+            }
+            for (int row2 = 0; row2 < expected.getNumRows(); row2++) {
+                label = "Rows: " + row1 + ", " + row2;
+                assertEquals(label, expected.equals(row1, row2), actual.equals(row1, row2));
+                assertEquals(label, expected.equals(row1, getRow(expected, row2)), actual.equals(row1, getRow(expected, row2)));
+                assertEquals(label, expected.equalsIgnoringOutliers(row1, row2), actual.equalsIgnoringOutliers(row1, row2));
+                for (int ignore = 0; ignore < expected.getNumColumns(); ignore++) {
+                    assertEquals(label, expected.equalsIgnore(row1, row2, ignore), actual.equalsIgnore(row1, row2, ignore));
+                }
+            }
+        }
+
+        // Clone
+        DataMatrix clone = actual.clone();
+        assertFalse(clone instanceof DataMatrixSubset);
+        for (int row = 0; row < expected.getNumRows(); row++) {
+            assertArrayEquals("Row: " + row, getRow(expected, row), getRow(clone, row));
+        }
+    }
+
+    /**
+     * Compares two arrays
+     * @param label
+     * @param expected
+     * @param actual
+     */
+    private void assertArrayEquals(String label, int[] expected, int[] actual) {
+        assertTrue(label + ": " + Arrays.toString(expected) + " vs. " + Arrays.toString(actual), Arrays.equals(expected, actual));
+    }
+
+    /**
+     * Asserts that both the view and the underlying matrix contain the given row
+     * @param view
+     * @param row
+     * @param matrix
+     * @param rows
+     * @param expected
+     */
+    private void assertWritten(DataMatrix view, int row, DataMatrix matrix, int[] rows, int[] expected) {
+        assertArrayEquals("Row: " + row, expected, getRow(view, row));
+        assertArrayEquals("Row: " + row, expected, getRow(matrix, rows[row]));
+    }
+
+    /**
+     * Returns a matrix containing the given rows of the given matrix
+     * @param matrix
+     * @param subset
+     * @return
+     */
+    private DataMatrix getCopy(DataMatrix matrix, int[] subset) {
+        DataMatrix result = new DataMatrix(subset.length, matrix.getNumColumns());
+        for (int row = 0; row < subset.length; row++) {
+            for (int column = 0; column < matrix.getNumColumns(); column++) {
+                result.set(row, column, matrix.get(subset[row], column));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a random matrix with many duplicate rows and some outliers
+     * @param random
+     * @return
+     */
+    private DataMatrix getMatrix(Random random) {
+        DataMatrix matrix = new DataMatrix(ROWS, COLUMNS);
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                matrix.set(row, column, random.nextInt(column == COLUMNS - 1 ? 1 : VALUES));
+            }
+            if (random.nextInt(5) == 0) {
+                matrix.or(row, Data.OUTLIER_MASK);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Returns the values of the given row
+     * @param matrix
+     * @param row
+     * @return
+     */
+    private int[] getRow(DataMatrix matrix, int row) {
+        int[] result = new int[matrix.getNumColumns()];
+        for (int column = 0; column < result.length; column++) {
+            result[column] = matrix.get(row, column);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a random subset of the given size, in random order if requested
+     * @param random
+     * @param rows
+     * @param size
+     * @param sorted
+     * @return
+     */
+    private int[] getSubset(Random random, int rows, int size, boolean sorted) {
+        int[] indices = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            indices[i] = i;
+        }
+        for (int i = rows - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = temp;
+        }
+        int[] result = Arrays.copyOf(indices, size);
+        if (sorted) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * Maps the rows of a subset of a subset to the underlying matrix
+     * @param subset
+     * @param parent
+     * @return
+     */
+    private int[] getRows(int[] subset, int[] parent) {
+        int[] result = new int[subset.length];
+        for (int i = 0; i < subset.length; i++) {
+            result[i] = parent[subset[i]];
+        }
+        return result;
+    }
+
+    @Test
+    public void testRead() {
+        for (boolean sorted : new boolean[] { true, false }) {
+            Random random = new Random(17L);
+            DataMatrix matrix = getMatrix(random);
+            int[] subset1 = getSubset(random, ROWS, ROWS / 2, sorted);
+            int[] subset2 = getSubset(random, subset1.length, subset1.length / 2, sorted);
+
+            // Subset
+            DataMatrix view1 = new DataMatrixSubset(matrix, subset1);
+            DataMatrix copy1 = getCopy(matrix, subset1);
+            assertMatrixEquals(copy1, view1);
+
+            // Subset of a subset
+            DataMatrix view2 = new DataMatrixSubset(view1, subset2);
+            assertMatrixEquals(getCopy(copy1, subset2), view2);
+            assertMatrixEquals(getCopy(matrix, getRows(subset2, subset1)), view2);
+
+            // Iterators and row pointers of views are independent
+            view1.iterator(subset2[0]);
+            view2.iterator(0);
+            view1.setRow(subset2[1]);
+            view2.setRow(1);
+            for (int column = 0; column < COLUMNS; column++) {
+                assertEquals(view1.iterator_next(), view2.iterator_next());
+                assertEquals(view1.getValueAtColumn(column), view2.getValueAtColumn(column));
+            }
+        }
+    }
+
+    @Test
+    public void testWrite() {
+
+        Random random = new Random(19L);
+        DataMatrix matrix = getMatrix(random);
+        DataMatrix source = getMatrix(random);
+        int[] subset1 = getSubset(random, ROWS, ROWS / 2, false);
+        int[] subset2 = getSubset(random, subset1.length, subset1.length / 2, false);
+        int[] rows2 = getRows(subset2, subset1);
+        DataMatrix view1 = new DataMatrixSubset(matrix, subset1);
+        DataMatrix view2 = new DataMatrixSubset(view1, subset2);
+        DataMatrix sourceView = new DataMatrixSubset(new DataMatrixSubset(source, subset1), subset2);
+
+        for (DataMatrix view : new DataMatrix[] { view1, view2 }) {
+            int[] rows = view == view1 ? subset1 : rows2;
+            for (int row = 0; row < view.getNumRows(); row++) {
+
+                // Copy from a matrix
+                int sourceRow = random.nextInt(ROWS);
+                view.copyFrom(row, source, sourceRow);
+                assertWritten(view, row, matrix, rows, getRow(source, sourceRow));
+
+                // Copy from a subset
+                sourceRow = random.nextInt(sourceView.getNumRows());
+                view.copyFrom(row, sourceView, sourceRow);
+                assertWritten(view, row, matrix, rows, getRow(source, rows2[sourceRow]));
+
+                // Set
+                int[] expected = new int[COLUMNS];
+                for (int column = 0; column < COLUMNS; column++) {
+                    expected[column] = random.nextInt();
+                    view.set(row, column, expected[column]);
+                }
+                assertWritten(view, row, matrix, rows, expected);
+
+                // Iterator
+                view.iterator(row);
+                for (int column = 0; column < COLUMNS; column++) {
+                    expected[column] = random.nextInt();
+                    view.iterator_write(expected[column]);
+                }
+                assertWritten(view, row, matrix, rows, expected);
+
+                // Row pointer
+                view.setRow(row);
+                for (int column = 0; column < COLUMNS; column++) {
+                    expected[column] = random.nextInt();
+                    view.setValueAtColumn(column, expected[column]);
+                }
+                assertWritten(view, row, matrix, rows, expected);
+            }
+        }
+    }
+}
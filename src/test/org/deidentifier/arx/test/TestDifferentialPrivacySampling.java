@@ -0,0 +1,139 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math3.distribution.BinomialDistribution;
+import org.deidentifier.arx.DataGeneralizationScheme;
+import org.deidentifier.arx.DataGeneralizationScheme.GeneralizationDegree;
+import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
+import org.junit.Test;
+
+/**
+ * Tests sampling and the derivation of parameters for (e,d)-differential privacy
+ *
+ * @author Fabian Prasser
+ */
+public class TestDifferentialPrivacySampling {
+
+    /** Records */
+    private static final int RECORDS    = 100000;
+
+    /** Chunk size */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Compares two samples
+     * @param expected
+     * @param actual
+     */
+    private void assertSampleEquals(RowSet expected, RowSet actual) {
+        assertEquals(expected.length(), actual.length());
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.length(); row++) {
+            assertEquals("Row: " + row, expected.contains(row), actual.contains(row));
+        }
+    }
+
+    /**
+     * Calculates k without memoization of a_n
+     * @param delta
+     * @param epsilon
+     * @return
+     */
+    private int calculateK(double delta, double epsilon) {
+        double beta = 1.0d - Math.exp(-1.0d * epsilon);
+        double gamma = (Math.exp(epsilon) - 1.0d + beta) / Math.exp(epsilon);
+        int k = 1;
+        for (double delta_k = Double.MAX_VALUE; delta_k > delta; ++k) {
+            int n_m = (int) Math.ceil((double) k / gamma - 1.0d);
+            delta_k = Double.MIN_VALUE;
+            double bound = Double.MAX_VALUE;
+            for (int n = n_m; delta_k < bound; ++n) {
+                BinomialDistribution distribution = new BinomialDistribution(n, beta);
+                double a = 0.0d;
+                for (int j = (int) Math.floor(n * gamma) + 1; j <= n; ++j) {
+                    a += distribution.probability(j);
+                }
+                delta_k = Math.max(delta_k, a);
+                bound = Math.exp(-1.0d * n * (gamma * Math.log(gamma / beta) - (gamma - beta)));
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Returns a deterministic instance
+     * @return
+     */
+    private EDDifferentialPrivacy getDeterministicInstance() {
+        return new EDDifferentialPrivacy(1d, 1E-5d, DataGeneralizationScheme.create(GeneralizationDegree.MEDIUM), true);
+    }
+
+    @Test
+    public void testK() {
+        for (double epsilon : new double[] { 1d, 2d, 3d }) {
+            for (double delta : new double[] { 1E-3d, 1E-5d }) {
+                EDDifferentialPrivacy criterion = new EDDifferentialPrivacy(epsilon, delta, DataGeneralizationScheme.create(GeneralizationDegree.MEDIUM));
+                assertEquals(epsilon + "-" + delta, calculateK(delta, epsilon), criterion.getK());
+                assertEquals(epsilon + "-" + delta, criterion.getK(), criterion.clone().getK());
+            }
+        }
+    }
+
+    @Test
+    public void testSampleChunks() {
+
+        // Reference
+        EDDifferentialPrivacy criterion = getDeterministicInstance();
+        RowSet expected = criterion.sample(RECORDS, CHUNK_SIZE, false);
+        assertTrue(expected.size() > 0 && expected.size() < RECORDS);
+
+        // Repeated, sequentially and in parallel
+        assertSampleEquals(expected, criterion.sample(RECORDS, CHUNK_SIZE, false));
+        assertSampleEquals(expected, criterion.sample(RECORDS, CHUNK_SIZE, true));
+        assertSampleEquals(expected, criterion.sample(RECORDS, CHUNK_SIZE, true));
+
+        // New instances and clones
+        assertSampleEquals(expected, getDeterministicInstance().sample(RECORDS, CHUNK_SIZE, true));
+        assertSampleEquals(expected, criterion.clone().sample(RECORDS, CHUNK_SIZE, true));
+    }
+
+    @Test
+    public void testSampleWithoutChunks() {
+
+        // Reference: a single generator with the fixed seed
+        EDDifferentialPrivacy criterion = getDeterministicInstance();
+        Random random = new Random(0xDEADBEEF);
+        RowSet expected = RowSet.create(RECORDS);
+        for (int row = 0; row < RECORDS; row++) {
+            if (random.nextDouble() < criterion.getBeta()) {
+                expected.add(row);
+            }
+        }
+
+        // Compare
+        assertSampleEquals(expected, criterion.sample(RECORDS, RECORDS, true));
+        assertSampleEquals(expected, criterion.clone().sample(RECORDS, RECORDS, false));
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXDistributedAnonymizer;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.AverageReidentificationRisk;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVDataInput;
+import org.deidentifier.arx.io.CSVDataOutput;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the distributed anonymizer against the ARXAnonymizer on a small dataset, which is
+ * split into shards of different sizes.
+ *
+ * @author Fabian Prasser
+ */
+public class TestDistributedAnonymizer {
+
+    /** Rows */
+    private static final int   ROWS   = 600;
+
+    /** Seed */
+    private static final long  SEED   = 17L;
+
+    /** Sizes of the shards */
+    private static final int[] SHARDS = { 150, 200, 250 };
+
+    /** Folder */
+    @Rule
+    public TemporaryFolder     folder = new TemporaryFolder();
+
+    /**
+     * Returns the data, in which zipcodes are insensitive and incomes are identifying, if requested.
+     * This results in many records with the same values of quasi-identifiers.
+     * @param duplicates
+     * @return
+     */
+    private Data getData(boolean duplicates) {
+        Data data = DataProviderSynthetic.getData(ROWS, SEED);
+        if (duplicates) {
+            data.getDefinition().setAttributeType("zipcode", AttributeType.INSENSITIVE_ATTRIBUTE);
+            data.getDefinition().setAttributeType("income", AttributeType.IDENTIFYING_ATTRIBUTE);
+        }
+        return data;
+    }
+
+    /**
+     * Anonymizes the data with both anonymizers and compares the results
+     * @param config
+     * @param anonymizer
+     * @throws IOException
+     */
+    private void test(ARXConfiguration config, ARXDistributedAnonymizer anonymizer) throws IOException {
+        test(config, anonymizer, false);
+    }
+
+    /**
+     * Anonymizes the data with both anonymizers and compares the results
+     * @param config
+     * @param anonymizer
+     * @param duplicates
+     * @throws IOException
+     */
+    private void test(ARXConfiguration config, ARXDistributedAnonymizer anonymizer, boolean duplicates) throws IOException {
+
+        // Expected
+        ARXResult result = new ARXAnonymizer().anonymize(getData(duplicates), config.clone());
+        ARXNode expected = result.getGlobalOptimum();
+        assertNotNull(expected);
+        DataHandle output = result.getOutput();
+
+        // Shards
+        Data data = getData(duplicates);
+        DataHandle handle = data.getHandle();
+        String[] header = new String[handle.getNumColumns()];
+        for (int column = 0; column < header.length; column++) {
+            header[column] = handle.getAttributeName(column);
+        }
+        File[] input = new File[SHARDS.length];
+        File[] outputs = new File[SHARDS.length];
+        int offset = 0;
+        for (int shard = 0; shard < SHARDS.length; shard++) {
+            List<String[]> rows = new ArrayList<String[]>();
+            rows.add(header);
+            for (int row = offset; row < offset + SHARDS[shard]; row++) {
+                String[] values = new String[header.length];
+                for (int column = 0; column < header.length; column++) {
+                    values[column] = handle.getValue(row, column);
+                }
+                rows.add(values);
+            }
+            offset += SHARDS[shard];
+            input[shard] = folder.newFile("input" + shard + ".csv");
+            outputs[shard] = new File(folder.getRoot(), "output" + shard + ".csv");
+            new CSVDataOutput(input[shard], ';').write(rows.iterator());
+        }
+
+        // Actual
+        ARXNode actual = anonymizer.anonymize(input, outputs, StandardCharsets.UTF_8, ';', data.getDefinition(), config.clone());
+        assertNotNull(actual);
+        assertArrayEquals(expected.getTransformation(), actual.getTransformation());
+        assertEquals(expected.getHighestScore().toString(), actual.getHighestScore().toString());
+
+        // Compare output
+        int row = 0;
+        for (int shard = 0; shard < SHARDS.length; shard++) {
+            Iterator<String[]> iterator = new CSVDataInput(outputs[shard], StandardCharsets.UTF_8, ';').iterator();
+            assertArrayEquals(header, iterator.next());
+            while (iterator.hasNext()) {
+                String[] values = iterator.next();
+                for (int column = 0; column < header.length; column++) {
+                    assertEquals("Row: " + row + ", column: " + column, output.getValue(row, column), values[column]);
+                }
+                row++;
+            }
+        }
+        assertEquals(output.getNumRows(), row);
+    }
+
+    @Test
+    public void testKAnonymity() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setSuppressionLimit(0.05d);
+        config.setQualityModel(Metric.createLossMetric());
+        test(config, new ARXDistributedAnonymizer());
+    }
+
+    @Test
+    public void testKAnonymityWithDuplicates() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(10));
+        config.setSuppressionLimit(0.05d);
+        config.setQualityModel(Metric.createLossMetric());
+        test(config, new ARXDistributedAnonymizer(), true);
+    }
+
+    @Test
+    public void testKAnonymityWithoutSuppression() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setSuppressionLimit(0d);
+        config.setQualityModel(Metric.createEntropyMetric());
+        test(config, new ARXDistributedAnonymizer());
+    }
+
+    @Test
+    public void testAverageRisk() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new AverageReidentificationRisk(0.1d));
+        config.setSuppressionLimit(0.1d);
+        config.setQualityModel(Metric.createKLDivergenceMetric());
+        test(config, new ARXDistributedAnonymizer());
+    }
+
+    @Test
+    public void testHeuristicSearch() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(4));
+        config.setSuppressionLimit(0.1d);
+        config.setQualityModel(Metric.createLossMetric());
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchStepLimit(50);
+        test(config, new ARXDistributedAnonymizer());
+    }
+
+    @Test
+    public void testLaunchConfiguration() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setSuppressionLimit(0.02d);
+        config.setQualityModel(Metric.createLossMetric());
+        ARXDistributedAnonymizer anonymizer = new ARXDistributedAnonymizer(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath(),
+                                                                           System.getProperty("java.class.path"));
+        anonymizer.setJvmOptions("-Xmx64m");
+        test(config, anonymizer);
+    }
+}
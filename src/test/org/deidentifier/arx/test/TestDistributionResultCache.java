@@ -0,0 +1,71 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.check.distribution.DistributionResultCache;
+import org.junit.Test;
+
+/**
+ * Tests the cache for results of checking distributions
+ *
+ * @author Fabian Prasser
+ */
+public class TestDistributionResultCache {
+
+    @Test
+    public void testInterned() {
+
+        int[] elements = { 1, 2 };
+        int[] frequencies = { 3, 4 };
+        Distribution distribution = new Distribution(elements, frequencies);
+        DistributionResultCache cache = new DistributionResultCache();
+
+        assertEquals(DistributionResultCache.UNKNOWN, cache.get(distribution, 7));
+        cache.put(distribution, 7, true);
+        assertEquals(1, cache.get(distribution, 7));
+        assertEquals(DistributionResultCache.UNKNOWN, cache.get(distribution, 8));
+        cache.put(distribution, 8, false);
+        assertEquals(0, cache.get(distribution, 8));
+
+        // Identity, not equality, of the interned arrays is used
+        assertEquals(DistributionResultCache.UNKNOWN, cache.get(new Distribution(elements.clone(), frequencies.clone()), 7));
+
+        assertEquals(5, cache.getNumberOfLookups());
+        assertEquals(2, cache.getNumberOfHits());
+    }
+
+    @Test
+    public void testNotInterned() {
+
+        Distribution distribution = new Distribution();
+        distribution.add(1);
+        distribution.add(2);
+        DistributionResultCache cache = new DistributionResultCache();
+
+        assertEquals(DistributionResultCache.UNKNOWN, cache.get(distribution, 2));
+        cache.put(distribution, 2, true);
+        assertEquals(DistributionResultCache.UNKNOWN, cache.get(distribution, 2));
+
+        // Distributions which cannot be cached are not counted
+        assertEquals(0, cache.getNumberOfLookups());
+        assertEquals(0, cache.getNumberOfHits());
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.junit.Test;
+
+/**
+ * Compares the sparse evaluation of t-closeness with hierarchical distance with a dense
+ * evaluation, which visits all nodes of the hierarchy for each equivalence class
+ *
+ * @author Fabian Prasser
+ */
+public class TestHierarchicalDistanceTCloseness {
+
+    /**
+     * Compares the distance of each checked class with the dense evaluation
+     *
+     * @author Fabian Prasser
+     */
+    private static class ComparingTCloseness extends HierarchicalDistanceTCloseness {
+
+        /** SVUID */
+        private static final long serialVersionUID = 6049271707219005283L;
+
+        /** Number of classes compared, containing all values, and lacking some values */
+        private final int[]       counts;
+
+        /** Tree */
+        private int[]             tree;
+
+        /**
+         * Creates a new instance
+         * @param attribute
+         * @param t
+         * @param hierarchy
+         * @param counts
+         */
+        private ComparingTCloseness(String attribute, double t, Hierarchy hierarchy, int[] counts) {
+            super(attribute, t, hierarchy);
+            this.counts = counts;
+        }
+
+        @Override
+        public HierarchicalDistanceTCloseness clone() {
+            return new ComparingTCloseness(this.getAttribute(), this.getT(), this.getHierarchy(), this.counts);
+        }
+
+        @Override
+        public void initialize(DataManager manager, ARXConfiguration config) {
+            super.initialize(manager, config);
+            this.tree = manager.getTree(attribute);
+        }
+
+        @Override
+        public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
+
+            // Compare
+            int[] buckets = entry.distributions[index].getBuckets();
+            double expected = getDenseDistance(tree, buckets);
+            double actual = getDistance(entry);
+            assertEquals(expected, actual, Math.max(1d, expected) * 1e-12d);
+
+            // Count
+            int values = 0;
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) {
+                    values++;
+                }
+            }
+            counts[0]++;
+            counts[values == tree[1] ? 1 : 2]++;
+            return super.isAnonymous(node, entry);
+        }
+    }
+
+    /**
+     * Dense evaluation, as implemented previously. Visits all nodes of the hierarchy and uses long arithmetic.
+     * @param tree
+     * @param buckets
+     * @return
+     */
+    private static double getDenseDistance(int[] tree, int[] buckets) {
+
+        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
+        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
+        // child_x, pos_e, neg_e], ...
+        final long totalElementsP = tree[0];
+        final int numLeafs = tree[1];
+        final double height = tree[2];
+        final int extraStartPos = numLeafs + 3;
+        final int extraEndPos = extraStartPos + numLeafs;
+        long[] extras = new long[tree.length];
+
+        // Copy and count
+        long totalElementsQ = 0;
+        long[] frequencies = new long[numLeafs];
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) {
+                frequencies[buckets[i]] = buckets[i + 1];
+                totalElementsQ += buckets[i + 1];
+            }
+        }
+
+        // Leafs
+        for (int i = extraStartPos; i < extraEndPos; i++) {
+            extras[i] = tree[i - numLeafs] * totalElementsQ - frequencies[i - extraStartPos] * totalElementsP;
+        }
+
+        // Inner nodes
+        double cost = 0;
+        for (int i = extraEndPos; i < tree.length; i++) {
+            long pos_e = 0;
+            long neg_e = 0;
+            final int numChilds = tree[i++];
+            final int level = tree[i++];
+            for (int j = 0; j < numChilds; j++) {
+                long extra;
+                if (level == 1) {
+                    extra = extras[tree[i + j]];
+                } else {
+                    final int index = tree[i + j] + tree[tree[i + j]] + 2;
+                    extra = extras[index] - extras[index + 1];
+                }
+                if (extra > 0) {
+                    pos_e += extra;
+                } else {
+                    neg_e += (-extra);
+                }
+            }
+            i += numChilds;
+            extras[i++] = pos_e;
+            extras[i] = neg_e;
+            cost += (level / height) * Math.min(pos_e, neg_e);
+        }
+
+        return cost / ((double) totalElementsP * (double) totalElementsQ);
+    }
+
+    /**
+     * Returns a hierarchy with four levels for diseases
+     * @return
+     */
+    private Hierarchy getHierarchy() {
+        DefaultHierarchy hierarchy = Hierarchy.create();
+        hierarchy.add("flu", "upper respiratory", "respiratory", "*");
+        hierarchy.add("bronchitis", "lower respiratory", "respiratory", "*");
+        hierarchy.add("pneumonia", "lower respiratory", "respiratory", "*");
+        hierarchy.add("gastritis", "stomach inflammation", "digestive", "*");
+        hierarchy.add("gastric ulcer", "stomach inflammation", "digestive", "*");
+        hierarchy.add("stomach cancer", "stomach tumor", "digestive", "*");
+        return hierarchy;
+    }
+
+    /**
+     * Compares the distances of all classes of all transformations
+     * @param rows
+     * @param seed
+     * @param t
+     * @param suppressionLimit
+     * @throws IOException
+     */
+    private void test(int rows, long seed, double t, double suppressionLimit) throws IOException {
+
+        // Prepare
+        Data data = DataProviderSynthetic.getData(rows, seed);
+        Hierarchy hierarchy = getHierarchy();
+        data.getDefinition().setAttributeType("disease", AttributeType.SENSITIVE_ATTRIBUTE);
+        data.getDefinition().setHierarchy("disease", hierarchy);
+        int[] counts = new int[3];
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.addPrivacyModel(new ComparingTCloseness("disease", t, hierarchy, counts));
+        config.setSuppressionLimit(suppressionLimit);
+
+        // Anonymize and apply all transformations
+        ExhaustiveEvaluation evaluation = ExhaustiveEvaluation.evaluate(data, config);
+        assertTrue(evaluation.getNumberOfTransformations() > 1);
+
+        // Classes with all values and classes lacking some values must have been compared
+        assertTrue(counts[0] > 0);
+        assertTrue(counts[1] > 0);
+        assertTrue(counts[2] > 0);
+    }
+
+    @Test
+    public void testWithoutSuppression() throws IOException {
+        test(500, 17L, 0.2d, 0d);
+        test(1000, 19L, 0.3d, 0d);
+    }
+
+    @Test
+    public void testWithSuppression() throws IOException {
+        test(500, 17L, 0.1d, 0.1d);
+        test(1000, 19L, 0.15d, 0.5d);
+        test(300, 23L, 0.05d, 1d);
+    }
+}
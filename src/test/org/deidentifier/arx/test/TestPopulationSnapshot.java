@@ -0,0 +1,261 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.KMap;
+import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.junit.Test;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * Compares the classes, including their sizes in the sample and in the population, which are
+ * derived from the pre-aggregated population, with the classes obtained by transforming all rows
+ *
+ * @author Fabian Prasser
+ */
+public class TestPopulationSnapshot {
+
+    /**
+     * Captures the data manager and the configuration
+     *
+     * @author Fabian Prasser
+     */
+    private static class CapturingAnonymizer extends ARXAnonymizer {
+
+        /** Manager */
+        private DataManager              manager;
+
+        /** Checker */
+        private TransformationChecker    checker;
+
+        @Override
+        protected TransformationChecker getTransformationChecker(DataManager manager,
+                                                                 ARXConfiguration config,
+                                                                 SolutionSpace solutionSpace) throws IOException {
+            this.manager = manager;
+            this.checker = super.getTransformationChecker(manager, config, solutionSpace);
+            return this.checker;
+        }
+    }
+
+    /**
+     * k-map, which records all classes checked
+     *
+     * @author Fabian Prasser
+     */
+    private static class RecordingKMap extends KMap {
+
+        /** SVUID */
+        private static final long  serialVersionUID = -5375009581183919313L;
+
+        /** Classes checked: representative, count, pcount */
+        private final List<String> classes;
+
+        /**
+         * Creates a new instance
+         * @param k
+         * @param subset
+         * @param classes
+         */
+        private RecordingKMap(int k, DataSubset subset, List<String> classes) {
+            super(k, subset);
+            this.classes = classes;
+        }
+
+        @Override
+        public KMap clone() {
+            return new RecordingKMap(getK(), getDataSubset().clone(), classes);
+        }
+
+        @Override
+        public void isAnonymous(Transformation node,
+                                HashGroupifyEntry[] entries,
+                                int[] counts,
+                                int[] pcounts,
+                                int size,
+                                int[] result,
+                                int code) {
+            for (int i = 0; i < size; i++) {
+                classes.add(entries[i].representative + ":" + counts[i] + ":" + pcounts[i]);
+            }
+            super.isAnonymous(node, entries, counts, pcounts, size, result, code);
+        }
+    }
+
+    /** Rows */
+    private static final int  ROWS = 3000;
+
+    /** Seed */
+    private static final long SEED = 31L;
+
+    /**
+     * Checks all transformations and returns the classes of each transformation. Counts the types of transitions performed.
+     * @param anonymizer
+     * @param classes
+     * @param historySize
+     * @param snapshotSizeDataset
+     * @param reset Whether the checker is reset before each transformation, which disables all optimizations based on previous checks
+     * @param transitions
+     * @return
+     */
+    private Map<String, List<String>> check(CapturingAnonymizer anonymizer,
+                                            List<String> classes,
+                                            int historySize,
+                                            double snapshotSizeDataset,
+                                            boolean reset,
+                                            Map<TransitionType, Integer> transitions) {
+
+        // Prepare
+        DataManager manager = anonymizer.manager;
+        SolutionSpace solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        TransformationChecker checker = new TransformationChecker(manager,
+                                                                  anonymizer.checker.getMetric(),
+                                                                  anonymizer.checker.getConfiguration(),
+                                                                  historySize,
+                                                                  snapshotSizeDataset,
+                                                                  0.8d,
+                                                                  solutionSpace);
+
+        // Check all transformations
+        Map<String, List<String>> result = new HashMap<String, List<String>>();
+        LongIterator iterator = solutionSpace.unsafeGetAllTransformations();
+        while (iterator.hasNext()) {
+            Transformation transformation = solutionSpace.getTransformation(iterator.next());
+            classes.clear();
+            if (reset) {
+                checker.reset();
+            }
+            checker.check(transformation, true);
+            TransitionType type = checker.getLastTransition().type;
+            transitions.put(type, transitions.containsKey(type) ? transitions.get(type) + 1 : 1);
+            List<String> list = new ArrayList<String>(classes);
+            Collections.sort(list);
+            result.put(Arrays.toString(transformation.getGeneralization()), list);
+        }
+        checker.reset();
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct combinations of quasi-identifiers relative to the number of rows
+     * @param data
+     * @return
+     */
+    private double getDistinctRatio(Data data) {
+        DataHandle handle = data.getHandle();
+        int[] columns = new int[handle.getDefinition().getQuasiIdentifyingAttributes().size()];
+        int index = 0;
+        for (String attribute : handle.getDefinition().getQuasiIdentifyingAttributes()) {
+            columns[index++] = handle.getColumnIndexOf(attribute);
+        }
+        Set<List<String>> tuples = new HashSet<List<String>>();
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            String[] tuple = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                tuple[i] = handle.getValue(row, columns[i]);
+            }
+            tuples.add(Arrays.asList(tuple));
+        }
+        return (double) tuples.size() / (double) handle.getNumRows();
+    }
+
+    /**
+     * Returns the number of transitions of the given type
+     * @param transitions
+     * @param type
+     * @return
+     */
+    private int getCount(Map<TransitionType, Integer> transitions, TransitionType type) {
+        return transitions.containsKey(type) ? transitions.get(type) : 0;
+    }
+
+    @Test
+    public void testPopulationSnapshot() throws IOException {
+
+        // Data with many duplicates, as zipcodes are not quasi-identifying
+        Data data = DataProviderSynthetic.getData(ROWS, SEED);
+        data.getDefinition().setAttributeType("zipcode", AttributeType.INSENSITIVE_ATTRIBUTE);
+        Random random = new Random(SEED);
+        Set<Integer> rows = new HashSet<Integer>();
+        for (int row = 0; row < ROWS; row++) {
+            if (random.nextInt(3) == 0) {
+                rows.add(row);
+            }
+        }
+
+        // Anonymize
+        List<String> classes = new ArrayList<String>();
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new RecordingKMap(3, DataSubset.create(data, rows), classes));
+        config.setSuppressionLimit(1d);
+        CapturingAnonymizer anonymizer = new CapturingAnonymizer();
+        anonymizer.anonymize(data, config);
+        double ratio = getDistinctRatio(data);
+        assertTrue(ratio < 0.4d);
+
+        // Reference: all rows are transformed for each transformation, as the population snapshot is too large
+        Map<TransitionType, Integer> transitions = new HashMap<TransitionType, Integer>();
+        Map<String, List<String>> expected = check(anonymizer, classes, 200, ratio / 2d, true, transitions);
+        int size = expected.size();
+        assertTrue(size > 1);
+        assertEquals(size, getCount(transitions, TransitionType.UNOPTIMIZED));
+
+        // Population snapshot instead of transforming all rows
+        transitions.clear();
+        assertEquals(expected, check(anonymizer, classes, 200, ratio * 2d, true, transitions));
+        assertEquals(size, getCount(transitions, TransitionType.SNAPSHOT));
+
+        // Population snapshot and history
+        transitions.clear();
+        assertEquals(expected, check(anonymizer, classes, 200, ratio * 2d, false, transitions));
+        assertEquals(0, getCount(transitions, TransitionType.UNOPTIMIZED));
+
+        // Population snapshot skipped, history enabled
+        transitions.clear();
+        assertEquals(expected, check(anonymizer, classes, 200, ratio / 2d, false, transitions));
+        assertTrue(getCount(transitions, TransitionType.UNOPTIMIZED) > 0);
+        assertNotEquals(0, getCount(transitions, TransitionType.SNAPSHOT) + getCount(transitions, TransitionType.ROLLUP));
+    }
+}
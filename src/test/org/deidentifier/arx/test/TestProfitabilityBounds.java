@@ -0,0 +1,380 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXCostBenefitConfiguration;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.criteria.ProfitabilityJournalist;
+import org.deidentifier.arx.criteria.ProfitabilityProsecutor;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.DataAggregationInformation;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.v2.DomainShare;
+import org.deidentifier.arx.metric.v2.MetricSDNMEntropyBasedInformationLoss;
+import org.deidentifier.arx.risk.RiskModelCostBenefit;
+import org.junit.Test;
+
+/**
+ * Compares the decisions of the profitability models, which are based on bounds on the information
+ * loss of all classes of a transformation where possible, with an exact evaluation of each class
+ *
+ * @author Fabian Prasser
+ */
+public class TestProfitabilityBounds {
+
+    /**
+     * Exact evaluation of classes
+     *
+     * @author Fabian Prasser
+     */
+    private static class Reference {
+
+        /** Number of classes accepted and rejected */
+        private final int[]                counts = new int[2];
+
+        /** Domain shares */
+        private DomainShare[]              shares;
+
+        /** Microaggregation */
+        private DataAggregationInformation aggregation;
+
+        /** MaxIL */
+        private double                     maxIL;
+
+        /** Risk model */
+        private RiskModelCostBenefit       riskModel;
+
+        /**
+         * Initializes the reference
+         * @param manager
+         * @param config
+         */
+        private void initialize(DataManager manager, ARXConfiguration config) {
+            this.shares = manager.getDomainShares();
+            this.aggregation = manager.getAggregationInformation();
+            this.maxIL = MetricSDNMEntropyBasedInformationLoss.getMaximalEntropyBasedInformationLoss(shares, aggregation);
+            this.riskModel = new RiskModelCostBenefit(config.getCostBenefitConfiguration());
+        }
+
+        /**
+         * Evaluates the class exactly
+         * @param transformation
+         * @param entry
+         * @param successProbability
+         * @return
+         */
+        private boolean isAnonymous(Transformation transformation, HashGroupifyEntry entry, double successProbability) {
+            if (entry.count == 0) {
+                return false;
+            }
+            double informationLoss = MetricSDNMEntropyBasedInformationLoss.getEntropyBasedInformationLoss(transformation,
+                                                                                                          entry,
+                                                                                                          shares,
+                                                                                                          aggregation,
+                                                                                                          maxIL);
+            return riskModel.getExpectedPublisherPayout(informationLoss, successProbability) > 0;
+        }
+
+        /**
+         * Compares the results for a class
+         * @param entry
+         * @param expected Result of the exact evaluation
+         * @param before Result before the batch has been checked
+         * @param result Result after the batch has been checked
+         * @param code
+         * @param single Result of checking the class individually
+         */
+        private void verify(HashGroupifyEntry entry, boolean expected, int before, int result, int code, boolean single) {
+            String label = "Count: " + entry.count + ", pcount: " + entry.pcount;
+            if (before == -1) {
+                assertEquals(label, expected ? -1 : code, result);
+                assertEquals(label, expected, single);
+                counts[expected ? 0 : 1]++;
+            } else {
+                assertEquals(label, before, result);
+            }
+        }
+    }
+
+    /**
+     * Journalist model, which compares its decisions with the exact evaluation
+     *
+     * @author Fabian Prasser
+     */
+    private static class VerifyingJournalist extends ProfitabilityJournalist {
+
+        /** SVUID */
+        private static final long serialVersionUID = -2915146585416311873L;
+
+        /** Reference */
+        private final Reference   reference;
+
+        /**
+         * Creates a new instance
+         * @param subset
+         * @param reference
+         */
+        private VerifyingJournalist(DataSubset subset, Reference reference) {
+            super(subset);
+            this.reference = reference;
+        }
+
+        @Override
+        public ProfitabilityJournalist clone() {
+            return new VerifyingJournalist(this.getDataSubset().clone(), reference);
+        }
+
+        @Override
+        public void initialize(DataManager manager, ARXConfiguration config) {
+            super.initialize(manager, config);
+            reference.initialize(manager, config);
+        }
+
+        @Override
+        public void isAnonymous(Transformation transformation,
+                                HashGroupifyEntry[] entries,
+                                int[] counts,
+                                int[] pcounts,
+                                int size,
+                                int[] result,
+                                int code) {
+            int[] before = Arrays.copyOf(result, size);
+            super.isAnonymous(transformation, entries, counts, pcounts, size, result, code);
+            for (int i = 0; i < size; i++) {
+                boolean expected = reference.isAnonymous(transformation, entries[i], getSuccessProbability(entries[i]));
+                reference.verify(entries[i], expected, before[i], result[i], code, super.isAnonymous(transformation, entries[i]));
+            }
+        }
+    }
+
+    /**
+     * Prosecutor model, which compares its decisions with the exact evaluation
+     *
+     * @author Fabian Prasser
+     */
+    private static class VerifyingProsecutor extends ProfitabilityProsecutor {
+
+        /** SVUID */
+        private static final long serialVersionUID = 4418520530920613946L;
+
+        /** Reference */
+        private final Reference   reference;
+
+        /**
+         * Creates a new instance
+         * @param reference
+         */
+        private VerifyingProsecutor(Reference reference) {
+            this.reference = reference;
+        }
+
+        @Override
+        public ProfitabilityProsecutor clone() {
+            return new VerifyingProsecutor(reference);
+        }
+
+        @Override
+        public void initialize(DataManager manager, ARXConfiguration config) {
+            super.initialize(manager, config);
+            reference.initialize(manager, config);
+        }
+
+        @Override
+        public void isAnonymous(Transformation transformation,
+                                HashGroupifyEntry[] entries,
+                                int[] counts,
+                                int[] pcounts,
+                                int size,
+                                int[] result,
+                                int code) {
+            int[] before = Arrays.copyOf(result, size);
+            super.isAnonymous(transformation, entries, counts, pcounts, size, result, code);
+            for (int i = 0; i < size; i++) {
+                boolean expected = reference.isAnonymous(transformation, entries[i], getSuccessProbability(entries[i]));
+                reference.verify(entries[i], expected, before[i], result[i], code, super.isAnonymous(transformation, entries[i]));
+            }
+        }
+    }
+
+    /** Rows */
+    private static final int      ROWS             = 500;
+
+    /** Seed */
+    private static final long     SEED             = 29L;
+
+    /** Losses of the publisher, which move the threshold on the information loss of attacked classes */
+    private static final double[] PUBLISHER_LOSSES = { 300d, 1000d, 3000d, 10000d };
+
+    /**
+     * Configuration, in which the adversary attacks classes with less than 600 records
+     * @param publisherLoss
+     * @return
+     */
+    private static ARXCostBenefitConfiguration getAttackerConfiguration(double publisherLoss) {
+        return ARXCostBenefitConfiguration.create()
+                                          .setAdversaryCost(2d)
+                                          .setAdversaryGain(1200d)
+                                          .setPublisherLoss(publisherLoss)
+                                          .setPublisherBenefit(1200d);
+    }
+
+    /**
+     * Configuration, in which the adversary attacks classes with less than 6 records
+     * @return
+     */
+    private static ARXCostBenefitConfiguration getMixedConfiguration() {
+        return ARXCostBenefitConfiguration.create()
+                                          .setAdversaryCost(20d)
+                                          .setAdversaryGain(120d)
+                                          .setPublisherLoss(3000d)
+                                          .setPublisherBenefit(1200d);
+    }
+
+    /**
+     * Configuration, in which the adversary never attacks
+     * @return
+     */
+    private static ARXCostBenefitConfiguration getNoAttackerConfiguration() {
+        return ARXCostBenefitConfiguration.create()
+                                          .setAdversaryCost(200d)
+                                          .setAdversaryGain(100d)
+                                          .setPublisherLoss(3000d)
+                                          .setPublisherBenefit(120d);
+    }
+
+    /**
+     * Returns the data, optionally with a microaggregated attribute
+     * @param microaggregation
+     * @return
+     */
+    private Data getData(boolean microaggregation) {
+        Data data = DataProviderSynthetic.getData(ROWS, SEED);
+        if (microaggregation) {
+            data.getDefinition().setAttributeType("income", AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+            data.getDefinition().setMicroAggregationFunction("income", MicroAggregationFunction.createArithmeticMean(), false);
+        }
+        return data;
+    }
+
+    /**
+     * Returns a random research subset
+     * @param data
+     * @return
+     */
+    private DataSubset getSubset(Data data) {
+        Random random = new Random(SEED);
+        Set<Integer> subset = new HashSet<Integer>();
+        for (int row = 0; row < ROWS; row++) {
+            if (random.nextInt(3) != 0) {
+                subset.add(row);
+            }
+        }
+        return DataSubset.create(data, subset);
+    }
+
+    /**
+     * Anonymizes the data, applies all transformations and checks that classes have been accepted and rejected
+     * @param data
+     * @param criterion
+     * @param reference
+     * @param configuration
+     * @throws IOException
+     */
+    private void test(Data data, PrivacyCriterion criterion, Reference reference, ARXCostBenefitConfiguration configuration) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(criterion);
+        config.setSuppressionLimit(1d);
+        config.setQualityModel(Metric.createPublisherPayoutMetric(false));
+        config.setCostBenefitConfiguration(configuration);
+        ExhaustiveEvaluation evaluation = ExhaustiveEvaluation.evaluate(data, config);
+        assertTrue(evaluation.getNumberOfTransformations() > 1);
+        assertTrue(reference.counts[0] > 0);
+        assertTrue(reference.counts[1] > 0);
+    }
+
+    /**
+     * Tests the journalist model
+     * @param microaggregation
+     * @param configuration
+     * @throws IOException
+     */
+    private void testJournalist(boolean microaggregation, ARXCostBenefitConfiguration configuration) throws IOException {
+        Data data = getData(microaggregation);
+        Reference reference = new Reference();
+        test(data, new VerifyingJournalist(getSubset(data), reference), reference, configuration);
+    }
+
+    /**
+     * Tests the prosecutor model
+     * @param microaggregation
+     * @param configuration
+     * @throws IOException
+     */
+    private void testProsecutor(boolean microaggregation, ARXCostBenefitConfiguration configuration) throws IOException {
+        Reference reference = new Reference();
+        test(getData(microaggregation), new VerifyingProsecutor(reference), reference, configuration);
+    }
+
+    @Test
+    public void testJournalistAttacker() throws IOException {
+        for (double publisherLoss : PUBLISHER_LOSSES) {
+            testJournalist(false, getAttackerConfiguration(publisherLoss));
+        }
+        testJournalist(false, getMixedConfiguration());
+    }
+
+    @Test
+    public void testJournalistNoAttacker() throws IOException {
+        testJournalist(false, getNoAttackerConfiguration());
+    }
+
+    @Test
+    public void testMicroaggregation() throws IOException {
+        testProsecutor(true, getAttackerConfiguration(PUBLISHER_LOSSES[1]));
+        testProsecutor(true, getNoAttackerConfiguration());
+    }
+
+    @Test
+    public void testProsecutorAttacker() throws IOException {
+        for (double publisherLoss : PUBLISHER_LOSSES) {
+            testProsecutor(false, getAttackerConfiguration(publisherLoss));
+        }
+        testProsecutor(false, getMixedConfiguration());
+    }
+
+    @Test
+    public void testProsecutorNoAttacker() throws IOException {
+        testProsecutor(false, getNoAttackerConfiguration());
+    }
+}
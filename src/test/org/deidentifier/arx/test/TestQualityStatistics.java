@@ -0,0 +1,98 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.aggregates.StatisticsQuality;
+import org.deidentifier.arx.aggregates.quality.QualityMeasureColumnOriented;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests quality statistics, which are computed concurrently from shared numeric conversions.
+ * Expected values have been computed with the implementation that evaluated all quality
+ * models one after another.
+ *
+ * @author Fabian Prasser
+ */
+public class TestQualityStatistics {
+
+    /** Attributes */
+    private static final String[] ATTRIBUTES = { "age", "sex", "zipcode", "education" };
+
+    /**
+     * Compares the values of the given measure
+     * @param measure
+     * @param expected
+     */
+    private void compare(QualityMeasureColumnOriented measure, double... expected) {
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            assertEquals(ATTRIBUTES[i], expected[i], measure.getValue(ATTRIBUTES[i]), 1e-12);
+        }
+    }
+
+    @Test
+    public void testInput() throws IOException {
+        StatisticsQuality quality = DataProviderSynthetic.getData(600, 7L).getHandle().getStatistics().getQualityStatistics();
+        assertEquals(1d, quality.getAmbiguity().getValue(), 1e-12);
+        assertEquals(1d, quality.getAverageClassSize().getValue(), 1e-12);
+        assertEquals(1d, quality.getDiscernibility().getValue(), 1e-12);
+        assertEquals(1d, quality.getRecordLevelSquaredError().getValue(), 1e-12);
+        assertEquals(1d, quality.getSSESST().getValue(), 1e-12);
+        compare(quality.getGranularity(), 1d, 1d, 1d, 1d);
+        compare(quality.getAttributeLevelSquaredError(), 1d, 1d, 1d, 1d);
+        compare(quality.getNonUniformEntropy(), 1d, 1d, 1d, 1d);
+        compare(quality.getGeneralizationIntensity(), 1d, 1d, 1d, 1d);
+        compare(quality.getMissings(), 0d, 0d, 0d, 0d);
+    }
+
+    @Test
+    public void testOutput() throws IOException {
+
+        // Anonymize
+        Data data = DataProviderSynthetic.getData(600, 7L);
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setSuppressionLimit(0.05d);
+        config.setQualityModel(Metric.createLossMetric());
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        assertArrayEquals(new int[] { 2, 0, 2, 1 }, result.getGlobalOptimum().getTransformation());
+
+        // Check
+        StatisticsQuality quality = result.getOutput().getStatistics().getQualityStatistics();
+        assertEquals(0.9702586366217628, quality.getAmbiguity().getValue(), 1e-12);
+        assertEquals(0.989603900552041, quality.getAverageClassSize().getValue(), 1e-12);
+        assertEquals(0.9673231347976339, quality.getDiscernibility().getValue(), 1e-12);
+        assertEquals(0.6960545615840389, quality.getRecordLevelSquaredError().getValue(), 1e-12);
+        assertEquals(0.916850278119378, quality.getSSESST().getValue(), 1e-12);
+        compare(quality.getGranularity(), 0.8375956284153017, 0.98, 0.736842105263158, 0.588);
+        compare(quality.getAttributeLevelSquaredError(), 0.9470786383012089, 0.98, 0.9217156380893945, 0.7814432989690722);
+        compare(quality.getNonUniformEntropy(), 0.4572923383124119, 0.9816327583804073, 0.24297033509929422, 0.3660953978498762);
+        compare(quality.getGeneralizationIntensity(), 0.49, 0.98, 0.49, 0.49);
+        compare(quality.getMissings(), 0.02, 0.02, 0.02, 0.02);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.risk.HIPAAIdentifierMatch;
+import org.deidentifier.arx.risk.HIPAAIdentifierMatch.HIPAAIdentifier;
+import org.deidentifier.arx.risk.HIPAAIdentifierMatch.MatchType;
+import org.junit.Test;
+
+/**
+ * Tests the detection of HIPAA identifiers
+ *
+ * @author Fabian Prasser
+ */
+public class TestRiskHIPAAIdentifiers {
+
+    /**
+     * Creates a dataset with several identifying attributes
+     * @return
+     */
+    private static DefaultData getData() {
+        DefaultData data = Data.create();
+        data.add("id", "name", "residence", "mail", "disease");
+        data.add("1", "dinah", "north spring", "dinah@example.com", "flu");
+        data.add("2", "morgana", "thonotosassa", "morgana@example.com", "gastritis");
+        data.add("3", "cheri", "jeannette", "cheri@example.com", "bronchitis");
+        data.add("4", "jeb", "herminie", "jeb@example.com", "pneumonia");
+        data.add("5", "twana", "timken", "twana@example.com", "gastric ulcer");
+        return data;
+    }
+
+    /**
+     * Returns the matches as strings, in the order reported
+     * @param matches
+     * @return
+     */
+    private static List<String> toList(HIPAAIdentifierMatch[] matches) {
+        List<String> result = new ArrayList<String>();
+        for (HIPAAIdentifierMatch match : matches) {
+            result.add(match.toString());
+        }
+        return result;
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+
+        // Reference
+        final List<String> expected = toList(getData().getHandle().getRiskEstimator().getHIPAAIdentifiers());
+
+        // Evaluate concurrently, each thread with its own handle
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() throws Exception {
+                        return toList(getData().getHandle().getRiskEstimator().getHIPAAIdentifiers());
+                    }
+                }));
+            }
+            for (Future<List<String>> future : futures) {
+                assertEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatches() {
+
+        DataHandle handle = getData().getHandle();
+        HIPAAIdentifierMatch[] matches = handle.getRiskEstimator().getHIPAAIdentifiers();
+
+        // Collect value matches per column
+        Set<String> found = new HashSet<String>();
+        for (HIPAAIdentifierMatch match : matches) {
+            if (match.getMatchType() == MatchType.ATTRIBUTE_VALUE) {
+                found.add(match.getColumn() + ":" + match.getIdentifier());
+            }
+        }
+
+        // Check
+        assertTrue(found.toString(), found.contains("name:" + HIPAAIdentifier.NAME));
+        assertTrue(found.toString(), found.contains("residence:" + HIPAAIdentifier.GEOGRAPHIC_SUBDIVISION));
+        assertTrue(found.toString(), found.contains("mail:" + HIPAAIdentifier.EMAIL_ADDRESS));
+        for (String match : found) {
+            assertFalse(match, match.startsWith("disease:"));
+        }
+
+        // Results are reported in the order of columns
+        int previous = 0;
+        List<String> columns = new ArrayList<String>();
+        for (int i = 0; i < handle.getNumColumns(); i++) {
+            columns.add(handle.getAttributeName(i));
+        }
+        for (HIPAAIdentifierMatch match : matches) {
+            int index = columns.indexOf(match.getColumn());
+            assertTrue(index >= previous);
+            previous = index;
+        }
+    }
+}
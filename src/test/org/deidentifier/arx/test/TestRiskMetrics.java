@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -24,6 +26,9 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,6 +43,7 @@ import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.io.CSVHierarchyInput;
 import org.deidentifier.arx.metric.Metric;
 import org.deidentifier.arx.metric.Metric.AggregateFunction;
+import org.deidentifier.arx.risk.RiskModelHistogram;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
 import org.junit.Test;
@@ -210,6 +216,28 @@ public class TestRiskMetrics {
         return Integer.compare((int) (val1 * 10000d), (int) (val2 * 10000d));
     }
     
+    /**
+     * Test sharing of equivalence classes between risk estimators of the same handle.
+     */
+    @Test
+    public void testEquivalenceClassCache() {
+        DataProvider provider = new DataProvider();
+        provider.createDataDefinition();
+        DataHandle handle = getAnonymizedData(provider.getData());
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        
+        // Same quasi-identifiers
+        RiskModelHistogram classes = handle.getRiskEstimator(population).getEquivalenceClassModel();
+        assertSame(classes, handle.getRiskEstimator(population).getEquivalenceClassModel());
+        
+        // Different quasi-identifiers
+        Set<String> qis = new HashSet<String>(Arrays.asList(handle.getAttributeName(0)));
+        RiskModelHistogram other = handle.getRiskEstimator(population, qis).getEquivalenceClassModel();
+        assertNotSame(classes, other);
+        assertSame(other, handle.getRiskEstimator(population, qis).getEquivalenceClassModel());
+        assertSame(classes, handle.getRiskEstimator(population).getEquivalenceClassModel());
+    }
+    
     /**
      * Test highest individual risk using the test dataset.
      */
@@ -0,0 +1,99 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests the lower bound of the classification model. Expected values have been computed with the
+ * implementation that sorted boxed row indices.
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsClassification {
+
+    /**
+     * Anonymizes the synthetic dataset and returns the lower bound, after
+     * checking it against the information loss of all transformations
+     * @param suppressionLimit
+     * @param responseVariables
+     * @return
+     * @throws IOException
+     */
+    private double test(double suppressionLimit, String... responseVariables) throws IOException {
+
+        // Anonymize. Only few quasi-identifiers are used, so that classes in the input are large.
+        Data data = DataProviderSynthetic.getData(600, 7L);
+        data.getDefinition().setAttributeType("age", AttributeType.INSENSITIVE_ATTRIBUTE);
+        data.getDefinition().setAttributeType("zipcode", AttributeType.INSENSITIVE_ATTRIBUTE);
+        for (String attribute : responseVariables) {
+            data.getDefinition().setResponseVariable(attribute, true);
+        }
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setSuppressionLimit(suppressionLimit);
+        config.setQualityModel(Metric.createClassificationMetric());
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+
+        // The bound does not depend on the transformation
+        ARXLattice lattice = result.getLattice();
+        SolutionSpace space = new SolutionSpace(lattice.getBottom().getTransformation(), lattice.getTop().getTransformation());
+        InformationLoss<?> bound = result.getConfiguration().getQualityModel().getLowerBound(space.getBottom());
+
+        // Check all transformations
+        for (ARXNode[] level : lattice.getLevels()) {
+            for (ARXNode node : level) {
+                result.getOutput(node, false).release();
+                assertTrue(Arrays.toString(node.getTransformation()), bound.compareTo(node.getHighestScore()) <= 0);
+            }
+        }
+        return (Double) bound.getValue();
+    }
+
+    @Test
+    public void testMultipleResponseVariables() throws IOException {
+        assertEquals(0.7675000000000001, test(0.05d, "disease", "income"), 0d);
+    }
+
+    @Test
+    public void testSingleResponseVariable() throws IOException {
+        assertEquals(0.2841666666666667, test(0.05d, "disease"), 0d);
+    }
+
+    @Test
+    public void testWithoutSuppression() throws IOException {
+        assertEquals(0.2841666666666667, test(0d, "disease"), 0d);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.ExhaustiveEvaluation.Entry;
+import org.junit.Test;
+
+/**
+ * Compares the KL divergence, which is evaluated over distinct input tuples, with a
+ * record-by-record computation for all anonymous transformations
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsKLDivergence {
+
+    /**
+     * Increments the counter for the given key
+     * @param map
+     * @param key
+     */
+    private static void increment(Map<List<String>, Integer> map, List<String> key) {
+        Integer count = map.get(key);
+        map.put(key, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Computes the KL divergence record by record
+     * @param data
+     * @param output
+     * @param node
+     * @return
+     */
+    private double getKLDivergence(Data data, DataHandle output, ARXNode node) {
+
+        // Prepare
+        DataHandle input = data.getHandle();
+        String[] attributes = node.getQuasiIdentifyingAttributes();
+        int rows = input.getNumRows();
+
+        // Sizes of the domains covered by generalized values
+        @SuppressWarnings("unchecked")
+        Map<String, Integer>[] sizes = new Map[attributes.length];
+        double maximalArea = 1d;
+        for (int i = 0; i < attributes.length; i++) {
+            String[][] hierarchy = data.getDefinition().getHierarchy(attributes[i]);
+            int level = node.getGeneralization(attributes[i]);
+            sizes[i] = new HashMap<String, Integer>();
+            for (String[] values : hierarchy) {
+                Integer size = sizes[i].get(values[level]);
+                sizes[i].put(values[level], size == null ? 1 : size + 1);
+            }
+            maximalArea *= hierarchy.length;
+        }
+
+        // Frequencies of input tuples and output classes
+        Map<List<String>, Integer> inputCounts = new HashMap<List<String>, Integer>();
+        Map<List<String>, Integer> outputCounts = new HashMap<List<String>, Integer>();
+        int outliers = 0;
+        for (int row = 0; row < rows; row++) {
+            increment(inputCounts, getTuple(input, row, attributes));
+            if (output.isOutlier(row)) {
+                outliers++;
+            } else {
+                increment(outputCounts, getTuple(output, row, attributes));
+            }
+        }
+
+        // Sum up contributions of all records
+        double result = 0d;
+        for (int row = 0; row < rows; row++) {
+            double inputFrequency = (double) inputCounts.get(getTuple(input, row, attributes)) / (double) rows;
+            double outputFrequency;
+            if (output.isOutlier(row)) {
+                outputFrequency = (double) outliers / (double) rows / maximalArea;
+            } else {
+                List<String> tuple = getTuple(output, row, attributes);
+                double area = 1d;
+                for (int i = 0; i < attributes.length; i++) {
+                    area *= sizes[i].get(tuple.get(i));
+                }
+                outputFrequency = (double) outputCounts.get(tuple) / (double) rows / area;
+            }
+            result += inputFrequency * Math.log(inputFrequency / outputFrequency) / Math.log(2d);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of the given attributes
+     * @param handle
+     * @param row
+     * @param attributes
+     * @return
+     */
+    private List<String> getTuple(DataHandle handle, int row, String[] attributes) {
+        String[] tuple = new String[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            tuple[i] = handle.getValue(row, handle.getColumnIndexOf(attributes[i]));
+        }
+        return Arrays.asList(tuple);
+    }
+
+    /**
+     * Compares the KL divergence of all anonymous transformations with the record-by-record computation
+     * @param rows
+     * @param seed
+     * @param k
+     * @param suppressionLimit
+     * @throws IOException
+     */
+    private void test(int rows, long seed, int k, double suppressionLimit) throws IOException {
+
+        // Anonymize
+        Data data = DataProviderSynthetic.getData(rows, seed);
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(k));
+        config.setSuppressionLimit(suppressionLimit);
+        config.setQualityModel(Metric.createKLDivergenceMetric());
+        ExhaustiveEvaluation evaluation = ExhaustiveEvaluation.evaluate(data, config);
+        assertTrue(evaluation.getEntries().size() > 1);
+
+        // Compare
+        for (Entry entry : evaluation.getEntries()) {
+            String label = Arrays.toString(entry.transformation);
+            ARXNode node = evaluation.getNode(entry.transformation);
+            assertNotNull(label, node);
+            assertEquals(label, 0, node.getLowestScore().compareTo(node.getHighestScore()));
+            DataHandle output = evaluation.getResult().getOutput(node, false);
+            double expected = getKLDivergence(data, output, node);
+            output.release();
+            double actual = (Double) entry.loss.getValue();
+            assertEquals(label, expected, actual, Math.max(1d, Math.abs(expected)) * 1e-9d);
+        }
+    }
+
+    @Test
+    public void testWithoutSuppression() throws IOException {
+        test(500, 17L, 2, 0d);
+        test(1000, 19L, 5, 0d);
+    }
+
+    @Test
+    public void testWithSuppression() throws IOException {
+        test(500, 17L, 2, 0.05d);
+        test(1000, 19L, 5, 0.1d);
+        test(300, 23L, 10, 0.5d);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.AverageReidentificationRisk;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.ExplicitPrivacyCriterion;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests the information loss of models which account for suppressed classes with aggregates
+ * that are maintained while building classes. Expected values are computed by iterating over
+ * all classes, as the previous implementation did.
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsSuppressedClasses {
+
+    /**
+     * Sizes and suppression states of all classes of a transformation
+     *
+     * @author Fabian Prasser
+     */
+    private static class Classes {
+
+        /** Class -> size */
+        private final Map<List<String>, Integer> sizes      = new HashMap<List<String>, Integer>();
+
+        /** Class -> suppressed */
+        private final Map<List<String>, Boolean> suppressed = new HashMap<List<String>, Boolean>();
+    }
+
+    /**
+     * Returns the classes of the given transformation with the suppression states found in the output
+     * @param data
+     * @param node
+     * @param output
+     * @return
+     */
+    private Classes getClasses(Data data, ARXNode node, DataHandle output) {
+
+        // Prepare generalization
+        String[] attributes = node.getQuasiIdentifyingAttributes();
+        DataHandle input = data.getHandle();
+        List<Map<String, String>> generalization = new ArrayList<Map<String, String>>();
+        for (int i = 0; i < attributes.length; i++) {
+            Map<String, String> map = new HashMap<String, String>();
+            int level = node.getGeneralization(attributes[i]);
+            for (String[] values : data.getDefinition().getHierarchy(attributes[i])) {
+                map.put(values[0], values[level]);
+            }
+            generalization.add(map);
+        }
+
+        // Build classes
+        Classes classes = new Classes();
+        for (int row = 0; row < input.getNumRows(); row++) {
+            String[] key = new String[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                key[i] = generalization.get(i).get(input.getValue(row, input.getColumnIndexOf(attributes[i])));
+            }
+            List<String> _key = Arrays.asList(key);
+            Integer size = classes.sizes.get(_key);
+            classes.sizes.put(_key, size == null ? 1 : size + 1);
+            Boolean suppressed = classes.suppressed.get(_key);
+            if (suppressed != null && suppressed != output.isOutlier(row)) {
+                throw new IllegalStateException("Class is partially suppressed");
+            }
+            classes.suppressed.put(_key, output.isOutlier(row));
+        }
+        return classes;
+    }
+
+    /**
+     * Computes the AECS by iterating over all classes
+     * @param classes
+     * @param metric
+     * @param rows
+     * @return
+     */
+    private double getAECS(Classes classes, Metric<?> metric, double rows) {
+        double groupsWithSuppression = 0;
+        double gFactor = metric.getSuppressionFactor(); // Note: factors are switched on purpose
+        double sFactor = metric.getGeneralizationFactor(); // Note: factors are switched on purpose
+        for (List<String> key : classes.sizes.keySet()) {
+            groupsWithSuppression += classes.suppressed.get(key) ? 0 : 1;
+        }
+        boolean someRecordsSuppressed = (groupsWithSuppression != classes.sizes.size());
+        groupsWithSuppression *= gFactor;
+        groupsWithSuppression = !someRecordsSuppressed ? groupsWithSuppression : groupsWithSuppression + 1 * sFactor;
+        return rows / groupsWithSuppression;
+    }
+
+    /**
+     * Computes the discernibility by iterating over all classes
+     * @param classes
+     * @param rows
+     * @return
+     */
+    private double getDiscernibility(Classes classes, double rows) {
+        double dm = 0;
+        for (List<String> key : classes.sizes.keySet()) {
+            double count = (double) classes.sizes.get(key);
+            dm += classes.suppressed.get(key) ? rows * count : count * count;
+        }
+        return dm;
+    }
+
+    /**
+     * Anonymizes the synthetic dataset and compares the information loss of all anonymous transformations
+     * @param metric
+     * @param aecs Whether the metric is AECS or discernibility
+     * @param suppressionLimit
+     * @param criteria
+     * @throws IOException
+     */
+    private void test(Metric<?> metric, boolean aecs, double suppressionLimit, PrivacyCriterion... criteria) throws IOException {
+
+        // Anonymize
+        Data data = DataProviderSynthetic.getData(600, 7L);
+        ARXConfiguration config = ARXConfiguration.create();
+        for (PrivacyCriterion criterion : criteria) {
+            if (criterion instanceof ExplicitPrivacyCriterion) {
+                data.getDefinition().setAttributeType(((ExplicitPrivacyCriterion) criterion).getAttribute(), AttributeType.SENSITIVE_ATTRIBUTE);
+            }
+            config.addPrivacyModel(criterion);
+        }
+        config.setSuppressionLimit(suppressionLimit);
+        config.setQualityModel(metric);
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+
+        // Check all transformations
+        int withSuppression = 0;
+        double rows = data.getHandle().getNumRows();
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                DataHandle output = result.getOutput(node, false);
+                if (node.getAnonymity() == Anonymity.ANONYMOUS) {
+                    Classes classes = getClasses(data, node, output);
+                    double expected = aecs ? getAECS(classes, metric, rows) : getDiscernibility(classes, rows);
+                    assertEquals(Arrays.toString(node.getTransformation()), expected, (Double) node.getHighestScore().getValue(), 0d);
+                    withSuppression += classes.suppressed.containsValue(true) ? 1 : 0;
+                }
+                output.release();
+            }
+        }
+        assertTrue(withSuppression > 0);
+    }
+
+    @Test
+    public void testAECSWithClassBasedCriterion() throws IOException {
+        test(Metric.createAECSMetric(), true, 0.2d, new KAnonymity(3), new DistinctLDiversity("disease", 2));
+    }
+
+    @Test
+    public void testAECSWithKAnonymity() throws IOException {
+        test(Metric.createAECSMetric(), true, 0.1d, new KAnonymity(5));
+    }
+
+    @Test
+    public void testAECSWithSampleBasedCriterion() throws IOException {
+        test(Metric.createAECSMetric(), true, 0.2d, new AverageReidentificationRisk(0.5d, 0.2d, 0.1d));
+    }
+
+    @Test
+    public void testDiscernibilityWithClassBasedCriterion() throws IOException {
+        test(Metric.createDiscernabilityMetric(false), false, 0.2d, new KAnonymity(3), new DistinctLDiversity("disease", 2));
+    }
+
+    @Test
+    public void testDiscernibilityWithKAnonymity() throws IOException {
+        test(Metric.createDiscernabilityMetric(false), false, 0.1d, new KAnonymity(5));
+    }
+
+    @Test
+    public void testDiscernibilityWithSampleBasedCriterion() throws IOException {
+        test(Metric.createDiscernabilityMetric(false), false, 0.2d, new AverageReidentificationRisk(0.5d, 0.2d, 0.1d));
+    }
+}